@@ -52,6 +52,7 @@ import org.eclipse.jetty.io.ClientConnectionFactory;
 import org.eclipse.jetty.io.ClientConnector;
 import org.eclipse.jetty.io.Transport;
 import org.eclipse.jetty.io.ssl.SslClientConnectionFactory;
+import org.eclipse.jetty.util.CachingSocketAddressResolver;
 import org.eclipse.jetty.util.Fields;
 import org.eclipse.jetty.util.Jetty;
 import org.eclipse.jetty.util.ProcessorUtils;
@@ -130,6 +131,7 @@ public class HttpClient extends ContainerLifeCycle implements AutoCloseable
     private int maxResponseHeadersSize = -1;
     private int maxRedirects = 8;
     private long addressResolutionTimeout = 15000;
+    private long addressResolutionCacheTTL;
     private boolean strictEventOrdering = false;
     private long destinationIdleTimeout;
     private String name = "%s@%x".formatted(getClass().getSimpleName(), hashCode());
@@ -204,7 +206,20 @@ public class HttpClient extends ContainerLifeCycle implements AutoCloseable
         }
 
         if (resolver == null)
-            setSocketAddressResolver(new SocketAddressResolver.Async(getExecutor(), scheduler, getAddressResolutionTimeout()));
+        {
+            SocketAddressResolver async = new SocketAddressResolver.Async(getExecutor(), scheduler, getAddressResolutionTimeout());
+            long cacheTTL = getAddressResolutionCacheTTL();
+            if (cacheTTL > 0)
+            {
+                CachingSocketAddressResolver caching = new CachingSocketAddressResolver(async);
+                caching.setPositiveTTL(cacheTTL);
+                setSocketAddressResolver(caching);
+            }
+            else
+            {
+                setSocketAddressResolver(async);
+            }
+        }
 
         handlers.put(new ContinueProtocolHandler());
         handlers.put(new ProcessingProtocolHandler());
@@ -682,6 +697,31 @@ public class HttpClient extends ContainerLifeCycle implements AutoCloseable
         this.addressResolutionTimeout = addressResolutionTimeout;
     }
 
+    /**
+     * @return the time, in milliseconds, the default {@link SocketAddressResolver} created at startup caches resolved addresses
+     * @see #setAddressResolutionCacheTTL(long)
+     */
+    public long getAddressResolutionCacheTTL()
+    {
+        return addressResolutionCacheTTL;
+    }
+
+    /**
+     * <p>Sets the time the default {@link SocketAddressResolver} created by this HttpClient
+     * at startup caches resolved addresses.</p>
+     * <p>When positive, the default {@link SocketAddressResolver} is a
+     * {@link CachingSocketAddressResolver}, that can be further configured at runtime,
+     * for example via JMX.</p>
+     *
+     * @param addressResolutionCacheTTL the time, in milliseconds, resolved addresses are cached,
+     * or zero to not cache resolved addresses
+     * @see #setSocketAddressResolver(SocketAddressResolver)
+     */
+    public void setAddressResolutionCacheTTL(long addressResolutionCacheTTL)
+    {
+        this.addressResolutionCacheTTL = addressResolutionCacheTTL;
+    }
+
     /**
      * @return the max time, in milliseconds, a connection can be idle (that is, without traffic of bytes in either direction)
      */
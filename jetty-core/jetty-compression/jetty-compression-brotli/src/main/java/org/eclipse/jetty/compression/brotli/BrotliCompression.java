@@ -0,0 +1,331 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.compression.brotli;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder.Mode;
+import com.aayushatharva.brotli4j.encoder.EncoderJNI;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.compression.Compression;
+import org.eclipse.jetty.util.compression.CompressionPool;
+
+/**
+ * <p>The {@code br} {@link Compression}, as specified by RFC 7932,
+ * that uses the native encoder of the Brotli4j library.</p>
+ * <p>This class is registered as a {@link java.util.ServiceLoader} service, so that
+ * it is discovered by {@link Compression#loadAll()} when this module is in the
+ * class-path or module-path, along with the Brotli4j native library for the
+ * platform, for example {@code com.aayushatharva.brotli4j:native-linux-x86_64}.
+ * If the native library cannot be loaded, the service is skipped.</p>
+ * <p>Native encoders are pooled. A native encoder cannot be reset once it has
+ * encoded a stream, so it is replaced with a new one when it is returned to the
+ * pool, rather than allocated when a response needs it.</p>
+ */
+@ManagedObject
+public class BrotliCompression extends Compression
+{
+    public static final int DEFAULT_QUALITY = 5;
+    public static final int DEFAULT_WINDOW = 22;
+
+    private int _quality = DEFAULT_QUALITY;
+    private int _window = DEFAULT_WINDOW;
+    private int _inputBufferSize = 16 * 1024;
+    private EncoderPool _encoderPool;
+
+    /**
+     * @throws UnsatisfiedLinkError if the Brotli native library cannot be loaded
+     */
+    public BrotliCompression()
+    {
+        super("br", ".br");
+        Brotli4jLoader.ensureAvailability();
+    }
+
+    /**
+     * @return the compression quality, from 0 (fastest) to 11 (smallest)
+     */
+    @ManagedAttribute("The compression quality, from 0 (fastest) to 11 (smallest)")
+    public int getQuality()
+    {
+        return _quality;
+    }
+
+    /**
+     * <p>Sets the compression quality.</p>
+     * <p>The default quality of {@value #DEFAULT_QUALITY} is suited to compress dynamic content,
+     * while higher qualities are only suited to compress content once, for example when
+     * generating pre-compressed variants of static resources.</p>
+     *
+     * @param quality the compression quality, from 0 (fastest) to 11 (smallest)
+     */
+    public void setQuality(int quality)
+    {
+        if (isStarted())
+            throw new IllegalStateException("Already Started");
+        if (quality < 0 || quality > 11)
+            throw new IllegalArgumentException("Invalid quality " + quality);
+        _quality = quality;
+    }
+
+    /**
+     * @return the base 2 logarithm of the sliding window size
+     */
+    @ManagedAttribute("The base 2 logarithm of the sliding window size")
+    public int getWindow()
+    {
+        return _window;
+    }
+
+    /**
+     * @param window the base 2 logarithm of the sliding window size, from 10 to 24
+     */
+    public void setWindow(int window)
+    {
+        if (isStarted())
+            throw new IllegalStateException("Already Started");
+        if (window < 10 || window > 24)
+            throw new IllegalArgumentException("Invalid window " + window);
+        _window = window;
+    }
+
+    /**
+     * @return the size of the native input buffer of each encoder
+     */
+    @ManagedAttribute("The size of the native input buffer of each encoder")
+    public int getInputBufferSize()
+    {
+        return _inputBufferSize;
+    }
+
+    /**
+     * @param inputBufferSize the size of the native input buffer of each encoder
+     */
+    public void setInputBufferSize(int inputBufferSize)
+    {
+        if (isStarted())
+            throw new IllegalStateException("Already Started");
+        if (inputBufferSize <= 0)
+            throw new IllegalArgumentException("Invalid input buffer size " + inputBufferSize);
+        _inputBufferSize = inputBufferSize;
+    }
+
+    @Override
+    protected void doStart() throws Exception
+    {
+        _encoderPool = new EncoderPool(CompressionPool.DEFAULT_CAPACITY, getInputBufferSize(), getQuality(), getWindow());
+        addBean(_encoderPool, true);
+        super.doStart();
+    }
+
+    @Override
+    protected void doStop() throws Exception
+    {
+        super.doStop();
+        removeBean(_encoderPool);
+        _encoderPool = null;
+    }
+
+    @Override
+    public Encoder newEncoder(boolean syncFlush)
+    {
+        return new BrotliEncoder(_encoderPool.acquire(), syncFlush);
+    }
+
+    private static class Context
+    {
+        private EncoderJNI.Wrapper _wrapper;
+        private boolean _used;
+    }
+
+    private static class EncoderPool extends CompressionPool<Context>
+    {
+        private final int _inputBufferSize;
+        private final int _quality;
+        private final int _window;
+
+        private EncoderPool(int capacity, int inputBufferSize, int quality, int window)
+        {
+            super(capacity);
+            _inputBufferSize = inputBufferSize;
+            _quality = quality;
+            _window = window;
+        }
+
+        @Override
+        protected Context newPooled()
+        {
+            Context context = new Context();
+            context._wrapper = newWrapper();
+            return context;
+        }
+
+        @Override
+        protected void end(Context context)
+        {
+            context._wrapper.destroy();
+        }
+
+        @Override
+        protected void reset(Context context)
+        {
+            // A native encoder that has been used cannot be reset, so it is replaced.
+            if (context._used)
+            {
+                context._wrapper.destroy();
+                context._wrapper = newWrapper();
+                context._used = false;
+            }
+        }
+
+        private EncoderJNI.Wrapper newWrapper()
+        {
+            try
+            {
+                return new EncoderJNI.Wrapper(_inputBufferSize, _quality, _window, Mode.GENERIC);
+            }
+            catch (IOException x)
+            {
+                throw new UncheckedIOException(x);
+            }
+        }
+    }
+
+    private static class BrotliEncoder implements Encoder
+    {
+        private final CompressionPool<Context>.Entry _entry;
+        private final EncoderJNI.Wrapper _wrapper;
+        private final boolean _syncFlush;
+        private ByteBuffer _input;
+        // The output pulled from the native encoder, that must be
+        // fully consumed before the native encoder is used again.
+        private ByteBuffer _output;
+        private EncoderJNI.Operation _operation = EncoderJNI.Operation.PROCESS;
+        private boolean _flush;
+        private boolean _finishing;
+        private boolean _finished;
+
+        private BrotliEncoder(CompressionPool<Context>.Entry entry, boolean syncFlush)
+        {
+            _entry = entry;
+            _wrapper = entry.get()._wrapper;
+            _syncFlush = syncFlush;
+        }
+
+        @Override
+        public void setInput(ByteBuffer input)
+        {
+            _input = input;
+            _flush = _syncFlush;
+        }
+
+        @Override
+        public void finish()
+        {
+            _finishing = true;
+        }
+
+        @Override
+        public int encode(ByteBuffer output)
+        {
+            int position = output.position();
+            while (output.hasRemaining())
+            {
+                if (_output != null && _output.hasRemaining())
+                {
+                    int length = Math.min(_output.remaining(), output.remaining());
+                    output.put(_output.slice(_output.position(), length));
+                    _output.position(_output.position() + length);
+                    continue;
+                }
+
+                if (!_wrapper.isSuccess())
+                    throw new IllegalStateException("Brotli encoding failed");
+
+                if (_wrapper.hasMoreOutput())
+                {
+                    _output = _wrapper.pull();
+                }
+                else if (_wrapper.hasRemainingInput())
+                {
+                    // Continue the current operation.
+                    _wrapper.push(_operation, 0);
+                }
+                else if (_input != null && _input.hasRemaining())
+                {
+                    ByteBuffer buffer = _wrapper.getInputBuffer();
+                    buffer.clear();
+                    int length = Math.min(buffer.remaining(), _input.remaining());
+                    buffer.put(_input.slice(_input.position(), length));
+                    _input.position(_input.position() + length);
+                    _entry.get()._used = true;
+                    _operation = EncoderJNI.Operation.PROCESS;
+                    _wrapper.push(_operation, length);
+                }
+                else if (_finishing && !_finished)
+                {
+                    _finished = true;
+                    _entry.get()._used = true;
+                    _operation = EncoderJNI.Operation.FINISH;
+                    _wrapper.push(_operation, 0);
+                }
+                else if (_flush && !_finishing)
+                {
+                    _flush = false;
+                    _entry.get()._used = true;
+                    _operation = EncoderJNI.Operation.FLUSH;
+                    _wrapper.push(_operation, 0);
+                }
+                else
+                {
+                    break;
+                }
+            }
+            return output.position() - position;
+        }
+
+        @Override
+        public boolean needsInput()
+        {
+            return !_finishing && !_flush && (_input == null || !_input.hasRemaining()) && isDrained();
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return _finished && isDrained() && _wrapper.isFinished();
+        }
+
+        private boolean isDrained()
+        {
+            return (_output == null || !_output.hasRemaining()) && !_wrapper.hasMoreOutput() && !_wrapper.hasRemainingInput();
+        }
+
+        @Override
+        public void close()
+        {
+            _entry.release();
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x{finishing=%b,finished=%b}", getClass().getSimpleName(), hashCode(), _finishing, _finished);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.compression.zstd;
+
+import java.nio.ByteBuffer;
+
+import com.github.luben.zstd.EndDirective;
+import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.util.Native;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.compression.Compression;
+import org.eclipse.jetty.util.compression.CompressionPool;
+
+/**
+ * <p>The {@code zstd} {@link Compression}, as specified by RFC 8878,
+ * that uses the native compression contexts of the zstd-jni library.</p>
+ * <p>This class is registered as a {@link java.util.ServiceLoader} service, so that
+ * it is discovered by {@link Compression#loadAll()} when this module is in the
+ * class-path or module-path.
+ * If the native library cannot be loaded, the service is skipped.</p>
+ * <p>Compression contexts, along with the native buffers they read from and
+ * write to, are pooled and reused.</p>
+ */
+@ManagedObject
+public class ZstdCompression extends Compression
+{
+    public static final int DEFAULT_LEVEL = 3;
+
+    private int _level = DEFAULT_LEVEL;
+    private int _bufferSize = 32 * 1024;
+    private ContextPool _contextPool;
+
+    /**
+     * @throws UnsatisfiedLinkError if the zstd native library cannot be loaded
+     */
+    public ZstdCompression()
+    {
+        super("zstd", ".zst");
+        Native.load();
+    }
+
+    /**
+     * @return the compression level
+     */
+    @ManagedAttribute("The compression level")
+    public int getLevel()
+    {
+        return _level;
+    }
+
+    /**
+     * <p>Sets the compression level, from 1 (fastest) to 19 (smallest).</p>
+     * <p>Negative levels trade compression ratio for even faster compression.</p>
+     *
+     * @param level the compression level
+     */
+    public void setLevel(int level)
+    {
+        if (isStarted())
+            throw new IllegalStateException("Already Started");
+        _level = level;
+    }
+
+    /**
+     * @return the size of the native input and output buffers of each compression context
+     */
+    @ManagedAttribute("The size of the native input and output buffers of each compression context")
+    public int getBufferSize()
+    {
+        return _bufferSize;
+    }
+
+    /**
+     * @param bufferSize the size of the native input and output buffers of each compression context
+     */
+    public void setBufferSize(int bufferSize)
+    {
+        if (isStarted())
+            throw new IllegalStateException("Already Started");
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException("Invalid buffer size " + bufferSize);
+        _bufferSize = bufferSize;
+    }
+
+    @Override
+    protected void doStart() throws Exception
+    {
+        _contextPool = new ContextPool(CompressionPool.DEFAULT_CAPACITY, getLevel(), getBufferSize());
+        addBean(_contextPool, true);
+        super.doStart();
+    }
+
+    @Override
+    protected void doStop() throws Exception
+    {
+        super.doStop();
+        removeBean(_contextPool);
+        _contextPool = null;
+    }
+
+    @Override
+    public Encoder newEncoder(boolean syncFlush)
+    {
+        return new ZstdEncoder(_contextPool.acquire(), syncFlush);
+    }
+
+    private static class Context
+    {
+        private final ZstdCompressCtx _ctx = new ZstdCompressCtx();
+        private final ByteBuffer _input;
+        private final ByteBuffer _output;
+
+        private Context(int bufferSize)
+        {
+            _input = ByteBuffer.allocateDirect(bufferSize);
+            _output = ByteBuffer.allocateDirect(bufferSize);
+        }
+    }
+
+    private static class ContextPool extends CompressionPool<Context>
+    {
+        private final int _level;
+        private final int _bufferSize;
+
+        private ContextPool(int capacity, int level, int bufferSize)
+        {
+            super(capacity);
+            _level = level;
+            _bufferSize = bufferSize;
+        }
+
+        @Override
+        protected Context newPooled()
+        {
+            Context context = new Context(_bufferSize);
+            reset(context);
+            return context;
+        }
+
+        @Override
+        protected void end(Context context)
+        {
+            context._ctx.close();
+        }
+
+        @Override
+        protected void reset(Context context)
+        {
+            // Resetting a context also resets its parameters.
+            context._ctx.reset();
+            context._ctx.setLevel(_level);
+            context._ctx.setChecksum(true);
+            // Both buffers are kept in flush mode.
+            context._input.clear().flip();
+            context._output.clear().flip();
+        }
+    }
+
+    private static class ZstdEncoder implements Encoder
+    {
+        private final CompressionPool<Context>.Entry _entry;
+        private final boolean _syncFlush;
+        private ByteBuffer _input;
+        private boolean _flush;
+        private boolean _finishing;
+        private boolean _finished;
+
+        private ZstdEncoder(CompressionPool<Context>.Entry entry, boolean syncFlush)
+        {
+            _entry = entry;
+            _syncFlush = syncFlush;
+        }
+
+        @Override
+        public void setInput(ByteBuffer input)
+        {
+            _input = input;
+            _flush = _syncFlush;
+        }
+
+        @Override
+        public void finish()
+        {
+            _finishing = true;
+        }
+
+        @Override
+        public int encode(ByteBuffer output)
+        {
+            Context context = _entry.get();
+            ByteBuffer nativeInput = context._input;
+            ByteBuffer nativeOutput = context._output;
+            int position = output.position();
+            while (output.hasRemaining())
+            {
+                if (nativeOutput.hasRemaining())
+                {
+                    int length = Math.min(nativeOutput.remaining(), output.remaining());
+                    output.put(nativeOutput.slice(nativeOutput.position(), length));
+                    nativeOutput.position(nativeOutput.position() + length);
+                    continue;
+                }
+
+                if (_finished)
+                    break;
+
+                boolean hasInput = _input != null && _input.hasRemaining();
+                if (!nativeInput.hasRemaining() && hasInput)
+                {
+                    nativeInput.clear();
+                    int length = Math.min(nativeInput.remaining(), _input.remaining());
+                    nativeInput.put(_input.slice(_input.position(), length));
+                    _input.position(_input.position() + length);
+                    nativeInput.flip();
+                    hasInput = _input.hasRemaining();
+                }
+
+                EndDirective directive;
+                if (hasInput)
+                    directive = EndDirective.CONTINUE;
+                else if (_finishing)
+                    directive = EndDirective.END;
+                else if (_flush)
+                    directive = EndDirective.FLUSH;
+                else if (nativeInput.hasRemaining())
+                    directive = EndDirective.CONTINUE;
+                else
+                    break;
+
+                nativeOutput.clear();
+                boolean done = context._ctx.compressDirectByteBufferStream(nativeOutput, nativeInput, directive);
+                nativeOutput.flip();
+                if (done && directive == EndDirective.END)
+                    _finished = true;
+                else if (done && directive == EndDirective.FLUSH)
+                    _flush = false;
+            }
+            return output.position() - position;
+        }
+
+        @Override
+        public boolean needsInput()
+        {
+            Context context = _entry.get();
+            return !_finishing && !_flush &&
+                (_input == null || !_input.hasRemaining()) &&
+                !context._input.hasRemaining() &&
+                !context._output.hasRemaining();
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return _finished && !_entry.get()._output.hasRemaining();
+        }
+
+        @Override
+        public void close()
+        {
+            _entry.release();
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x{finishing=%b,finished=%b}", getClass().getSimpleName(), hashCode(), _finishing, _finished);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+
+package org.eclipse.jetty.http;
+
+import java.util.List;
+
+import org.eclipse.jetty.util.StringUtil;
+
+/**
+ * <p>The priority of an HTTP response, as defined by
+ * <a href="https://datatracker.ietf.org/doc/html/rfc9218">RFC 9218</a>.</p>
+ * <p>A priority is made of an urgency, from {@value #HIGHEST_URGENCY} (the most urgent)
+ * to {@value #LOWEST_URGENCY} (the least urgent), and of a flag that tells whether the
+ * response can be processed incrementally by the client, so that it may be interleaved
+ * with other responses with the same urgency.</p>
+ * <p>Priorities are carried by the {@code Priority} header, and by
+ * {@code PRIORITY_UPDATE} frames in HTTP/2 and HTTP/3.</p>
+ *
+ * @see PriorityScheduler
+ */
+public final class ExtensiblePriority
+{
+    public static final int HIGHEST_URGENCY = 0;
+    public static final int LOWEST_URGENCY = 7;
+    public static final int DEFAULT_URGENCY = 3;
+
+    private static final ExtensiblePriority[] PRIORITIES = new ExtensiblePriority[2 * (LOWEST_URGENCY + 1)];
+
+    static
+    {
+        for (int urgency = HIGHEST_URGENCY; urgency <= LOWEST_URGENCY; ++urgency)
+        {
+            PRIORITIES[2 * urgency] = new ExtensiblePriority(urgency, false);
+            PRIORITIES[2 * urgency + 1] = new ExtensiblePriority(urgency, true);
+        }
+    }
+
+    /**
+     * The default priority, with urgency {@value #DEFAULT_URGENCY} and not incremental.
+     */
+    public static final ExtensiblePriority DEFAULT = of(DEFAULT_URGENCY, false);
+
+    /**
+     * @param urgency the urgency, from {@value #HIGHEST_URGENCY} to {@value #LOWEST_URGENCY}
+     * @param incremental whether the response can be processed incrementally
+     * @return the priority with the given urgency and incremental flag
+     * @throws IllegalArgumentException if the urgency is out of range
+     */
+    public static ExtensiblePriority of(int urgency, boolean incremental)
+    {
+        if (urgency < HIGHEST_URGENCY || urgency > LOWEST_URGENCY)
+            throw new IllegalArgumentException("Invalid urgency " + urgency);
+        return PRIORITIES[2 * urgency + (incremental ? 1 : 0)];
+    }
+
+    /**
+     * <p>Returns the priority carried by the {@code Priority} headers of the given fields.</p>
+     *
+     * @param fields the HTTP fields, may be {@code null}
+     * @return the priority from the fields, or {@link #DEFAULT} if the fields have no {@code Priority} header
+     */
+    public static ExtensiblePriority from(HttpFields fields)
+    {
+        if (fields == null)
+            return DEFAULT;
+        List<String> values = fields.getValuesList(HttpHeader.PRIORITY);
+        if (values.isEmpty())
+            return DEFAULT;
+        // Multiple header lines are combined into a single dictionary,
+        // where a later member overrides an earlier one with the same key.
+        ExtensiblePriority priority = DEFAULT;
+        for (String value : values)
+        {
+            priority = parse(priority, value);
+        }
+        return priority;
+    }
+
+    /**
+     * <p>Parses the given {@code Priority} field value.</p>
+     * <p>Unknown members, as well as members with invalid values, are ignored,
+     * and missing members take their default value.</p>
+     *
+     * @param value the {@code Priority} field value, for example {@code u=1, i}
+     * @return the priority parsed from the field value
+     */
+    public static ExtensiblePriority from(String value)
+    {
+        return parse(DEFAULT, value);
+    }
+
+    private static ExtensiblePriority parse(ExtensiblePriority priority, String value)
+    {
+        if (StringUtil.isBlank(value))
+            return priority;
+
+        int urgency = priority.getUrgency();
+        boolean incremental = priority.isIncremental();
+        for (String member : StringUtil.csvSplit(value))
+        {
+            // Parameters of members are not used by RFC 9218.
+            int semicolon = member.indexOf(';');
+            if (semicolon >= 0)
+                member = member.substring(0, semicolon).trim();
+            int equals = member.indexOf('=');
+            String key = equals < 0 ? member : member.substring(0, equals).trim();
+            String item = equals < 0 ? null : member.substring(equals + 1).trim();
+            switch (key)
+            {
+                case "u" ->
+                {
+                    if (item != null && item.length() == 1)
+                    {
+                        int digit = item.charAt(0) - '0';
+                        if (digit >= HIGHEST_URGENCY && digit <= LOWEST_URGENCY)
+                            urgency = digit;
+                    }
+                }
+                case "i" ->
+                {
+                    if (item == null || "?1".equals(item))
+                        incremental = true;
+                    else if ("?0".equals(item))
+                        incremental = false;
+                }
+                default ->
+                {
+                    // Unknown members must be ignored.
+                }
+            }
+        }
+        return of(urgency, incremental);
+    }
+
+    private final int urgency;
+    private final boolean incremental;
+
+    private ExtensiblePriority(int urgency, boolean incremental)
+    {
+        this.urgency = urgency;
+        this.incremental = incremental;
+    }
+
+    /**
+     * @return the urgency, from {@value #HIGHEST_URGENCY} (the most urgent) to {@value #LOWEST_URGENCY} (the least urgent)
+     */
+    public int getUrgency()
+    {
+        return urgency;
+    }
+
+    /**
+     * @return whether the response can be processed incrementally
+     */
+    public boolean isIncremental()
+    {
+        return incremental;
+    }
+
+    /**
+     * @return this priority formatted as a {@code Priority} field value
+     */
+    public String asFieldValue()
+    {
+        return incremental ? "u=" + urgency + ", i" : "u=" + urgency;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[u=%d,i=%b]", getClass().getSimpleName(), hashCode(), urgency, incremental);
+    }
+}
@@ -28,6 +28,7 @@ public enum HttpHeader
     CACHE_CONTROL("Cache-Control"),
     DATE("Date"),
     PRAGMA("Pragma"),
+    PRIORITY("Priority"),
     PROXY_CONNECTION("Proxy-Connection"),
     TRAILER("Trailer"),
     TRANSFER_ENCODING("Transfer-Encoding"),
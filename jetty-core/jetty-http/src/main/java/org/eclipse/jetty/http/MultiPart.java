@@ -16,13 +16,17 @@ package org.eclipse.jetty.http;
 import java.io.Closeable;
 import java.io.EOFException;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.EnumSet;
@@ -38,6 +42,7 @@ import org.eclipse.jetty.io.ByteBufferPool;
 import org.eclipse.jetty.io.Content;
 import org.eclipse.jetty.io.content.ByteBufferContentSource;
 import org.eclipse.jetty.io.content.ChunksContentSource;
+import org.eclipse.jetty.util.Blocker;
 import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.IO;
 import org.eclipse.jetty.util.QuotedStringTokenizer;
@@ -319,6 +324,8 @@ public class MultiPart
 
         /**
          * <p>Writes the content of this part to the given path.</p>
+         * <p>If the content of this part is in a file, the file is moved to the given path,
+         * atomically if supported by the file system, without copying the content.</p>
          *
          * @param path the Path to write this part's content to
          * @throws IOException if the write fails
@@ -329,15 +336,22 @@ public class MultiPart
             Path newPath;
             if (currentPath == null)
             {
-                try (OutputStream out = Files.newOutputStream(path))
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
                 {
-                    IO.copy(Content.Source.asInputStream(newContentSource(bufferPool, first, length)), out);
+                    transferTo(channel);
                 }
                 newPath = path;
             }
             else
             {
-                newPath = Files.move(currentPath, path, StandardCopyOption.REPLACE_EXISTING);
+                try
+                {
+                    newPath = Files.move(currentPath, path, StandardCopyOption.ATOMIC_MOVE);
+                }
+                catch (AtomicMoveNotSupportedException | FileAlreadyExistsException x)
+                {
+                    newPath = Files.move(currentPath, path, StandardCopyOption.REPLACE_EXISTING);
+                }
             }
 
             try (AutoLock ignored = lock.lock())
@@ -347,6 +361,73 @@ public class MultiPart
             }
         }
 
+        /**
+         * <p>Transfers, blocking if necessary, the content of this part to the given channel.</p>
+         * <p>If the content of this part is in a file, the content is transferred with
+         * {@link FileChannel#transferTo(long, long, WritableByteChannel)}, that may not copy
+         * the bytes through user space; otherwise the content is read and written to the channel.</p>
+         *
+         * @param channel the channel to transfer this part's content to
+         * @return the number of bytes transferred
+         * @throws IOException if the transfer fails
+         */
+        public long transferTo(WritableByteChannel channel) throws IOException
+        {
+            Path path = getPath();
+            if (path == null)
+                return write(newContentSource(bufferPool, first, length), channel);
+
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ))
+            {
+                long end = length < 0 ? file.size() : first + length;
+                long position = first;
+                while (position < end)
+                {
+                    long transferred = file.transferTo(position, end - position, channel);
+                    if (transferred <= 0)
+                        throw new EOFException("Could not transfer %s at %d/%d".formatted(path, position, end));
+                    position += transferred;
+                }
+                return position - first;
+            }
+        }
+
+        private static long write(Content.Source source, WritableByteChannel channel) throws IOException
+        {
+            long total = 0;
+            while (true)
+            {
+                Content.Chunk chunk = source.read();
+                if (chunk == null)
+                {
+                    try (Blocker.Runnable blocker = Blocker.runnable())
+                    {
+                        source.demand(blocker);
+                        blocker.block();
+                    }
+                    continue;
+                }
+
+                try
+                {
+                    if (Content.Chunk.isFailure(chunk))
+                        throw IO.rethrow(chunk.getFailure());
+                    // Do not consume the buffer, as the content may be read again.
+                    ByteBuffer buffer = chunk.getByteBuffer().slice();
+                    while (buffer.hasRemaining())
+                    {
+                        total += channel.write(buffer);
+                    }
+                    if (chunk.isLast())
+                        return total;
+                }
+                finally
+                {
+                    chunk.release();
+                }
+            }
+        }
+
         public void delete() throws IOException
         {
             Path path = getPath();
@@ -16,7 +16,7 @@ package org.eclipse.jetty.http;
 import java.io.Closeable;
 import java.nio.ByteBuffer;
 import java.nio.channels.NonWritableChannelException;
-import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.eclipse.jetty.io.Content;
@@ -396,6 +397,7 @@ public class MultiPartFormData
         private long maxMemoryFileSize;
         private long maxLength = -1;
         private long length;
+        private Consumer<MultiPart.Part> partConsumer;
 
         public Parser(String boundary)
         {
@@ -676,6 +678,27 @@ public class MultiPartFormData
             parser.setMaxParts(maxParts);
         }
 
+        /**
+         * @return the consumer of the parts as they are parsed, or null if the parts are aggregated
+         */
+        public Consumer<MultiPart.Part> getPartConsumer()
+        {
+            return partConsumer;
+        }
+
+        /**
+         * <p>Sets the consumer of the parts, that are handed to it as soon as they are parsed.</p>
+         * <p>The parts handed to the consumer are not aggregated in the {@link Parts} produced
+         * at the end of the parsing, so that a large upload is not retained as a whole;
+         * the consumer is responsible to {@link MultiPart.Part#close() close} the parts.</p>
+         *
+         * @param partConsumer the consumer of the parts as they are parsed, or null to aggregate the parts
+         */
+        public void setPartConsumer(Consumer<MultiPart.Part> partConsumer)
+        {
+            this.partConsumer = partConsumer;
+        }
+
         /**
          * Configure the Parser given a {@link MultiPartConfig} instance.
          * @param config the configuration.
@@ -706,7 +729,7 @@ public class MultiPartFormData
             private final List<Content.Chunk> partChunks = new ArrayList<>();
             private long size;
             private Path filePath;
-            private SeekableByteChannel fileChannel;
+            private FileChannel fileChannel;
             private Throwable failure;
             private Parts parts;
 
@@ -735,23 +758,29 @@ public class MultiPartFormData
                                 // Must save to disk.
                                 if (ensureFileChannel())
                                 {
-                                    // Write existing memory chunks.
+                                    // Write existing memory chunks and this chunk with a gathering write.
                                     List<Content.Chunk> partChunks;
                                     try (AutoLock ignored = lock.lock())
                                     {
                                         partChunks = List.copyOf(this.partChunks);
                                     }
-                                    for (Content.Chunk c : partChunks)
+                                    ByteBuffer[] buffers = new ByteBuffer[partChunks.size() + 1];
+                                    for (int i = 0; i < partChunks.size(); ++i)
                                     {
-                                        write(c.getByteBuffer());
+                                        buffers[i] = partChunks.get(i).getByteBuffer();
                                     }
+                                    buffers[partChunks.size()] = buffer;
+                                    write(buffers);
                                     try (AutoLock ignored = lock.lock())
                                     {
                                         this.partChunks.forEach(Content.Chunk::release);
                                         this.partChunks.clear();
                                     }
                                 }
-                                write(buffer);
+                                else
+                                {
+                                    write(buffer);
+                                }
                                 if (chunk.isLast())
                                     close();
                             }
@@ -784,15 +813,19 @@ public class MultiPartFormData
                 }
             }
 
-            private void write(ByteBuffer buffer) throws Exception
+            private void write(ByteBuffer... buffers) throws Exception
             {
-                int remaining = buffer.remaining();
+                long remaining = 0;
+                for (ByteBuffer buffer : buffers)
+                {
+                    remaining += buffer.remaining();
+                }
                 while (remaining > 0)
                 {
-                    SeekableByteChannel channel = fileChannel();
+                    FileChannel channel = fileChannel();
                     if (channel == null)
                         throw new IllegalStateException();
-                    int written = channel.write(buffer);
+                    long written = channel.write(buffers);
                     if (written == 0)
                         throw new NonWritableChannelException();
                     remaining -= written;
@@ -817,6 +850,8 @@ public class MultiPartFormData
             public void onPart(String name, String fileName, HttpFields headers)
             {
                 size = 0;
+                MultiPart.Part part;
+                Consumer<MultiPart.Part> consumer;
                 try (AutoLock ignored = lock.lock())
                 {
                     // Content-Transfer-Encoding is not a multi-valued field.
@@ -853,7 +888,6 @@ public class MultiPartFormData
                         }
                     }
 
-                    MultiPart.Part part;
                     if (fileChannel != null)
                         part = new MultiPart.PathPart(null, name, fileName, headers, filePath); // TODO use a pool
                     else
@@ -863,8 +897,23 @@ public class MultiPartFormData
                     fileChannel = null;
                     partChunks.forEach(Content.Chunk::release);
                     partChunks.clear();
-                    // Store the new part.
-                    partList.add(part);
+                    // Store the new part, unless it is handed to the consumer.
+                    consumer = getPartConsumer();
+                    if (consumer == null)
+                        partList.add(part);
+                }
+
+                if (consumer != null)
+                {
+                    try
+                    {
+                        consumer.accept(part);
+                    }
+                    catch (Throwable x)
+                    {
+                        part.fail(x);
+                        onFailure(x);
+                    }
                 }
             }
 
@@ -940,7 +989,7 @@ public class MultiPartFormData
                 delete();
             }
 
-            private SeekableByteChannel fileChannel()
+            private FileChannel fileChannel()
             {
                 try (AutoLock ignored = lock.lock())
                 {
@@ -998,7 +1047,7 @@ public class MultiPartFormData
                     Files.createDirectories(directory);
                     String fileName = "MultiPart";
                     filePath = Files.createTempFile(directory, fileName, "");
-                    fileChannel = Files.newByteChannel(filePath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                    fileChannel = FileChannel.open(filePath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
                 }
                 catch (Throwable x)
                 {
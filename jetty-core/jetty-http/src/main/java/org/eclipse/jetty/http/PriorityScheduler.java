@@ -0,0 +1,203 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+
+package org.eclipse.jetty.http;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>Schedules the items to write on a multiplexed connection (for example,
+ * the frames of the streams of an HTTP/2 or HTTP/3 connection) according to
+ * the {@link ExtensiblePriority priorities} of their streams, as defined by
+ * <a href="https://datatracker.ietf.org/doc/html/rfc9218#section-10">RFC 9218</a>.</p>
+ * <p>Writing is organized in rounds, where each item that is accepted may
+ * produce a chunk of output (for example, one DATA frame):</p>
+ * <pre>{@code
+ * scheduler.sort(items);
+ * scheduler.reset();
+ * for (int i = 0; i < items.size(); ++i)
+ * {
+ *     if (scheduler.accept(i) && items.get(i).write())
+ *         scheduler.produced(i);
+ * }
+ * }</pre>
+ * <p>The priority of the streams may change concurrently, for example when
+ * a {@code PRIORITY_UPDATE} frame is received, so {@link #sort(List)} takes
+ * a snapshot of the priority of each item, that is used for the whole round.</p>
+ * <p>In each round, only the streams with the most urgent level that produce
+ * output are served: incremental streams with that urgency are served in
+ * round-robin, while non-incremental streams with that urgency are served
+ * one at a time, in stream id order.
+ * Streams with a less urgent level are served only if the more urgent
+ * streams cannot produce output, for example because they are stalled
+ * by flow control.
+ * Items without a priority, such as connection control frames, are always
+ * accepted and are sorted before the items that have a priority.</p>
+ * <p>This class is not thread-safe, and it is meant to be used by the
+ * single thread that writes to the connection.</p>
+ *
+ * @param <T> the type of the items to schedule
+ */
+public class PriorityScheduler<T>
+{
+    private static final Comparator<Slot> COMPARATOR = PriorityScheduler::compare;
+
+    private final Function<T, ExtensiblePriority> priorities;
+    private final ToLongFunction<T> streamIds;
+    private Slot[] slots = new Slot[0];
+    private int size;
+    private int urgency;
+    private boolean incremental;
+    private long streamId;
+
+    /**
+     * @param priorities the function that returns the priority of an item, or {@code null} if the item has no priority
+     * @param streamIds the function that returns the stream id of an item
+     */
+    public PriorityScheduler(Function<T, ExtensiblePriority> priorities, ToLongFunction<T> streamIds)
+    {
+        this.priorities = priorities;
+        this.streamIds = streamIds;
+        reset();
+    }
+
+    private static int compare(Slot slot1, Slot slot2)
+    {
+        ExtensiblePriority priority1 = slot1.priority;
+        ExtensiblePriority priority2 = slot2.priority;
+        if (priority1 == null)
+            return priority2 == null ? 0 : -1;
+        if (priority2 == null)
+            return 1;
+        int result = Integer.compare(priority1.getUrgency(), priority2.getUrgency());
+        if (result != 0)
+            return result;
+        return Long.compare(slot1.streamId, slot2.streamId);
+    }
+
+    /**
+     * <p>Sorts the given items by urgency and then by stream id.</p>
+     * <p>The sort is stable, so the items of the same stream retain their relative order.</p>
+     * <p>The priority and stream id of each item are read once, and used by
+     * {@link #accept(int)} and {@link #produced(int)} until the next sort.</p>
+     *
+     * @param items the items to sort
+     */
+    public void sort(List<T> items)
+    {
+        int size = items.size();
+        if (slots.length < size)
+        {
+            int length = slots.length;
+            slots = Arrays.copyOf(slots, Math.max(size, 2 * length));
+            for (int i = length; i < slots.length; ++i)
+            {
+                slots[i] = new Slot();
+            }
+        }
+
+        for (int i = 0; i < size; ++i)
+        {
+            T item = items.get(i);
+            Slot slot = slots[i];
+            slot.item = item;
+            slot.priority = priorities.apply(item);
+            slot.streamId = streamIds.applyAsLong(item);
+        }
+
+        if (size > 1)
+        {
+            Arrays.sort(slots, 0, size, COMPARATOR);
+            for (int i = 0; i < size; ++i)
+            {
+                @SuppressWarnings("unchecked")
+                T item = (T)slots[i].item;
+                items.set(i, item);
+            }
+        }
+
+        // Do not retain the items after sorting.
+        for (int i = 0; i < size; ++i)
+        {
+            slots[i].item = null;
+        }
+        this.size = size;
+    }
+
+    /**
+     * <p>Starts a new round.</p>
+     */
+    public void reset()
+    {
+        urgency = -1;
+        incremental = false;
+        streamId = -1;
+    }
+
+    /**
+     * @param index the index of the item to test in the list last {@link #sort(List) sorted}
+     * @return whether the given item may produce output in the current round
+     */
+    public boolean accept(int index)
+    {
+        if (urgency < 0)
+            return true;
+        Slot slot = slots[Objects.checkIndex(index, size)];
+        ExtensiblePriority priority = slot.priority;
+        if (priority == null)
+            return true;
+        int itemUrgency = priority.getUrgency();
+        if (itemUrgency != urgency)
+            return itemUrgency < urgency;
+        if (incremental)
+            return priority.isIncremental();
+        return slot.streamId == streamId;
+    }
+
+    /**
+     * <p>Records that the given item produced output in the current round.</p>
+     *
+     * @param index the index of the item that produced output in the list last {@link #sort(List) sorted}
+     */
+    public void produced(int index)
+    {
+        if (urgency >= 0)
+            return;
+        Slot slot = slots[Objects.checkIndex(index, size)];
+        ExtensiblePriority priority = slot.priority;
+        if (priority == null)
+            return;
+        urgency = priority.getUrgency();
+        incremental = priority.isIncremental();
+        streamId = slot.streamId;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[u=%d,i=%b,stream=%d]", getClass().getSimpleName(), hashCode(), urgency, incremental, streamId);
+    }
+
+    private static class Slot
+    {
+        private Object item;
+        private ExtensiblePriority priority;
+        private long streamId;
+    }
+}
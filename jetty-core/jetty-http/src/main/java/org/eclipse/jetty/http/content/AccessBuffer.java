@@ -0,0 +1,124 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http.content;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+import org.eclipse.jetty.util.thread.AutoLock;
+
+/**
+ * <p>A bounded buffer of cache accesses, used by {@link EvictionPolicy} implementations
+ * so that recording an access does not need to wait for the policy lock.</p>
+ * <p>Any thread can {@link #offer(String) offer} an access without locking, while
+ * only the thread that holds the policy lock {@link #drain(Consumer) drains} them,
+ * in the order they were offered, and applies them to the policy.
+ * When the buffer is full, {@link #offer(String)} returns {@code false} and the
+ * caller must take the policy lock, drain the buffer and apply the access itself,
+ * so that no access is ever lost.</p>
+ */
+class AccessBuffer
+{
+    static final int DEFAULT_CAPACITY = 128;
+
+    private final AtomicReferenceArray<String> _buffer;
+    private final int _mask;
+    private final AtomicLong _writes = new AtomicLong();
+    private volatile long _reads;
+
+    AccessBuffer()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    AccessBuffer(int capacity)
+    {
+        int length = Integer.highestOneBit(Math.min(Math.max(2, capacity), 1 << 30) - 1) << 1;
+        _buffer = new AtomicReferenceArray<>(length);
+        _mask = length - 1;
+    }
+
+    /**
+     * <p>Records an access, applying the buffered accesses if the policy lock is not contended,
+     * otherwise leaving them to the next thread that acquires the policy lock.</p>
+     *
+     * @param lock the policy lock
+     * @param key the key of the accessed entry
+     * @param consumer the consumer of the keys of the accessed entries
+     */
+    void record(AutoLock lock, String key, Consumer<String> consumer)
+    {
+        if (offer(key))
+        {
+            try (AutoLock l = lock.tryLock())
+            {
+                if (l.isHeldByCurrentThread())
+                    drain(consumer);
+            }
+        }
+        else
+        {
+            // The buffer is full, wait for the lock rather than losing the access.
+            try (AutoLock ignored = lock.lock())
+            {
+                drain(consumer);
+                consumer.accept(key);
+            }
+        }
+    }
+
+    /**
+     * @param key the key of the accessed entry
+     * @return whether the access was buffered, {@code false} if the buffer is full
+     */
+    boolean offer(String key)
+    {
+        while (true)
+        {
+            long writes = _writes.get();
+            if (writes - _reads > _mask)
+                return false;
+            if (_writes.compareAndSet(writes, writes + 1))
+            {
+                _buffer.set((int)writes & _mask, key);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * <p>Applies the buffered accesses to the given consumer; must be called with the policy lock held.</p>
+     * <p>Accesses that have been claimed but not yet written by concurrent offers are left in
+     * the buffer, and applied by the next drain.</p>
+     *
+     * @param consumer the consumer of the keys of the accessed entries
+     */
+    void drain(Consumer<String> consumer)
+    {
+        long reads = _reads;
+        long writes = _writes.get();
+        while (reads < writes)
+        {
+            int index = (int)reads & _mask;
+            String key = _buffer.get(index);
+            if (key == null)
+                break;
+            _buffer.set(index, null);
+            ++reads;
+            consumer.accept(key);
+        }
+        _reads = reads;
+    }
+}
@@ -16,13 +16,14 @@ package org.eclipse.jetty.http.content;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.time.Instant;
+import java.util.Objects;
 import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.jetty.http.CompressedContentFormat;
 import org.eclipse.jetty.http.HttpField;
@@ -35,6 +36,9 @@ import org.eclipse.jetty.io.Retainable;
 import org.eclipse.jetty.io.RetainableByteBuffer;
 import org.eclipse.jetty.util.NanoTime;
 import org.eclipse.jetty.util.StringUtil;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
 import org.eclipse.jetty.util.resource.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,6 +53,10 @@ import org.slf4j.LoggerFactory;
  * assumed to be valid. This class can be extended to implement the validation behaviours on
  * {@link CachingHttpContent} which allow entries to be evicted once they become invalid.
  * </p>
+ * <p>
+ * When the cache exceeds its limits, entries are evicted in the order selected by
+ * the configured {@link EvictionPolicy}, by default {@link EvictionPolicy.LRU}.
+ * </p>
  * <br>
  * The default values for the cache are:
  * <ul>
@@ -58,6 +66,7 @@ import org.slf4j.LoggerFactory;
  * </ul>
  * @see ValidatingCachingHttpContentFactory
  */
+@ManagedObject("Caching HttpContent factory")
 public class CachingHttpContentFactory implements HttpContent.Factory
 {
     private static final Logger LOG = LoggerFactory.getLogger(CachingHttpContentFactory.class);
@@ -73,11 +82,16 @@ public class CachingHttpContentFactory implements HttpContent.Factory
     private int _maxCachedFiles = DEFAULT_MAX_CACHED_FILES;
     private long _maxCacheSize = DEFAULT_MAX_CACHE_SIZE;
     private boolean _useDirectByteBuffers = true;
+    private EvictionPolicy _evictionPolicy;
+    private final LongAdder _hits = new LongAdder();
+    private final LongAdder _misses = new LongAdder();
+    private final LongAdder _evictions = new LongAdder();
 
     public CachingHttpContentFactory(HttpContent.Factory authority, ByteBufferPool bufferPool)
     {
         _authority = authority;
         _bufferPool = bufferPool != null ? bufferPool : ByteBufferPool.NON_POOLING;
+        setEvictionPolicy(new EvictionPolicy.LRU());
     }
 
     protected ConcurrentMap<String, CachingHttpContent> getCache()
@@ -85,16 +99,19 @@ public class CachingHttpContentFactory implements HttpContent.Factory
         return _cache;
     }
 
+    @ManagedAttribute("The size in bytes of the cached content")
     public long getCachedSize()
     {
         return _cachedSize.get();
     }
 
+    @ManagedAttribute("The number of cached entries")
     public int getCachedFiles()
     {
         return _cache.size();
     }
 
+    @ManagedAttribute("The max size in bytes of a cached file")
     public int getMaxCachedFileSize()
     {
         return _maxCachedFileSize;
@@ -106,6 +123,7 @@ public class CachingHttpContentFactory implements HttpContent.Factory
         shrinkCache();
     }
 
+    @ManagedAttribute("The max size in bytes of the cached content")
     public long getMaxCacheSize()
     {
         return _maxCacheSize;
@@ -121,6 +139,7 @@ public class CachingHttpContentFactory implements HttpContent.Factory
      * Get the max number of cached files..
      * @return the max number of cached files.
      */
+    @ManagedAttribute("The max number of cached entries")
     public int getMaxCachedFiles()
     {
         return _maxCachedFiles;
@@ -133,9 +152,62 @@ public class CachingHttpContentFactory implements HttpContent.Factory
     public void setMaxCachedFiles(int maxCachedFiles)
     {
         _maxCachedFiles = maxCachedFiles;
+        _evictionPolicy.setCapacity(maxCachedFiles);
         shrinkCache();
     }
 
+    /**
+     * @return the policy that selects the entries to evict when the cache exceeds its limits
+     */
+    public EvictionPolicy getEvictionPolicy()
+    {
+        return _evictionPolicy;
+    }
+
+    /**
+     * <p>Sets the policy that selects the entries to evict when the cache exceeds its limits.</p>
+     * <p>The policy can only be replaced when the cache is empty.</p>
+     *
+     * @param evictionPolicy the eviction policy
+     * @see EvictionPolicy.LRU
+     * @see EvictionPolicy.SegmentedLRU
+     * @see EvictionPolicy.WindowTinyLFU
+     */
+    public void setEvictionPolicy(EvictionPolicy evictionPolicy)
+    {
+        Objects.requireNonNull(evictionPolicy);
+        if (!_cache.isEmpty())
+            throw new IllegalStateException("Cache not empty");
+        evictionPolicy.setCapacity(_maxCachedFiles);
+        _evictionPolicy = evictionPolicy;
+    }
+
+    @ManagedAttribute("The number of requests for content found in the cache")
+    public long getHits()
+    {
+        return _hits.longValue();
+    }
+
+    @ManagedAttribute("The number of requests for content not found in the cache")
+    public long getMisses()
+    {
+        return _misses.longValue();
+    }
+
+    @ManagedAttribute("The number of entries evicted to keep the cache within its limits")
+    public long getEvictions()
+    {
+        return _evictions.longValue();
+    }
+
+    @ManagedOperation(value = "Resets the cache statistics", impact = "ACTION")
+    public void resetStatistics()
+    {
+        _hits.reset();
+        _misses.reset();
+        _evictions.reset();
+    }
+
     public boolean isUseDirectByteBuffers()
     {
         return _useDirectByteBuffers;
@@ -148,46 +220,40 @@ public class CachingHttpContentFactory implements HttpContent.Factory
 
     private void shrinkCache()
     {
-        // While we need to shrink
-        int numCacheEntries = _cache.size();
-        while (numCacheEntries > 0 && (numCacheEntries > _maxCachedFiles || _cachedSize.get() > _maxCacheSize))
+        // While we need to shrink, evict the entries selected by the policy.
+        while (!_cache.isEmpty() && (_cache.size() > _maxCachedFiles || _cachedSize.get() > _maxCacheSize))
         {
-            // Scan the entire cache and generate an ordered list by last accessed time.
-            SortedSet<CachingHttpContent> sorted = new TreeSet<>((c1, c2) ->
-            {
-                long delta = NanoTime.elapsed(c2.getLastAccessedNanos(), c1.getLastAccessedNanos());
-                if (delta != 0)
-                    return delta < 0 ? -1 : 1;
-
-                delta = c1.getContentLengthValue() - c2.getContentLengthValue();
-                if (delta != 0)
-                    return delta < 0 ? -1 : 1;
-
-                return c1.getKey().compareTo(c2.getKey());
-            });
-            sorted.addAll(_cache.values());
-
-            // TODO: Can we remove the buffers from the content before evicting.
-            // Invalidate least recently used first
-            for (CachingHttpContent content : sorted)
-            {
-                if (_cache.size() <= _maxCachedFiles && _cachedSize.get() <= _maxCacheSize)
-                    break;
-                removeFromCache(content);
-            }
-
-            numCacheEntries = _cache.size();
+            String key = _evictionPolicy.evict();
+            if (key == null)
+                break;
+            if (removeFromCache(key))
+                _evictions.increment();
         }
     }
 
     protected void removeFromCache(CachingHttpContent content)
     {
-        CachingHttpContent removed = _cache.remove(content.getKey());
-        if (removed != null)
+        removeFromCache(content.getKey());
+    }
+
+    private boolean removeFromCache(String key)
+    {
+        // Notify the policy while holding the lock of the entry, so that
+        // the notification cannot be reordered with a concurrent addition.
+        AtomicReference<CachingHttpContent> removed = new AtomicReference<>();
+        _cache.computeIfPresent(key, (k, cached) ->
         {
-            removed.release();
-            _cachedSize.addAndGet(-removed.getBytesOccupied());
-        }
+            removed.set(cached);
+            _evictionPolicy.onRemoved(k);
+            return null;
+        });
+
+        CachingHttpContent content = removed.get();
+        if (content == null)
+            return false;
+        content.release();
+        _cachedSize.addAndGet(-content.getBytesOccupied());
+        return true;
     }
 
     public void flushCache()
@@ -231,12 +297,18 @@ public class CachingHttpContentFactory implements HttpContent.Factory
             {
                 // If retain fails the CachingHttpContent was already evicted.
                 if (cachingHttpContent.retain())
+                {
+                    _hits.increment();
+                    _evictionPolicy.onAccessed(path);
                     return (cachingHttpContent instanceof NotFoundHttpContent) ? null : cachingHttpContent;
+                }
             }
             else
                 removeFromCache(cachingHttpContent);
         }
 
+        _misses.increment();
+
         HttpContent httpContent = _authority.getContent(path);
         if (!isCacheable(httpContent))
             return httpContent;
@@ -247,6 +319,7 @@ public class CachingHttpContentFactory implements HttpContent.Factory
             CachingHttpContent cachingContent = (httpContent == null) ? newNotFoundContent(key) : newCachedContent(key, httpContent);
             added.set(true);
             _cachedSize.addAndGet(cachingContent.getBytesOccupied());
+            _evictionPolicy.onAdded(key);
             return cachingContent;
         });
 
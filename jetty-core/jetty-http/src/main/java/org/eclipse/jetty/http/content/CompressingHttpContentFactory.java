@@ -0,0 +1,769 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http.content;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.http.CompressedContentFormat;
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.MimeTypes;
+import org.eclipse.jetty.io.IOResources;
+import org.eclipse.jetty.io.Retainable;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.IO;
+import org.eclipse.jetty.util.StringUtil;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.component.ContainerLifeCycle;
+import org.eclipse.jetty.util.compression.Compression;
+import org.eclipse.jetty.util.compression.GzipCompression;
+import org.eclipse.jetty.util.resource.Resource;
+import org.eclipse.jetty.util.resource.ResourceFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>An {@link HttpContent.Factory} that generates, in the background, compressed variants
+ * of frequently requested compressible contents, so that they are served as if they were
+ * pre-compressed resources, without compressing them again for every request.</p>
+ * <p>Once a content has been requested {@link #getMinRequests() minRequests} times, it is
+ * compressed with each of the configured {@link Compression}s for which no pre-compressed
+ * resource already exists, using the {@link Executor} passed to the constructor.
+ * Variants are written to files in the {@link #setDirectory(Path) directory}, and the
+ * small ones are also retained in memory.
+ * Once a variant is available, the {@link HttpContent#getPreCompressedContentFormats()}
+ * of the content include its {@link CompressedContentFormat}, and the variant is returned
+ * for the path of the content followed by the format {@link CompressedContentFormat#getExtension()
+ * extension}, which is how pre-compressed resources are looked up.</p>
+ * <p>A variant is discarded when the last modified time or the length of the content it was
+ * produced from changes, and it is produced again once the content is requested enough times.
+ * The total length of the variants is limited by {@link #getMaxCacheSize() maxCacheSize},
+ * and the least recently used variants are evicted to respect this limit.</p>
+ * <p>Variants are reference counted: the file of a variant that is discarded or evicted
+ * is only deleted once all the {@link HttpContent}s returned for it have been
+ * {@link HttpContent#release() released}, so that responses in progress are not affected.</p>
+ * <p>This factory must wrap a caching factory, if any, so that it sees every request and so
+ * that the formats of the variants are not cached with the content they are produced from.</p>
+ */
+@ManagedObject("Compressed variants content factory")
+public class CompressingHttpContentFactory extends ContainerLifeCycle implements HttpContent.Factory
+{
+    private static final Logger LOG = LoggerFactory.getLogger(CompressingHttpContentFactory.class);
+    private static final int BUFFER_SIZE = 32 * 1024;
+    // Keep the number of tracked paths in check even with strange/malicious requests.
+    private static final int MAX_TRACKED_PATHS = 4096;
+
+    private final ConcurrentMap<String, Variant> _variants = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> _requests = new ConcurrentHashMap<>();
+    private final Set<String> _pending = ConcurrentHashMap.newKeySet();
+    private final EvictionPolicy _evictionPolicy = new EvictionPolicy.LRU();
+    private final LongAdder _cachedSize = new LongAdder();
+    private final LongAdder _compressed = new LongAdder();
+    private final HttpContent.Factory _factory;
+    private final Executor _executor;
+    private final AtomicBoolean _shrinkingRequests = new AtomicBoolean();
+    private List<Compression> _compressions = List.of();
+    private List<Compression> _defaultCompressions = List.of();
+    private List<Encoding> _encodings = List.of();
+    private Path _directory;
+    private Path _tempDirectory;
+    private int _minRequests = 2;
+    private long _minContentLength = 256;
+    private long _maxContentLength = 16 * 1024 * 1024;
+    private long _maxCacheSize = 128 * 1024 * 1024;
+    private int _maxBufferedLength = 64 * 1024;
+
+    /**
+     * @param factory the wrapped {@link HttpContent.Factory}
+     * @param executor the executor used to compress contents in the background
+     */
+    public CompressingHttpContentFactory(HttpContent.Factory factory, Executor executor)
+    {
+        _factory = Objects.requireNonNull(factory);
+        _executor = Objects.requireNonNull(executor);
+        installBean(factory);
+    }
+
+    /**
+     * @return the {@link Compression}s used to produce the variants
+     */
+    public List<Compression> getCompressions()
+    {
+        return _compressions.isEmpty() ? _defaultCompressions : _compressions;
+    }
+
+    /**
+     * <p>Sets the {@link Compression}s used to produce the variants.</p>
+     * <p>If not set, the {@link Compression#loadAll() discovered} compressions
+     * and a {@link GzipCompression} are used.</p>
+     *
+     * @param compressions the {@link Compression}s used to produce the variants
+     */
+    public void setCompressions(List<Compression> compressions)
+    {
+        if (isStarted())
+            throw new IllegalStateException(getState());
+        _compressions.forEach(this::removeBean);
+        _compressions = List.copyOf(compressions);
+        _compressions.forEach(this::addBean);
+    }
+
+    /**
+     * @return the directory where the variants are written
+     */
+    @ManagedAttribute("The directory where the variants are written")
+    public Path getDirectory()
+    {
+        return _directory != null ? _directory : _tempDirectory;
+    }
+
+    /**
+     * @param directory the directory where the variants are written,
+     * or {@code null} to use a temporary directory that is deleted when this factory is stopped
+     */
+    public void setDirectory(Path directory)
+    {
+        if (isStarted())
+            throw new IllegalStateException(getState());
+        _directory = directory;
+    }
+
+    /**
+     * @return the number of requests for a content after which its variants are produced
+     */
+    @ManagedAttribute("The number of requests for a content after which its variants are produced")
+    public int getMinRequests()
+    {
+        return _minRequests;
+    }
+
+    public void setMinRequests(int minRequests)
+    {
+        _minRequests = Math.max(1, minRequests);
+    }
+
+    /**
+     * @return the minimum length of the contents for which variants are produced
+     */
+    @ManagedAttribute("The minimum length of the contents for which variants are produced")
+    public long getMinContentLength()
+    {
+        return _minContentLength;
+    }
+
+    public void setMinContentLength(long minContentLength)
+    {
+        _minContentLength = minContentLength;
+    }
+
+    /**
+     * @return the maximum length of the contents for which variants are produced
+     */
+    @ManagedAttribute("The maximum length of the contents for which variants are produced")
+    public long getMaxContentLength()
+    {
+        return _maxContentLength;
+    }
+
+    public void setMaxContentLength(long maxContentLength)
+    {
+        _maxContentLength = maxContentLength;
+    }
+
+    /**
+     * @return the maximum total length of the variants
+     */
+    @ManagedAttribute("The maximum total length of the variants")
+    public long getMaxCacheSize()
+    {
+        return _maxCacheSize;
+    }
+
+    public void setMaxCacheSize(long maxCacheSize)
+    {
+        _maxCacheSize = maxCacheSize;
+        shrinkCache();
+    }
+
+    /**
+     * @return the maximum length of the variants that are also retained in memory
+     */
+    @ManagedAttribute("The maximum length of the variants that are also retained in memory")
+    public int getMaxBufferedLength()
+    {
+        return _maxBufferedLength;
+    }
+
+    public void setMaxBufferedLength(int maxBufferedLength)
+    {
+        _maxBufferedLength = maxBufferedLength;
+    }
+
+    @ManagedAttribute("The total length of the variants")
+    public long getCachedSize()
+    {
+        return _cachedSize.sum();
+    }
+
+    @ManagedAttribute("The number of variants")
+    public long getCachedVariants()
+    {
+        return _variants.values().stream().filter(Variant::isAvailable).count();
+    }
+
+    @ManagedAttribute("The number of contents being compressed")
+    public int getPendingCompressions()
+    {
+        return _pending.size();
+    }
+
+    @ManagedAttribute("The number of variants produced")
+    public long getCompressedVariants()
+    {
+        return _compressed.sum();
+    }
+
+    @Override
+    protected void doStart() throws Exception
+    {
+        List<Compression> compressions = _compressions;
+        if (compressions.isEmpty())
+        {
+            // The defaults are not stored as the configured compressions,
+            // so that they are discovered again after a restart.
+            compressions = new ArrayList<>();
+            Compression.loadAll().stream()
+                .filter(compression -> !"gzip".equals(compression.getEncoding()))
+                .forEach(compressions::add);
+            compressions.add(new GzipCompression());
+            _defaultCompressions = List.copyOf(compressions);
+            _defaultCompressions.forEach(this::addBean);
+        }
+        _encodings = compressions.stream()
+            .map(compression -> new Encoding(compression, new CompressedContentFormat(compression.getEncoding(), compression.getExtension())))
+            .toList();
+
+        if (_directory == null)
+            _tempDirectory = Files.createTempDirectory("jetty-variants-");
+        else
+            Files.createDirectories(_directory);
+
+        super.doStart();
+    }
+
+    @Override
+    protected void doStop() throws Exception
+    {
+        super.doStop();
+        flushCache();
+        _requests.clear();
+        _encodings = List.of();
+        _defaultCompressions.forEach(this::removeBean);
+        _defaultCompressions = List.of();
+        if (_tempDirectory != null)
+        {
+            IO.delete(_tempDirectory);
+            _tempDirectory = null;
+        }
+    }
+
+    @Override
+    public HttpContent getContent(String path) throws IOException
+    {
+        Variant variant = _variants.get(path);
+        if (variant != null && variant.isAvailable())
+        {
+            HttpContent content = getVariantContent(path, variant);
+            if (content != null)
+                return content;
+        }
+
+        HttpContent content = _factory.getContent(path);
+        if (content == null || _encodings.isEmpty() || !isCompressible(content))
+            return content;
+
+        Set<CompressedContentFormat> formats = content.getPreCompressedContentFormats();
+        Set<CompressedContentFormat> variantFormats = null;
+        List<Encoding> missing = null;
+        for (Encoding encoding : _encodings)
+        {
+            CompressedContentFormat format = encoding.format();
+            if (formats != null && formats.contains(format))
+                continue;
+
+            String key = path + format.getExtension();
+            Variant existing = _variants.get(key);
+            if (existing != null && existing.isValidFor(content))
+            {
+                if (existing.isAvailable())
+                {
+                    if (variantFormats == null)
+                        variantFormats = formats == null ? new HashSet<>() : new HashSet<>(formats);
+                    variantFormats.add(format);
+                }
+                continue;
+            }
+
+            if (existing != null)
+                removeFromCache(key, existing);
+            if (missing == null)
+                missing = new ArrayList<>();
+            missing.add(encoding);
+        }
+
+        if (missing != null)
+            onRequest(path, content, missing);
+
+        return variantFormats == null ? content : new VariantFormatsHttpContent(content, variantFormats);
+    }
+
+    private HttpContent getVariantContent(String path, Variant variant) throws IOException
+    {
+        // Verify that the variant is still valid for the content it was produced from.
+        String sourcePath = path.substring(0, path.length() - variant.getFormat().getExtension().length());
+        HttpContent source = _factory.getContent(sourcePath);
+        try
+        {
+            if (source == null || !variant.isValidFor(source))
+            {
+                removeFromCache(path, variant);
+                return null;
+            }
+            // If retain fails the variant was already discarded.
+            if (!variant.retain())
+                return null;
+            _evictionPolicy.onAccessed(path);
+            return new VariantHttpContent(variant, source.getContentTypeValue());
+        }
+        finally
+        {
+            if (source != null)
+                source.release();
+        }
+    }
+
+    /**
+     * <p>Returns whether variants of the given content should be produced.</p>
+     * <p>By default, contents that are not already encoded, whose length is within
+     * {@link #getMinContentLength() minContentLength} and {@link #getMaxContentLength() maxContentLength},
+     * and whose mime type is textual are compressible.</p>
+     *
+     * @param content the content
+     * @return whether variants of the content should be produced
+     */
+    protected boolean isCompressible(HttpContent content)
+    {
+        if (content.getContentEncoding() != null || content.getResource() == null)
+            return false;
+        long contentLength = content.getContentLengthValue();
+        if (contentLength < _minContentLength || contentLength > _maxContentLength)
+            return false;
+        String contentType = content.getContentTypeValue();
+        if (contentType == null)
+            return false;
+        String mimeType = StringUtil.asciiToLowerCase(MimeTypes.getContentTypeWithoutCharset(contentType));
+        return mimeType.startsWith("text/") ||
+            mimeType.endsWith("/javascript") ||
+            mimeType.endsWith("/json") ||
+            mimeType.endsWith("+json") ||
+            mimeType.endsWith("/xml") ||
+            mimeType.endsWith("+xml") ||
+            mimeType.equals("application/wasm");
+    }
+
+    private void onRequest(String path, HttpContent content, List<Encoding> encodings)
+    {
+        AtomicInteger requests = _requests.get(path);
+        if (requests == null)
+        {
+            if (_requests.size() > MAX_TRACKED_PATHS)
+                shrinkRequests();
+            requests = _requests.computeIfAbsent(path, p -> new AtomicInteger());
+        }
+        if (requests.incrementAndGet() < _minRequests)
+            return;
+        if (!_pending.add(path))
+            return;
+        _requests.remove(path);
+
+        Resource resource = content.getResource();
+        Instant lastModified = content.getLastModifiedInstant();
+        long contentLength = content.getContentLengthValue();
+        try
+        {
+            _executor.execute(() -> compress(path, resource, lastModified, contentLength, encodings));
+        }
+        catch (RejectedExecutionException x)
+        {
+            _pending.remove(path);
+            if (LOG.isDebugEnabled())
+                LOG.debug("Could not compress {}", path, x);
+        }
+    }
+
+    /**
+     * <p>Halves the request counts of the tracked paths, and stops tracking the paths
+     * whose count drops to zero, until only three quarters of the maximum are tracked,
+     * so that the paths that are requested often keep being tracked.</p>
+     */
+    private void shrinkRequests()
+    {
+        if (!_shrinkingRequests.compareAndSet(false, true))
+            return;
+        try
+        {
+            int excess = _requests.size() - MAX_TRACKED_PATHS * 3 / 4;
+            for (Map.Entry<String, AtomicInteger> entry : _requests.entrySet())
+            {
+                AtomicInteger requests = entry.getValue();
+                if (requests.updateAndGet(count -> count >> 1) == 0 && excess > 0)
+                {
+                    if (_requests.remove(entry.getKey(), requests))
+                        --excess;
+                }
+            }
+        }
+        finally
+        {
+            _shrinkingRequests.set(false);
+        }
+    }
+
+    private void compress(String path, Resource resource, Instant lastModified, long contentLength, List<Encoding> encodings)
+    {
+        try
+        {
+            for (Encoding encoding : encodings)
+            {
+                if (!isRunning())
+                    return;
+                Variant variant = newVariant(encoding, resource, lastModified, contentLength);
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Compressed {} into {}", path, variant);
+                String key = path + encoding.format().getExtension();
+                _variants.compute(key, (k, existing) ->
+                {
+                    if (existing != null)
+                        release(existing);
+                    if (variant.isAvailable())
+                    {
+                        _cachedSize.add(variant.getLength());
+                        _compressed.increment();
+                        _evictionPolicy.onAdded(k);
+                    }
+                    else if (existing != null && existing.isAvailable())
+                    {
+                        _evictionPolicy.onRemoved(k);
+                    }
+                    return variant;
+                });
+            }
+            shrinkCache();
+        }
+        catch (Throwable x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Could not compress {}", path, x);
+        }
+        finally
+        {
+            _pending.remove(path);
+        }
+    }
+
+    private Variant newVariant(Encoding encoding, Resource resource, Instant lastModified, long contentLength) throws IOException
+    {
+        CompressedContentFormat format = encoding.format();
+        Path file = Files.createTempFile(getDirectory(), "variant-", format.getExtension());
+        try
+        {
+            try (InputStream input = IOResources.asInputStream(resource);
+                 FileChannel output = FileChannel.open(file, StandardOpenOption.WRITE);
+                 Compression.Encoder encoder = encoding.compression().newEncoder(false))
+            {
+                byte[] bytes = new byte[BUFFER_SIZE];
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                while (true)
+                {
+                    int read = input.read(bytes);
+                    if (read < 0)
+                        break;
+                    encoder.setInput(ByteBuffer.wrap(bytes, 0, read));
+                    while (!encoder.needsInput())
+                    {
+                        encode(encoder, buffer, output);
+                    }
+                }
+                encoder.finish();
+                while (!encoder.isFinished())
+                {
+                    encode(encoder, buffer, output);
+                }
+            }
+
+            long length = Files.size(file);
+            if (length >= contentLength)
+            {
+                // Not worth serving, remember that so that it is not compressed again.
+                Files.delete(file);
+                return new Variant(format, null, -1, null, lastModified, contentLength);
+            }
+            ByteBuffer buffer = length <= _maxBufferedLength ? BufferUtil.toBuffer(Files.readAllBytes(file)).asReadOnlyBuffer() : null;
+            return new Variant(format, file, length, buffer, lastModified, contentLength);
+        }
+        catch (Throwable x)
+        {
+            IO.delete(file);
+            throw x;
+        }
+    }
+
+    private static void encode(Compression.Encoder encoder, ByteBuffer buffer, FileChannel output) throws IOException
+    {
+        BufferUtil.clearToFill(buffer);
+        encoder.encode(buffer);
+        BufferUtil.flipToFlush(buffer, 0);
+        while (buffer.hasRemaining())
+        {
+            output.write(buffer);
+        }
+    }
+
+    private void removeFromCache(String key, Variant variant)
+    {
+        _variants.computeIfPresent(key, (k, existing) ->
+        {
+            if (existing != variant)
+                return existing;
+            if (existing.isAvailable())
+                _evictionPolicy.onRemoved(k);
+            release(existing);
+            return null;
+        });
+    }
+
+    private void release(Variant variant)
+    {
+        if (variant.isAvailable())
+            _cachedSize.add(-variant.getLength());
+        variant.release();
+    }
+
+    private void shrinkCache()
+    {
+        while (_cachedSize.sum() > _maxCacheSize)
+        {
+            String key = _evictionPolicy.evict();
+            if (key == null)
+                break;
+            _variants.computeIfPresent(key, (k, variant) ->
+            {
+                release(variant);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * <p>Discards all the variants.</p>
+     */
+    @ManagedOperation(value = "Discards all the variants", impact = "ACTION")
+    public void flushCache()
+    {
+        for (String key : _variants.keySet())
+        {
+            _variants.computeIfPresent(key, (k, variant) ->
+            {
+                if (variant.isAvailable())
+                    _evictionPolicy.onRemoved(k);
+                release(variant);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "%s@%x[%s,%s]".formatted(getClass().getSimpleName(), hashCode(), _factory, getCompressions());
+    }
+
+    private record Encoding(Compression compression, CompressedContentFormat format)
+    {
+    }
+
+    private static class Variant
+    {
+        private final CompressedContentFormat _format;
+        private final Path _file;
+        private final long _length;
+        private final ByteBuffer _buffer;
+        private final Instant _sourceLastModified;
+        private final long _sourceLength;
+        private final Resource _resource;
+        // The cache holds one reference, and each VariantHttpContent another.
+        private final Retainable.ReferenceCounter _references = new Retainable.ReferenceCounter();
+
+        private Variant(CompressedContentFormat format, Path file, long length, ByteBuffer buffer, Instant sourceLastModified, long sourceLength)
+        {
+            _format = format;
+            _file = file;
+            _length = length;
+            _buffer = buffer;
+            _sourceLastModified = sourceLastModified;
+            _sourceLength = sourceLength;
+            _resource = file == null ? null : ResourceFactory.root().newResource(file);
+        }
+
+        private CompressedContentFormat getFormat()
+        {
+            return _format;
+        }
+
+        private long getLength()
+        {
+            return _length;
+        }
+
+        /**
+         * @return whether the variant can be served, or {@code false} if
+         * compressing the content was not worth it
+         */
+        private boolean isAvailable()
+        {
+            return _file != null;
+        }
+
+        private boolean isValidFor(HttpContent content)
+        {
+            return Objects.equals(_sourceLastModified, content.getLastModifiedInstant()) &&
+                _sourceLength == content.getContentLengthValue();
+        }
+
+        /**
+         * @return whether the variant was retained, or {@code false} if it was already discarded
+         */
+        private boolean retain()
+        {
+            return _references.tryRetain();
+        }
+
+        /**
+         * <p>Releases a reference, deleting the file of the variant when it was the last one.</p>
+         */
+        private void release()
+        {
+            if (_references.release() && _file != null)
+                IO.delete(_file);
+        }
+
+        @Override
+        public String toString()
+        {
+            return "%s@%x[%s,%s,%d,%s]".formatted(getClass().getSimpleName(), hashCode(), _format, _file, _length, _references);
+        }
+    }
+
+    /**
+     * <p>A variant served to a response, which holds a reference to the
+     * variant, retained by the factory, until it is released.</p>
+     */
+    private static class VariantHttpContent extends ResourceHttpContent
+    {
+        private final AtomicBoolean _released = new AtomicBoolean();
+        private final Variant _variant;
+
+        private VariantHttpContent(Variant variant, String contentType)
+        {
+            super(variant._resource, contentType);
+            _variant = variant;
+        }
+
+        @Override
+        public void release()
+        {
+            if (_released.compareAndSet(false, true))
+                _variant.release();
+        }
+
+        @Override
+        public HttpField getContentEncoding()
+        {
+            return _variant.getFormat().getContentEncoding();
+        }
+
+        @Override
+        public String getContentEncodingValue()
+        {
+            return _variant.getFormat().getEncoding();
+        }
+
+        @Override
+        public long getContentLengthValue()
+        {
+            return _variant.getLength();
+        }
+
+        @Override
+        public ByteBuffer getByteBuffer()
+        {
+            ByteBuffer buffer = _variant._buffer;
+            return buffer == null ? null : buffer.slice();
+        }
+
+        @Override
+        public long getBytesOccupied()
+        {
+            return _variant.getLength();
+        }
+    }
+
+    private static class VariantFormatsHttpContent extends HttpContent.Wrapper
+    {
+        private final Set<CompressedContentFormat> _formats;
+
+        private VariantFormatsHttpContent(HttpContent content, Set<CompressedContentFormat> formats)
+        {
+            super(content);
+            _formats = formats;
+        }
+
+        @Override
+        public Set<CompressedContentFormat> getPreCompressedContentFormats()
+        {
+            return _formats;
+        }
+    }
+}
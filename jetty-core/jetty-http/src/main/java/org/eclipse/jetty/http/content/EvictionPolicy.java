@@ -0,0 +1,470 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http.content;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.eclipse.jetty.util.thread.AutoLock;
+
+/**
+ * <p>The policy that selects which entries are evicted from a {@link CachingHttpContentFactory}.</p>
+ * <p>Implementations track the cache keys incrementally as entries are added, accessed and
+ * removed, so that selecting the next entry to evict is a constant time operation.</p>
+ * <p>Implementations must be thread-safe; they are notified of additions and removals
+ * while the cache holds the lock of the entry, and must never call back into the cache.</p>
+ *
+ * @see CachingHttpContentFactory#setEvictionPolicy(EvictionPolicy)
+ */
+public interface EvictionPolicy
+{
+    /**
+     * <p>Notifies the policy of the maximum number of entries of the cache.</p>
+     *
+     * @param capacity the maximum number of entries of the cache
+     */
+    default void setCapacity(int capacity)
+    {
+    }
+
+    /**
+     * <p>Notifies the policy that an entry has been added to the cache.</p>
+     *
+     * @param key the key of the entry
+     */
+    void onAdded(String key);
+
+    /**
+     * <p>Notifies the policy that an entry has been found in the cache.</p>
+     * <p>Implementations may ignore accesses to keys they do not track, and may
+     * buffer accesses under contention to apply them later, but must not drop them,
+     * otherwise the eviction order would not reflect the accesses.</p>
+     *
+     * @param key the key of the entry
+     */
+    void onAccessed(String key);
+
+    /**
+     * <p>Notifies the policy that an entry has been removed from the cache.</p>
+     *
+     * @param key the key of the entry
+     */
+    void onRemoved(String key);
+
+    /**
+     * <p>Selects the next entry to evict, and stops tracking it.</p>
+     *
+     * @return the key of the entry to evict, or {@code null} if no entry is tracked
+     */
+    String evict();
+
+    /**
+     * <p>An {@link EvictionPolicy} that evicts the least recently used entry.</p>
+     */
+    class LRU implements EvictionPolicy
+    {
+        private final AutoLock _lock = new AutoLock();
+        private final AccessBuffer _accesses = new AccessBuffer();
+        private final LinkedHashMap<String, Boolean> _entries = new LinkedHashMap<>(16, 0.75F, true);
+
+        @Override
+        public void onAdded(String key)
+        {
+            try (AutoLock ignored = _lock.lock())
+            {
+                _accesses.drain(this::accessed);
+                _entries.put(key, Boolean.TRUE);
+            }
+        }
+
+        @Override
+        public void onAccessed(String key)
+        {
+            _accesses.record(_lock, key, this::accessed);
+        }
+
+        private void accessed(String key)
+        {
+            _entries.get(key);
+        }
+
+        @Override
+        public void onRemoved(String key)
+        {
+            try (AutoLock ignored = _lock.lock())
+            {
+                _accesses.drain(this::accessed);
+                _entries.remove(key);
+            }
+        }
+
+        @Override
+        public String evict()
+        {
+            try (AutoLock ignored = _lock.lock())
+            {
+                _accesses.drain(this::accessed);
+                return removeEldest(_entries);
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            try (AutoLock ignored = _lock.tryLock())
+            {
+                return String.format("%s@%x{size=%d}", getClass().getSimpleName(), hashCode(), _entries.size());
+            }
+        }
+    }
+
+    /**
+     * <p>A segmented LRU {@link EvictionPolicy}.</p>
+     * <p>New entries enter a probation segment, and are promoted to a protected segment
+     * when they are accessed again; entries demoted from the protected segment go back
+     * to the probation segment.
+     * Entries are evicted from the probation segment first, so that entries that are only
+     * accessed once cannot flush from the cache the entries that are accessed often.</p>
+     */
+    class SegmentedLRU implements EvictionPolicy
+    {
+        private final AutoLock _lock = new AutoLock();
+        private final AccessBuffer _accesses = new AccessBuffer();
+        private final LinkedHashMap<String, Boolean> _probation = new LinkedHashMap<>(16, 0.75F, true);
+        private final LinkedHashMap<String, Boolean> _protected = new LinkedHashMap<>(16, 0.75F, true);
+        private final float _protectedRatio;
+        private int _protectedCapacity = Integer.MAX_VALUE;
+
+        public SegmentedLRU()
+        {
+            this(0.8F);
+        }
+
+        /**
+         * @param protectedRatio the ratio of the cache capacity reserved to the protected segment
+         */
+        public SegmentedLRU(float protectedRatio)
+        {
+            if (protectedRatio <= 0 || protectedRatio >= 1)
+                throw new IllegalArgumentException("Invalid protected ratio " + protectedRatio);
+            _protectedRatio = protectedRatio;
+        }
+
+        @Override
+        public void setCapacity(int capacity)
+        {
+            try (AutoLock ignored = _lock.lock())
+            {
+                _accesses.drain(this::promote);
+                _protectedCapacity = Math.max(1, (int)(capacity * _protectedRatio));
+                while (_protected.size() > _protectedCapacity)
+                {
+                    _probation.put(removeEldest(_protected), Boolean.TRUE);
+                }
+            }
+        }
+
+        @Override
+        public void onAdded(String key)
+        {
+            try (AutoLock ignored = _lock.lock())
+            {
+                _accesses.drain(this::promote);
+                _probation.put(key, Boolean.TRUE);
+            }
+        }
+
+        @Override
+        public void onAccessed(String key)
+        {
+            _accesses.record(_lock, key, this::promote);
+        }
+
+        private void promote(String key)
+        {
+            if (_protected.get(key) != null)
+                return;
+            if (_probation.remove(key) == null)
+                return;
+            _protected.put(key, Boolean.TRUE);
+            if (_protected.size() > _protectedCapacity)
+                _probation.put(removeEldest(_protected), Boolean.TRUE);
+        }
+
+        @Override
+        public void onRemoved(String key)
+        {
+            try (AutoLock ignored = _lock.lock())
+            {
+                _accesses.drain(this::promote);
+                if (_probation.remove(key) == null)
+                    _protected.remove(key);
+            }
+        }
+
+        @Override
+        public String evict()
+        {
+            try (AutoLock ignored = _lock.lock())
+            {
+                _accesses.drain(this::promote);
+                String key = removeEldest(_probation);
+                return key != null ? key : removeEldest(_protected);
+            }
+        }
+
+        boolean isEmpty()
+        {
+            try (AutoLock ignored = _lock.lock())
+            {
+                _accesses.drain(this::promote);
+                return _probation.isEmpty() && _protected.isEmpty();
+            }
+        }
+
+        String peekVictim()
+        {
+            try (AutoLock ignored = _lock.lock())
+            {
+                _accesses.drain(this::promote);
+                LinkedHashMap<String, Boolean> segment = _probation.isEmpty() ? _protected : _probation;
+                return segment.isEmpty() ? null : segment.keySet().iterator().next();
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            try (AutoLock ignored = _lock.tryLock())
+            {
+                return String.format("%s@%x{probation=%d,protected=%d/%d}", getClass().getSimpleName(), hashCode(), _probation.size(), _protected.size(), _protectedCapacity);
+            }
+        }
+    }
+
+    /**
+     * <p>A W-TinyLFU {@link EvictionPolicy}.</p>
+     * <p>New entries enter a small LRU admission window.
+     * When an entry must be evicted, the least recently used entry of the window competes
+     * with the least recently used entry of a main {@link SegmentedLRU segmented LRU} region,
+     * and the one with the lowest estimated access frequency is evicted, while the other is
+     * admitted into (or stays in) the main region.</p>
+     * <p>Access frequencies are estimated with a count-min sketch of 4-bit counters that are
+     * periodically halved, so that the history of accesses ages over time.
+     * Compared to LRU, this policy has better hit ratios for skewed workloads, where a small
+     * number of resources are requested much more often than the others, because scans of
+     * resources that are rarely requested do not flush the popular resources from the cache.</p>
+     */
+    class WindowTinyLFU implements EvictionPolicy
+    {
+        private final AutoLock _lock = new AutoLock();
+        private final AccessBuffer _accesses = new AccessBuffer();
+        private final LinkedHashMap<String, Boolean> _window = new LinkedHashMap<>(16, 0.75F, true);
+        private final SegmentedLRU _main = new SegmentedLRU();
+        private final float _windowRatio;
+        private int _windowCapacity = 1;
+        private FrequencySketch _sketch = new FrequencySketch(16);
+
+        public WindowTinyLFU()
+        {
+            this(0.01F);
+        }
+
+        /**
+         * @param windowRatio the ratio of the cache capacity reserved to the admission window
+         */
+        public WindowTinyLFU(float windowRatio)
+        {
+            if (windowRatio <= 0 || windowRatio >= 1)
+                throw new IllegalArgumentException("Invalid window ratio " + windowRatio);
+            _windowRatio = windowRatio;
+        }
+
+        @Override
+        public void setCapacity(int capacity)
+        {
+            try (AutoLock ignored = _lock.lock())
+            {
+                _accesses.drain(this::accessed);
+                _windowCapacity = Math.max(1, (int)(capacity * _windowRatio));
+                _main.setCapacity(Math.max(1, capacity - _windowCapacity));
+                _sketch = new FrequencySketch(capacity);
+            }
+        }
+
+        @Override
+        public void onAdded(String key)
+        {
+            try (AutoLock ignored = _lock.lock())
+            {
+                _accesses.drain(this::accessed);
+                _sketch.increment(key);
+                _window.put(key, Boolean.TRUE);
+            }
+        }
+
+        @Override
+        public void onAccessed(String key)
+        {
+            _accesses.record(_lock, key, this::accessed);
+        }
+
+        private void accessed(String key)
+        {
+            _sketch.increment(key);
+            if (_window.get(key) == null)
+                _main.onAccessed(key);
+        }
+
+        @Override
+        public void onRemoved(String key)
+        {
+            try (AutoLock ignored = _lock.lock())
+            {
+                _accesses.drain(this::accessed);
+                if (_window.remove(key) == null)
+                    _main.onRemoved(key);
+            }
+        }
+
+        @Override
+        public String evict()
+        {
+            try (AutoLock ignored = _lock.lock())
+            {
+                _accesses.drain(this::accessed);
+                // Move the window overflow to the main region, until an eviction candidate is found.
+                while (true)
+                {
+                    String candidate = _window.size() > _windowCapacity || _main.isEmpty() ? removeEldest(_window) : null;
+                    if (candidate == null)
+                        return _main.evict();
+
+                    String victim = _main.peekVictim();
+                    if (victim == null)
+                        return candidate;
+
+                    if (_sketch.frequency(candidate) <= _sketch.frequency(victim))
+                        return candidate;
+
+                    _main.onAdded(candidate);
+                    if (_window.size() <= _windowCapacity)
+                    {
+                        _main.onRemoved(victim);
+                        return victim;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            try (AutoLock ignored = _lock.tryLock())
+            {
+                return String.format("%s@%x{window=%d/%d,main=%s}", getClass().getSimpleName(), hashCode(), _window.size(), _windowCapacity, _main);
+            }
+        }
+
+        /**
+         * <p>A count-min sketch with 4 rows of 4-bit counters, 16 counters packed in each {@code long}.</p>
+         * <p>When the number of increments reaches 10 times the cache capacity, all counters are halved.</p>
+         */
+        private static class FrequencySketch
+        {
+            private static final long[] SEEDS = {0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L};
+            private static final long RESET_MASK = 0x7777777777777777L;
+
+            private final long[] _table;
+            private final int _sampleSize;
+            private int _size;
+
+            private FrequencySketch(int capacity)
+            {
+                int length = Math.max(16, capacity);
+                length = length >= 1 << 30 ? 1 << 30 : Integer.highestOneBit(length - 1) << 1;
+                _table = new long[length];
+                _sampleSize = 10 * length;
+            }
+
+            private int frequency(String key)
+            {
+                int hash = spread(key.hashCode());
+                int frequency = Integer.MAX_VALUE;
+                for (int i = 0; i < SEEDS.length; ++i)
+                {
+                    int offset = offsetOf(hash, i);
+                    frequency = Math.min(frequency, (int)((_table[indexOf(hash, i)] >>> offset) & 0xF));
+                }
+                return frequency;
+            }
+
+            private void increment(String key)
+            {
+                int hash = spread(key.hashCode());
+                boolean incremented = false;
+                for (int i = 0; i < SEEDS.length; ++i)
+                {
+                    int index = indexOf(hash, i);
+                    int offset = offsetOf(hash, i);
+                    if (((_table[index] >>> offset) & 0xF) != 0xF)
+                    {
+                        _table[index] += 1L << offset;
+                        incremented = true;
+                    }
+                }
+                if (incremented && ++_size == _sampleSize)
+                    reset();
+            }
+
+            private void reset()
+            {
+                for (int i = 0; i < _table.length; ++i)
+                {
+                    _table[i] = (_table[i] >>> 1) & RESET_MASK;
+                }
+                _size /= 2;
+            }
+
+            private int indexOf(int hash, int row)
+            {
+                long h = (hash + SEEDS[row]) * SEEDS[row];
+                h += h >>> 32;
+                return (int)h & (_table.length - 1);
+            }
+
+            private static int offsetOf(int hash, int row)
+            {
+                // Each row selects one of the 16 counters of a long with 4 different bits of the hash.
+                return ((hash >>> (row << 3)) & 0xF) << 2;
+            }
+
+            private static int spread(int hash)
+            {
+                hash *= 0x9E3779B9;
+                return hash ^ (hash >>> 16);
+            }
+        }
+    }
+
+    private static String removeEldest(LinkedHashMap<String, Boolean> entries)
+    {
+        Iterator<String> iterator = entries.keySet().iterator();
+        if (!iterator.hasNext())
+            return null;
+        String key = iterator.next();
+        iterator.remove();
+        return key;
+    }
+}
@@ -115,6 +115,104 @@ public class RegexPathSpec extends AbstractPathSpec
     private final int _pathDepth;
     private final int _specLength;
     private final Pattern _pattern;
+    private final String _literalPrefix;
+
+    /**
+     * <p>Returns a literal prefix of all the strings fully matched by the given regular expression.</p>
+     * <p>The prefix is conservatively computed from the leading literal characters of the
+     * regular expression, so it may be shorter than the longest common prefix of the matched
+     * strings, and it is empty if the regular expression has a top level alternation, quoted
+     * sequences or does not start with a literal character.</p>
+     * <p>Strings that do not start with the literal prefix can be discarded without running
+     * the regular expression.</p>
+     *
+     * @param regex the regular expression
+     * @return the literal prefix of the strings matched by the regular expression, possibly empty
+     */
+    public static String getLiteralPrefix(String regex)
+    {
+        // Give up on constructs that would make the scan below unreliable.
+        if (regex.contains("\\Q") || hasTopLevelAlternation(regex))
+            return "";
+
+        StringBuilder prefix = new StringBuilder();
+        int i = regex.startsWith("^") ? 1 : 0;
+        while (i < regex.length())
+        {
+            char c = regex.charAt(i);
+            char literal;
+            int next;
+            if (c == '\\')
+            {
+                if (i + 1 >= regex.length())
+                    break;
+                // A backslash before a non-alphanumeric character escapes it.
+                char escaped = regex.charAt(i + 1);
+                if (escaped > 0x7F || Character.isLetterOrDigit(escaped))
+                    break;
+                literal = escaped;
+                next = i + 2;
+            }
+            else if (c < 0x20 || c > 0x7E || "^$.|?*+()[]{}".indexOf(c) >= 0)
+            {
+                break;
+            }
+            else
+            {
+                literal = c;
+                next = i + 1;
+            }
+
+            // A quantified literal is not part of the prefix.
+            if (next < regex.length() && "?*+{".indexOf(regex.charAt(next)) >= 0)
+                break;
+
+            prefix.append(literal);
+            i = next;
+        }
+        return prefix.toString();
+    }
+
+    private static boolean hasTopLevelAlternation(String regex)
+    {
+        int depth = 0;
+        int classDepth = 0;
+        for (int i = 0; i < regex.length(); i++)
+        {
+            char c = regex.charAt(i);
+            if (c == '\\')
+            {
+                i++;
+            }
+            else if (c == '[')
+            {
+                classDepth++;
+                // A ']' right after '[' or '[^' is a literal.
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == '^')
+                    i++;
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == ']')
+                    i++;
+            }
+            else if (classDepth > 0)
+            {
+                if (c == ']')
+                    classDepth--;
+            }
+            else if (c == '(')
+            {
+                depth++;
+            }
+            else if (c == ')')
+            {
+                depth--;
+            }
+            else if (c == '|' && depth <= 0)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
 
     public RegexPathSpec(String regex)
     {
@@ -226,11 +324,12 @@ public class RegexPathSpec extends AbstractPathSpec
         _pathDepth = pathDepth;
         _specLength = specLength;
         _pattern = pattern;
+        _literalPrefix = getLiteralPrefix(declaration);
 
         if (LOG.isDebugEnabled())
         {
-            LOG.debug("Creating RegexPathSpec[{}] (signature: [{}], group: {})",
-                _declaration, sig, _group);
+            LOG.debug("Creating RegexPathSpec[{}] (signature: [{}], group: {}, literal prefix: [{}])",
+                _declaration, sig, _group, _literalPrefix);
         }
     }
 
@@ -308,15 +407,29 @@ public class RegexPathSpec extends AbstractPathSpec
         return _pattern;
     }
 
+    /**
+     * @return the literal prefix of the paths matched by this path spec, possibly empty
+     * @see #getLiteralPrefix(String)
+     */
+    public String getLiteralPrefix()
+    {
+        return _literalPrefix;
+    }
+
     @Override
     public boolean matches(final String path)
     {
+        // Discard paths that cannot match without running the regex.
+        if (!path.startsWith(_literalPrefix))
+            return false;
         return getMatcher(path).matches();
     }
 
     @Override
     public MatchedPath matched(String path)
     {
+        if (!path.startsWith(_literalPrefix))
+            return null;
         Matcher matcher = getMatcher(path);
         if (matcher.matches())
         {
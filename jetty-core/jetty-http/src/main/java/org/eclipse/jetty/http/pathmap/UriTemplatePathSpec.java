@@ -62,6 +62,7 @@ public class UriTemplatePathSpec extends AbstractPathSpec
     private final int _pathDepth;
     private final int _specLength;
     private final Pattern _pattern;
+    private final String _literalPrefix;
     private final String[] _variables;
     /**
      * The logical (simplified) declaration
@@ -79,6 +80,7 @@ public class UriTemplatePathSpec extends AbstractPathSpec
             _pathDepth = 1;
             _specLength = 1;
             _pattern = Pattern.compile("^/$");
+            _literalPrefix = "/";
             _variables = new String[0];
             _logicalDeclaration = "/";
             return;
@@ -195,6 +197,7 @@ public class UriTemplatePathSpec extends AbstractPathSpec
         _pathDepth = pathDepth;
         _specLength = declaration.length();
         _pattern = pattern;
+        _literalPrefix = RegexPathSpec.getLiteralPrefix(pattern.pattern());
         _variables = variables;
         _logicalDeclaration = logicalSignature.toString();
 
@@ -412,12 +415,17 @@ public class UriTemplatePathSpec extends AbstractPathSpec
     @Override
     public boolean matches(final String path)
     {
+        // Discard paths that cannot match without running the regex.
+        if (!path.startsWith(_literalPrefix))
+            return false;
         return getMatcher(path).matches();
     }
 
     @Override
     public MatchedPath matched(String path)
     {
+        if (!path.startsWith(_literalPrefix))
+            return null;
         Matcher matcher = getMatcher(path);
         if (matcher.matches())
         {
@@ -0,0 +1,96 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+
+package org.eclipse.jetty.http;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ExtensiblePriorityTest
+{
+    public static Stream<Arguments> fieldValues()
+    {
+        return Stream.of(
+            Arguments.of(null, 3, false),
+            Arguments.of("", 3, false),
+            Arguments.of("u=0", 0, false),
+            Arguments.of("u=7", 7, false),
+            Arguments.of("i", 3, true),
+            Arguments.of("i=?1", 3, true),
+            Arguments.of("i=?0", 3, false),
+            Arguments.of("u=1, i", 1, true),
+            Arguments.of("i,u=5", 5, true),
+            Arguments.of(" u=2 , i ", 2, true),
+            Arguments.of("u=1;foo=bar, i;x", 1, true),
+            Arguments.of("u=8", 3, false),
+            Arguments.of("u=-1", 3, false),
+            Arguments.of("u=a", 3, false),
+            Arguments.of("i=1", 3, false),
+            Arguments.of("x=1, u=4", 4, false),
+            Arguments.of("u=1, u=6", 6, false)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("fieldValues")
+    public void testFromFieldValue(String value, int urgency, boolean incremental)
+    {
+        ExtensiblePriority priority = ExtensiblePriority.from(value);
+        assertEquals(urgency, priority.getUrgency());
+        assertEquals(incremental, priority.isIncremental());
+    }
+
+    @Test
+    public void testFromHttpFields()
+    {
+        assertSame(ExtensiblePriority.DEFAULT, ExtensiblePriority.from((HttpFields)null));
+        assertSame(ExtensiblePriority.DEFAULT, ExtensiblePriority.from(HttpFields.EMPTY));
+
+        HttpFields fields = HttpFields.build()
+            .add(HttpHeader.PRIORITY, "u=1")
+            .add(HttpHeader.PRIORITY, "i");
+        assertSame(ExtensiblePriority.of(1, true), ExtensiblePriority.from(fields));
+
+        fields = HttpFields.build()
+            .add(HttpHeader.PRIORITY, "u=1, i")
+            .add(HttpHeader.PRIORITY, "u=5");
+        assertSame(ExtensiblePriority.of(5, true), ExtensiblePriority.from(fields));
+    }
+
+    @Test
+    public void testOf()
+    {
+        assertSame(ExtensiblePriority.DEFAULT, ExtensiblePriority.of(3, false));
+        assertFalse(ExtensiblePriority.DEFAULT.isIncremental());
+        assertThrows(IllegalArgumentException.class, () -> ExtensiblePriority.of(-1, false));
+        assertThrows(IllegalArgumentException.class, () -> ExtensiblePriority.of(8, true));
+    }
+
+    @Test
+    public void testAsFieldValue()
+    {
+        assertEquals("u=3", ExtensiblePriority.DEFAULT.asFieldValue());
+        assertEquals("u=0, i", ExtensiblePriority.of(0, true).asFieldValue());
+        assertSame(ExtensiblePriority.of(6, true), ExtensiblePriority.from(ExtensiblePriority.of(6, true).asFieldValue()));
+    }
+}
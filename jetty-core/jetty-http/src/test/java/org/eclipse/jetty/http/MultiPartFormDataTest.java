@@ -17,9 +17,11 @@ import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -179,6 +181,65 @@ public class MultiPartFormDataTest
         }).get(5, TimeUnit.SECONDS);
     }
 
+    @Test
+    public void testPartConsumer() throws Exception
+    {
+        String boundary = "X0Y0";
+        String str = """
+            --$B\r
+            Content-Disposition: form-data; name="text"\r
+            \r
+            small\r
+            --$B\r
+            Content-Disposition: form-data; name="file"; filename="file.txt"\r
+            \r
+            The quick brown fox jumps over the lazy dog\r
+            --$B--\r
+            """.replace("$B", boundary);
+
+        AsyncContent source = new TestContent();
+        MultiPartFormData.Parser formData = new MultiPartFormData.Parser(boundary);
+        formData.setFilesDirectory(_tmpDir);
+        formData.setUseFilesForPartsWithoutFileName(false);
+        formData.setMaxMemoryFileSize(10);
+        List<MultiPart.Part> consumed = new ArrayList<>();
+        formData.setPartConsumer(consumed::add);
+        Content.Sink.write(source, true, str, Callback.NOOP);
+        try (MultiPartFormData.Parts parts = formData.parse(source).get(5, TimeUnit.SECONDS))
+        {
+            // The parts are handed to the consumer and not aggregated.
+            assertThat(parts.size(), is(0));
+        }
+
+        assertThat(consumed.size(), is(2));
+        MultiPart.Part text = consumed.get(0);
+        MultiPart.Part file = consumed.get(1);
+        assertThat(text, instanceOf(MultiPart.ChunksPart.class));
+        assertThat(file, instanceOf(MultiPart.PathPart.class));
+
+        // The content of a memory part is written to a file.
+        Path textPath = _tmpDir.resolve("text.txt");
+        text.writeTo(textPath);
+        assertThat(Files.readString(textPath), is("small"));
+
+        // The content of a file part is transferred from its file.
+        Path copyPath = _tmpDir.resolve("copy.txt");
+        try (FileChannel channel = FileChannel.open(copyPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))
+        {
+            assertThat(file.transferTo(channel), is(43L));
+        }
+        assertThat(Files.readString(copyPath), is("The quick brown fox jumps over the lazy dog"));
+
+        // The file of a file part is moved.
+        Path tempPath = ((MultiPart.PathPart)file).getPath();
+        Path filePath = _tmpDir.resolve("file.txt");
+        file.writeTo(filePath);
+        assertFalse(Files.exists(tempPath));
+        assertThat(Files.readString(filePath), is("The quick brown fox jumps over the lazy dog"));
+
+        consumed.forEach(MultiPart.Part::close);
+    }
+
     @Test
     public void testEmptyStringBoundary() throws Exception
     {
@@ -0,0 +1,143 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+
+package org.eclipse.jetty.http;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PrioritySchedulerTest
+{
+    private final PriorityScheduler<Item> scheduler = new PriorityScheduler<>(Item::priority, Item::streamId);
+
+    private List<String> round(List<Item> items)
+    {
+        List<String> result = new ArrayList<>();
+        scheduler.sort(items);
+        scheduler.reset();
+        for (int i = 0; i < items.size(); ++i)
+        {
+            Item item = items.get(i);
+            if (scheduler.accept(i) && item.produces())
+            {
+                scheduler.produced(i);
+                result.add(item.name());
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void testMostUrgentFirst()
+    {
+        List<Item> items = new ArrayList<>(List.of(
+            new Item("large", 1, ExtensiblePriority.of(5, false), true),
+            new Item("css", 3, ExtensiblePriority.of(0, false), true),
+            new Item("settings", 0, null, true)
+        ));
+
+        assertEquals(List.of("settings", "css"), round(items));
+        assertEquals(List.of("settings", "css", "large"), items.stream().map(Item::name).toList());
+    }
+
+    @Test
+    public void testIncrementalRoundRobin()
+    {
+        List<Item> items = new ArrayList<>(List.of(
+            new Item("a", 1, ExtensiblePriority.of(3, true), true),
+            new Item("b", 3, ExtensiblePriority.of(3, true), true),
+            new Item("c", 5, ExtensiblePriority.of(4, true), true)
+        ));
+
+        assertEquals(List.of("a", "b"), round(items));
+    }
+
+    @Test
+    public void testNonIncrementalOneAtATime()
+    {
+        List<Item> items = new ArrayList<>(List.of(
+            new Item("b", 3, ExtensiblePriority.DEFAULT, true),
+            new Item("a", 1, ExtensiblePriority.DEFAULT, true),
+            new Item("c", 5, ExtensiblePriority.of(3, true), true)
+        ));
+
+        assertEquals(List.of("a"), round(items));
+    }
+
+    @Test
+    public void testLessUrgentServedWhenMoreUrgentStalled()
+    {
+        List<Item> items = new ArrayList<>(List.of(
+            new Item("stalled", 1, ExtensiblePriority.of(0, false), false),
+            new Item("other", 3, ExtensiblePriority.of(6, false), true)
+        ));
+
+        assertEquals(List.of("other"), round(items));
+    }
+
+    @Test
+    public void testSortIsStable()
+    {
+        List<Item> items = new ArrayList<>(List.of(
+            new Item("headers", 3, ExtensiblePriority.DEFAULT, true),
+            new Item("data", 3, ExtensiblePriority.DEFAULT, true),
+            new Item("trailers", 3, ExtensiblePriority.DEFAULT, true),
+            new Item("first", 1, ExtensiblePriority.DEFAULT, true)
+        ));
+
+        scheduler.sort(items);
+        assertEquals(List.of("first", "headers", "data", "trailers"), items.stream().map(Item::name).toList());
+    }
+
+    @Test
+    public void testPriorityChangesDuringRound()
+    {
+        // Priorities that change at every read, as if concurrently updated.
+        AtomicInteger reads = new AtomicInteger();
+        PriorityScheduler<Item> changing = new PriorityScheduler<>(item -> ExtensiblePriority.of(reads.getAndIncrement() % 8, false), Item::streamId);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 256; ++i)
+        {
+            items.add(new Item("item" + i, i, null, true));
+        }
+
+        // The priorities are read once per item, so the sort does not fail.
+        changing.sort(items);
+        assertEquals(256, reads.get());
+        assertEquals(256, items.stream().distinct().count());
+
+        // The round uses the priorities read by the sort.
+        changing.reset();
+        int produced = 0;
+        for (int i = 0; i < items.size(); ++i)
+        {
+            if (changing.accept(i))
+            {
+                changing.produced(i);
+                ++produced;
+            }
+        }
+        assertEquals(1, produced);
+        assertEquals(256, reads.get());
+    }
+
+    private record Item(String name, long streamId, ExtensiblePriority priority, boolean produces)
+    {
+    }
+}
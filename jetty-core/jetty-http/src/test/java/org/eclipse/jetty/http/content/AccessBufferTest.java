@@ -0,0 +1,107 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http.content;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.util.thread.AutoLock;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccessBufferTest
+{
+    @Test
+    public void testAccessesBufferedWhileLockContended() throws Exception
+    {
+        AutoLock lock = new AutoLock();
+        AccessBuffer buffer = new AccessBuffer(4);
+        List<String> accessed = new CopyOnWriteArrayList<>();
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch unlock = new CountDownLatch(1);
+        Thread holder = new Thread(() ->
+        {
+            try (AutoLock ignored = lock.lock())
+            {
+                locked.countDown();
+                unlock.await();
+            }
+            catch (InterruptedException x)
+            {
+                throw new RuntimeException(x);
+            }
+        });
+        holder.start();
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        buffer.record(lock, "a", accessed::add);
+        buffer.record(lock, "b", accessed::add);
+        assertTrue(accessed.isEmpty());
+
+        unlock.countDown();
+        holder.join(5000);
+
+        buffer.record(lock, "c", accessed::add);
+        assertEquals(List.of("a", "b", "c"), accessed);
+    }
+
+    @Test
+    public void testFullBufferWaitsForLock() throws Exception
+    {
+        AutoLock lock = new AutoLock();
+        AccessBuffer buffer = new AccessBuffer(2);
+        List<String> accessed = new CopyOnWriteArrayList<>();
+
+        CountDownLatch recorded = new CountDownLatch(1);
+        Thread recorder;
+        try (AutoLock ignored = lock.lock())
+        {
+            recorder = new Thread(() ->
+            {
+                buffer.record(lock, "a", accessed::add);
+                buffer.record(lock, "b", accessed::add);
+                // The buffer is full, so this access waits for the lock.
+                buffer.record(lock, "c", accessed::add);
+                recorded.countDown();
+            });
+            recorder.start();
+            assertFalse(recorded.await(500, TimeUnit.MILLISECONDS));
+            assertTrue(accessed.isEmpty());
+        }
+
+        assertTrue(recorded.await(5, TimeUnit.SECONDS));
+        recorder.join(5000);
+        assertEquals(List.of("a", "b", "c"), accessed);
+    }
+
+    @Test
+    public void testOfferFailsWhenFull()
+    {
+        AccessBuffer buffer = new AccessBuffer(2);
+        assertTrue(buffer.offer("a"));
+        assertTrue(buffer.offer("b"));
+        assertFalse(buffer.offer("c"));
+
+        List<String> accessed = new CopyOnWriteArrayList<>();
+        buffer.drain(accessed::add);
+        assertEquals(List.of("a", "b"), accessed);
+        assertTrue(buffer.offer("c"));
+    }
+}
@@ -32,7 +32,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(WorkDirExtension.class)
@@ -96,4 +100,131 @@ public class CachingHttpContentFactoryTest
         // Even if the content cannot be retained, whatever we got from cachingHttpContentFactory must be released.
         content.release();
     }
+
+    @Test
+    public void testLRUEviction() throws Exception
+    {
+        CachingHttpContentFactory cachingHttpContentFactory = newCachingHttpContentFactory(10);
+        cachingHttpContentFactory.setMaxCachedFiles(3);
+
+        getContent(cachingHttpContentFactory, "file0.txt");
+        getContent(cachingHttpContentFactory, "file1.txt");
+        getContent(cachingHttpContentFactory, "file2.txt");
+        // Access file0 so that file1 becomes the least recently used.
+        getContent(cachingHttpContentFactory, "file0.txt");
+        getContent(cachingHttpContentFactory, "file3.txt");
+
+        assertEquals(3, cachingHttpContentFactory.getCachedFiles());
+        assertThat(cachingHttpContentFactory.getCache().get("file1.txt"), nullValue());
+        assertNotNull(cachingHttpContentFactory.getCache().get("file0.txt"));
+        assertEquals(1, cachingHttpContentFactory.getHits());
+        assertEquals(4, cachingHttpContentFactory.getMisses());
+        assertEquals(1, cachingHttpContentFactory.getEvictions());
+
+        cachingHttpContentFactory.resetStatistics();
+        assertEquals(0, cachingHttpContentFactory.getHits());
+        assertEquals(0, cachingHttpContentFactory.getMisses());
+        assertEquals(0, cachingHttpContentFactory.getEvictions());
+        cachingHttpContentFactory.flushCache();
+    }
+
+    @Test
+    public void testEvictionByCacheSize() throws Exception
+    {
+        CachingHttpContentFactory cachingHttpContentFactory = newCachingHttpContentFactory(10);
+        long fileSize = getContent(cachingHttpContentFactory, "file0.txt").getBytesOccupied();
+        cachingHttpContentFactory.setMaxCacheSize(fileSize * 2);
+
+        for (int i = 1; i < 10; ++i)
+        {
+            getContent(cachingHttpContentFactory, "file" + i + ".txt");
+        }
+
+        assertEquals(2, cachingHttpContentFactory.getCachedFiles());
+        assertEquals(fileSize * 2, cachingHttpContentFactory.getCachedSize());
+        assertNotNull(cachingHttpContentFactory.getCache().get("file8.txt"));
+        assertNotNull(cachingHttpContentFactory.getCache().get("file9.txt"));
+        assertEquals(8, cachingHttpContentFactory.getEvictions());
+        cachingHttpContentFactory.flushCache();
+    }
+
+    @Test
+    public void testSegmentedLRUResistsScan() throws Exception
+    {
+        CachingHttpContentFactory cachingHttpContentFactory = newCachingHttpContentFactory(100);
+        cachingHttpContentFactory.setEvictionPolicy(new EvictionPolicy.SegmentedLRU());
+        cachingHttpContentFactory.setMaxCachedFiles(10);
+
+        // Promote the popular entries to the protected segment.
+        for (int i = 0; i < 5; ++i)
+        {
+            getContent(cachingHttpContentFactory, "file" + i + ".txt");
+            getContent(cachingHttpContentFactory, "file" + i + ".txt");
+        }
+
+        // Scan entries that are only requested once.
+        for (int i = 50; i < 100; ++i)
+        {
+            getContent(cachingHttpContentFactory, "file" + i + ".txt");
+        }
+
+        for (int i = 0; i < 5; ++i)
+        {
+            assertNotNull(cachingHttpContentFactory.getCache().get("file" + i + ".txt"));
+        }
+        assertEquals(10, cachingHttpContentFactory.getCachedFiles());
+        cachingHttpContentFactory.flushCache();
+    }
+
+    @Test
+    public void testWindowTinyLFUResistsScan() throws Exception
+    {
+        CachingHttpContentFactory cachingHttpContentFactory = newCachingHttpContentFactory(100);
+        cachingHttpContentFactory.setEvictionPolicy(new EvictionPolicy.WindowTinyLFU());
+        cachingHttpContentFactory.setMaxCachedFiles(10);
+
+        // Interleave requests for popular entries with a scan of entries that are only requested once.
+        for (int i = 50; i < 100; ++i)
+        {
+            getContent(cachingHttpContentFactory, "file" + (i % 5) + ".txt");
+            getContent(cachingHttpContentFactory, "file" + i + ".txt");
+        }
+
+        for (int i = 0; i < 5; ++i)
+        {
+            assertNotNull(cachingHttpContentFactory.getCache().get("file" + i + ".txt"));
+        }
+        assertEquals(10, cachingHttpContentFactory.getCachedFiles());
+        assertEquals(45, cachingHttpContentFactory.getHits());
+        cachingHttpContentFactory.flushCache();
+    }
+
+    @Test
+    public void testCannotReplaceEvictionPolicyOfNonEmptyCache() throws Exception
+    {
+        CachingHttpContentFactory cachingHttpContentFactory = newCachingHttpContentFactory(1);
+        getContent(cachingHttpContentFactory, "file0.txt");
+        assertThrows(IllegalStateException.class, () -> cachingHttpContentFactory.setEvictionPolicy(new EvictionPolicy.WindowTinyLFU()));
+        cachingHttpContentFactory.flushCache();
+        cachingHttpContentFactory.setEvictionPolicy(new EvictionPolicy.WindowTinyLFU());
+    }
+
+    private CachingHttpContentFactory newCachingHttpContentFactory(int files) throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        for (int i = 0; i < files; ++i)
+        {
+            Files.writeString(dir.resolve("file" + i + ".txt"), "0123456789abcdefghijABCDEFGHIJ");
+        }
+        ResourceHttpContentFactory resourceHttpContentFactory = new ResourceHttpContentFactory(ResourceFactory.root().newResource(dir), MimeTypes.DEFAULTS);
+        return new CachingHttpContentFactory(resourceHttpContentFactory, sizedPool);
+    }
+
+    private HttpContent getContent(CachingHttpContentFactory cachingHttpContentFactory, String path) throws Exception
+    {
+        HttpContent content = cachingHttpContentFactory.getContent(path);
+        assertNotNull(content);
+        content.release();
+        return content;
+    }
 }
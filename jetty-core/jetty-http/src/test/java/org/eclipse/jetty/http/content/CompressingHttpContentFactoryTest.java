@@ -0,0 +1,318 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http.content;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.eclipse.jetty.http.CompressedContentFormat;
+import org.eclipse.jetty.http.MimeTypes;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDir;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDirExtension;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.eclipse.jetty.util.compression.GzipCompression;
+import org.eclipse.jetty.util.resource.ResourceFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@ExtendWith(WorkDirExtension.class)
+public class CompressingHttpContentFactoryTest
+{
+    public WorkDir workDir;
+    private Path docs;
+    private CompressingHttpContentFactory factory;
+
+    @BeforeEach
+    public void prepare() throws Exception
+    {
+        Path root = workDir.getEmptyPathDir();
+        docs = Files.createDirectories(root.resolve("docs"));
+        HttpContent.Factory resourceFactory = new ResourceHttpContentFactory(ResourceFactory.root().newResource(docs), MimeTypes.DEFAULTS);
+        HttpContent.Factory preCompressedFactory = new PreCompressedHttpContentFactory(resourceFactory, List.of(CompressedContentFormat.GZIP));
+        // Compress synchronously to make the tests deterministic.
+        factory = new CompressingHttpContentFactory(preCompressedFactory, Runnable::run);
+        factory.setCompressions(List.of(new GzipCompression()));
+        factory.setDirectory(root.resolve("variants"));
+        factory.start();
+    }
+
+    @AfterEach
+    public void dispose()
+    {
+        LifeCycle.stop(factory);
+    }
+
+    @Test
+    public void testVariantProducedAfterMinRequests() throws Exception
+    {
+        String text = "0123456789abcdefghijABCDEFGHIJ".repeat(100);
+        Files.writeString(docs.resolve("file.txt"), text);
+        factory.setMinRequests(2);
+
+        HttpContent content = factory.getContent("file.txt");
+        assertThat(content.getPreCompressedContentFormats(), empty());
+        assertNull(factory.getContent("file.txt.gz"));
+
+        // The second request triggers the compression.
+        factory.getContent("file.txt");
+        assertThat(factory.getCompressedVariants(), is(1L));
+
+        content = factory.getContent("file.txt");
+        assertThat(content.getPreCompressedContentFormats(), contains(CompressedContentFormat.GZIP));
+
+        HttpContent variant = factory.getContent("file.txt.gz");
+        assertNotNull(variant);
+        assertThat(variant.getContentEncodingValue(), is("gzip"));
+        assertThat(variant.getContentTypeValue(), is(content.getContentTypeValue()));
+        assertThat(variant.getContentLengthValue(), lessThan(content.getContentLengthValue()));
+        assertThat(factory.getCachedSize(), is(variant.getContentLengthValue()));
+        assertThat(gunzip(BufferUtil.toArray(variant.getByteBuffer())), is(text));
+        assertThat(gunzip(Files.readAllBytes(variant.getResource().getPath())), is(text));
+    }
+
+    @Test
+    public void testVariantInvalidatedOnModification() throws Exception
+    {
+        Path file = docs.resolve("file.txt");
+        Files.writeString(file, "A".repeat(1024));
+        factory.setMinRequests(1);
+
+        factory.getContent("file.txt");
+        HttpContent variant = factory.getContent("file.txt.gz");
+        assertNotNull(variant);
+        Path variantFile = variant.getResource().getPath();
+        variant.release();
+
+        Files.writeString(file, "B".repeat(2048));
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+
+        // The stale variant is not served, and its file is deleted.
+        assertNull(factory.getContent("file.txt.gz"));
+        assertThat(Files.exists(variantFile), is(false));
+        assertThat(factory.getCachedSize(), is(0L));
+
+        // The content is compressed again.
+        HttpContent content = factory.getContent("file.txt");
+        assertThat(content.getPreCompressedContentFormats(), empty());
+        content = factory.getContent("file.txt");
+        assertThat(content.getPreCompressedContentFormats(), contains(CompressedContentFormat.GZIP));
+        variant = factory.getContent("file.txt.gz");
+        assertThat(gunzip(BufferUtil.toArray(variant.getByteBuffer())), is("B".repeat(2048)));
+    }
+
+    @Test
+    public void testNotCompressible() throws Exception
+    {
+        Files.write(docs.resolve("image.png"), new byte[4096]);
+        Files.writeString(docs.resolve("small.txt"), "small");
+        factory.setMinRequests(1);
+
+        for (int i = 0; i < 2; ++i)
+        {
+            assertThat(factory.getContent("image.png").getPreCompressedContentFormats(), empty());
+            assertThat(factory.getContent("small.txt").getPreCompressedContentFormats(), empty());
+        }
+        assertThat(factory.getCompressedVariants(), is(0L));
+        assertNull(factory.getContent("image.png.gz"));
+    }
+
+    @Test
+    public void testPreCompressedResourceNotCompressed() throws Exception
+    {
+        Files.writeString(docs.resolve("file.txt"), "A".repeat(1024));
+        Files.write(docs.resolve("file.txt.gz"), new byte[16]);
+        factory.setMinRequests(1);
+
+        for (int i = 0; i < 2; ++i)
+        {
+            HttpContent content = factory.getContent("file.txt");
+            assertThat(content.getPreCompressedContentFormats(), contains(CompressedContentFormat.GZIP));
+        }
+        assertThat(factory.getCompressedVariants(), is(0L));
+        // The resource on disk is served.
+        assertThat(factory.getContent("file.txt.gz").getContentLengthValue(), is(16L));
+    }
+
+    @Test
+    public void testMaxCacheSizeEvictsLeastRecentlyUsed() throws Exception
+    {
+        factory.setMinRequests(1);
+        long variantLength = 0;
+        for (int i = 0; i < 3; ++i)
+        {
+            Files.writeString(docs.resolve("file" + i + ".txt"), String.valueOf(i).repeat(1024 * (i + 1)));
+            factory.getContent("file" + i + ".txt");
+            variantLength = Math.max(variantLength, factory.getContent("file" + i + ".txt.gz").getContentLengthValue());
+        }
+        assertThat(factory.getCachedVariants(), is(3L));
+
+        // Access file0, so that file1 is the least recently used.
+        assertNotNull(factory.getContent("file0.txt.gz"));
+        factory.setMaxCacheSize(factory.getCachedSize() - 1);
+
+        assertThat(factory.getCachedVariants(), is(2L));
+        assertThat(factory.getCachedSize(), lessThanOrEqualTo(factory.getMaxCacheSize()));
+        assertThat(factory.getCachedSize(), greaterThan(0L));
+        assertNotNull(factory.getContent("file0.txt.gz"));
+        assertThat(factory.getContent("file1.txt.gz"), nullValue());
+        assertNotNull(factory.getContent("file2.txt.gz"));
+    }
+
+    @Test
+    public void testVariantEvictedWhileInUse() throws Exception
+    {
+        String text = "0123456789".repeat(1024);
+        Files.writeString(docs.resolve("file.txt"), text);
+        factory.setMinRequests(1);
+        // Only serve variants from their files.
+        factory.setMaxBufferedLength(0);
+
+        factory.getContent("file.txt");
+        HttpContent variant1 = factory.getContent("file.txt.gz");
+        HttpContent variant2 = factory.getContent("file.txt.gz");
+        assertNull(variant1.getByteBuffer());
+        Path variantFile = variant1.getResource().getPath();
+
+        // Evict the variant while responses are still using it.
+        factory.setMaxCacheSize(0);
+        assertThat(factory.getCachedVariants(), is(0L));
+        assertNull(factory.getContent("file.txt.gz"));
+
+        // The file is still available to the responses in progress.
+        assertThat(gunzip(Files.readAllBytes(variantFile)), is(text));
+        variant1.release();
+        // Releasing the same content twice has no effect.
+        variant1.release();
+        assertThat(Files.exists(variantFile), is(true));
+        assertThat(gunzip(Files.readAllBytes(variant2.getResource().getPath())), is(text));
+
+        // The file is deleted when the last response completes.
+        variant2.release();
+        assertThat(Files.exists(variantFile), is(false));
+    }
+
+    @Test
+    public void testFlushCacheWhileInUse() throws Exception
+    {
+        Files.writeString(docs.resolve("file.txt"), "A".repeat(1024));
+        factory.setMinRequests(1);
+
+        factory.getContent("file.txt");
+        HttpContent variant = factory.getContent("file.txt.gz");
+        Path variantFile = variant.getResource().getPath();
+
+        factory.flushCache();
+        assertThat(factory.getCachedSize(), is(0L));
+        assertThat(Files.exists(variantFile), is(true));
+
+        variant.release();
+        assertThat(Files.exists(variantFile), is(false));
+    }
+
+    @Test
+    public void testStopDeletesVariants() throws Exception
+    {
+        Files.writeString(docs.resolve("file.txt"), "A".repeat(1024));
+        factory.setMinRequests(1);
+
+        factory.getContent("file.txt");
+        HttpContent variant = factory.getContent("file.txt.gz");
+        Path variantFile = variant.getResource().getPath();
+        variant.release();
+        assertThat(Files.exists(variantFile), is(true));
+
+        factory.stop();
+        assertThat(Files.exists(variantFile), is(false));
+        assertEquals(0L, factory.getCachedSize());
+    }
+
+    @Test
+    public void testDefaultCompressionsNotRetainedAcrossRestart() throws Exception
+    {
+        LifeCycle.stop(factory);
+        factory = new CompressingHttpContentFactory(new ResourceHttpContentFactory(ResourceFactory.root().newResource(docs), MimeTypes.DEFAULTS), Runnable::run);
+        factory.start();
+        assertThat(factory.getCompressions(), hasItem(instanceOf(GzipCompression.class)));
+
+        factory.stop();
+        assertThat(factory.getCompressions(), empty());
+
+        // Configuring compressions after a restart with the defaults is still possible.
+        GzipCompression compression = new GzipCompression();
+        factory.setCompressions(List.of(compression));
+        factory.start();
+        assertThat(factory.getCompressions(), contains(compression));
+    }
+
+    @Test
+    public void testFrequentlyRequestedPathStillTrackedAfterManyPaths() throws Exception
+    {
+        String text = "A".repeat(1024);
+        Files.writeString(docs.resolve("hot.txt"), text);
+        factory.setMinRequests(4);
+        for (int i = 0; i < 3; ++i)
+        {
+            factory.getContent("hot.txt");
+        }
+
+        // Request more paths than the number of tracked paths.
+        for (int i = 0; i < 4100; ++i)
+        {
+            String name = "cold" + i + ".txt";
+            Files.writeString(docs.resolve(name), text);
+            factory.getContent(name);
+        }
+        assertThat(factory.getCompressedVariants(), is(0L));
+
+        // The count of the hot path has been halved rather than discarded.
+        for (int i = 0; i < 3; ++i)
+        {
+            factory.getContent("hot.txt");
+        }
+        assertThat(factory.getCompressedVariants(), is(1L));
+        assertNotNull(factory.getContent("hot.txt.gz"));
+    }
+
+    private static String gunzip(byte[] bytes) throws Exception
+    {
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(bytes)))
+        {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -310,4 +310,30 @@ public class RegexPathSpecTest
         assertThat(new RegexPathSpec("^(.*).do$"), not(equalTo(new RegexPathSpec("^.*.do$"))));
         assertThat(new RegexPathSpec("/foo"), not(equalTo(new ServletPathSpec("/foo"))));
     }
+
+    public static Stream<Arguments> literalPrefixCases()
+    {
+        return Stream.of(
+            Arguments.of("/old/(.*)", "/old/"),
+            Arguments.of("^/a/b\\.html$", "/a/b.html"),
+            Arguments.of("/x/(a|b)/y", "/x/"),
+            Arguments.of("/foo/\\d+", "/foo/"),
+            Arguments.of("/ab?c", "/a"),
+            Arguments.of("/ab*c", "/a"),
+            Arguments.of("/ab{2}", "/a"),
+            Arguments.of("/a|/b", ""),
+            Arguments.of("/a[|]b|/c", ""),
+            Arguments.of("(?i)/foo", ""),
+            Arguments.of("\\Q/foo\\E.*", ""),
+            Arguments.of("^.*\\.do$", "")
+        );
+    }
+
+    @ParameterizedTest(name = "[{index}] RegexPathSpec.getLiteralPrefix(\"{0}\")")
+    @MethodSource("literalPrefixCases")
+    public void testLiteralPrefix(String regex, String expectedPrefix)
+    {
+        assertThat(RegexPathSpec.getLiteralPrefix(regex), is(expectedPrefix));
+        assertThat(new RegexPathSpec(regex).getLiteralPrefix(), is(expectedPrefix));
+    }
 }
@@ -39,7 +39,9 @@ import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import org.eclipse.jetty.http.ExtensiblePriority;
 import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http.PriorityScheduler;
 import org.eclipse.jetty.http2.api.Session;
 import org.eclipse.jetty.http2.api.Stream;
 import org.eclipse.jetty.http2.frames.DataFrame;
@@ -51,6 +53,7 @@ import org.eclipse.jetty.http2.frames.HeadersFrame;
 import org.eclipse.jetty.http2.frames.PingFrame;
 import org.eclipse.jetty.http2.frames.PrefaceFrame;
 import org.eclipse.jetty.http2.frames.PriorityFrame;
+import org.eclipse.jetty.http2.frames.PriorityUpdateFrame;
 import org.eclipse.jetty.http2.frames.PushPromiseFrame;
 import org.eclipse.jetty.http2.frames.ResetFrame;
 import org.eclipse.jetty.http2.frames.SettingsFrame;
@@ -120,6 +123,7 @@ public abstract class HTTP2Session extends AbstractLifeCycle implements Session,
     private int maxEncoderTableCapacity;
     private boolean pushEnabled;
     private boolean connectProtocolEnabled;
+    private PriorityScheduler<Entry> priorityScheduler;
 
     public HTTP2Session(Scheduler scheduler, EndPoint endPoint, Parser parser, Generator generator, Session.Listener listener, FlowControlStrategy flowControl, int initialStreamId)
     {
@@ -267,6 +271,45 @@ public abstract class HTTP2Session extends AbstractLifeCycle implements Session,
         this.writeThreshold = writeThreshold;
     }
 
+    /**
+     * @return whether DATA frames are scheduled according to the RFC 9218 priorities of their streams
+     * @see #setExtensiblePrioritiesEnabled(boolean)
+     */
+    @ManagedAttribute("Whether DATA frames are scheduled according to RFC 9218 priorities")
+    public boolean isExtensiblePrioritiesEnabled()
+    {
+        return priorityScheduler != null;
+    }
+
+    /**
+     * <p>Sets whether DATA frames are scheduled according to the
+     * {@link HTTP2Stream#getPriority() RFC 9218 priorities} of their streams,
+     * rather than in the order they are queued.</p>
+     * <p>When enabled, the DATA frames of the most urgent streams are written first,
+     * and those of streams with the same urgency are interleaved if the streams
+     * are incremental; see {@link PriorityScheduler} for details.</p>
+     *
+     * @param enabled whether to schedule DATA frames according to stream priorities
+     * @see #newPriorityScheduler()
+     */
+    public void setExtensiblePrioritiesEnabled(boolean enabled)
+    {
+        this.priorityScheduler = enabled ? newPriorityScheduler() : null;
+    }
+
+    /**
+     * @return a new scheduler for the frames of this session
+     */
+    protected PriorityScheduler<Entry> newPriorityScheduler()
+    {
+        return new PriorityScheduler<>(Entry::getPriority, Entry::getStreamId);
+    }
+
+    public PriorityScheduler<Entry> getPriorityScheduler()
+    {
+        return priorityScheduler;
+    }
+
     @ManagedAttribute("The HPACK encoder dynamic table maximum capacity")
     public int getMaxEncoderTableCapacity()
     {
@@ -397,6 +440,14 @@ public abstract class HTTP2Session extends AbstractLifeCycle implements Session,
         notifyIncomingFrame(frame);
     }
 
+    @Override
+    public void onPriorityUpdate(PriorityUpdateFrame frame)
+    {
+        if (LOG.isDebugEnabled())
+            LOG.debug("Received {} on {}", frame, this);
+        notifyIncomingFrame(frame);
+    }
+
     @Override
     public void onReset(ResetFrame frame)
     {
@@ -529,6 +580,12 @@ public abstract class HTTP2Session extends AbstractLifeCycle implements Session,
                         LOG.debug("{} CONNECT protocol for {}", enabled ? "Enabling" : "Disabling", this);
                     connectProtocolEnabled = enabled;
                 }
+                case SettingsFrame.NO_RFC7540_PRIORITIES ->
+                {
+                    // RFC 7540 priorities are never used, so there is nothing to do.
+                    if (LOG.isDebugEnabled())
+                        LOG.debug("{} RFC 7540 priorities for {}", value == 1 ? "Disabling" : "Enabling", this);
+                }
                 default ->
                 {
                     if (LOG.isDebugEnabled())
@@ -1521,6 +1578,22 @@ public abstract class HTTP2Session extends AbstractLifeCycle implements Session,
 
         public abstract boolean generate(ByteBufferPool.Accumulator accumulator) throws HpackException;
 
+        /**
+         * @return the id of the stream of this entry, or {@code 0} if this entry has no stream
+         */
+        public int getStreamId()
+        {
+            return stream == null ? 0 : stream.getId();
+        }
+
+        /**
+         * @return the priority of the stream of this entry, or {@code null} if this entry has no stream
+         */
+        public ExtensiblePriority getPriority()
+        {
+            return stream == null ? null : stream.getPriority();
+        }
+
         boolean hasHighPriority()
         {
             return false;
@@ -1551,6 +1624,7 @@ public abstract class HTTP2Session extends AbstractLifeCycle implements Session,
             {
                 // Frames of this type should not be dropped.
                 case PRIORITY:
+                case PRIORITY_UPDATE:
                 case SETTINGS:
                 case PING:
                 case GO_AWAY:
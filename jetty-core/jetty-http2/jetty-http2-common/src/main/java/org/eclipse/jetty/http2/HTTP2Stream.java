@@ -30,6 +30,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.eclipse.jetty.http.ExtensiblePriority;
 import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
@@ -81,6 +82,7 @@ public class HTTP2Stream implements Stream, Attachable, Closeable, Callback, Dum
     private boolean committed;
     private long idleTimeout;
     private long expireNanoTime = Long.MAX_VALUE;
+    private volatile ExtensiblePriority priority = ExtensiblePriority.DEFAULT;
 
     public HTTP2Stream(HTTP2Session session, int streamId, MetaData.Request request, boolean local)
     {
@@ -128,6 +130,23 @@ public class HTTP2Stream implements Stream, Attachable, Closeable, Callback, Dum
         return local;
     }
 
+    /**
+     * @return the RFC 9218 priority of this stream, used to schedule its DATA frames
+     * @see HTTP2Session#isExtensiblePrioritiesEnabled()
+     */
+    public ExtensiblePriority getPriority()
+    {
+        return priority;
+    }
+
+    /**
+     * @param priority the RFC 9218 priority of this stream
+     */
+    public void setPriority(ExtensiblePriority priority)
+    {
+        this.priority = Objects.requireNonNull(priority);
+    }
+
     @Override
     public HTTP2Session getSession()
     {
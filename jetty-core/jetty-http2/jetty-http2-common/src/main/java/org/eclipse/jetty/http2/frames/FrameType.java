@@ -28,6 +28,7 @@ public enum FrameType
     GO_AWAY(7),
     WINDOW_UPDATE(8),
     CONTINUATION(9),
+    PRIORITY_UPDATE(16),
     // Synthetic frames only needed by the implementation.
     // Use negative numbers to avoid clashes with newly
     // defined RFC frames such as ALT-SVC, ORIGIN, etc.
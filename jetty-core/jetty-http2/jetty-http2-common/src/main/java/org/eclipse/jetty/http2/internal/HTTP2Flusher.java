@@ -19,6 +19,7 @@ import java.nio.channels.ClosedChannelException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -26,6 +27,7 @@ import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 
+import org.eclipse.jetty.http.PriorityScheduler;
 import org.eclipse.jetty.http2.ErrorCode;
 import org.eclipse.jetty.http2.FlowControlStrategy;
 import org.eclipse.jetty.http2.HTTP2Session;
@@ -50,8 +52,9 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
     private final AutoLock lock = new AutoLock();
     private final Queue<WindowEntry> windows = new ArrayDeque<>();
     private final Deque<HTTP2Session.Entry> entries = new ArrayDeque<>();
-    private final Queue<HTTP2Session.Entry> pendingEntries = new ArrayDeque<>();
+    private final List<HTTP2Session.Entry> pendingEntries = new ArrayList<>();
     private final Collection<HTTP2Session.Entry> processedEntries = new ArrayList<>();
+    private final List<HTTP2Session.Entry> scheduledEntries = new ArrayList<>();
     private final HTTP2Session session;
     private final ByteBufferPool.Accumulator accumulator;
     private InvocationType invocationType = InvocationType.NON_BLOCKING;
@@ -199,11 +202,8 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
                 windowEntry.perform();
             }
 
-            HTTP2Session.Entry entry;
-            while ((entry = entries.poll()) != null)
-            {
-                pendingEntries.offer(entry);
-            }
+            pendingEntries.addAll(entries);
+            entries.clear();
         }
 
         if (pendingEntries.isEmpty())
@@ -213,6 +213,8 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
             return Action.IDLE;
         }
 
+        PriorityScheduler<HTTP2Session.Entry> scheduler = session.getPriorityScheduler();
+
         while (true)
         {
             boolean progress = false;
@@ -238,61 +240,84 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
                     continue;
                 }
 
-                try
+                if (scheduler != null)
                 {
-                    if (entry.generate(accumulator))
+                    // DATA frames are generated below, in priority order.
+                    if (entry.frame().getType() == FrameType.DATA)
                     {
-                        if (LOG.isDebugEnabled())
-                            LOG.debug("Generated {} frame bytes for {}", entry.getFrameBytesGenerated(), entry);
+                        scheduledEntries.add(entry);
+                        continue;
+                    }
+                    // Frames that follow a DATA frame of the same stream must wait for it.
+                    if (isScheduled(entry.getStreamId()))
+                        continue;
+                }
 
+                switch (generate(entry))
+                {
+                    case PROGRESS -> progress = true;
+                    case COMPLETE ->
+                    {
                         progress = true;
+                        pending.remove();
+                    }
+                    case FAILED -> pending.remove();
+                    case SESSION_FAILED ->
+                    {
+                        // Trying to send a GOAWAY, so we will iterate again.
+                        scheduledEntries.clear();
+                        return Action.IDLE;
+                    }
+                    case ABORTED ->
+                    {
+                        scheduledEntries.clear();
+                        return Action.SCHEDULED;
+                    }
+                }
+            }
 
-                        // We use ArrayList contains() + add() instead of HashSet add()
-                        // because that is faster for collections of size up to 250 entries.
-                        if (!processedEntries.contains(entry))
-                        {
-                            processedEntries.add(entry);
-                            invocationType = Invocable.combine(invocationType, Invocable.getInvocationType(entry.getCallback()));
-                        }
-
-                        if (entry.getDataBytesRemaining() == 0)
-                            pending.remove();
+            if (!scheduledEntries.isEmpty())
+            {
+                // Generate at most one DATA frame per stream, but only for
+                // the streams that the scheduler selects in this pass.
+                scheduler.sort(scheduledEntries);
+                scheduler.reset();
+                for (int i = 0; i < scheduledEntries.size(); ++i)
+                {
+                    HTTP2Session.Entry entry = scheduledEntries.get(i);
+                    if (!scheduler.accept(i))
+                    {
+                        if (LOG.isDebugEnabled())
+                            LOG.debug("Deferred {} by {}", entry, scheduler);
+                        continue;
                     }
-                    else
+                    switch (generate(entry))
                     {
-                        if (session.getSendWindow() <= 0 && stalledEntry == null)
+                        case PROGRESS ->
+                        {
+                            progress = true;
+                            scheduler.produced(i);
+                        }
+                        case COMPLETE ->
                         {
-                            stalledEntry = entry;
-                            if (LOG.isDebugEnabled())
-                                LOG.debug("Flow control stalled at {}", entry);
-                            // Continue to process control frames.
+                            progress = true;
+                            scheduler.produced(i);
+                            pendingEntries.remove(entry);
+                        }
+                        case FAILED -> pendingEntries.remove(entry);
+                        case SESSION_FAILED ->
+                        {
+                            scheduledEntries.clear();
+                            return Action.IDLE;
+                        }
+                        case ABORTED ->
+                        {
+                            scheduledEntries.clear();
+                            return Action.SCHEDULED;
                         }
                     }
                 }
-                catch (HpackException.StreamException failure)
-                {
-                    if (LOG.isDebugEnabled())
-                        LOG.debug("Failure generating {}", entry, failure);
-                    entry.resetAndFail(failure);
-                    pending.remove();
-                }
-                catch (HpackException.SessionException failure)
-                {
-                    if (LOG.isDebugEnabled())
-                        LOG.debug("Failure generating {}", entry, failure);
-                    onSessionFailure(failure);
-                    // The method above will try to send
-                    // a GOAWAY, so we will iterate again.
-                    return Action.IDLE;
-                }
-                catch (Throwable failure)
-                {
-                    // Failure to generate the entry is catastrophic.
-                    if (LOG.isDebugEnabled())
-                        LOG.debug("Failure generating {}", entry, failure);
-                    failed(failure);
-                    return Action.SCHEDULED;
-                }
+                scheduledEntries.clear();
             }
 
             if (!progress)
@@ -332,6 +357,75 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
         return Action.SCHEDULED;
     }
 
+    private boolean isScheduled(int streamId)
+    {
+        if (streamId == 0)
+            return false;
+        for (HTTP2Session.Entry entry : scheduledEntries)
+        {
+            if (entry.getStreamId() == streamId)
+                return true;
+        }
+        return false;
+    }
+
+    private Generation generate(HTTP2Session.Entry entry)
+    {
+        try
+        {
+            if (entry.generate(accumulator))
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Generated {} frame bytes for {}", entry.getFrameBytesGenerated(), entry);
+
+                // We use ArrayList contains() + add() instead of HashSet add()
+                // because that is faster for collections of size up to 250 entries.
+                if (!processedEntries.contains(entry))
+                {
+                    processedEntries.add(entry);
+                    invocationType = Invocable.combine(invocationType, Invocable.getInvocationType(entry.getCallback()));
+                }
+
+                return entry.getDataBytesRemaining() == 0 ? Generation.COMPLETE : Generation.PROGRESS;
+            }
+            else
+            {
+                if (session.getSendWindow() <= 0 && stalledEntry == null)
+                {
+                    stalledEntry = entry;
+                    if (LOG.isDebugEnabled())
+                        LOG.debug("Flow control stalled at {}", entry);
+                    // Continue to process control frames.
+                }
+                return Generation.NONE;
+            }
+        }
+        catch (HpackException.StreamException failure)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Failure generating {}", entry, failure);
+            entry.resetAndFail(failure);
+            return Generation.FAILED;
+        }
+        catch (HpackException.SessionException failure)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Failure generating {}", entry, failure);
+            // The method below will try to send
+            // a GOAWAY, so we will iterate again.
+            onSessionFailure(failure);
+            return Generation.SESSION_FAILED;
+        }
+        catch (Throwable failure)
+        {
+            // Failure to generate the entry is catastrophic.
+            if (LOG.isDebugEnabled())
+                LOG.debug("Failure generating {}", entry, failure);
+            failed(failure);
+            return Generation.ABORTED;
+        }
+    }
+
     @Override
     protected void onSuccess()
     {
@@ -355,15 +449,9 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
 
         if (stalledEntry != null)
         {
-            int size = pendingEntries.size();
-            for (int i = 0; i < size; ++i)
-            {
-                HTTP2Session.Entry entry = pendingEntries.peek();
-                if (entry == stalledEntry)
-                    break;
-                pendingEntries.poll();
-                pendingEntries.offer(entry);
-            }
+            int index = pendingEntries.indexOf(stalledEntry);
+            if (index > 0)
+                Collections.rotate(pendingEntries, -index);
             stalledEntry = null;
         }
     }
@@ -491,4 +579,32 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
             flowControl.onWindowUpdate(session, stream, frame);
         }
     }
+
+    private enum Generation
+    {
+        /**
+         * A frame was generated, and the entry has more frames to generate.
+         */
+        PROGRESS,
+        /**
+         * A frame was generated, and the entry has no more frames to generate.
+         */
+        COMPLETE,
+        /**
+         * No frame was generated, for example because of flow control.
+         */
+        NONE,
+        /**
+         * The entry failed and must be removed.
+         */
+        FAILED,
+        /**
+         * The session failed and a GOAWAY is being sent.
+         */
+        SESSION_FAILED,
+        /**
+         * The flusher failed.
+         */
+        ABORTED
+    }
 }
@@ -31,6 +31,9 @@ etc/jetty-http2c.xml
 ## Specifies the maximum number of keys in all SETTINGS frames received by a session.
 # jetty.http2c.maxSettingsKeys=64
 
+## Whether responses are written according to the RFC 9218 priorities sent by clients.
+# jetty.http2c.extensiblePrioritiesEnabled=false
+
 ## Specifies the maximum number of bad frames and pings per second,
 ## after which a session is closed to avoid denial of service attacks.
 # jetty.http2c.rateControl.maxEventsPerSecond=50
@@ -63,6 +63,7 @@ public abstract class AbstractHTTP2ServerConnectionFactory extends AbstractConne
     private int maxFrameSize = Frame.DEFAULT_MAX_SIZE;
     private int maxSettingsKeys = SettingsFrame.DEFAULT_MAX_KEYS;
     private boolean connectProtocolEnabled = true;
+    private boolean extensiblePrioritiesEnabled;
     private RateControl.Factory rateControlFactory = new WindowRateControl.Factory(128);
     private FlowControlStrategy.Factory flowControlStrategyFactory = () -> new BufferingFlowControlStrategy(0.5F);
     private long streamIdleTimeout;
@@ -225,6 +226,27 @@ public abstract class AbstractHTTP2ServerConnectionFactory extends AbstractConne
         this.connectProtocolEnabled = connectProtocolEnabled;
     }
 
+    @ManagedAttribute("Whether DATA frames are scheduled according to RFC 9218 priorities")
+    public boolean isExtensiblePrioritiesEnabled()
+    {
+        return extensiblePrioritiesEnabled;
+    }
+
+    /**
+     * <p>Sets whether the DATA frames of the responses are scheduled according to the
+     * RFC 9218 priorities sent by clients in the {@code Priority} request header
+     * and in {@code PRIORITY_UPDATE} frames.</p>
+     * <p>When enabled, the responses with a higher urgency are written first, so
+     * that small critical responses are not delayed by large downloads that share
+     * the same connection.</p>
+     *
+     * @param extensiblePrioritiesEnabled whether to schedule DATA frames according to RFC 9218 priorities
+     */
+    public void setExtensiblePrioritiesEnabled(boolean extensiblePrioritiesEnabled)
+    {
+        this.extensiblePrioritiesEnabled = extensiblePrioritiesEnabled;
+    }
+
     /**
      * @return the factory that creates RateControl objects
      */
@@ -287,6 +309,8 @@ public abstract class AbstractHTTP2ServerConnectionFactory extends AbstractConne
         if (maxHeadersSize > 0)
             settings.put(SettingsFrame.MAX_HEADER_LIST_SIZE, maxHeadersSize);
         settings.put(SettingsFrame.ENABLE_CONNECT_PROTOCOL, isConnectProtocolEnabled() ? 1 : 0);
+        if (isExtensiblePrioritiesEnabled())
+            settings.put(SettingsFrame.NO_RFC7540_PRIORITIES, 1);
         return settings;
     }
 
@@ -321,6 +345,7 @@ public abstract class AbstractHTTP2ServerConnectionFactory extends AbstractConne
         session.setInitialSessionRecvWindow(getInitialSessionRecvWindow());
         session.setWriteThreshold(getHttpConfiguration().getOutputBufferSize());
         session.setConnectProtocolEnabled(isConnectProtocolEnabled());
+        session.setExtensiblePrioritiesEnabled(isExtensiblePrioritiesEnabled());
 
         HTTP2Connection connection = new HTTP2ServerConnection(connector,
             endPoint, httpConfiguration, session, getInputBufferSize(), listener);
@@ -18,6 +18,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.eclipse.jetty.http.BadMessageException;
+import org.eclipse.jetty.http.ExtensiblePriority;
 import org.eclipse.jetty.http.MetaData;
 import org.eclipse.jetty.http2.CloseState;
 import org.eclipse.jetty.http2.ErrorCode;
@@ -29,6 +30,7 @@ import org.eclipse.jetty.http2.api.Stream;
 import org.eclipse.jetty.http2.api.server.ServerSessionListener;
 import org.eclipse.jetty.http2.frames.Frame;
 import org.eclipse.jetty.http2.frames.HeadersFrame;
+import org.eclipse.jetty.http2.frames.PriorityUpdateFrame;
 import org.eclipse.jetty.http2.frames.PushPromiseFrame;
 import org.eclipse.jetty.http2.frames.ResetFrame;
 import org.eclipse.jetty.http2.frames.SettingsFrame;
@@ -106,6 +108,9 @@ public class HTTP2ServerSession extends HTTP2Session implements ServerParser.Lis
                     {
                         onStreamOpened(stream);
 
+                        if (isExtensiblePrioritiesEnabled())
+                            stream.setPriority(ExtensiblePriority.from(metaData.getHttpFields()));
+
                         if (metaData instanceof MetaData.ConnectRequest)
                         {
                             if (!isConnectProtocolEnabled() && ((MetaData.ConnectRequest)metaData).getProtocol() != null)
@@ -159,6 +164,29 @@ public class HTTP2ServerSession extends HTTP2Session implements ServerParser.Lis
         }
     }
 
+    @Override
+    public void onPriorityUpdate(PriorityUpdateFrame frame)
+    {
+        super.onPriorityUpdate(frame);
+
+        if (!isExtensiblePrioritiesEnabled())
+            return;
+
+        int streamId = frame.getPrioritizedStreamId();
+        if (!isClientStream(streamId))
+        {
+            onConnectionFailure(ErrorCode.PROTOCOL_ERROR.code, "invalid_priority_update_frame");
+            return;
+        }
+
+        // A PRIORITY_UPDATE for a stream that is not open yet, or that
+        // is already closed, is ignored, as the priority of the stream
+        // will be set by its request headers.
+        HTTP2Stream stream = getStream(streamId);
+        if (stream != null)
+            stream.setPriority(ExtensiblePriority.from(frame.getPriority()));
+    }
+
     @Override
     public void onPushPromise(PushPromiseFrame frame)
     {
@@ -0,0 +1,190 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http2.tests;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http2.FlowControlStrategy;
+import org.eclipse.jetty.http2.SimpleFlowControlStrategy;
+import org.eclipse.jetty.http2.api.Session;
+import org.eclipse.jetty.http2.api.Stream;
+import org.eclipse.jetty.http2.api.server.ServerSessionListener;
+import org.eclipse.jetty.http2.frames.DataFrame;
+import org.eclipse.jetty.http2.frames.HeadersFrame;
+import org.eclipse.jetty.util.Callback;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExtensiblePrioritiesTest extends AbstractTest
+{
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testUrgentResponseOvertakesLargeDownload(boolean extensiblePrioritiesEnabled) throws Exception
+    {
+        int largeLength = 256 * 1024;
+        CountDownLatch smallDataQueuedLatch = new CountDownLatch(1);
+        start(new ServerSessionListener()
+        {
+            @Override
+            public Stream.Listener onNewStream(Stream stream, HeadersFrame frame)
+            {
+                MetaData.Request request = (MetaData.Request)frame.getMetaData();
+                boolean large = "/large".equals(request.getHttpURI().getPath());
+                ByteBuffer content = ByteBuffer.allocate(large ? largeLength : 1024);
+                MetaData.Response response = new MetaData.Response(HttpStatus.OK_200, null, HttpVersion.HTTP_2, HttpFields.EMPTY);
+                stream.headers(new HeadersFrame(stream.getId(), response, null, false), Callback.from(() ->
+                {
+                    stream.data(new DataFrame(stream.getId(), content, true), Callback.NOOP);
+                    if (!large)
+                        smallDataQueuedLatch.countDown();
+                }));
+                return null;
+            }
+        }, connectionFactory -> connectionFactory.setExtensiblePrioritiesEnabled(extensiblePrioritiesEnabled));
+        // Only the session flow control window stalls the large download.
+        http2Client.setInitialStreamRecvWindow(2 * largeLength);
+        HoldingFlowControlStrategy flowControl = new HoldingFlowControlStrategy();
+        http2Client.setFlowControlStrategyFactory(() -> flowControl);
+
+        Session session = newClientSession(new Session.Listener() {});
+
+        List<String> events = new CopyOnWriteArrayList<>();
+        AtomicInteger largeBytes = new AtomicInteger();
+        CountDownLatch largeLatch = new CountDownLatch(1);
+        HttpFields largeFields = HttpFields.build().put(HttpHeader.PRIORITY, "u=3");
+        session.newStream(new HeadersFrame(newRequest("GET", "/large", largeFields), null, true), new Stream.Listener()
+        {
+            @Override
+            public void onHeaders(Stream stream, HeadersFrame frame)
+            {
+                stream.demand();
+            }
+
+            @Override
+            public void onDataAvailable(Stream stream)
+            {
+                Stream.Data data = stream.readData();
+                if (data == null)
+                {
+                    stream.demand();
+                    return;
+                }
+                events.add("large");
+                largeBytes.addAndGet(data.frame().remaining());
+                data.release();
+                if (data.frame().isEndStream())
+                    largeLatch.countDown();
+                else
+                    stream.demand();
+            }
+        }).get(5, TimeUnit.SECONDS);
+
+        // The large download stalls when the session flow control window is exhausted.
+        await().atMost(5, TimeUnit.SECONDS).until(largeBytes::get, is(FlowControlStrategy.DEFAULT_WINDOW_SIZE));
+
+        CountDownLatch smallLatch = new CountDownLatch(1);
+        HttpFields smallFields = HttpFields.build().put(HttpHeader.PRIORITY, "u=0");
+        session.newStream(new HeadersFrame(newRequest("GET", "/small", smallFields), null, true), new Stream.Listener()
+        {
+            @Override
+            public void onHeaders(Stream stream, HeadersFrame frame)
+            {
+                stream.demand();
+            }
+
+            @Override
+            public void onDataAvailable(Stream stream)
+            {
+                Stream.Data data = stream.readData();
+                if (data == null)
+                {
+                    stream.demand();
+                    return;
+                }
+                events.add("small");
+                data.release();
+                if (data.frame().isEndStream())
+                    smallLatch.countDown();
+                else
+                    stream.demand();
+            }
+        }).get(5, TimeUnit.SECONDS);
+
+        // Both the large and the small DATA frames wait for the session flow control window.
+        assertTrue(smallDataQueuedLatch.await(5, TimeUnit.SECONDS));
+
+        // Open the session flow control window.
+        int mark = events.size();
+        flowControl.release();
+
+        assertTrue(smallLatch.await(5, TimeUnit.SECONDS));
+        assertTrue(largeLatch.await(5, TimeUnit.SECONDS));
+        assertThat(largeBytes.get(), is(largeLength));
+
+        // With extensible priorities, the urgent response is written before the large
+        // download resumes; otherwise, the DATA frames are written in queue order.
+        String first = events.get(mark);
+        assertEquals(extensiblePrioritiesEnabled ? "small" : "large", first);
+    }
+
+    private static class HoldingFlowControlStrategy extends SimpleFlowControlStrategy
+    {
+        private final List<Runnable> held = new ArrayList<>();
+        private boolean holding = true;
+
+        @Override
+        public void onDataConsumed(Session session, Stream stream, int length)
+        {
+            synchronized (this)
+            {
+                // Do not send WINDOW_UPDATE frames, so that the session flow control window stalls.
+                if (holding)
+                {
+                    held.add(() -> super.onDataConsumed(session, stream, length));
+                    return;
+                }
+            }
+            super.onDataConsumed(session, stream, length);
+        }
+
+        private void release()
+        {
+            List<Runnable> updates;
+            synchronized (this)
+            {
+                holding = false;
+                updates = new ArrayList<>(held);
+                held.clear();
+            }
+            updates.forEach(Runnable::run);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.io.foreign;
+
+import java.lang.foreign.Arena;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.eclipse.jetty.io.SlabByteBufferPool;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+
+/**
+ * <p>A {@link SlabByteBufferPool} whose direct slabs are allocated from a shared {@link Arena}
+ * per slab, so that their native memory is freed as soon as none of their buffers can be used
+ * anymore, rather than when the garbage collector runs.</p>
+ * <p>Heap slabs are allocated as in {@link SlabByteBufferPool}.</p>
+ */
+@ManagedObject
+public class ArenaSlabByteBufferPool extends SlabByteBufferPool
+{
+    private final Map<ByteBuffer, Arena> _arenas = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    /**
+     * Creates a new ArenaSlabByteBufferPool with a default configuration.
+     */
+    public ArenaSlabByteBufferPool()
+    {
+        this(-1, -1, -1, 0L, 0L);
+    }
+
+    /**
+     * Creates a new ArenaSlabByteBufferPool with the given configuration.
+     *
+     * @param factor the capacity factor, or -1 for the default
+     * @param maxCapacity the maximum ByteBuffer capacity, or -1 for the default
+     * @param slabSize the size in bytes of the slabs, or -1 for the default
+     * @param maxHeapMemory the max heap memory in bytes, -1 for unlimited memory or 0 to use default heuristic
+     * @param maxDirectMemory the max direct memory in bytes, -1 for unlimited memory or 0 to use default heuristic
+     */
+    public ArenaSlabByteBufferPool(int factor, int maxCapacity, int slabSize, long maxHeapMemory, long maxDirectMemory)
+    {
+        super(factor, maxCapacity, slabSize, maxHeapMemory, maxDirectMemory);
+    }
+
+    @ManagedAttribute("The number of direct slabs whose native memory is not freed yet")
+    public int getArenaCount()
+    {
+        return _arenas.size();
+    }
+
+    @Override
+    protected ByteBuffer allocateSlab(int bytes, boolean direct)
+    {
+        if (!direct)
+            return super.allocateSlab(bytes, false);
+        Arena arena = Arena.ofShared();
+        ByteBuffer slab = arena.allocate(bytes).asByteBuffer();
+        _arenas.put(slab, arena);
+        return slab;
+    }
+
+    @Override
+    protected void freeSlab(ByteBuffer slab, boolean direct)
+    {
+        Arena arena = _arenas.remove(slab);
+        if (arena != null)
+            arena.close();
+    }
+}
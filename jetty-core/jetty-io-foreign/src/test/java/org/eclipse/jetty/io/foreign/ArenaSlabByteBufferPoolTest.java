@@ -0,0 +1,79 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.io.foreign;
+
+import java.nio.ByteBuffer;
+
+import org.eclipse.jetty.io.RetainableByteBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ArenaSlabByteBufferPoolTest
+{
+    @Test
+    public void testClearFreesUnusedSlabs()
+    {
+        ArenaSlabByteBufferPool pool = new ArenaSlabByteBufferPool(10, 20, 20, -1, -1);
+
+        RetainableByteBuffer buffer = pool.acquire(10, true);
+        ByteBuffer byteBuffer = buffer.getByteBuffer();
+        assertThat(byteBuffer.isDirect(), is(true));
+        assertThat(pool.getArenaCount(), is(1));
+
+        // The slab has a buffer in use, it is not freed.
+        pool.clear();
+        assertThat(pool.getArenaCount(), is(1));
+
+        buffer.release();
+        pool.clear();
+        assertThat(pool.getArenaCount(), is(0));
+
+        // The native memory has been freed.
+        assertThrows(IllegalStateException.class, () -> byteBuffer.clear().put(0, (byte)1));
+    }
+
+    @Test
+    public void testRemovedBufferFreesSlabOnLastRelease()
+    {
+        ArenaSlabByteBufferPool pool = new ArenaSlabByteBufferPool(10, 20, 20, -1, -1);
+
+        RetainableByteBuffer buffer1 = pool.acquire(10, true);
+        RetainableByteBuffer buffer2 = pool.acquire(10, true);
+        buffer1.retain();
+        pool.removeAndRelease(buffer1);
+        pool.removeAndRelease(buffer2);
+
+        // The slab is released, but buffer1 is still in use.
+        assertThat(pool.getDirectSlabCount(), is(0L));
+        assertThat(pool.getArenaCount(), is(1));
+        buffer1.getByteBuffer().clear().put(0, (byte)1);
+
+        buffer1.release();
+        assertThat(pool.getArenaCount(), is(0));
+    }
+
+    @Test
+    public void testHeapSlabsAreNotArenas()
+    {
+        ArenaSlabByteBufferPool pool = new ArenaSlabByteBufferPool(10, 20, 20, -1, -1);
+
+        RetainableByteBuffer buffer = pool.acquire(10, false);
+        assertThat(buffer.getByteBuffer().isDirect(), is(false));
+        assertThat(pool.getArenaCount(), is(0));
+        buffer.release();
+    }
+}
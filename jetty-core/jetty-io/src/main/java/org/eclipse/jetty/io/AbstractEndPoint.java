@@ -17,6 +17,7 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.WritePendingException;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
@@ -368,6 +369,15 @@ public abstract class AbstractEndPoint extends IdleTimeout implements EndPoint
         _writeFlusher.write(callback, buffers);
     }
 
+    @Override
+    public void transferFrom(Callback callback, FileChannel file, long position, long length) throws WritePendingException
+    {
+        if (isTransferFromSupported())
+            _writeFlusher.transferFrom(callback, file, position, length);
+        else
+            EndPoint.super.transferFrom(callback, file, position, length);
+    }
+
     protected abstract void onIncompleteFlush();
 
     protected abstract void needsFillInterest() throws IOException;
@@ -41,6 +41,7 @@ import org.eclipse.jetty.io.internal.QueuedPool;
 import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.ConcurrentPool;
 import org.eclipse.jetty.util.Pool;
+import org.eclipse.jetty.util.ProcessorUtils;
 import org.eclipse.jetty.util.annotation.ManagedAttribute;
 import org.eclipse.jetty.util.annotation.ManagedObject;
 import org.eclipse.jetty.util.annotation.ManagedOperation;
@@ -58,6 +59,15 @@ import org.slf4j.LoggerFactory;
  * 2048, and so on with capacities 3072, 4096, 5120, etc.</p>
  * <p>The {@code maxHeapMemory} and {@code maxDirectMemory} default heuristic is to use {@link Runtime#maxMemory()}
  * divided by 8.</p>
+ * <p>When the {@link #setMagazineSize(int) magazine size} is positive, each bucket has a small, fixed,
+ * number of magazines, proportional to the number of processors, each caching up to that number of buffers,
+ * so that most acquires and releases do not contend on the shared buckets.
+ * A thread uses the magazine selected by its thread id, or the shared bucket if that magazine is in use
+ * by another thread, so that the number of magazines does not depend on the number of threads, which
+ * is important with virtual threads.
+ * An empty magazine is refilled with half a magazine of buffers from the shared bucket, and half of a
+ * full magazine is drained to the shared bucket.
+ * The buffers cached in magazines are accounted in the pool memory and may be evicted.</p>
  */
 @ManagedObject
 public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
@@ -77,6 +87,7 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
     private final ConcurrentMap<Integer, Long> _noBucketDirectAcquires = new ConcurrentHashMap<>();
     private final ConcurrentMap<Integer, Long> _noBucketIndirectAcquires = new ConcurrentHashMap<>();
     private boolean _statisticsEnabled;
+    private int _magazineSize;
 
     /**
      * Creates a new ArrayByteBufferPool with a default configuration.
@@ -197,6 +208,25 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
         _statisticsEnabled = enabled;
     }
 
+    /**
+     * @return the max number of buffers cached per magazine for each bucket, or 0 if magazines are disabled
+     */
+    @ManagedAttribute("The max number of buffers cached per magazine for each bucket")
+    public int getMagazineSize()
+    {
+        return _magazineSize;
+    }
+
+    /**
+     * @param magazineSize the max number of buffers cached per magazine for each bucket, or 0 to disable magazines
+     */
+    public void setMagazineSize(int magazineSize)
+    {
+        if (magazineSize < 0)
+            throw new IllegalArgumentException("Invalid magazine size: " + magazineSize);
+        _magazineSize = magazineSize;
+    }
+
     @ManagedAttribute("The minimum pooled buffer capacity")
     public int getMinCapacity()
     {
@@ -223,6 +253,19 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
 
         bucket.recordAcquire();
 
+        // Try to acquire from the magazine of this thread.
+        int magazineSize = getMagazineSize();
+        if (magazineSize > 0)
+        {
+            MagazineBuffer buffer = acquireFromMagazine(bucket, magazineSize);
+            if (buffer != null)
+            {
+                bucket.recordPooled();
+                buffer.acquire();
+                return buffer;
+            }
+        }
+
         // Try to acquire a pooled entry.
         Pool.Entry<RetainableByteBuffer> entry = bucket.getPool().acquire();
         if (entry == null)
@@ -237,6 +280,49 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
         return buffer;
     }
 
+    private MagazineBuffer acquireFromMagazine(RetainedBucket bucket, int magazineSize)
+    {
+        Magazine magazine = bucket.lockMagazine(magazineSize);
+        if (magazine == null)
+        {
+            // The magazine is in use by another thread.
+            bucket.recordMagazineMiss();
+            return null;
+        }
+
+        try
+        {
+            MagazineBuffer buffer = magazine.pop();
+            if (buffer != null)
+            {
+                bucket.recordMagazineHit();
+                return buffer;
+            }
+
+            bucket.recordMagazineMiss();
+
+            // Refill half of the magazine from the shared bucket,
+            // detaching the buffers from their pool entries.
+            for (int i = Math.max(1, magazineSize / 2); i > 0; --i)
+            {
+                Pool.Entry<RetainableByteBuffer> entry = bucket.getPool().acquire();
+                if (entry == null)
+                    break;
+                ByteBuffer byteBuffer = entry.getPooled().getByteBuffer();
+                if (entry.remove())
+                {
+                    bucket.recordMagazineAdd();
+                    magazine.push(new MagazineBuffer(byteBuffer, bucket));
+                }
+            }
+            return magazine.pop();
+        }
+        finally
+        {
+            magazine.unlock();
+        }
+    }
+
     private void recordNoBucketAcquire(int size, boolean direct)
     {
         if (isStatisticsEnabled())
@@ -276,13 +362,24 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
             return buffer.release();
         }
 
+        if (actual instanceof MagazineBuffer magazineBuffer)
+        {
+            // remove the actual magazine buffer, but release the wrapped buffer
+            magazineBuffer.remove();
+            return buffer.release();
+        }
+
         return ByteBufferPool.super.removeAndRelease(buffer);
     }
 
     private void reserve(RetainedBucket bucket, ByteBuffer byteBuffer)
     {
         bucket.recordRelease();
+        pool(bucket, byteBuffer);
+    }
 
+    private void pool(RetainedBucket bucket, ByteBuffer byteBuffer)
+    {
         // Try to reserve an entry to put the buffer into the pool.
         Pool.Entry<RetainableByteBuffer> entry = bucket.getPool().reserve();
         if (entry == null)
@@ -329,6 +426,45 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
         entry.remove();
     }
 
+    private void release(RetainedBucket bucket, MagazineBuffer buffer)
+    {
+        bucket.recordRelease();
+
+        int magazineSize = getMagazineSize();
+        Magazine magazine = magazineSize == 0 ? null : bucket.lockMagazine(magazineSize);
+        if (magazine == null)
+        {
+            // Magazines are disabled, or the magazine is in use by another thread.
+            unload(bucket, buffer);
+            return;
+        }
+
+        try
+        {
+            BufferUtil.reset(buffer.getByteBuffer());
+            if (magazine.isFull())
+            {
+                // Drain half of the magazine to the shared bucket.
+                for (int i = Math.max(1, magazineSize / 2); i > 0; --i)
+                {
+                    unload(bucket, magazine.pop());
+                }
+            }
+            magazine.push(buffer);
+        }
+        finally
+        {
+            magazine.unlock();
+        }
+    }
+
+    private void unload(RetainedBucket bucket, MagazineBuffer buffer)
+    {
+        // Return the buffer from the magazines to the shared bucket.
+        bucket.recordMagazineRemove();
+        pool(bucket, buffer.getByteBuffer());
+    }
+
     private boolean remove(RetainedBucket bucket, Pool.Entry<RetainableByteBuffer> entry)
     {
         // Cannot release, discard this buffer.
@@ -407,7 +543,7 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
     private long getByteBufferCount(boolean direct)
     {
         RetainedBucket[] buckets = direct ? _direct : _indirect;
-        return Arrays.stream(buckets).mapToLong(bucket -> bucket.getPool().size()).sum();
+        return Arrays.stream(buckets).mapToLong(RetainedBucket::getTotalCount).sum();
     }
 
     @ManagedAttribute("The number of pooled direct ByteBuffers that are available")
@@ -425,7 +561,7 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
     private long getAvailableByteBufferCount(boolean direct)
     {
         RetainedBucket[] buckets = direct ? _direct : _indirect;
-        return Arrays.stream(buckets).mapToLong(bucket -> bucket.getPool().getIdleCount()).sum();
+        return Arrays.stream(buckets).mapToLong(RetainedBucket::getIdleCount).sum();
     }
 
     @ManagedAttribute("The total bytes retained by direct ByteBuffers")
@@ -442,7 +578,7 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
 
     private long getTotalMemory(boolean direct)
     {
-        return getMemory(direct, bucket -> bucket.getPool().size());
+        return getMemory(direct, RetainedBucket::getTotalCount);
     }
 
     private long getMemory(boolean direct, ToLongFunction<RetainedBucket> count)
@@ -469,7 +605,7 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
 
     private long getAvailableMemory(boolean direct)
     {
-        return getMemory(direct, bucket -> bucket.getPool().getIdleCount());
+        return getMemory(direct, RetainedBucket::getIdleCount);
     }
 
     @ManagedAttribute("The heap buckets statistics")
@@ -557,6 +693,10 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
         private final LongAdder _evicts = new LongAdder();
         private final LongAdder _removes = new LongAdder();
         private final LongAdder _releases = new LongAdder();
+        private final LongAdder _magazineHits = new LongAdder();
+        private final LongAdder _magazineMisses = new LongAdder();
+        private final LongAdder _magazineBuffers = new LongAdder();
+        private final Magazine[] _magazines;
         private final Pool<RetainableByteBuffer> _pool;
         private final int _capacity;
 
@@ -570,6 +710,10 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
                     new QueuedPool<>(poolSize - ConcurrentPool.OPTIMAL_MAX_SIZE)
                 );
             _capacity = capacity;
+            // A power of 2 number of magazines, to select them with a mask.
+            int magazines = Integer.highestOneBit(ProcessorUtils.availableProcessors() * 2 - 1);
+            _magazines = new Magazine[magazines];
+            Arrays.setAll(_magazines, i -> new Magazine());
         }
 
         public void recordAcquire()
@@ -608,6 +752,71 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
                 _removes.increment();
         }
 
+        public void recordMagazineHit()
+        {
+            if (isStatisticsEnabled())
+                _magazineHits.increment();
+        }
+
+        public void recordMagazineMiss()
+        {
+            if (isStatisticsEnabled())
+                _magazineMisses.increment();
+        }
+
+        private void recordMagazineAdd()
+        {
+            _magazineBuffers.increment();
+        }
+
+        private void recordMagazineRemove()
+        {
+            _magazineBuffers.decrement();
+        }
+
+        /**
+         * @param size the magazine size
+         * @return the locked magazine for the current thread, or null if it is locked by another thread
+         */
+        private Magazine lockMagazine(int size)
+        {
+            int index = (int)(Thread.currentThread().getId() & (_magazines.length - 1));
+            Magazine magazine = _magazines[index];
+            if (!magazine.tryLock())
+                return null;
+            if (magazine.getCapacity() != size)
+            {
+                // The magazine size changed, drain the buffers that do not fit.
+                while (magazine.getSize() > size)
+                {
+                    unload(this, magazine.pop());
+                }
+                magazine.resize(size);
+            }
+            return magazine;
+        }
+
+        /**
+         * @return the number of buffers of this bucket, either in the shared pool or detached into magazines
+         */
+        private long getTotalCount()
+        {
+            return getPool().size() + _magazineBuffers.longValue();
+        }
+
+        /**
+         * @return the number of idle buffers of this bucket, either in the shared pool or in magazines
+         */
+        private long getIdleCount()
+        {
+            long idle = getPool().getIdleCount();
+            for (Magazine magazine : _magazines)
+            {
+                idle += magazine.getSize();
+            }
+            return idle;
+        }
+
         private int getCapacity()
         {
             return _capacity;
@@ -627,7 +836,7 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
                 entry = _pool.acquire();
 
             if (entry == null)
-                return 0;
+                return evictFromMagazines();
 
             recordRemove();
             entry.remove();
@@ -635,13 +844,45 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
             return getCapacity();
         }
 
+        private int evictFromMagazines()
+        {
+            for (Magazine magazine : _magazines)
+            {
+                // Skip the magazines in use, they will be evicted at the next attempt.
+                if (magazine.getSize() == 0 || !magazine.tryLock())
+                    continue;
+                MagazineBuffer buffer;
+                try
+                {
+                    buffer = magazine.pop();
+                }
+                finally
+                {
+                    magazine.unlock();
+                }
+                if (buffer != null)
+                {
+                    recordMagazineRemove();
+                    recordRemove();
+                    return getCapacity();
+                }
+            }
+            return 0;
+        }
+
         private Statistics getStatistics()
         {
             long pooled = _pooled.longValue();
             long acquires = _acquires.longValue();
             float hitRatio = acquires == 0 ? Float.NaN : pooled * 100F / acquires;
-            return new Statistics(getCapacity(), getPool().getInUseCount(), getPool().size(), pooled, acquires,
-                _releases.longValue(), hitRatio, _nonPooled.longValue(), _evicts.longValue(), _removes.longValue());
+            long magazineHits = _magazineHits.longValue();
+            long magazineAcquires = magazineHits + _magazineMisses.longValue();
+            float magazineHitRatio = magazineAcquires == 0 ? Float.NaN : magazineHits * 100F / magazineAcquires;
+            long totalEntries = getTotalCount();
+            long inUseEntries = totalEntries - getIdleCount();
+            return new Statistics(getCapacity(), inUseEntries, totalEntries, pooled, acquires,
+                _releases.longValue(), hitRatio, _nonPooled.longValue(), _evicts.longValue(), _removes.longValue(),
+                magazineHits, magazineAcquires, magazineHitRatio);
         }
 
         public void clear()
@@ -652,6 +893,23 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
             _evicts.reset();
             _removes.reset();
             _releases.reset();
+            _magazineHits.reset();
+            _magazineMisses.reset();
+            for (Magazine magazine : _magazines)
+            {
+                magazine.lock();
+                try
+                {
+                    while (magazine.pop() != null)
+                    {
+                        recordMagazineRemove();
+                    }
+                }
+                finally
+                {
+                    magazine.unlock();
+                }
+            }
             getPool().stream().forEach(Pool.Entry::remove);
         }
 
@@ -661,8 +919,9 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
             return String.format("%s[%s]", super.toString(), getStatistics());
         }
 
-        private record Statistics(int capacity, int inUseEntries, int totalEntries, long pooled, long acquires,
-                                  long releases, float hitRatio, long nonPooled, long evicts, long removes)
+        private record Statistics(int capacity, long inUseEntries, long totalEntries, long pooled, long acquires,
+                                  long releases, float hitRatio, long nonPooled, long evicts, long removes,
+                                  long magazineHits, long magazineAcquires, float magazineHitRatio)
         {
             private Map<String, Object> toMap()
             {
@@ -684,7 +943,7 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
             @Override
             public String toString()
             {
-                return String.format(Locale.ROOT, "capacity=%d,in-use=%d/%d,pooled/acquires/releases=%d/%d/%d(%.3f%%),non-pooled/evicts/removes=%d/%d/%d",
+                return String.format(Locale.ROOT, "capacity=%d,in-use=%d/%d,pooled/acquires/releases=%d/%d/%d(%.3f%%),non-pooled/evicts/removes=%d/%d/%d,magazine=%d/%d(%.3f%%)",
                     capacity,
                     inUseEntries,
                     totalEntries,
@@ -694,7 +953,10 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
                     hitRatio,
                     nonPooled,
                     evicts,
-                    removes
+                    removes,
+                    magazineHits,
+                    magazineAcquires,
+                    magazineHitRatio
                 );
             }
         }
@@ -716,6 +978,105 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
         }
     }
 
+    /**
+     * <p>A stack of buffers detached from the shared bucket.</p>
+     * <p>A magazine is shared by the threads whose id selects it, so it is
+     * guarded by a lock that is only ever tried, except when clearing the pool,
+     * so that threads never wait for a magazine.</p>
+     */
+    private static class Magazine
+    {
+        private final AtomicBoolean _lock = new AtomicBoolean();
+        private MagazineBuffer[] _buffers = new MagazineBuffer[0];
+        private volatile int _size;
+
+        private boolean tryLock()
+        {
+            return !_lock.get() && _lock.compareAndSet(false, true);
+        }
+
+        private void lock()
+        {
+            while (!tryLock())
+            {
+                Thread.onSpinWait();
+            }
+        }
+
+        private void unlock()
+        {
+            _lock.set(false);
+        }
+
+        private int getCapacity()
+        {
+            return _buffers.length;
+        }
+
+        private void resize(int capacity)
+        {
+            _buffers = Arrays.copyOf(_buffers, capacity);
+        }
+
+        private int getSize()
+        {
+            return _size;
+        }
+
+        private boolean isFull()
+        {
+            return _size == _buffers.length;
+        }
+
+        private void push(MagazineBuffer buffer)
+        {
+            int size = _size;
+            _buffers[size] = buffer;
+            _size = size + 1;
+        }
+
+        private MagazineBuffer pop()
+        {
+            int size = _size;
+            if (size == 0)
+                return null;
+            MagazineBuffer buffer = _buffers[--size];
+            _buffers[size] = null;
+            _size = size;
+            return buffer;
+        }
+    }
+
+    private class MagazineBuffer extends AbstractRetainableByteBuffer
+    {
+        private final RetainedBucket _bucket;
+        private boolean _removed;
+
+        private MagazineBuffer(ByteBuffer buffer, RetainedBucket bucket)
+        {
+            super(buffer);
+            _bucket = Objects.requireNonNull(bucket);
+        }
+
+        @Override
+        public boolean release()
+        {
+            boolean released = super.release();
+            if (released && !_removed)
+                ArrayByteBufferPool.this.release(_bucket, this);
+            return released;
+        }
+
+        void remove()
+        {
+            // Never return this buffer to a magazine nor to the shared bucket.
+            if (_removed)
+                return;
+            _removed = true;
+            _bucket.recordMagazineRemove();
+        }
+    }
+
     private class ReservedBuffer extends AbstractRetainableByteBuffer
     {
         private final RetainedBucket _bucket;
@@ -18,11 +18,13 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadPendingException;
 import java.nio.channels.WritePendingException;
 import java.security.cert.X509Certificate;
 import javax.net.ssl.SSLSession;
 
+import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.util.thread.Invocable;
@@ -243,6 +245,68 @@ public interface EndPoint extends Closeable
         return flush(buffers);
     }
 
+    /**
+     * <p>Returns whether this endpoint supports zero-copy transfers of file regions
+     * via {@link #transferFrom(FileChannel, long, long)}.</p>
+     * <p>Endpoints that transform the bytes they write (for example, to encrypt them)
+     * cannot hand file regions directly to the kernel, and must return {@code false}.</p>
+     *
+     * @return whether this endpoint supports zero-copy transfers of file regions
+     * @see #transferFrom(Callback, FileChannel, long, long)
+     */
+    default boolean isTransferFromSupported()
+    {
+        return false;
+    }
+
+    /**
+     * <p>Transfers bytes from the given file region to this endpoint, without
+     * copying them through user space buffers when the platform allows it.</p>
+     * <p>Like {@link #flush(ByteBuffer...)}, this method is non-blocking and may
+     * transfer fewer bytes than requested, possibly {@code 0}.</p>
+     * <p>The default implementation, used when {@link #isTransferFromSupported()}
+     * returns {@code false}, reads the bytes into a buffer and flushes them.</p>
+     *
+     * @param file the file to transfer bytes from
+     * @param position the file position of the first byte to transfer
+     * @param length the maximum number of bytes to transfer
+     * @return the number of bytes transferred
+     * @throws IOException if the endpoint is closed or output is shutdown.
+     * @see #isTransferFromSupported()
+     */
+    default long transferFrom(FileChannel file, long position, long length) throws IOException
+    {
+        ByteBuffer buffer = BufferUtil.allocate((int)Math.min(length, 16 * 1024));
+        BufferUtil.clearToFill(buffer);
+        int read = file.read(buffer, position);
+        if (read < 0)
+            throw new IOException("Transfer past end of file: " + position);
+        BufferUtil.flipToFlush(buffer, 0);
+        flush(buffer);
+        // The bytes that were read but not flushed are read again by the next transfer.
+        return buffer.position();
+    }
+
+    /**
+     * <p>Transfers the given file region via {@link #transferFrom(FileChannel, long, long)} and
+     * invokes callback methods when either all the bytes have been transferred or an error occurs.</p>
+     * <p>The default implementation, used when {@link #isTransferFromSupported()} returns
+     * {@code false}, reads the bytes into a buffer and {@link #write(Callback, ByteBuffer...) writes}
+     * them, reusing the same buffer until the whole file region has been written.</p>
+     *
+     * @param callback the callback to call when an error occurs or the transfer completed
+     * @param file the file to transfer bytes from
+     * @param position the file position of the first byte to transfer
+     * @param length the number of bytes to transfer
+     * @throws WritePendingException if another write operation is concurrent.
+     * @see #isTransferFromSupported()
+     */
+    default void transferFrom(Callback callback, FileChannel file, long position, long length) throws WritePendingException
+    {
+        Content.Sink sink = (last, byteBuffer, cb) -> write(cb, byteBuffer);
+        IOResources.copy(file, sink, null, (int)Math.min(length, 16 * 1024), false, position, length, callback);
+    }
+
     /**
      * @return The underlying transport object (socket, channel, etc.)
      */
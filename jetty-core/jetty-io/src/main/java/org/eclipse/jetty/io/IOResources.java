@@ -16,6 +16,7 @@ package org.eclipse.jetty.io;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -274,7 +275,7 @@ public class IOResources
             Path path = resource.getPath();
             if (path != null)
             {
-                new PathToSinkCopier(path, sink, bufferPool, bufferSize, direct, callback).iterate();
+                new ChannelToSinkCopier(path, sink, bufferPool, bufferSize, direct, callback).iterate();
                 return;
             }
 
@@ -333,7 +334,7 @@ public class IOResources
             Path path = resource.getPath();
             if (path != null)
             {
-                new PathToSinkCopier(path, sink, bufferPool, bufferSize, direct, first, length, callback).iterate();
+                new ChannelToSinkCopier(path, sink, bufferPool, bufferSize, direct, first, length, callback).iterate();
                 return;
             }
 
@@ -357,9 +358,36 @@ public class IOResources
         }
     }
 
-    private static class PathToSinkCopier extends IteratingNestedCallback
+    /**
+     * <p>Performs an asynchronous copy of a region of a file to a sink, using the given buffer pool and buffer characteristics.</p>
+     * <p>The position of the file channel is modified by the copy, but the file channel is not closed.</p>
+     *
+     * @param file the file to copy from.
+     * @param sink the sink to copy to.
+     * @param bufferPool the {@link ByteBufferPool} to get buffers from. {@code null} means allocate new buffers as needed.
+     * @param bufferSize the size of the buffer to be used for the copy. Any value less than 1 means use a default value.
+     * @param direct the directness of the buffers, this parameter is ignored if {@code bufferSize} is &lt; 1.
+     * @param first the first byte of the file to start from.
+     * @param length the length of the file region to copy.
+     * @param callback the callback to notify when the copy is done.
+     */
+    public static void copy(FileChannel file, Content.Sink sink, ByteBufferPool bufferPool, int bufferSize, boolean direct, long first, long length, Callback callback)
+    {
+        try
+        {
+            file.position(first);
+            new ChannelToSinkCopier(file, false, sink, bufferPool, bufferSize, direct, length, callback).iterate();
+        }
+        catch (Throwable x)
+        {
+            callback.failed(x);
+        }
+    }
+
+    private static class ChannelToSinkCopier extends IteratingNestedCallback
     {
         private final SeekableByteChannel channel;
+        private final boolean close;
         private final Content.Sink sink;
         private final ByteBufferPool pool;
         private final int bufferSize;
@@ -368,17 +396,23 @@ public class IOResources
         private RetainableByteBuffer retainableByteBuffer;
         private boolean terminated;
 
-        public PathToSinkCopier(Path path, Content.Sink sink, ByteBufferPool pool, int bufferSize, boolean direct, Callback callback) throws IOException
+        public ChannelToSinkCopier(Path path, Content.Sink sink, ByteBufferPool pool, int bufferSize, boolean direct, Callback callback) throws IOException
         {
             this(path, sink, pool, bufferSize, direct, -1L, -1L, callback);
         }
 
-        public PathToSinkCopier(Path path, Content.Sink sink, ByteBufferPool pool, int bufferSize, boolean direct, long first, long length, Callback callback) throws IOException
+        public ChannelToSinkCopier(Path path, Content.Sink sink, ByteBufferPool pool, int bufferSize, boolean direct, long first, long length, Callback callback) throws IOException
         {
-            super(callback);
-            this.channel = Files.newByteChannel(path);
+            this(Files.newByteChannel(path), true, sink, pool, bufferSize, direct, length, callback);
             if (first > -1)
                 channel.position(first);
+        }
+
+        private ChannelToSinkCopier(SeekableByteChannel channel, boolean close, Content.Sink sink, ByteBufferPool pool, int bufferSize, boolean direct, long length, Callback callback)
+        {
+            super(callback);
+            this.channel = channel;
+            this.close = close;
             this.sink = sink;
             this.pool = pool == null ? ByteBufferPool.NON_POOLING : pool;
             this.bufferSize = bufferSize <= 0 ? 4096 : bufferSize;
@@ -425,7 +459,8 @@ public class IOResources
         {
             if (retainableByteBuffer != null)
                 retainableByteBuffer.release();
-            IO.close(channel);
+            if (close)
+                IO.close(channel);
             super.onCompleteSuccess();
         }
 
@@ -434,7 +469,8 @@ public class IOResources
         {
             if (retainableByteBuffer != null)
                 retainableByteBuffer.release();
-            IO.close(channel);
+            if (close)
+                IO.close(channel);
             super.onCompleteFailure(x);
         }
     }
@@ -59,11 +59,15 @@ import org.slf4j.LoggerFactory;
  * <p>{@link ManagedSelector} runs the select loop, which waits on {@link Selector#select()} until events
  * happen for registered channels. When events happen, it notifies the {@link EndPoint} associated
  * with the channel.</p>
+ * <p>When the {@link SelectorManager} is {@link SelectorManager#isPartitioned() partitioned},
+ * the select loop and the tasks of the endpoints registered to this {@link ManagedSelector}
+ * run in a dedicated worker partition, rather than in the executor shared by all the selectors.</p>
  */
 public class ManagedSelector extends ContainerLifeCycle implements Dumpable
 {
     private static final Logger LOG = LoggerFactory.getLogger(ManagedSelector.class);
     private static final boolean FORCE_SELECT_NOW;
+    private static final ThreadLocal<ManagedSelector> ACCEPTING = new ThreadLocal<>();
 
     static
     {
@@ -85,6 +89,7 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
     private final SelectorManager _selectorManager;
     private final int _id;
     private final ExecutionStrategy _strategy;
+    private final Executor _partition;
     private Selector _selector;
     private Deque<SelectorUpdate> _updates = new ArrayDeque<>();
     private Deque<SelectorUpdate> _updateable = new ArrayDeque<>();
@@ -96,6 +101,12 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
         _id = id;
         SelectorProducer producer = new SelectorProducer();
         Executor executor = selectorManager.getExecutor();
+        _partition = selectorManager.isPartitioned() ? selectorManager.newPartition(id) : null;
+        if (_partition != null)
+        {
+            installBean(_partition, true);
+            executor = _partition;
+        }
         _strategy = new AdaptiveExecutionStrategy(producer, executor);
         installBean(_strategy, true);
     }
@@ -105,6 +116,25 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
         return _selector;
     }
 
+    /**
+     * @return the dedicated worker partition of this selector, or null if it uses the shared executor
+     */
+    public Executor getPartition()
+    {
+        return _partition;
+    }
+
+    /**
+     * @param selectorManager the {@link SelectorManager} that owns the selector
+     * @return the selector that is accepting in the current thread with a
+     * {@link SelectorManager#acceptor(SelectableChannel, int) partition acceptor}, or null
+     */
+    static ManagedSelector getAcceptingSelector(SelectorManager selectorManager)
+    {
+        ManagedSelector selector = ACCEPTING.get();
+        return selector != null && selector._selectorManager == selectorManager ? selector : null;
+    }
+
     @Override
     protected void doStart() throws Exception
     {
@@ -117,7 +147,10 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
 
         // The normal strategy obtains the produced task, schedules
         // a new thread to produce more, runs the task and then exits.
-        _selectorManager.execute(_strategy::produce);
+        if (_partition == null)
+            _selectorManager.execute(_strategy::produce);
+        else
+            _partition.execute(_strategy::produce);
 
         // Set started only if we really are started
         Start start = new Start();
@@ -328,7 +361,10 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
     {
         try
         {
-            _selectorManager.execute(task);
+            if (_partition == null)
+                _selectorManager.execute(task);
+            else
+                _partition.execute(task);
         }
         catch (RejectedExecutionException x)
         {
@@ -788,11 +824,18 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
     class Acceptor implements SelectorUpdate, Selectable, Closeable
     {
         private final SelectableChannel _channel;
+        private final boolean _local;
         private SelectionKey _key;
 
         Acceptor(SelectableChannel channel)
+        {
+            this(channel, false);
+        }
+
+        Acceptor(SelectableChannel channel, boolean local)
         {
             _channel = channel;
+            _local = local;
         }
 
         @Override
@@ -815,6 +858,9 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
         public Runnable onSelected()
         {
             SelectableChannel channel = null;
+            // A local acceptor keeps the accepted channels on this selector.
+            if (_local)
+                ACCEPTING.set(ManagedSelector.this);
             try
             {
                 while (true)
@@ -830,6 +876,11 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
                 LOG.warn("Accept failed for channel {}", channel, x);
                 IO.close(channel);
             }
+            finally
+            {
+                if (_local)
+                    ACCEPTING.remove();
+            }
             return null;
         }
 
@@ -67,6 +67,13 @@ public class NetworkTrafficSocketChannelEndPoint extends SocketChannelEndPoint
         return flushed;
     }
 
+    @Override
+    public boolean isTransferFromSupported()
+    {
+        // Transferred bytes never transit through buffers, so listeners could not be notified.
+        return false;
+    }
+
     @Override
     public void onOpen()
     {
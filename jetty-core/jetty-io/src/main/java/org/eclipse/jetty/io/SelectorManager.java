@@ -30,12 +30,14 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.IntUnaryOperator;
 
+import org.eclipse.jetty.util.IO;
 import org.eclipse.jetty.util.ProcessorUtils;
 import org.eclipse.jetty.util.annotation.ManagedAttribute;
 import org.eclipse.jetty.util.annotation.ManagedObject;
 import org.eclipse.jetty.util.component.Container;
 import org.eclipse.jetty.util.component.ContainerLifeCycle;
 import org.eclipse.jetty.util.component.Dumpable;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.eclipse.jetty.util.thread.Scheduler;
 import org.eclipse.jetty.util.thread.ThreadPool;
 import org.eclipse.jetty.util.thread.ThreadPoolBudget;
@@ -47,6 +49,12 @@ import org.slf4j.LoggerFactory;
  * simplify the non-blocking primitives provided by the JVM via the {@code java.nio} package.</p>
  * <p>{@link SelectorManager} subclasses implement methods to return protocol-specific
  * {@link EndPoint}s and {@link Connection}s.</p>
+ * <p>By default, all the {@link ManagedSelector}s run their select loop and the tasks of their
+ * endpoints in the shared {@link #getExecutor() executor}, so that a connection may be handled
+ * by any thread, on any core.
+ * When {@link #setPartitionThreads(int) partitioned}, each {@link ManagedSelector} owns a
+ * dedicated worker partition, with its own queue and reserved threads, so that the I/O and the
+ * handling of a connection stay on the threads of the partition of its selector.</p>
  */
 
 @ManagedObject("Manager of the NIO Selectors")
@@ -62,6 +70,7 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
     private final IntUnaryOperator _selectorIndexUpdate;
     private final List<AcceptListener> _acceptListeners = new CopyOnWriteArrayList<>();
     private long _connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    private int _partitionThreads;
     private ThreadPoolBudget.Lease _lease;
 
     private static int defaultSelectors(Executor executor)
@@ -129,6 +138,65 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
         _connectTimeout = milliseconds;
     }
 
+    /**
+     * @return the max number of threads of the worker partition of each selector,
+     * or 0 if the selectors share the {@link #getExecutor() executor}
+     */
+    @ManagedAttribute("The max number of threads of the worker partition of each selector")
+    public int getPartitionThreads()
+    {
+        return _partitionThreads;
+    }
+
+    /**
+     * <p>Sets the max number of threads of the worker partition of each selector.</p>
+     * <p>When positive, each {@link ManagedSelector} runs its select loop and the tasks
+     * of its endpoints in a dedicated thread pool, created by {@link #newPartition(int)},
+     * rather than in the shared {@link #getExecutor() executor}.</p>
+     *
+     * @param partitionThreads the max number of threads of each partition, or 0 to share the executor
+     */
+    public void setPartitionThreads(int partitionThreads)
+    {
+        if (isStarted())
+            throw new IllegalStateException(getState());
+        if (partitionThreads < 0 || partitionThreads == 1)
+            throw new IllegalArgumentException("Invalid partition threads: " + partitionThreads);
+        _partitionThreads = partitionThreads;
+    }
+
+    /**
+     * @return whether each selector owns a dedicated worker partition
+     * @see #setPartitionThreads(int)
+     */
+    @ManagedAttribute("Whether each selector owns a dedicated worker partition")
+    public boolean isPartitioned()
+    {
+        return _partitionThreads > 0;
+    }
+
+    /**
+     * <p>Factory method for the dedicated worker partition of a {@link ManagedSelector}.</p>
+     * <p>The partition is managed by the {@link ManagedSelector}, and must have at least
+     * one thread available to run its select loop, in addition to the threads that run
+     * the tasks of its endpoints.</p>
+     *
+     * @param id the identifier of the {@link ManagedSelector} that owns the partition
+     * @return a new partition executor
+     * @see #setPartitionThreads(int)
+     */
+    protected Executor newPartition(int id)
+    {
+        QueuedThreadPool partition = new QueuedThreadPool(getPartitionThreads(), Math.min(2, getPartitionThreads()));
+        partition.setName(String.format("partition-%x-%d", hashCode(), id));
+        if (executor instanceof QueuedThreadPool queuedThreadPool)
+        {
+            partition.setDaemon(queuedThreadPool.isDaemon());
+            partition.setIdleTimeout(queuedThreadPool.getIdleTimeout());
+        }
+        return partition;
+    }
+
     /**
      * Executes the given task in a different thread.
      *
@@ -208,7 +276,10 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
      */
     public void accept(SelectableChannel channel, Object attachment)
     {
-        ManagedSelector selector = chooseSelector();
+        // Keep the channels accepted by a partition acceptor on its selector.
+        ManagedSelector selector = ManagedSelector.getAcceptingSelector(this);
+        if (selector == null)
+            selector = chooseSelector();
         selector.submit(selector.new Accept(channel, attachment));
     }
 
@@ -229,6 +300,50 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
         return acceptor;
     }
 
+    /**
+     * <p>Registers a server channel for accept operations on the given selector.</p>
+     * <p>Unlike {@link #acceptor(SelectableChannel)}, the channels accepted from the given
+     * server channel are registered to the same selector, so that a server channel per selector,
+     * for example bound with {@code SO_REUSEPORT}, feeds the partition of its selector.</p>
+     *
+     * @param server the server channel to register
+     * @param id the identifier of the selector, modulo the {@link #getSelectorCount() number of selectors}
+     * @return A Closable that allows the acceptor to be cancelled
+     */
+    public Closeable acceptor(SelectableChannel server, int id)
+    {
+        ManagedSelector selector = _selectors[id % _selectors.length];
+        ManagedSelector.Acceptor acceptor = selector.new Acceptor(server, true);
+        selector.submit(acceptor);
+        return acceptor;
+    }
+
+    /**
+     * <p>Closes a server channel registered with {@link #acceptor(SelectableChannel, int)}.</p>
+     * <p>The server channel is deregistered and closed by its selector, so that it is
+     * not closed while it is registered with a selector that may be selecting it.
+     * If this {@code SelectorManager} is not running, the server channel is closed immediately.</p>
+     *
+     * @param server the server channel to close
+     * @param id the identifier of the selector the server channel was registered with
+     */
+    public void closeAcceptor(SelectableChannel server, int id)
+    {
+        if (!isRunning())
+        {
+            IO.close(server);
+            return;
+        }
+        ManagedSelector selector = _selectors[id % _selectors.length];
+        selector.submit(s ->
+        {
+            SelectionKey key = server.keyFor(s);
+            if (key != null)
+                key.cancel();
+            IO.close(server);
+        });
+    }
+
     /**
      * Callback method when a channel is accepted from the {@link ServerSocketChannel}
      * passed to {@link #acceptor(SelectableChannel)}.
@@ -246,7 +361,9 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
     @Override
     protected void doStart() throws Exception
     {
-        _lease = ThreadPoolBudget.leaseFrom(getExecutor(), this, _selectors.length);
+        // Partitioned selectors do not run in the shared executor.
+        if (!isPartitioned())
+            _lease = ThreadPoolBudget.leaseFrom(getExecutor(), this, _selectors.length);
         for (int i = 0; i < _selectors.length; i++)
         {
             ManagedSelector selector = newSelector(i);
@@ -290,6 +407,7 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
             Arrays.fill(_selectors, null);
             if (_lease != null)
                 _lease.close();
+            _lease = null;
         }
     }
 
@@ -0,0 +1,553 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.component.Dumpable;
+import org.eclipse.jetty.util.component.DumpableCollection;
+
+/**
+ * <p>A {@link RetainableByteBuffer} pool where the buffers are slices of large slabs of memory.</p>
+ * <p>Given a capacity {@code factor} of 4096, the first bucket holds buffers of capacity 4096,
+ * the second bucket holds buffers of capacity 8192, and so on up to the {@code maxCapacity}.
+ * When a bucket has no available buffer, it allocates a slab of {@code slabSize} bytes,
+ * that is sliced into buffers of the bucket capacity.</p>
+ * <p>Differently from {@link ArrayByteBufferPool}, that allocates the direct buffers one at a time,
+ * this pool allocates few large direct buffers, so that there is one {@code Cleaner} per slab rather
+ * than one per buffer.
+ * The native memory of a slab is still freed by the garbage collector, once none of its buffers
+ * is referenced anymore, unless a subclass overrides {@link #allocateSlab(int, boolean)} and
+ * {@link #freeSlab(ByteBuffer, boolean)} to manage the slab memory explicitly.</p>
+ * <p>The memory retained by the slabs is limited by {@code maxHeapMemory} and {@code maxDirectMemory},
+ * whose default heuristic is to use {@link Runtime#maxMemory()} divided by 8.
+ * When a new slab would exceed the limit, buffers are allocated without being pooled.
+ * The memory of a slab is no longer accounted when all its buffers have been
+ * {@link #removeAndRelease(RetainableByteBuffer) removed}, or when {@link #clear()} finds
+ * that all its buffers are either available or removed.</p>
+ */
+@ManagedObject
+public class SlabByteBufferPool implements ByteBufferPool, Dumpable
+{
+    static final int DEFAULT_FACTOR = 4096;
+    static final int DEFAULT_MAX_CAPACITY_BY_FACTOR = 16;
+    static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+
+    private final Bucket[] _direct;
+    private final Bucket[] _indirect;
+    private final int _factor;
+    private final int _maxCapacity;
+    private final int _slabSize;
+    private final long _maxHeapMemory;
+    private final long _maxDirectMemory;
+    private final AtomicLong _heapMemory = new AtomicLong();
+    private final AtomicLong _directMemory = new AtomicLong();
+
+    /**
+     * Creates a new SlabByteBufferPool with a default configuration.
+     */
+    public SlabByteBufferPool()
+    {
+        this(-1, -1, -1, 0L, 0L);
+    }
+
+    /**
+     * Creates a new SlabByteBufferPool with the given configuration.
+     *
+     * @param factor the capacity factor, or -1 for the default
+     * @param maxCapacity the maximum ByteBuffer capacity, or -1 for the default
+     * @param slabSize the size in bytes of the slabs, or -1 for the default
+     * @param maxHeapMemory the max heap memory in bytes, -1 for unlimited memory or 0 to use default heuristic
+     * @param maxDirectMemory the max direct memory in bytes, -1 for unlimited memory or 0 to use default heuristic
+     */
+    public SlabByteBufferPool(int factor, int maxCapacity, int slabSize, long maxHeapMemory, long maxDirectMemory)
+    {
+        factor = factor <= 0 ? DEFAULT_FACTOR : factor;
+        if (maxCapacity <= 0)
+            maxCapacity = DEFAULT_MAX_CAPACITY_BY_FACTOR * factor;
+        if ((maxCapacity % factor) != 0 || factor >= maxCapacity)
+            throw new IllegalArgumentException(String.format("The capacity factor(%d) must be a divisor of maxCapacity(%d)", factor, maxCapacity));
+        if (slabSize <= 0)
+            slabSize = Math.max(DEFAULT_SLAB_SIZE, maxCapacity);
+
+        int length = maxCapacity / factor;
+        _direct = new Bucket[length];
+        _indirect = new Bucket[length];
+        for (int i = 0; i < length; ++i)
+        {
+            int capacity = (i + 1) * factor;
+            _direct[i] = new Bucket(capacity, true);
+            _indirect[i] = new Bucket(capacity, false);
+        }
+        _factor = factor;
+        _maxCapacity = maxCapacity;
+        _slabSize = slabSize;
+        _maxHeapMemory = maxMemory(maxHeapMemory);
+        _maxDirectMemory = maxMemory(maxDirectMemory);
+    }
+
+    private long maxMemory(long maxMemory)
+    {
+        if (maxMemory < 0)
+            return -1;
+        if (maxMemory == 0)
+            return Runtime.getRuntime().maxMemory() / 8;
+        return maxMemory;
+    }
+
+    @ManagedAttribute("The maximum pooled buffer capacity")
+    public int getMaxCapacity()
+    {
+        return _maxCapacity;
+    }
+
+    @ManagedAttribute("The size in bytes of the slabs")
+    public int getSlabSize()
+    {
+        return _slabSize;
+    }
+
+    @Override
+    public RetainableByteBuffer acquire(int size, boolean direct)
+    {
+        Bucket bucket = bucketFor(size, direct);
+
+        // No bucket, return non-pooled.
+        if (bucket == null)
+            return RetainableByteBuffer.wrap(BufferUtil.allocate(size, direct));
+
+        Buffer buffer = bucket.acquire();
+
+        // Slab memory exhausted, return non-pooled.
+        if (buffer == null)
+            return RetainableByteBuffer.wrap(BufferUtil.allocate(size, direct));
+
+        buffer.acquire();
+        return buffer;
+    }
+
+    @Override
+    public boolean removeAndRelease(RetainableByteBuffer buffer)
+    {
+        RetainableByteBuffer actual = buffer;
+        while (actual instanceof RetainableByteBuffer.Wrapper wrapper)
+        {
+            actual = wrapper.getWrapped();
+        }
+
+        if (actual instanceof Buffer slabBuffer)
+        {
+            // remove the actual slab buffer, but release the wrapped buffer
+            slabBuffer.remove();
+            return buffer.release();
+        }
+
+        return ByteBufferPool.super.removeAndRelease(buffer);
+    }
+
+    private Bucket bucketFor(int capacity, boolean direct)
+    {
+        if (capacity <= 0 || capacity > _maxCapacity)
+            return null;
+        return (direct ? _direct : _indirect)[(capacity - 1) / _factor];
+    }
+
+    /**
+     * <p>Allocates the memory of a new slab.</p>
+     *
+     * @param bytes the size in bytes of the slab
+     * @param direct whether the slab memory must be direct
+     * @return the memory of the slab
+     * @see #freeSlab(ByteBuffer, boolean)
+     */
+    protected ByteBuffer allocateSlab(int bytes, boolean direct)
+    {
+        return direct ? ByteBuffer.allocateDirect(bytes) : ByteBuffer.allocate(bytes);
+    }
+
+    /**
+     * <p>Frees the memory of a slab allocated by {@link #allocateSlab(int, boolean)}.</p>
+     * <p>This method is called at most once per slab, and only when none of the buffers
+     * of the slab can be used anymore: each buffer has either been dropped by {@link #clear()},
+     * or been {@link #removeAndRelease(RetainableByteBuffer) removed} and fully released.</p>
+     * <p>This implementation does nothing, leaving the memory to the garbage collector.</p>
+     *
+     * @param slab the memory of the slab
+     * @param direct whether the slab memory is direct
+     */
+    protected void freeSlab(ByteBuffer slab, boolean direct)
+    {
+    }
+
+    private boolean reserveMemory(long bytes, boolean direct)
+    {
+        long max = direct ? _maxDirectMemory : _maxHeapMemory;
+        AtomicLong memory = direct ? _directMemory : _heapMemory;
+        while (true)
+        {
+            long current = memory.get();
+            if (max > 0 && current + bytes > max)
+                return false;
+            if (memory.compareAndSet(current, current + bytes))
+                return true;
+        }
+    }
+
+    private void releaseMemory(long bytes, boolean direct)
+    {
+        (direct ? _directMemory : _heapMemory).addAndGet(-bytes);
+    }
+
+    @ManagedAttribute("The total bytes retained by direct slabs")
+    public long getDirectMemory()
+    {
+        return _directMemory.get();
+    }
+
+    @ManagedAttribute("The total bytes retained by heap slabs")
+    public long getHeapMemory()
+    {
+        return _heapMemory.get();
+    }
+
+    @ManagedAttribute("The available bytes retained by direct slabs")
+    public long getAvailableDirectMemory()
+    {
+        return getAvailableMemory(_direct);
+    }
+
+    @ManagedAttribute("The available bytes retained by heap slabs")
+    public long getAvailableHeapMemory()
+    {
+        return getAvailableMemory(_indirect);
+    }
+
+    private long getAvailableMemory(Bucket[] buckets)
+    {
+        long memory = 0;
+        for (Bucket bucket : buckets)
+        {
+            memory += (long)bucket.getAvailableCount() * bucket.getCapacity();
+        }
+        return memory;
+    }
+
+    @ManagedAttribute("The number of direct slabs")
+    public long getDirectSlabCount()
+    {
+        return getSlabCount(_direct);
+    }
+
+    @ManagedAttribute("The number of heap slabs")
+    public long getHeapSlabCount()
+    {
+        return getSlabCount(_indirect);
+    }
+
+    private long getSlabCount(Bucket[] buckets)
+    {
+        long slabs = 0;
+        for (Bucket bucket : buckets)
+        {
+            slabs += bucket.getSlabCount();
+        }
+        return slabs;
+    }
+
+    @ManagedAttribute("The number of direct acquires that were not pooled because of the memory limit")
+    public long getNonPooledDirectAcquires()
+    {
+        return getNonPooledAcquires(_direct);
+    }
+
+    @ManagedAttribute("The number of heap acquires that were not pooled because of the memory limit")
+    public long getNonPooledHeapAcquires()
+    {
+        return getNonPooledAcquires(_indirect);
+    }
+
+    private long getNonPooledAcquires(Bucket[] buckets)
+    {
+        long acquires = 0;
+        for (Bucket bucket : buckets)
+        {
+            acquires += bucket.getNonPooledAcquires();
+        }
+        return acquires;
+    }
+
+    /**
+     * <p>Releases the slabs whose buffers are all available or removed.</p>
+     * <p>The slabs that have buffers in use are retained until the next call to this method.</p>
+     */
+    @Override
+    @ManagedOperation(value = "Releases the slabs whose buffers are all available or removed", impact = "ACTION")
+    public void clear()
+    {
+        for (Bucket bucket : _direct)
+        {
+            bucket.clear();
+        }
+        for (Bucket bucket : _indirect)
+        {
+            bucket.clear();
+        }
+    }
+
+    @Override
+    public void dump(Appendable out, String indent) throws IOException
+    {
+        Dumpable.dumpObjects(
+            out,
+            indent,
+            this,
+            DumpableCollection.fromArray("direct", _direct),
+            DumpableCollection.fromArray("indirect", _indirect)
+        );
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x{max=%d,slab=%d,buckets=%d,heap=%d/%d,direct=%d/%d}",
+            getClass().getSimpleName(),
+            hashCode(),
+            _maxCapacity,
+            _slabSize,
+            _direct.length,
+            getHeapMemory(), _maxHeapMemory,
+            getDirectMemory(), _maxDirectMemory);
+    }
+
+    private class Bucket
+    {
+        private final Queue<Buffer> _available = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger _slabs = new AtomicInteger();
+        private final LongAdder _nonPooled = new LongAdder();
+        private final int _capacity;
+        private final boolean _direct;
+
+        private Bucket(int capacity, boolean direct)
+        {
+            _capacity = capacity;
+            _direct = direct;
+        }
+
+        private int getCapacity()
+        {
+            return _capacity;
+        }
+
+        private int getAvailableCount()
+        {
+            return _available.size();
+        }
+
+        private int getSlabCount()
+        {
+            return _slabs.get();
+        }
+
+        private long getNonPooledAcquires()
+        {
+            return _nonPooled.longValue();
+        }
+
+        private Buffer acquire()
+        {
+            Buffer buffer = _available.poll();
+            if (buffer != null)
+                return buffer;
+
+            // Allocate a new slab, keep one buffer and make the others available.
+            int count = Math.max(1, _slabSize / _capacity);
+            long bytes = (long)count * _capacity;
+            if (!reserveMemory(bytes, _direct))
+            {
+                _nonPooled.increment();
+                return null;
+            }
+            _slabs.incrementAndGet();
+
+            ByteBuffer memory = allocateSlab((int)bytes, _direct);
+            Slab slab = new Slab(count, memory);
+            for (int i = 0; i < count; ++i)
+            {
+                ByteBuffer slice = memory.slice(i * _capacity, _capacity);
+                BufferUtil.reset(slice);
+                Buffer slabBuffer = new Buffer(slice, this, slab);
+                if (buffer == null)
+                    buffer = slabBuffer;
+                else
+                    _available.offer(slabBuffer);
+            }
+            return buffer;
+        }
+
+        private void release(Buffer buffer)
+        {
+            BufferUtil.reset(buffer.getByteBuffer());
+            _available.offer(buffer);
+        }
+
+        private void clear()
+        {
+            // Count the available buffers of each slab.
+            List<Buffer> available = new ArrayList<>();
+            Map<Slab, Integer> counts = new IdentityHashMap<>();
+            while (true)
+            {
+                Buffer buffer = _available.poll();
+                if (buffer == null)
+                    break;
+                available.add(buffer);
+                counts.merge(buffer._slab, 1, Integer::sum);
+            }
+
+            // Drop the buffers of the slabs that are not in use, so the slabs can be released.
+            // Removed buffers are never made available again, so they count as not in use.
+            counts.entrySet().removeIf(entry -> entry.getValue() + entry.getKey().getRemovedCount() < entry.getKey()._count);
+            for (Buffer buffer : available)
+            {
+                if (!counts.containsKey(buffer._slab))
+                    _available.offer(buffer);
+            }
+            counts.forEach((slab, count) ->
+            {
+                releaseSlab(slab);
+                retire(slab, count);
+            });
+        }
+
+        private void remove(Buffer buffer)
+        {
+            // The slab has no available buffer to be found by clear(), release it now.
+            if (buffer._slab.remove())
+                releaseSlab(buffer._slab);
+        }
+
+        private void releaseSlab(Slab slab)
+        {
+            _slabs.decrementAndGet();
+            releaseMemory((long)slab._count * _capacity, _direct);
+        }
+
+        private void retire(Slab slab, int count)
+        {
+            // Removed buffers may still be in use after their slab has been released,
+            // so the slab memory can only be freed once all its buffers are retired.
+            if (slab.retire(count))
+                freeSlab(slab._memory, _direct);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x{capacity=%d,slabs=%d,available=%d,non-pooled=%d}",
+                getClass().getSimpleName(),
+                hashCode(),
+                _capacity,
+                getSlabCount(),
+                getAvailableCount(),
+                getNonPooledAcquires());
+        }
+    }
+
+    private static class Slab
+    {
+        private final AtomicInteger _removed = new AtomicInteger();
+        private final AtomicInteger _retired = new AtomicInteger();
+        private final int _count;
+        private final ByteBuffer _memory;
+
+        private Slab(int count, ByteBuffer memory)
+        {
+            _count = count;
+            _memory = memory;
+        }
+
+        private int getRemovedCount()
+        {
+            return _removed.get();
+        }
+
+        /**
+         * @return whether all the buffers of this slab have been removed
+         */
+        private boolean remove()
+        {
+            return _removed.incrementAndGet() == _count;
+        }
+
+        /**
+         * @param count the number of buffers of this slab that cannot be used anymore
+         * @return whether all the buffers of this slab cannot be used anymore
+         */
+        private boolean retire(int count)
+        {
+            return _retired.addAndGet(count) == _count;
+        }
+    }
+
+    private static class Buffer extends AbstractRetainableByteBuffer
+    {
+        private final Bucket _bucket;
+        private final Slab _slab;
+        private final AtomicBoolean _removed = new AtomicBoolean();
+
+        private Buffer(ByteBuffer buffer, Bucket bucket, Slab slab)
+        {
+            super(buffer);
+            _bucket = Objects.requireNonNull(bucket);
+            _slab = Objects.requireNonNull(slab);
+        }
+
+        @Override
+        public boolean release()
+        {
+            boolean released = super.release();
+            if (released)
+            {
+                if (_removed.get())
+                    _bucket.retire(_slab, 1);
+                else
+                    _bucket.release(this);
+            }
+            return released;
+        }
+
+        private void remove()
+        {
+            // Never return this buffer to the bucket.
+            if (_removed.compareAndSet(false, true))
+                _bucket.remove(this);
+        }
+    }
+}
@@ -16,6 +16,7 @@ package org.eclipse.jetty.io;
 import java.io.IOException;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
 
@@ -129,4 +130,35 @@ public class SocketChannelEndPoint extends SelectableChannelEndPoint
 
         return true;
     }
+
+    @Override
+    public boolean isTransferFromSupported()
+    {
+        return true;
+    }
+
+    @Override
+    public long transferFrom(FileChannel file, long position, long length) throws IOException
+    {
+        long transferred;
+        try
+        {
+            // On most platforms, the JDK implements this with a
+            // zero-copy system call such as sendfile(2).
+            transferred = file.transferTo(position, length, getChannel());
+            if (LOG.isDebugEnabled())
+                LOG.debug("transferred {} {}", transferred, this);
+        }
+        catch (IOException e)
+        {
+            throw new EofException(e);
+        }
+
+        if (transferred > 0)
+            notIdle();
+        else if (position >= file.size())
+            throw new IOException("Transfer past end of file: " + position);
+
+        return transferred;
+    }
 }
@@ -17,6 +17,7 @@ import java.io.IOException;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.nio.channels.WritePendingException;
 import java.util.Arrays;
 import java.util.EnumMap;
@@ -207,13 +208,15 @@ public abstract class WriteFlusher
         private final Callback _callback;
         private final SocketAddress _address;
         private final ByteBuffer[] _buffers;
+        private final Transfer _transfer;
 
-        private PendingState(Callback callback, SocketAddress address, ByteBuffer[] buffers)
+        private PendingState(Callback callback, SocketAddress address, ByteBuffer[] buffers, Transfer transfer)
         {
             super(StateType.PENDING);
             _callback = callback;
             _address = address;
             _buffers = buffers;
+            _transfer = transfer;
         }
 
         InvocationType getCallbackInvocationType()
@@ -255,6 +258,27 @@ public abstract class WriteFlusher
     }
 
     public void write(Callback callback, SocketAddress address, ByteBuffer... buffers) throws WritePendingException
+    {
+        write(callback, address, null, buffers);
+    }
+
+    /**
+     * <p>Tries to switch state to WRITING. If successful it transfers the given file region to the EndPoint
+     * via {@link EndPoint#transferFrom(FileChannel, long, long)}, with the same semantic of
+     * {@link #write(Callback, ByteBuffer...)}.</p>
+     *
+     * @param callback the callback to call on either failed or complete
+     * @param file the file to transfer bytes from
+     * @param position the file position of the first byte to transfer
+     * @param length the number of bytes to transfer
+     * @throws WritePendingException if unable to write due to prior pending write
+     */
+    public void transferFrom(Callback callback, FileChannel file, long position, long length) throws WritePendingException
+    {
+        write(callback, null, new Transfer(file, position, length), (ByteBuffer[])null);
+    }
+
+    private void write(Callback callback, SocketAddress address, Transfer transfer, ByteBuffer... buffers) throws WritePendingException
     {
         Objects.requireNonNull(callback);
 
@@ -265,20 +289,21 @@ public abstract class WriteFlusher
         }
 
         if (DEBUG)
-            LOG.debug("write: {} {}", this, BufferUtil.toDetailString(buffers));
+            LOG.debug("write: {} {} {}", this, buffers == null ? null : BufferUtil.toDetailString(buffers), transfer);
 
         if (!updateState(__IDLE, __WRITING))
             throw new WritePendingException();
 
         try
         {
-            buffers = flush(address, buffers);
-
             if (buffers != null)
+                buffers = flush(address, buffers);
+
+            if (buffers != null || transfer != null && !transfer(transfer))
             {
                 if (DEBUG)
                     LOG.debug("flush incomplete {}", this);
-                PendingState pending = new PendingState(callback, address, buffers);
+                PendingState pending = new PendingState(callback, address, buffers, transfer);
                 if (updateState(__WRITING, pending))
                     onIncompleteFlush();
                 else
@@ -373,15 +398,17 @@ public abstract class WriteFlusher
         {
             ByteBuffer[] buffers = pending._buffers;
             SocketAddress address = pending._address;
-
-            buffers = flush(address, buffers);
+            Transfer transfer = pending._transfer;
 
             if (buffers != null)
+                buffers = flush(address, buffers);
+
+            if (buffers != null || transfer != null && !transfer(transfer))
             {
                 if (DEBUG)
-                    LOG.debug("flushed incomplete {}", BufferUtil.toDetailString(buffers));
+                    LOG.debug("flushed incomplete {} {}", buffers == null ? null : BufferUtil.toDetailString(buffers), transfer);
                 if (buffers != pending._buffers)
-                    pending = new PendingState(callback, address, buffers);
+                    pending = new PendingState(callback, address, buffers, transfer);
                 if (updateState(__COMPLETING, pending))
                     onIncompleteFlush();
                 else
@@ -470,6 +497,28 @@ public abstract class WriteFlusher
         return buffers == null ? EMPTY_BUFFERS : buffers;
     }
 
+    /**
+     * Transfers the file region iteratively until no progress is made.
+     *
+     * @param transfer the file region to transfer
+     * @return true if the whole file region has been transferred
+     * @throws IOException if unable to transfer
+     */
+    private boolean transfer(Transfer transfer) throws IOException
+    {
+        while (transfer._length > 0)
+        {
+            long transferred = _endPoint.transferFrom(transfer._file, transfer._position, transfer._length);
+            if (LOG.isDebugEnabled())
+                LOG.debug("Transferred={} {} {}", transferred, transfer, this);
+            if (transferred <= 0)
+                return false;
+            transfer._position += transferred;
+            transfer._length -= transferred;
+        }
+        return true;
+    }
+
     /**
      * Notify the flusher of a failure
      *
@@ -578,6 +627,29 @@ public abstract class WriteFlusher
         return String.format("WriteFlusher@%x{%s}->%s", hashCode(), s, s instanceof PendingState ? ((PendingState)s)._callback : null);
     }
 
+    /**
+     * <p>The progress of a file region transfer.</p>
+     */
+    private static class Transfer
+    {
+        private final FileChannel _file;
+        private long _position;
+        private long _length;
+
+        private Transfer(FileChannel file, long position, long length)
+        {
+            _file = Objects.requireNonNull(file);
+            _position = position;
+            _length = length;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x[position=%d,length=%d]", getClass().getSimpleName(), hashCode(), _position, _length);
+        }
+    }
+
     /**
      * <p>A listener of {@link WriteFlusher} events.
      * If implemented by a Connection class, the {@link #onFlushed(long)} event will be delivered to it.</p>
@@ -20,6 +20,7 @@ import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -43,6 +44,7 @@ import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.ExceptionUtil;
 import org.eclipse.jetty.util.IO;
+import org.eclipse.jetty.util.NanoTime;
 import org.eclipse.jetty.util.StringUtil;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.util.thread.AutoLock;
@@ -125,6 +127,9 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
     private FlushState _flushState = FlushState.IDLE;
     private FillState _fillState = FillState.IDLE;
     private boolean _underflown;
+    private boolean _delegating;
+    private long _handshakeBegin;
+    private volatile boolean _handshakeBegun;
 
     private volatile boolean _open; // Must be volatile to make the protection against modifications of the below fields effective.
     // The following fields have getters/setters not protected by the lock
@@ -132,6 +137,7 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
     private boolean _renegotiationAllowed; // Effectively final, set by ClientConnectionFactory.customize() right after creation.
     private int _renegotiationLimit = -1; // Set by ClientConnectionFactory.customize() right after creation, and updated by a single thread.
     private boolean _requireCloseMessage; // Effectively final, set by ClientConnectionFactory.customize() right after creation.
+    private Executor _delegatedTaskExecutor; // Effectively final, set by the connection factory right after creation.
 
     private final Runnable _runFillable = new RunnableTask("runFillable")
     {
@@ -147,6 +153,22 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
             return _sslEndPoint.getFillInterest().getCallbackInvocationType();
         }
     };
+    private final Runnable _runDelegatedTaskCompleted = new RunnableTask("runDelegatedTaskCompleted")
+    {
+        @Override
+        public void run()
+        {
+            _sslEndPoint.getFillInterest().fillable();
+            _sslEndPoint.getWriteFlusher().completeWrite();
+        }
+
+        @Override
+        public InvocationType getInvocationType()
+        {
+            return InvocationType.BLOCKING;
+        }
+    };
+
     private final Callback _sslReadCallback = new Callback()
     {
         @Override
@@ -299,6 +321,34 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
         _requireCloseMessage = requireCloseMessage;
     }
 
+    /**
+     * @return the executor that runs the {@link SSLEngine} delegated tasks,
+     * or {@code null} if the delegated tasks are run by the I/O thread
+     */
+    public Executor getDelegatedTaskExecutor()
+    {
+        return _delegatedTaskExecutor;
+    }
+
+    /**
+     * <p>Sets the executor that runs the {@link SSLEngine} delegated tasks.</p>
+     * <p>Delegated tasks perform expensive TLS handshake work such as signing
+     * and certificate validation; by default they are run by the thread that
+     * performs the I/O operation, possibly delaying other connections.
+     * When an executor is set, delegated tasks are offloaded to it, and the
+     * I/O operations are resumed when the delegated task completes.
+     * If the executor rejects a delegated task, it is run by the I/O thread.</p>
+     *
+     * @param delegatedTaskExecutor the executor that runs the {@link SSLEngine} delegated tasks,
+     * or {@code null} to run the delegated tasks in the I/O thread
+     */
+    public void setDelegatedTaskExecutor(Executor delegatedTaskExecutor)
+    {
+        if (_open)
+            throw new IllegalStateException("Cannot set delegated task executor on an open connection");
+        _delegatedTaskExecutor = delegatedTaskExecutor;
+    }
+
     private boolean isHandshakeInitial()
     {
         return _handshake.get() == HandshakeState.INITIAL;
@@ -336,6 +386,70 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
         return Math.max(hsSize, size);
     }
 
+    /**
+     * <p>Runs the {@link SSLEngine} delegated task, either in the calling thread,
+     * or by offloading it to the {@link #getDelegatedTaskExecutor() delegated task executor}.</p>
+     *
+     * @return whether the delegated task has run, or false if the delegated task
+     * is still running and the I/O operation must wait for its completion
+     */
+    private boolean lockedRunDelegatedTask()
+    {
+        assert _lock.isHeldByCurrentThread();
+
+        if (_delegating)
+            return false;
+
+        Runnable task = _sslEngine.getDelegatedTask();
+        if (task == null)
+            return true;
+
+        Executor executor = _delegatedTaskExecutor;
+        if (executor != null)
+        {
+            _delegating = true;
+            try
+            {
+                executor.execute(() -> runDelegatedTask(task));
+                return false;
+            }
+            catch (RejectedExecutionException x)
+            {
+                _delegating = false;
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Delegated task rejected, running inline {}", this, x);
+            }
+        }
+
+        task.run();
+        return true;
+    }
+
+    private void runDelegatedTask(Runnable task)
+    {
+        try
+        {
+            task.run();
+        }
+        catch (Throwable x)
+        {
+            // The SSLEngine reports the failure on the next wrap or unwrap.
+            if (LOG.isDebugEnabled())
+                LOG.debug("Delegated task failure {}", this, x);
+        }
+        finally
+        {
+            try (AutoLock ignored = _lock.lock())
+            {
+                _delegating = false;
+            }
+            if (LOG.isDebugEnabled())
+                LOG.debug("Delegated task completed {}", this);
+            // Resume the fill and flush operations that were waiting.
+            getExecutor().execute(_runDelegatedTaskCompleted);
+        }
+    }
+
     private void lockedAcquireEncryptedInput()
     {
         assert _lock.isHeldByCurrentThread();
@@ -707,8 +821,10 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                                     break;
 
                                 case NEED_TASK:
-                                    _sslEngine.getDelegatedTask().run();
-                                    continue;
+                                    if (lockedRunDelegatedTask())
+                                        continue;
+                                    // Wait for the delegated task to complete.
+                                    return filled = 0;
 
                                 case NEED_WRAP:
                                     if (_flushState == FlushState.IDLE && flush(BufferUtil.EMPTY_BUFFER))
@@ -763,6 +879,9 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                             if (netFilled > 0 && !isHandshakeComplete() && isOutboundDone())
                                 throw new SSLHandshakeException("Closed during handshake");
 
+                            if (netFilled > 0 && !isHandshakeComplete())
+                                lockedHandshakeBegin();
+
                             if (_handshake.compareAndSet(HandshakeState.INITIAL, HandshakeState.HANDSHAKE))
                             {
                                 if (LOG.isDebugEnabled())
@@ -937,8 +1056,9 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                     switch (status)
                     {
                         case NEED_TASK:
-                            // Pretend we are fillable
-                            fillable = true;
+                            // Pretend we are fillable, unless we wait for the
+                            // delegated task completion to resume filling.
+                            fillable = !_delegating;
                             break;
 
                         case NEED_UNWRAP:
@@ -991,6 +1111,22 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
             }
         }
 
+        private void lockedHandshakeBegin()
+        {
+            assert _lock.isHeldByCurrentThread();
+            // Only the initial handshake is timed, from when its first bytes are read or written.
+            if (!_handshakeBegun)
+            {
+                _handshakeBegin = NanoTime.now();
+                _handshakeBegun = true;
+            }
+        }
+
+        private long getHandshakeDuration()
+        {
+            return _handshakeBegun ? NanoTime.since(_handshakeBegin) : -1;
+        }
+
         private void lockedHandshakeSucceeded() throws SSLException
         {
             assert _lock.isHeldByCurrentThread();
@@ -1109,8 +1245,10 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                                     break;
 
                                 case NEED_TASK:
-                                    _sslEngine.getDelegatedTask().run();
-                                    continue;
+                                    if (lockedRunDelegatedTask())
+                                        continue;
+                                    // Wait for the delegated task to complete.
+                                    return result = false;
 
                                 case NEED_UNWRAP:
                                     // Workaround for Java 11 behavior.
@@ -1137,6 +1275,7 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                             {
                                 if (LOG.isDebugEnabled())
                                     LOG.debug("flush starting handshake {}", SslConnection.this);
+                                lockedHandshakeBegin();
                             }
 
                             // We call sslEngine.wrap to try to take bytes from appOuts
@@ -1282,6 +1421,13 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                         switch (status)
                         {
                             case NEED_TASK:
+                                // The delegated task completion will resume flushing.
+                                if (_delegating)
+                                    break;
+                                write = (_encryptedOutput != null && _encryptedOutput.hasRemaining()) ? _encryptedOutput.getByteBuffer() : BufferUtil.EMPTY_BUFFER;
+                                _flushState = FlushState.WRITING;
+                                break;
+
                             case NEED_WRAP:
                             case NOT_HANDSHAKING:
                                 // write what we have or an empty buffer to reschedule a call to flush
@@ -1526,7 +1672,7 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
             for (SslHandshakeListener listener : handshakeListeners)
             {
                 if (event == null)
-                    event = new SslHandshakeListener.Event(sslEngine, this);
+                    event = new SslHandshakeListener.Event(sslEngine, this, getHandshakeDuration());
                 try
                 {
                     listener.handshakeSucceeded(event);
@@ -1548,7 +1694,7 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
             for (SslHandshakeListener listener : handshakeListeners)
             {
                 if (event == null)
-                    event = new SslHandshakeListener.Event(sslEngine, this);
+                    event = new SslHandshakeListener.Event(sslEngine, this, getHandshakeDuration());
                 try
                 {
                     listener.handshakeFailed(event, failure);
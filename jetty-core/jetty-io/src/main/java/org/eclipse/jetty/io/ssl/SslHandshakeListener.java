@@ -54,6 +54,7 @@ public interface SslHandshakeListener extends EventListener
     class Event extends EventObject
     {
         private final EndPoint endPoint;
+        private final long handshakeDuration;
 
         /**
          * <p>Creates a new instance with the given event source.</p>
@@ -64,13 +65,14 @@ public interface SslHandshakeListener extends EventListener
         @Deprecated(forRemoval = true, since = "12.0.7")
         public Event(Object source)
         {
-            this(source, null);
+            this(source, null, -1);
         }
 
-        Event(Object sslEngine, EndPoint endPoint)
+        Event(Object sslEngine, EndPoint endPoint, long handshakeDuration)
         {
             super(sslEngine);
             this.endPoint = endPoint;
+            this.handshakeDuration = handshakeDuration;
         }
 
         /**
@@ -88,5 +90,14 @@ public interface SslHandshakeListener extends EventListener
         {
             return endPoint;
         }
+
+        /**
+         * @return the duration in nanoseconds of the TLS handshake, measured from when
+         * the first TLS handshake bytes were read or written, or {@code -1} if unknown
+         */
+        public long getHandshakeDuration()
+        {
+            return handshakeDuration;
+        }
     }
 }
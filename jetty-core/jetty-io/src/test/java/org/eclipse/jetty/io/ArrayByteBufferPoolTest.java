@@ -24,14 +24,17 @@ import org.eclipse.jetty.io.internal.CompoundPool;
 import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.ConcurrentPool;
 import org.eclipse.jetty.util.Pool;
+import org.eclipse.jetty.util.ProcessorUtils;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.sameInstance;
@@ -105,6 +108,131 @@ public class ArrayByteBufferPoolTest
         assertThat(pool.dump(), containsString("direct non-pooled acquisitions size=0\n"));
     }
 
+    @Test
+    public void testMagazine()
+    {
+        ArrayByteBufferPool pool = new ArrayByteBufferPool(0, 10, 20, Integer.MAX_VALUE);
+        pool.setStatisticsEnabled(true);
+        pool.setMagazineSize(4);
+
+        List<RetainableByteBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+            buffers.add(pool.acquire(10, true));
+        buffers.forEach(RetainableByteBuffer::release);
+        assertThat(pool.getDirectByteBufferCount(), is(4L));
+
+        // The magazine is refilled with half of its size from the shared bucket.
+        RetainableByteBuffer buffer1 = pool.acquire(10, true);
+        assertThat(pool.poolFor(10, true).size(), is(2));
+        // The buffers in the magazine are still accounted.
+        assertThat(pool.getDirectByteBufferCount(), is(4L));
+        assertThat(pool.getAvailableDirectByteBufferCount(), is(3L));
+        buffer1.release();
+
+        // The buffer released to the magazine is acquired again.
+        RetainableByteBuffer buffer2 = pool.acquire(10, true);
+        assertThat(buffer2, sameInstance(buffer1));
+        assertThat(buffer2.isRetained(), is(false));
+        buffer2.release();
+        assertThat(pool.poolFor(10, true).size(), is(2));
+        assertThat(pool.getDirectByteBufferCount(), is(4L));
+        assertThat(pool.getDirectMemory(), is(40L));
+        assertThat(pool.getAvailableDirectMemory(), is(40L));
+
+        Map<String, Object> statistics = pool.getDirectBucketsStatistics().get(0);
+        assertThat(statistics.get("magazineHits"), is(1L));
+        assertThat(statistics.get("magazineAcquires"), is(6L));
+
+        // Clearing the pool also clears the magazines.
+        pool.clear();
+        assertThat(pool.getDirectByteBufferCount(), is(0L));
+        assertThat(pool.getDirectMemory(), is(0L));
+    }
+
+    @Test
+    public void testMagazineDrain()
+    {
+        ArrayByteBufferPool pool = new ArrayByteBufferPool(0, 10, 20, Integer.MAX_VALUE);
+        pool.setMagazineSize(2);
+
+        List<RetainableByteBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < 8; i++)
+            buffers.add(pool.acquire(10, true));
+        buffers.forEach(RetainableByteBuffer::release);
+        assertThat(pool.getDirectByteBufferCount(), is(8L));
+
+        // Move buffers to the magazine, then release more buffers than it can hold.
+        buffers.clear();
+        for (int i = 0; i < 8; i++)
+            buffers.add(pool.acquire(10, true));
+        assertThat(pool.poolFor(10, true).size(), is(0));
+        assertThat(pool.getDirectByteBufferCount(), is(8L));
+        buffers.forEach(RetainableByteBuffer::release);
+
+        // The full magazine is drained to the shared bucket.
+        assertThat(pool.poolFor(10, true).size(), is(6));
+        assertThat(pool.getDirectByteBufferCount(), is(8L));
+    }
+
+    @Test
+    public void testMagazineMaxMemoryEviction()
+    {
+        ArrayByteBufferPool pool = new ArrayByteBufferPool(0, 10, 20, Integer.MAX_VALUE, 40, 40);
+        pool.setMagazineSize(4);
+
+        // Fill the shared bucket of capacity 20.
+        RetainableByteBuffer buffer1 = pool.acquire(20, true);
+        RetainableByteBuffer buffer2 = pool.acquire(20, true);
+        buffer1.release();
+        buffer2.release();
+        assertThat(pool.getDirectMemory(), is(40L));
+
+        // Move the buffers to the magazine.
+        buffer1 = pool.acquire(20, true);
+        buffer2 = pool.acquire(20, true);
+        buffer1.release();
+        buffer2.release();
+        assertThat(pool.poolFor(20, true).size(), is(0));
+        assertThat(pool.getDirectMemory(), is(40L));
+
+        // Exceed the max memory, the buffers in magazines may be evicted.
+        RetainableByteBuffer buffer3 = pool.acquire(10, true);
+        buffer3.release();
+        assertThat(pool.getDirectMemory(), lessThanOrEqualTo(40L));
+    }
+
+    @Test
+    public void testMagazinesAreNotPerThread() throws Exception
+    {
+        ArrayByteBufferPool pool = new ArrayByteBufferPool(0, 10, 20, Integer.MAX_VALUE);
+        pool.setStatisticsEnabled(true);
+        int magazineSize = 4;
+        pool.setMagazineSize(magazineSize);
+
+        // Short-lived threads must not take away buffers from the pool.
+        int threads = 500;
+        for (int i = 0; i < threads; i++)
+        {
+            Thread thread = new Thread(() ->
+            {
+                RetainableByteBuffer buffer1 = pool.acquire(10, true);
+                RetainableByteBuffer buffer2 = pool.acquire(10, true);
+                buffer1.release();
+                buffer2.release();
+            });
+            thread.start();
+            thread.join();
+        }
+
+        // Buffers are only allocated when the magazine of a thread and the shared bucket are empty.
+        long maxAllocations = 2L * ProcessorUtils.availableProcessors() * magazineSize + 2;
+        Map<String, Object> statistics = pool.getDirectBucketsStatistics().get(0);
+        assertThat(statistics.get("acquires"), is(2L * threads));
+        assertThat((Long)statistics.get("pooled"), greaterThanOrEqualTo(2L * threads - maxAllocations));
+        assertThat(pool.getDirectByteBufferCount(), lessThanOrEqualTo(maxAllocations));
+        assertThat(pool.getAvailableDirectByteBufferCount(), is(pool.getDirectByteBufferCount()));
+    }
+
     @Test
     public void testMaxMemoryEviction()
     {
@@ -15,6 +15,10 @@ package org.eclipse.jetty.io;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -139,6 +143,29 @@ public class ByteArrayEndPointTest
         endp.close();
     }
 
+    @Test
+    public void testTransferFromCopiesWhenNotSupported() throws Exception
+    {
+        Path path = Files.createTempFile(ByteArrayEndPointTest.class.getSimpleName(), ".txt");
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE))
+        {
+            file.write(BufferUtil.toBuffer("0123456789".repeat(4096)));
+
+            ByteArrayEndPoint endp = new ByteArrayEndPoint();
+            endp.setGrowOutput(true);
+            assertFalse(endp.isTransferFromSupported());
+
+            assertEquals(5, endp.transferFrom(file, 3, 5));
+            assertEquals("34567", endp.takeOutputString());
+
+            FutureCallback callback = new FutureCallback();
+            endp.transferFrom(callback, file, 5, 40000);
+            callback.get(5, TimeUnit.SECONDS);
+            assertEquals("0123456789".repeat(4096).substring(5, 40005), endp.takeOutputString());
+            endp.close();
+        }
+    }
+
     @Test
     public void testReadable() throws Exception
     {
@@ -0,0 +1,184 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.io;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class SlabByteBufferPoolTest
+{
+    @Test
+    public void testBuffersAreSlicesOfSlab()
+    {
+        SlabByteBufferPool pool = new SlabByteBufferPool(10, 20, 100, -1, -1);
+
+        RetainableByteBuffer buffer = pool.acquire(5, true);
+        assertThat(buffer.capacity(), is(10));
+        assertThat(buffer.isDirect(), is(true));
+        assertThat(buffer.remaining(), is(0));
+        assertThat(pool.getDirectSlabCount(), is(1L));
+        assertThat(pool.getDirectMemory(), is(100L));
+        assertThat(pool.getAvailableDirectMemory(), is(90L));
+
+        List<RetainableByteBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < 9; i++)
+            buffers.add(pool.acquire(10, true));
+        assertThat(pool.getDirectSlabCount(), is(1L));
+        assertThat(pool.getAvailableDirectMemory(), is(0L));
+
+        // The slab is exhausted, a new slab is allocated.
+        buffers.add(pool.acquire(10, true));
+        assertThat(pool.getDirectSlabCount(), is(2L));
+        assertThat(pool.getDirectMemory(), is(200L));
+
+        buffer.release();
+        buffers.forEach(RetainableByteBuffer::release);
+        assertThat(pool.getAvailableDirectMemory(), is(200L));
+    }
+
+    @Test
+    public void testReleasedBufferIsReused()
+    {
+        SlabByteBufferPool pool = new SlabByteBufferPool(10, 20, 20, -1, -1);
+
+        RetainableByteBuffer buffer1 = pool.acquire(10, false);
+        assertThat(buffer1.release(), is(true));
+        RetainableByteBuffer buffer2 = pool.acquire(10, false);
+        RetainableByteBuffer buffer3 = pool.acquire(10, false);
+
+        assertThat(buffer3, sameInstance(buffer1));
+        assertThat(buffer3.isRetained(), is(false));
+        assertThat(buffer3.remaining(), is(0));
+        assertThat(buffer2, not(sameInstance(buffer1)));
+        assertThat(pool.getHeapSlabCount(), is(1L));
+    }
+
+    @Test
+    public void testMaxMemory()
+    {
+        SlabByteBufferPool pool = new SlabByteBufferPool(10, 20, 100, -1, 150);
+
+        List<RetainableByteBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            buffers.add(pool.acquire(10, true));
+
+        // Another slab would exceed the max memory.
+        RetainableByteBuffer buffer = pool.acquire(10, true);
+        assertThat(buffer, not(instanceOf(AbstractRetainableByteBuffer.class)));
+        assertThat(pool.getNonPooledDirectAcquires(), is(1L));
+        assertThat(pool.getDirectMemory(), is(100L));
+
+        buffer.release();
+        buffers.forEach(RetainableByteBuffer::release);
+    }
+
+    @Test
+    public void testClearReleasesUnusedSlabs()
+    {
+        SlabByteBufferPool pool = new SlabByteBufferPool(10, 20, 20, -1, -1);
+
+        RetainableByteBuffer buffer1 = pool.acquire(10, true);
+        pool.acquire(10, true).release();
+        RetainableByteBuffer buffer2 = pool.acquire(20, true);
+        buffer2.release();
+        assertThat(pool.getDirectSlabCount(), is(2L));
+
+        // Only the slab with no buffer in use is released.
+        pool.clear();
+        assertThat(pool.getDirectSlabCount(), is(1L));
+        assertThat(pool.getDirectMemory(), is(20L));
+
+        buffer1.release();
+        pool.clear();
+        assertThat(pool.getDirectSlabCount(), is(0L));
+        assertThat(pool.getDirectMemory(), is(0L));
+    }
+
+    @Test
+    public void testRemoveAndRelease()
+    {
+        SlabByteBufferPool pool = new SlabByteBufferPool(10, 20, 20, -1, -1);
+
+        RetainableByteBuffer buffer = pool.acquire(10, true);
+        assertThat(pool.removeAndRelease(buffer), is(true));
+        assertThat(pool.getAvailableDirectMemory(), is(10L));
+        assertThat(pool.getDirectMemory(), is(20L));
+
+        // The removed buffer is not in use, so the slab is released.
+        pool.clear();
+        assertThat(pool.getDirectSlabCount(), is(0L));
+        assertThat(pool.getDirectMemory(), is(0L));
+    }
+
+    @Test
+    public void testRemoveAndReleaseAllBuffersReleasesSlab()
+    {
+        SlabByteBufferPool pool = new SlabByteBufferPool(10, 20, 20, -1, -1);
+
+        RetainableByteBuffer buffer1 = pool.acquire(10, true);
+        RetainableByteBuffer buffer2 = pool.acquire(10, true);
+        assertThat(pool.removeAndRelease(buffer1), is(true));
+        assertThat(pool.getDirectSlabCount(), is(1L));
+
+        // All the buffers of the slab are removed, the slab is released.
+        assertThat(pool.removeAndRelease(buffer2), is(true));
+        assertThat(pool.getDirectSlabCount(), is(0L));
+        assertThat(pool.getDirectMemory(), is(0L));
+    }
+
+    @Test
+    public void testSlabIsFreedWhenNoBufferIsInUse()
+    {
+        List<ByteBuffer> freed = new ArrayList<>();
+        SlabByteBufferPool pool = new SlabByteBufferPool(10, 20, 20, -1, -1)
+        {
+            @Override
+            protected void freeSlab(ByteBuffer slab, boolean direct)
+            {
+                freed.add(slab);
+            }
+        };
+
+        RetainableByteBuffer buffer1 = pool.acquire(10, true);
+        RetainableByteBuffer buffer2 = pool.acquire(10, true);
+        buffer1.retain();
+        assertThat(pool.removeAndRelease(buffer1), is(false));
+        assertThat(pool.removeAndRelease(buffer2), is(true));
+
+        // The slab is released, but buffer1 is still in use.
+        assertThat(pool.getDirectSlabCount(), is(0L));
+        assertThat(freed.size(), is(0));
+
+        // The last release of buffer1 frees the slab.
+        assertThat(buffer1.release(), is(true));
+        assertThat(freed.size(), is(1));
+
+        // A slab whose buffers are all available is freed by clear().
+        RetainableByteBuffer buffer3 = pool.acquire(10, true);
+        buffer3.release();
+        pool.clear();
+        assertThat(pool.getDirectSlabCount(), is(0L));
+        assertThat(freed.size(), is(2));
+        assertThat(freed.get(0), not(sameInstance(freed.get(1))));
+    }
+}
@@ -30,6 +30,7 @@ import org.eclipse.jetty.io.EndPoint;
 import org.eclipse.jetty.io.ManagedSelector;
 import org.eclipse.jetty.io.SocketChannelEndPoint;
 import org.eclipse.jetty.io.Transport;
+import org.eclipse.jetty.quic.common.DatagramEndPointFactory;
 import org.eclipse.jetty.quic.common.QuicConfiguration;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 
@@ -125,7 +126,7 @@ public class QuicClientConnectorConfigurator extends ClientConnector.Configurato
     @Override
     public EndPoint newEndPoint(ClientConnector clientConnector, SocketAddress address, SelectableChannel selectable, ManagedSelector selector, SelectionKey selectionKey)
     {
-        return new DatagramChannelEndPoint((DatagramChannel)selectable, selector, selectionKey, clientConnector.getScheduler());
+        return DatagramEndPointFactory.getDefault().newEndPoint((DatagramChannel)selectable, selector, selectionKey, clientConnector.getScheduler());
     }
 
     @Override
@@ -14,9 +14,14 @@
 package org.eclipse.jetty.quic.client;
 
 import java.io.InputStream;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
 import java.security.KeyStore;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.jetty.client.ContentResponse;
 import org.eclipse.jetty.client.HttpClient;
@@ -29,6 +34,9 @@ import org.eclipse.jetty.http2.server.HTTP2ServerConnectionFactory;
 import org.eclipse.jetty.io.ClientConnectionFactory;
 import org.eclipse.jetty.io.ClientConnector;
 import org.eclipse.jetty.io.Content;
+import org.eclipse.jetty.io.DatagramChannelEndPoint;
+import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.io.ManagedSelector;
 import org.eclipse.jetty.quic.server.QuicServerConnector;
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.HttpConfiguration;
@@ -48,6 +56,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.core.Is.is;
 
 @ExtendWith(WorkDirExtension.class)
@@ -58,6 +67,7 @@ public class End2EndClientTest
     private Server server;
     private QuicServerConnector connector;
     private HttpClient client;
+    private final AtomicInteger maxWriteBatch = new AtomicInteger();
     private final String responseContent = """
         <html>
           <body>
@@ -84,7 +94,22 @@ public class End2EndClientTest
         HttpConnectionFactory http1 = new HttpConnectionFactory(httpConfiguration);
         HTTP2ServerConnectionFactory http2 = new HTTP2ServerConnectionFactory(httpConfiguration);
         // Use the deprecated APIs for backwards compatibility testing.
-        connector = new QuicServerConnector(server, sslContextFactory, http1, http2);
+        connector = new QuicServerConnector(server, sslContextFactory, http1, http2)
+        {
+            @Override
+            protected EndPoint newEndPoint(DatagramChannel channel, ManagedSelector selector, SelectionKey selectionKey)
+            {
+                return new DatagramChannelEndPoint(channel, selector, selectionKey, getScheduler())
+                {
+                    @Override
+                    public void write(Callback callback, SocketAddress address, ByteBuffer... buffers)
+                    {
+                        maxWriteBatch.accumulateAndGet(buffers.length, Math::max);
+                        super.write(callback, address, buffers);
+                    }
+                };
+            }
+        };
         connector.getQuicConfiguration().setPemWorkDirectory(workDir.getEmptyPathDir());
         server.addConnector(connector);
 
@@ -93,7 +118,10 @@ public class End2EndClientTest
             @Override
             public boolean handle(Request request, Response response, Callback callback)
             {
-                Content.Sink.write(response, true, responseContent, callback);
+                if (Request.getPathInContext(request).equals("/large"))
+                    Content.Sink.write(response, true, "0".repeat(1024 * 1024), callback);
+                else
+                    Content.Sink.write(response, true, responseContent, callback);
                 return true;
             }
         });
@@ -142,6 +170,19 @@ public class End2EndClientTest
         assertThat(contentAsString, is(responseContent));
     }
 
+    @Test
+    public void testLargeResponseIsWrittenInBatches() throws Exception
+    {
+        ContentResponse response = client.newRequest("https://localhost:" + connector.getLocalPort() + "/large")
+            .version(HttpVersion.HTTP_2)
+            .timeout(5, TimeUnit.SECONDS)
+            .send();
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.getContent().length, is(1024 * 1024));
+        // The QuicSession drains multiple datagrams before writing them.
+        assertThat(maxWriteBatch.get(), greaterThan(1));
+    }
+
     @Test
     public void testManyHTTP1() throws Exception
     {
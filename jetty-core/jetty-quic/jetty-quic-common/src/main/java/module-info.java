@@ -19,4 +19,6 @@ module org.eclipse.jetty.quic.common
     requires transitive org.eclipse.jetty.quic.quiche;
 
     exports org.eclipse.jetty.quic.common;
+
+    uses org.eclipse.jetty.quic.common.DatagramEndPointFactory;
 }
@@ -0,0 +1,70 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.quic.common;
+
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.util.ServiceLoader;
+
+import org.eclipse.jetty.io.DatagramChannelEndPoint;
+import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.io.ManagedSelector;
+import org.eclipse.jetty.util.thread.Scheduler;
+
+/**
+ * <p>A factory for the {@link EndPoint}s that receive and send the UDP datagrams
+ * of a {@link QuicConnection}.</p>
+ * <p>Implementations are discovered via {@link ServiceLoader}, so that platform
+ * specific implementations (for example, one that batches datagrams in a single
+ * system call) can be provided by optional modules.
+ * Among the implementations whose {@link #initialize()} succeeds, the one with
+ * the lowest {@link #priority()} is used; if none is available, a plain
+ * {@link DatagramChannelEndPoint} is created.</p>
+ *
+ * @see #getDefault()
+ */
+public interface DatagramEndPointFactory
+{
+    /**
+     * @return the {@link DatagramEndPointFactory} to use on this platform
+     */
+    static DatagramEndPointFactory getDefault()
+    {
+        return DefaultDatagramEndPointFactory.INSTANCE;
+    }
+
+    /**
+     * <p>Initializes this factory, typically verifying that the platform
+     * features it relies on are available.</p>
+     *
+     * @return {@code null} if this factory can be used, or the failure that prevents its use
+     */
+    Throwable initialize();
+
+    /**
+     * @return the priority of this factory, lower values having precedence
+     */
+    int priority();
+
+    /**
+     * <p>Creates a new {@link EndPoint} for the given {@link DatagramChannel}.</p>
+     *
+     * @param channel the datagram channel
+     * @param selector the selector the channel is registered to
+     * @param selectionKey the selection key of the channel
+     * @param scheduler the scheduler for idle timeouts
+     * @return a new datagram {@link EndPoint}
+     */
+    DatagramChannelEndPoint newEndPoint(DatagramChannel channel, ManagedSelector selector, SelectionKey selectionKey, Scheduler scheduler);
+}
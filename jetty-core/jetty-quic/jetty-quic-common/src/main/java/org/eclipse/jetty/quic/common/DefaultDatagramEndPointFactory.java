@@ -0,0 +1,81 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.quic.common;
+
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.util.Comparator;
+import java.util.ServiceLoader;
+
+import org.eclipse.jetty.io.DatagramChannelEndPoint;
+import org.eclipse.jetty.io.ManagedSelector;
+import org.eclipse.jetty.util.TypeUtil;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>The {@link DatagramEndPointFactory} that creates plain {@link DatagramChannelEndPoint}s,
+ * used when no other implementation is available.</p>
+ */
+class DefaultDatagramEndPointFactory implements DatagramEndPointFactory
+{
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultDatagramEndPointFactory.class);
+    static final DatagramEndPointFactory INSTANCE;
+
+    static
+    {
+        // This code is safe even if trying to load a DatagramEndPointFactory
+        // throws an error, as in that case a warning would be logged and the
+        // factory ignored.
+        DatagramEndPointFactory fallback = new DefaultDatagramEndPointFactory();
+        INSTANCE = TypeUtil.serviceStream(ServiceLoader.load(DatagramEndPointFactory.class))
+            .sorted(Comparator.comparingInt(DatagramEndPointFactory::priority))
+            .filter(factory ->
+            {
+                Throwable failure = factory.initialize();
+                if (failure != null && LOG.isDebugEnabled())
+                    LOG.debug("cannot use datagram endpoint factory {}", factory, failure);
+                return failure == null;
+            })
+            .findFirst()
+            .orElse(fallback);
+        if (LOG.isDebugEnabled())
+            LOG.debug("using datagram endpoint factory: {}", INSTANCE);
+    }
+
+    @Override
+    public Throwable initialize()
+    {
+        return null;
+    }
+
+    @Override
+    public int priority()
+    {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public DatagramChannelEndPoint newEndPoint(DatagramChannel channel, ManagedSelector selector, SelectionKey selectionKey, Scheduler scheduler)
+    {
+        return new DatagramChannelEndPoint(channel, selector, selectionKey, scheduler);
+    }
+
+    @Override
+    public String toString()
+    {
+        return getClass().getSimpleName();
+    }
+}
@@ -17,6 +17,7 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EventListener;
 import java.util.List;
@@ -41,6 +42,7 @@ import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.IteratingCallback;
 import org.eclipse.jetty.util.component.LifeCycle;
 import org.eclipse.jetty.util.thread.ExecutionStrategy;
+import org.eclipse.jetty.util.thread.Invocable;
 import org.eclipse.jetty.util.thread.Scheduler;
 import org.eclipse.jetty.util.thread.strategy.AdaptiveExecutionStrategy;
 import org.slf4j.Logger;
@@ -68,6 +70,7 @@ public abstract class QuicConnection extends AbstractConnection
     private int outputBufferSize = 2048;
     private boolean useInputDirectByteBuffers = true;
     private boolean useOutputDirectByteBuffers = true;
+    private int maxWriteBatch = 32;
 
     protected QuicConnection(Executor executor, Scheduler scheduler, ByteBufferPool bufferPool, EndPoint endPoint)
     {
@@ -117,6 +120,29 @@ public abstract class QuicConnection extends AbstractConnection
         this.useOutputDirectByteBuffers = useOutputDirectByteBuffers;
     }
 
+    /**
+     * @return the max number of datagrams to the same peer that are drained by a {@link QuicSession}
+     * or coalesced into a single write
+     */
+    public int getMaxWriteBatch()
+    {
+        return maxWriteBatch;
+    }
+
+    /**
+     * <p>Sets the max number of datagrams to the same peer that are coalesced into a single write.</p>
+     * <p>Each {@link QuicSession} drains up to this number of datagrams before writing them,
+     * and consecutive writes to the same peer are coalesced up to this number of datagrams.
+     * Coalesced datagrams may be sent with a single system call by {@link EndPoint}s
+     * that support batching, see {@link DatagramEndPointFactory}.</p>
+     *
+     * @param maxWriteBatch the max number of datagrams per write, or 1 to disable coalescing
+     */
+    public void setMaxWriteBatch(int maxWriteBatch)
+    {
+        this.maxWriteBatch = Math.max(1, maxWriteBatch);
+    }
+
     public Collection<QuicSession> getQuicSessions()
     {
         return List.copyOf(sessions.values());
@@ -345,7 +371,7 @@ public abstract class QuicConnection extends AbstractConnection
     private class Flusher extends IteratingCallback
     {
         private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
-        private Entry entry;
+        private final List<Entry> entries = new ArrayList<>();
 
         public void offer(Callback callback, SocketAddress address, ByteBuffer[] buffers)
         {
@@ -356,30 +382,68 @@ public abstract class QuicConnection extends AbstractConnection
         @Override
         protected Action process()
         {
-            entry = queue.poll();
+            Entry entry = queue.poll();
             if (entry == null)
                 return Action.IDLE;
 
-            getEndPoint().write(this, entry.address, entry.buffers);
+            // Coalesce the queued datagrams for the same peer into a single
+            // write, so that the EndPoint may send them in a single batch.
+            // This is the only consumer of the queue, so peek() and poll() are consistent.
+            entries.add(entry);
+            int count = entry.buffers.length;
+            while (count < getMaxWriteBatch())
+            {
+                Entry next = queue.peek();
+                if (next == null || !next.address.equals(entry.address))
+                    break;
+                entries.add(queue.poll());
+                count += next.buffers.length;
+            }
+
+            ByteBuffer[] buffers = entry.buffers;
+            if (entries.size() > 1)
+            {
+                buffers = new ByteBuffer[count];
+                int index = 0;
+                for (Entry e : entries)
+                {
+                    System.arraycopy(e.buffers, 0, buffers, index, e.buffers.length);
+                    index += e.buffers.length;
+                }
+            }
+            if (LOG.isDebugEnabled())
+                LOG.debug("writing {} datagram(s) from {} entries to {}", buffers.length, entries.size(), entry.address);
+
+            getEndPoint().write(this, entry.address, buffers);
             return Action.SCHEDULED;
         }
 
         @Override
         protected void onSuccess()
         {
-            entry.callback.succeeded();
+            List<Entry> succeeded = List.copyOf(entries);
+            entries.clear();
+            succeeded.forEach(e -> e.callback.succeeded());
         }
 
         @Override
         public InvocationType getInvocationType()
         {
-            return entry.callback.getInvocationType();
+            InvocationType invocationType = null;
+            for (Entry e : entries)
+            {
+                InvocationType type = e.callback.getInvocationType();
+                invocationType = invocationType == null ? type : Invocable.combine(invocationType, type);
+            }
+            return invocationType == null ? InvocationType.NON_BLOCKING : invocationType;
         }
 
         @Override
         protected void onCompleteFailure(Throwable cause)
         {
-            entry.callback.failed(cause);
+            List<Entry> failed = List.copyOf(entries);
+            entries.clear();
+            failed.forEach(e -> e.callback.failed(cause));
             QuicConnection.this.close();
         }
 
@@ -21,6 +21,7 @@ import java.nio.channels.ClosedChannelException;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EventListener;
@@ -474,8 +475,8 @@ public abstract class QuicSession extends ContainerLifeCycle
 
     private class Flusher extends IteratingCallback
     {
+        private final List<RetainableByteBuffer> cipherBuffers = new ArrayList<>();
         private final CyclicTimeout timeout;
-        private RetainableByteBuffer cipherBuffer;
 
         public Flusher(Scheduler scheduler)
         {
@@ -498,12 +499,13 @@ public abstract class QuicSession extends ContainerLifeCycle
         @Override
         protected Action process() throws IOException
         {
-            cipherBuffer = byteBufferPool.acquire(connection.getOutputBufferSize(), connection.isUseOutputDirectByteBuffers());
-            ByteBuffer cipherByteBuffer = cipherBuffer.getByteBuffer();
-            int pos = BufferUtil.flipToFill(cipherByteBuffer);
-            int drained = quicheConnection.drainCipherBytes(cipherByteBuffer);
-            if (LOG.isDebugEnabled())
-                LOG.debug("drained {} byte(s) of cipher bytes from {}", drained, QuicSession.this);
+            // Drain as many datagrams as possible, up to the write batch,
+            // so that the EndPoint may send them in a single batch.
+            while (cipherBuffers.size() < connection.getMaxWriteBatch())
+            {
+                if (drainCipherBytes() == 0)
+                    break;
+            }
             long nextTimeoutInMs = quicheConnection.nextTimeout();
             if (LOG.isDebugEnabled())
                 LOG.debug("next quiche timeout: {} ms on {}", nextTimeoutInMs, QuicSession.this);
@@ -511,29 +513,61 @@ public abstract class QuicSession extends ContainerLifeCycle
                 timeout.cancel();
             else
                 timeout.schedule(nextTimeoutInMs, TimeUnit.MILLISECONDS);
-            if (drained == 0)
+            if (cipherBuffers.isEmpty())
             {
                 boolean connectionClosed = quicheConnection.isConnectionClosed();
                 Action action = connectionClosed ? Action.SUCCEEDED : Action.IDLE;
                 if (LOG.isDebugEnabled())
                     LOG.debug("connection draining={} closed={}, action={} on {}", quicheConnection.isDraining(), connectionClosed, action, QuicSession.this);
-                if (action == Action.IDLE)
-                    cipherBuffer.release();
                 return action;
             }
-            BufferUtil.flipToFlush(cipherByteBuffer, pos);
+            ByteBuffer[] buffers = new ByteBuffer[cipherBuffers.size()];
+            Arrays.setAll(buffers, i -> cipherBuffers.get(i).getByteBuffer());
             if (LOG.isDebugEnabled())
-                LOG.debug("writing cipher bytes for {} on {}", remoteAddress, QuicSession.this);
-            connection.write(this, remoteAddress, cipherByteBuffer);
+                LOG.debug("writing {} datagram(s) of cipher bytes for {} on {}", buffers.length, remoteAddress, QuicSession.this);
+            connection.write(this, remoteAddress, buffers);
             return Action.SCHEDULED;
         }
 
+        private int drainCipherBytes() throws IOException
+        {
+            RetainableByteBuffer cipherBuffer = byteBufferPool.acquire(connection.getOutputBufferSize(), connection.isUseOutputDirectByteBuffers());
+            ByteBuffer cipherByteBuffer = cipherBuffer.getByteBuffer();
+            int pos = BufferUtil.flipToFill(cipherByteBuffer);
+            int drained;
+            try
+            {
+                drained = quicheConnection.drainCipherBytes(cipherByteBuffer);
+            }
+            catch (Throwable x)
+            {
+                cipherBuffer.release();
+                throw x;
+            }
+            if (LOG.isDebugEnabled())
+                LOG.debug("drained {} byte(s) of cipher bytes from {}", drained, QuicSession.this);
+            if (drained == 0)
+            {
+                cipherBuffer.release();
+                return 0;
+            }
+            BufferUtil.flipToFlush(cipherByteBuffer, pos);
+            cipherBuffers.add(cipherBuffer);
+            return drained;
+        }
+
+        private void releaseCipherBuffers()
+        {
+            cipherBuffers.forEach(RetainableByteBuffer::release);
+            cipherBuffers.clear();
+        }
+
         @Override
         protected void onSuccess()
         {
             if (LOG.isDebugEnabled())
                 LOG.debug("written cipher bytes on {}", QuicSession.this);
-            cipherBuffer.release();
+            releaseCipherBuffers();
         }
 
         @Override
@@ -560,7 +594,7 @@ public abstract class QuicSession extends ContainerLifeCycle
 
         private void finish(Throwable failure)
         {
-            cipherBuffer.release();
+            releaseCipherBuffers();
             finishOutwardClose(failure);
             timeout.destroy();
         }
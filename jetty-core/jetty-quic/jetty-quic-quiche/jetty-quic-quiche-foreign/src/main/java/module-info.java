@@ -11,14 +11,18 @@
 // ========================================================================
 //
 
+import org.eclipse.jetty.quic.quiche.foreign.ForeignDatagramEndPointFactory;
 import org.eclipse.jetty.quic.quiche.foreign.ForeignQuicheBinding;
 
 module org.eclipse.jetty.quic.quiche.foreign
 {
+    requires org.eclipse.jetty.quic.common;
     requires org.eclipse.jetty.quic.quiche;
     requires org.eclipse.jetty.util;
     requires org.slf4j;
 
+    provides org.eclipse.jetty.quic.common.DatagramEndPointFactory with
+        ForeignDatagramEndPointFactory;
     provides org.eclipse.jetty.quic.quiche.QuicheBinding with
         ForeignQuicheBinding;
 }
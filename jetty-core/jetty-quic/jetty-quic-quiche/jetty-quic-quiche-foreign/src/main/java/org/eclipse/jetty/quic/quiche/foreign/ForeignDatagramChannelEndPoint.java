@@ -0,0 +1,118 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.quic.quiche.foreign;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+
+import org.eclipse.jetty.io.DatagramChannelEndPoint;
+import org.eclipse.jetty.io.EofException;
+import org.eclipse.jetty.io.ManagedSelector;
+import org.eclipse.jetty.quic.quiche.foreign.linux.LinuxDatagramSocket;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A {@link DatagramChannelEndPoint} that receives and sends datagrams in batches
+ * via a {@link LinuxDatagramSocket}, rather than one datagram per system call.</p>
+ * <p>Received datagrams are buffered natively and returned one by one by
+ * {@link #receive(ByteBuffer)}; the socket is only read again, and fill
+ * interest only declared, once the whole batch has been consumed.</p>
+ */
+public class ForeignDatagramChannelEndPoint extends DatagramChannelEndPoint
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ForeignDatagramChannelEndPoint.class);
+
+    private final LinuxDatagramSocket socket;
+    private int received;
+    private int consumed;
+
+    public ForeignDatagramChannelEndPoint(DatagramChannel channel, ManagedSelector selector, SelectionKey key, Scheduler scheduler, LinuxDatagramSocket socket)
+    {
+        super(channel, selector, key, scheduler);
+        this.socket = socket;
+    }
+
+    @Override
+    public SocketAddress receive(ByteBuffer buffer) throws IOException
+    {
+        if (isInputShutdown())
+            return EOF;
+
+        if (consumed == received)
+        {
+            consumed = 0;
+            received = socket.receive();
+            if (LOG.isDebugEnabled())
+                LOG.debug("received batch of {} datagram(s) {}", received, this);
+            if (received == 0)
+                return null;
+        }
+
+        SocketAddress peer = socket.read(consumed++, buffer);
+
+        notIdle();
+
+        if (LOG.isDebugEnabled())
+            LOG.debug("filled {} {}", buffer.remaining(), BufferUtil.toDetailString(buffer));
+        return peer;
+    }
+
+    @Override
+    public boolean send(SocketAddress address, ByteBuffer... buffers) throws IOException
+    {
+        boolean flushedAll = true;
+        long flushed = 0;
+        try
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("flushing {} buffer(s) to {}", buffers.length, address);
+            int index = 0;
+            while (index < buffers.length)
+            {
+                // Skip the buffers sent by a previous, partial, send.
+                if (!buffers[index].hasRemaining())
+                {
+                    ++index;
+                    continue;
+                }
+                long before = BufferUtil.remaining(buffers);
+                int sent = socket.send(address, buffers, index, buffers.length - index);
+                if (sent == 0)
+                {
+                    flushedAll = false;
+                    break;
+                }
+                flushed += before - BufferUtil.remaining(buffers);
+                index += sent;
+            }
+            if (LOG.isDebugEnabled())
+                LOG.debug("flushed {} byte(s), all flushed? {} - {}", flushed, flushedAll, this);
+        }
+        catch (IOException e)
+        {
+            throw new EofException(e);
+        }
+
+        if (flushed > 0)
+            notIdle();
+
+        return flushedAll;
+    }
+}
@@ -0,0 +1,90 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.quic.quiche.foreign;
+
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+
+import org.eclipse.jetty.io.DatagramChannelEndPoint;
+import org.eclipse.jetty.io.ManagedSelector;
+import org.eclipse.jetty.quic.common.DatagramEndPointFactory;
+import org.eclipse.jetty.quic.quiche.foreign.linux.LinuxDatagramSocket;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A {@link DatagramEndPointFactory} that creates {@link ForeignDatagramChannelEndPoint}s
+ * on Linux, batching datagrams with {@code recvmmsg()} and {@code sendmmsg()}.</p>
+ * <p>This factory can be configured with the following system properties:</p>
+ * <ul>
+ * <li>{@code org.eclipse.jetty.quic.quiche.foreign.datagramBatching}, whether
+ * this factory is enabled, default {@code true}</li>
+ * <li>{@code org.eclipse.jetty.quic.quiche.foreign.datagramBatchSize}, the max
+ * number of datagrams per system call, default {@code 32}</li>
+ * <li>{@code org.eclipse.jetty.quic.quiche.foreign.datagramSize}, the max size of
+ * a received datagram, default {@code 2048}</li>
+ * <li>{@code org.eclipse.jetty.quic.quiche.foreign.datagramSegmentation}, whether
+ * to use UDP generic segmentation offload, default {@code true}</li>
+ * </ul>
+ * <p>If the file descriptor of a {@link DatagramChannel} cannot be accessed (see
+ * {@link LinuxDatagramSocket}), a plain {@link DatagramChannelEndPoint} is created.</p>
+ */
+public class ForeignDatagramEndPointFactory implements DatagramEndPointFactory
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ForeignDatagramEndPointFactory.class);
+    private static final String PREFIX = "org.eclipse.jetty.quic.quiche.foreign.";
+
+    private final boolean enabled = Boolean.parseBoolean(System.getProperty(PREFIX + "datagramBatching", "true"));
+    private final int batchSize = Integer.getInteger(PREFIX + "datagramBatchSize", 32);
+    private final int datagramSize = Integer.getInteger(PREFIX + "datagramSize", 2048);
+    private final boolean segmentation = Boolean.parseBoolean(System.getProperty(PREFIX + "datagramSegmentation", "true"));
+
+    @Override
+    public Throwable initialize()
+    {
+        if (!enabled)
+            return new UnsupportedOperationException("datagram batching disabled");
+        return LinuxDatagramSocket.initialize();
+    }
+
+    @Override
+    public int priority()
+    {
+        return 100;
+    }
+
+    @Override
+    public DatagramChannelEndPoint newEndPoint(DatagramChannel channel, ManagedSelector selector, SelectionKey selectionKey, Scheduler scheduler)
+    {
+        try
+        {
+            int fd = LinuxDatagramSocket.getFileDescriptor(channel);
+            LinuxDatagramSocket socket = new LinuxDatagramSocket(fd, batchSize, datagramSize, segmentation);
+            return new ForeignDatagramChannelEndPoint(channel, selector, selectionKey, scheduler, socket);
+        }
+        catch (Throwable x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("could not create batching endpoint for {}, falling back to NIO", channel, x);
+            return new DatagramChannelEndPoint(channel, selector, selectionKey, scheduler);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s[batch=%d,datagram=%d,gso=%b]", getClass().getSimpleName(), batchSize, datagramSize, segmentation);
+    }
+}
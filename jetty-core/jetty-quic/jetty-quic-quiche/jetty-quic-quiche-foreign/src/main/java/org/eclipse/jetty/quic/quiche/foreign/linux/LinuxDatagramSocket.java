@@ -0,0 +1,551 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.quic.quiche.foreign.linux;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.SymbolLookup;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Method;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+
+import org.eclipse.jetty.util.BufferUtil;
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+import static java.lang.foreign.ValueLayout.JAVA_SHORT;
+
+/**
+ * <p>Receives and sends batches of UDP datagrams on the file descriptor of a
+ * {@link DatagramChannel}, using the Linux {@code recvmmsg()} and {@code sendmmsg()}
+ * system calls, and optionally UDP generic segmentation offload ({@code UDP_SEGMENT}).</p>
+ * <p>The file descriptor of the channel is obtained via reflection, which requires
+ * the JVM option {@code --add-exports java.base/sun.nio.ch=org.eclipse.jetty.quic.quiche.foreign}
+ * (or {@code ALL-UNNAMED} when running from the class-path).</p>
+ * <p>Instances are not thread-safe; receives and sends may however be performed
+ * concurrently, as they use distinct native memory.</p>
+ */
+public class LinuxDatagramSocket
+{
+    private static final Throwable FAILURE;
+    private static final Method GET_FD_VAL;
+    private static final MethodHandle RECVMMSG;
+    private static final MethodHandle SENDMMSG;
+    private static final MethodHandle SENDMSG;
+    private static final StructLayout CALL_STATE_LAYOUT = Linker.Option.captureStateLayout();
+    private static final VarHandle ERRNO = CALL_STATE_LAYOUT.varHandle(MemoryLayout.PathElement.groupElement("errno"));
+
+    private static final int AF_INET = 2;
+    private static final int AF_INET6 = 10;
+    private static final int SOL_UDP = 17;
+    private static final int UDP_SEGMENT = 103;
+    private static final int MSG_DONTWAIT = 0x40;
+    private static final int EINTR = 4;
+    private static final int EIO = 5;
+    private static final int EAGAIN = 11;
+    private static final int EINVAL = 22;
+    private static final int ENOPROTOOPT = 92;
+    private static final int EOPNOTSUPP = 95;
+
+    // The sizes and offsets of struct iovec, msghdr, mmsghdr, sockaddr_storage
+    // and cmsghdr, for the 64-bit Linux ABIs (x86-64 and aarch64).
+    private static final long IOVEC_SIZE = 16;
+    private static final long IOV_BASE = 0;
+    private static final long IOV_LEN = 8;
+    private static final long MSGHDR_SIZE = 56;
+    private static final long MSG_NAME = 0;
+    private static final long MSG_NAMELEN = 8;
+    private static final long MSG_IOV = 16;
+    private static final long MSG_IOVLEN = 24;
+    private static final long MSG_CONTROL = 32;
+    private static final long MSG_CONTROLLEN = 40;
+    private static final long MMSGHDR_SIZE = 64;
+    private static final long MSG_LEN = 56;
+    private static final long SOCKADDR_STORAGE_SIZE = 128;
+    private static final long CMSG_SPACE_U16 = 24;
+    private static final long CMSG_LEN_U16 = 18;
+
+    // The max number of segments and bytes of a single UDP_SEGMENT send.
+    private static final int MAX_GSO_SEGMENTS = 64;
+    private static final int MAX_GSO_BYTES = 65000;
+
+    static
+    {
+        Throwable failure = null;
+        Method getFDVal = null;
+        MethodHandle recvmmsg = null;
+        MethodHandle sendmmsg = null;
+        MethodHandle sendmsg = null;
+        try
+        {
+            if (!System.getProperty("os.name", "").startsWith("Linux"))
+                throw new UnsupportedOperationException("Unsupported OS: " + System.getProperty("os.name"));
+            if (ADDRESS.byteSize() != 8)
+                throw new UnsupportedOperationException("Unsupported address size: " + ADDRESS.byteSize());
+
+            getFDVal = Class.forName("sun.nio.ch.SelChImpl").getMethod("getFDVal");
+
+            Linker linker = Linker.nativeLinker();
+            SymbolLookup lookup = linker.defaultLookup();
+            Linker.Option errno = Linker.Option.captureCallState("errno");
+            recvmmsg = linker.downcallHandle(find(lookup, "recvmmsg"),
+                FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS, JAVA_INT, JAVA_INT, ADDRESS), errno);
+            sendmmsg = linker.downcallHandle(find(lookup, "sendmmsg"),
+                FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS, JAVA_INT, JAVA_INT), errno);
+            sendmsg = linker.downcallHandle(find(lookup, "sendmsg"),
+                FunctionDescriptor.of(JAVA_LONG, JAVA_INT, ADDRESS, JAVA_INT), errno);
+        }
+        catch (Throwable x)
+        {
+            failure = x;
+        }
+        FAILURE = failure;
+        GET_FD_VAL = getFDVal;
+        RECVMMSG = recvmmsg;
+        SENDMMSG = sendmmsg;
+        SENDMSG = sendmsg;
+    }
+
+    private static MemorySegment find(SymbolLookup lookup, String symbol)
+    {
+        return lookup.find(symbol).orElseThrow(() -> new UnsatisfiedLinkError("unresolved symbol: " + symbol));
+    }
+
+    /**
+     * @return {@code null} if batched datagram I/O is available on this platform, or the failure that prevents its use
+     */
+    public static Throwable initialize()
+    {
+        return FAILURE;
+    }
+
+    /**
+     * @param channel the channel to get the file descriptor of
+     * @return the file descriptor of the given channel
+     * @throws ReflectiveOperationException if the file descriptor cannot be accessed
+     */
+    public static int getFileDescriptor(DatagramChannel channel) throws ReflectiveOperationException
+    {
+        if (FAILURE != null)
+            throw new IllegalStateException(FAILURE);
+        return (int)GET_FD_VAL.invoke(channel);
+    }
+
+    private final int fd;
+    private final int batchSize;
+    private final int datagramSize;
+    private final MemorySegment recvState;
+    private final MemorySegment recvMessages;
+    private final MemorySegment recvAddresses;
+    private final MemorySegment recvData;
+    private final MemorySegment sendState;
+    private final MemorySegment sendMessages;
+    private final MemorySegment sendIovecs;
+    private final MemorySegment sendAddress;
+    private final MemorySegment sendControl;
+    private MemorySegment sendStaging;
+    private SocketAddress sendAddressCache;
+    private long sendAddressLength;
+    private boolean segmentation;
+
+    /**
+     * @param fd the file descriptor of a non-blocking datagram socket
+     * @param batchSize the max number of datagrams received or sent by a single system call
+     * @param datagramSize the max size of a received datagram
+     * @param segmentation whether to send same-sized datagrams with UDP generic segmentation offload
+     */
+    public LinuxDatagramSocket(int fd, int batchSize, int datagramSize, boolean segmentation)
+    {
+        if (FAILURE != null)
+            throw new IllegalStateException(FAILURE);
+        if (batchSize < 1)
+            throw new IllegalArgumentException("invalid batch size: " + batchSize);
+        if (datagramSize < 1)
+            throw new IllegalArgumentException("invalid datagram size: " + datagramSize);
+        this.fd = fd;
+        this.batchSize = batchSize;
+        this.datagramSize = datagramSize;
+        this.segmentation = segmentation;
+
+        // The native memory is reclaimed when this object becomes unreachable,
+        // so that there is no need to coordinate a close with concurrent I/O.
+        Arena arena = Arena.ofAuto();
+        recvState = arena.allocate(CALL_STATE_LAYOUT);
+        recvMessages = arena.allocate(MMSGHDR_SIZE * batchSize, 8);
+        MemorySegment recvIovecs = arena.allocate(IOVEC_SIZE * batchSize, 8);
+        recvAddresses = arena.allocate(SOCKADDR_STORAGE_SIZE * batchSize, 8);
+        recvData = arena.allocate((long)datagramSize * batchSize, 8);
+        for (int i = 0; i < batchSize; ++i)
+        {
+            MemorySegment iovec = recvIovecs.asSlice(IOVEC_SIZE * i, IOVEC_SIZE);
+            iovec.set(ADDRESS, IOV_BASE, recvData.asSlice((long)datagramSize * i, datagramSize));
+            iovec.set(JAVA_LONG, IOV_LEN, datagramSize);
+            MemorySegment message = recvMessages.asSlice(MMSGHDR_SIZE * i, MMSGHDR_SIZE);
+            message.set(ADDRESS, MSG_NAME, recvAddresses.asSlice(SOCKADDR_STORAGE_SIZE * i, SOCKADDR_STORAGE_SIZE));
+            message.set(ADDRESS, MSG_IOV, iovec);
+            message.set(JAVA_LONG, MSG_IOVLEN, 1);
+        }
+
+        sendState = arena.allocate(CALL_STATE_LAYOUT);
+        sendMessages = arena.allocate(MMSGHDR_SIZE * batchSize, 8);
+        sendIovecs = arena.allocate(IOVEC_SIZE * Math.max(batchSize, MAX_GSO_SEGMENTS), 8);
+        sendAddress = arena.allocate(SOCKADDR_STORAGE_SIZE, 8);
+        sendControl = arena.allocate(CMSG_SPACE_U16, 8);
+        sendControl.set(JAVA_LONG, 0, CMSG_LEN_U16);
+        sendControl.set(JAVA_INT, 8, SOL_UDP);
+        sendControl.set(JAVA_INT, 12, UDP_SEGMENT);
+    }
+
+    /**
+     * @return the max number of datagrams received or sent by a single system call
+     */
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    /**
+     * @return whether same-sized datagrams are sent with UDP generic segmentation offload
+     */
+    public boolean isSegmentation()
+    {
+        return segmentation;
+    }
+
+    /**
+     * <p>Receives a batch of datagrams without blocking.</p>
+     * <p>The received datagrams are then retrieved with {@link #read(int, ByteBuffer)}.</p>
+     *
+     * @return the number of datagrams received, or 0 if no datagram is available
+     * @throws IOException if the receive fails
+     */
+    public int receive() throws IOException
+    {
+        for (int i = 0; i < batchSize; ++i)
+        {
+            recvMessages.set(JAVA_INT, MMSGHDR_SIZE * i + MSG_NAMELEN, (int)SOCKADDR_STORAGE_SIZE);
+        }
+        while (true)
+        {
+            int result;
+            try
+            {
+                result = (int)RECVMMSG.invokeExact(recvState, fd, recvMessages, batchSize, MSG_DONTWAIT, MemorySegment.NULL);
+            }
+            catch (Throwable x)
+            {
+                throw new AssertionError("should not reach here", x);
+            }
+            if (result >= 0)
+                return result;
+            int errno = errno(recvState);
+            if (errno == EINTR)
+                continue;
+            if (errno == EAGAIN)
+                return 0;
+            throw new IOException("recvmmsg() failed, errno=" + errno);
+        }
+    }
+
+    /**
+     * <p>Copies the given received datagram into the given buffer.</p>
+     * <p>The datagram bytes that do not fit into the buffer are discarded.</p>
+     *
+     * @param index the index of the datagram in the last received batch
+     * @param buffer the buffer to copy the datagram bytes into, in flush mode
+     * @return the address of the datagram sender
+     * @throws IOException if the sender address cannot be decoded
+     */
+    public SocketAddress read(int index, ByteBuffer buffer) throws IOException
+    {
+        int length = recvMessages.get(JAVA_INT, MMSGHDR_SIZE * index + MSG_LEN);
+        int pos = BufferUtil.flipToFill(buffer);
+        int copy = Math.min(length, buffer.remaining());
+        MemorySegment.copy(recvData, (long)datagramSize * index, MemorySegment.ofBuffer(buffer), 0, copy);
+        buffer.position(buffer.position() + copy);
+        BufferUtil.flipToFlush(buffer, pos);
+        return decode(recvAddresses.asSlice(SOCKADDR_STORAGE_SIZE * index, SOCKADDR_STORAGE_SIZE));
+    }
+
+    /**
+     * <p>Sends the given buffers, each as a separate datagram, without blocking.</p>
+     * <p>The buffers are sent with a single system call: either a single
+     * {@code sendmsg()} with UDP generic segmentation offload, if enabled and the
+     * buffers have the same size (except the last which may be smaller), or a
+     * {@code sendmmsg()} otherwise.
+     * At most {@link #getBatchSize()} buffers are sent, and the position of the
+     * sent buffers is moved to their limit.</p>
+     *
+     * @param address the address to send the datagrams to
+     * @param buffers the buffers to send
+     * @param offset the index of the first buffer to send
+     * @param length the number of buffers to send
+     * @return the number of buffers sent, or 0 if the socket cannot accept more datagrams
+     * @throws IOException if the send fails
+     */
+    public int send(SocketAddress address, ByteBuffer[] buffers, int offset, int length) throws IOException
+    {
+        if (!address.equals(sendAddressCache))
+        {
+            sendAddressLength = encode(address, sendAddress);
+            sendAddressCache = address;
+        }
+
+        length = Math.min(length, batchSize);
+        if (segmentation && length > 1)
+        {
+            int segments = segments(buffers, offset, length);
+            if (segments > 1)
+            {
+                int sent = sendSegmented(buffers, offset, segments);
+                if (sent >= 0)
+                    return sent;
+            }
+        }
+        return sendBatch(buffers, offset, length);
+    }
+
+    private int segments(ByteBuffer[] buffers, int offset, int length)
+    {
+        int size = buffers[offset].remaining();
+        if (size == 0)
+            return 0;
+        long total = 0;
+        int count = 0;
+        for (int i = offset; i < offset + length && count < MAX_GSO_SEGMENTS; ++i)
+        {
+            int remaining = buffers[i].remaining();
+            if (remaining == 0 || remaining > size || total + remaining > MAX_GSO_BYTES)
+                break;
+            total += remaining;
+            ++count;
+            // Only the last segment may be smaller.
+            if (remaining < size)
+                break;
+        }
+        return count;
+    }
+
+    private int sendSegmented(ByteBuffer[] buffers, int offset, int segments) throws IOException
+    {
+        long total = iovecs(buffers, offset, segments);
+        sendControl.set(JAVA_SHORT, 16, (short)buffers[offset].remaining());
+
+        MemorySegment message = sendMessages.asSlice(0, MSGHDR_SIZE);
+        message.set(ADDRESS, MSG_NAME, sendAddress);
+        message.set(JAVA_INT, MSG_NAMELEN, (int)sendAddressLength);
+        message.set(ADDRESS, MSG_IOV, sendIovecs);
+        message.set(JAVA_LONG, MSG_IOVLEN, segments);
+        message.set(ADDRESS, MSG_CONTROL, sendControl);
+        message.set(JAVA_LONG, MSG_CONTROLLEN, CMSG_SPACE_U16);
+        try
+        {
+            while (true)
+            {
+                long result;
+                try
+                {
+                    result = (long)SENDMSG.invokeExact(sendState, fd, message, MSG_DONTWAIT);
+                }
+                catch (Throwable x)
+                {
+                    throw new AssertionError("should not reach here", x);
+                }
+                if (result >= 0)
+                {
+                    if (result != total)
+                        throw new IOException("sendmsg() partial write " + result + "/" + total);
+                    for (int i = offset; i < offset + segments; ++i)
+                    {
+                        buffers[i].position(buffers[i].limit());
+                    }
+                    return segments;
+                }
+                int errno = errno(sendState);
+                if (errno == EINTR)
+                    continue;
+                if (errno == EAGAIN)
+                    return 0;
+                if (errno == EIO || errno == EINVAL || errno == ENOPROTOOPT || errno == EOPNOTSUPP)
+                {
+                    // The kernel or the network interface does not support
+                    // segmentation offload, fall back to sendmmsg().
+                    segmentation = false;
+                    return -1;
+                }
+                throw new IOException("sendmsg() failed, errno=" + errno);
+            }
+        }
+        finally
+        {
+            message.set(ADDRESS, MSG_CONTROL, MemorySegment.NULL);
+            message.set(JAVA_LONG, MSG_CONTROLLEN, 0);
+        }
+    }
+
+    private int sendBatch(ByteBuffer[] buffers, int offset, int length) throws IOException
+    {
+        iovecs(buffers, offset, length);
+        for (int i = 0; i < length; ++i)
+        {
+            MemorySegment message = sendMessages.asSlice(MMSGHDR_SIZE * i, MMSGHDR_SIZE);
+            message.set(ADDRESS, MSG_NAME, sendAddress);
+            message.set(JAVA_INT, MSG_NAMELEN, (int)sendAddressLength);
+            message.set(ADDRESS, MSG_IOV, sendIovecs.asSlice(IOVEC_SIZE * i, IOVEC_SIZE));
+            message.set(JAVA_LONG, MSG_IOVLEN, 1);
+        }
+        while (true)
+        {
+            int result;
+            try
+            {
+                result = (int)SENDMMSG.invokeExact(sendState, fd, sendMessages, length, MSG_DONTWAIT);
+            }
+            catch (Throwable x)
+            {
+                throw new AssertionError("should not reach here", x);
+            }
+            if (result >= 0)
+            {
+                for (int i = offset; i < offset + result; ++i)
+                {
+                    buffers[i].position(buffers[i].limit());
+                }
+                return result;
+            }
+            int errno = errno(sendState);
+            if (errno == EINTR)
+                continue;
+            if (errno == EAGAIN)
+                return 0;
+            throw new IOException("sendmmsg() failed, errno=" + errno);
+        }
+    }
+
+    private long iovecs(ByteBuffer[] buffers, int offset, int length)
+    {
+        // Heap buffers cannot be passed to native code, so their bytes are staged into native memory.
+        long staging = 0;
+        for (int i = offset; i < offset + length; ++i)
+        {
+            if (!buffers[i].isDirect())
+                staging += buffers[i].remaining();
+        }
+        if (staging > 0 && (sendStaging == null || sendStaging.byteSize() < staging))
+            sendStaging = Arena.ofAuto().allocate(Math.max(staging, (long)datagramSize * batchSize), 8);
+
+        long total = 0;
+        long staged = 0;
+        for (int i = 0; i < length; ++i)
+        {
+            ByteBuffer buffer = buffers[offset + i];
+            int remaining = buffer.remaining();
+            MemorySegment data;
+            if (buffer.isDirect())
+            {
+                data = MemorySegment.ofBuffer(buffer);
+            }
+            else
+            {
+                data = sendStaging.asSlice(staged, remaining);
+                MemorySegment.copy(MemorySegment.ofBuffer(buffer), 0, data, 0, remaining);
+                staged += remaining;
+            }
+            MemorySegment iovec = sendIovecs.asSlice(IOVEC_SIZE * i, IOVEC_SIZE);
+            iovec.set(ADDRESS, IOV_BASE, data);
+            iovec.set(JAVA_LONG, IOV_LEN, remaining);
+            total += remaining;
+        }
+        return total;
+    }
+
+    private static int errno(MemorySegment callState)
+    {
+        return (int)ERRNO.get(callState, 0L);
+    }
+
+    private static long encode(SocketAddress socketAddress, MemorySegment sockaddr)
+    {
+        if (!(socketAddress instanceof InetSocketAddress inetSocketAddress))
+            throw new IllegalArgumentException("Expected InetSocketAddress instance, got: " + socketAddress);
+        InetAddress address = inetSocketAddress.getAddress();
+        if (address == null)
+            throw new IllegalArgumentException("Unresolved address: " + socketAddress);
+        sockaddr.fill((byte)0);
+        // The port is in network byte order.
+        sockaddr.set(JAVA_SHORT.withOrder(ByteOrder.BIG_ENDIAN), 2, (short)inetSocketAddress.getPort());
+        if (address instanceof Inet4Address)
+        {
+            sockaddr.set(JAVA_SHORT, 0, (short)AF_INET);
+            MemorySegment.copy(address.getAddress(), 0, sockaddr, JAVA_BYTE, 4, 4);
+            return 16;
+        }
+        if (address instanceof Inet6Address inet6Address)
+        {
+            sockaddr.set(JAVA_SHORT, 0, (short)AF_INET6);
+            MemorySegment.copy(address.getAddress(), 0, sockaddr, JAVA_BYTE, 8, 16);
+            sockaddr.set(JAVA_INT, 24, inet6Address.getScopeId());
+            return 28;
+        }
+        throw new UnsupportedOperationException("Unsupported InetAddress: " + address);
+    }
+
+    private static SocketAddress decode(MemorySegment sockaddr) throws IOException
+    {
+        int family = sockaddr.get(JAVA_SHORT, 0);
+        int port = Short.toUnsignedInt(sockaddr.get(JAVA_SHORT.withOrder(ByteOrder.BIG_ENDIAN), 2));
+        try
+        {
+            if (family == AF_INET)
+            {
+                byte[] bytes = sockaddr.asSlice(4, 4).toArray(JAVA_BYTE);
+                return new InetSocketAddress(InetAddress.getByAddress(bytes), port);
+            }
+            if (family == AF_INET6)
+            {
+                byte[] bytes = sockaddr.asSlice(8, 16).toArray(JAVA_BYTE);
+                int scopeId = sockaddr.get(JAVA_INT, 24);
+                InetAddress address = scopeId == 0 ? InetAddress.getByAddress(bytes) : Inet6Address.getByAddress(null, bytes, scopeId);
+                return new InetSocketAddress(address, port);
+            }
+        }
+        catch (UnknownHostException x)
+        {
+            throw new IOException(x);
+        }
+        throw new IOException("Unsupported address family: " + family);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[fd=%d,batch=%d,datagram=%d,gso=%b]", getClass().getSimpleName(), hashCode(), fd, batchSize, datagramSize, segmentation);
+    }
+}
@@ -0,0 +1,113 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.quic.quiche.foreign.linux;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+import org.eclipse.jetty.util.BufferUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class LinuxDatagramSocketTest
+{
+    private DatagramChannel receiver;
+    private DatagramChannel sender;
+
+    @BeforeEach
+    public void prepare() throws Exception
+    {
+        assumeTrue(LinuxDatagramSocket.initialize() == null);
+        receiver = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        receiver.configureBlocking(false);
+        sender = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        sender.configureBlocking(false);
+    }
+
+    @AfterEach
+    public void dispose() throws Exception
+    {
+        if (receiver != null)
+            receiver.close();
+        if (sender != null)
+            sender.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testSendReceiveBatch(boolean segmentation) throws Exception
+    {
+        LinuxDatagramSocket receiving = new LinuxDatagramSocket(LinuxDatagramSocket.getFileDescriptor(receiver), 8, 2048, false);
+        LinuxDatagramSocket sending = new LinuxDatagramSocket(LinuxDatagramSocket.getFileDescriptor(sender), 8, 2048, segmentation);
+
+        assertThat(receiving.receive(), is(0));
+
+        // Mix direct and heap buffers, with a smaller last datagram.
+        int count = 5;
+        ByteBuffer[] buffers = new ByteBuffer[count];
+        for (int i = 0; i < count; ++i)
+        {
+            ByteBuffer buffer = i % 2 == 0 ? BufferUtil.allocateDirect(100) : BufferUtil.allocate(100);
+            int length = i == count - 1 ? 50 : 100;
+            BufferUtil.append(buffer, new byte[length], 0, length);
+            buffer.put(buffer.position(), (byte)i);
+            buffers[i] = buffer;
+        }
+
+        SocketAddress address = receiver.getLocalAddress();
+        assertThat(sending.send(address, buffers, 0, count), is(count));
+        for (ByteBuffer buffer : buffers)
+        {
+            assertThat(buffer.hasRemaining(), is(false));
+        }
+
+        // Loopback datagrams are queued to the receiver before send returns.
+        assertThat(receiving.receive(), is(count));
+        for (int i = 0; i < count; ++i)
+        {
+            ByteBuffer buffer = BufferUtil.allocate(2048);
+            SocketAddress peer = receiving.read(i, buffer);
+            assertThat(peer, is(sender.getLocalAddress()));
+            assertThat(buffer.remaining(), is(i == count - 1 ? 50 : 100));
+            assertThat(buffer.get(0), is((byte)i));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testReceiveTruncatesToBufferSize(boolean direct) throws Exception
+    {
+        LinuxDatagramSocket receiving = new LinuxDatagramSocket(LinuxDatagramSocket.getFileDescriptor(receiver), 4, 2048, false);
+
+        sender.send(ByteBuffer.wrap(new byte[1000]), receiver.getLocalAddress());
+
+        assertThat(receiving.receive(), is(1));
+        ByteBuffer buffer = direct ? BufferUtil.allocateDirect(100) : BufferUtil.allocate(100);
+        SocketAddress peer = receiving.read(0, buffer);
+        assertThat(peer, is(sender.getLocalAddress()));
+        assertThat(buffer.remaining(), is(100));
+        assertThat(receiving.receive(), is(0));
+        assertThat(LinuxDatagramSocket.initialize(), nullValue());
+    }
+}
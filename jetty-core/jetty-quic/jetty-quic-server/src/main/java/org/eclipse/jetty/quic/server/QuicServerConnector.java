@@ -26,10 +26,10 @@ import java.util.concurrent.Executor;
 
 import org.eclipse.jetty.io.ByteBufferPool;
 import org.eclipse.jetty.io.Connection;
-import org.eclipse.jetty.io.DatagramChannelEndPoint;
 import org.eclipse.jetty.io.EndPoint;
 import org.eclipse.jetty.io.ManagedSelector;
 import org.eclipse.jetty.io.SelectorManager;
+import org.eclipse.jetty.quic.common.DatagramEndPointFactory;
 import org.eclipse.jetty.quic.common.QuicSession;
 import org.eclipse.jetty.quic.common.QuicSessionContainer;
 import org.eclipse.jetty.quic.common.QuicStreamEndPoint;
@@ -268,7 +268,7 @@ public class QuicServerConnector extends AbstractNetworkConnector
 
     protected EndPoint newEndPoint(DatagramChannel channel, ManagedSelector selector, SelectionKey selectionKey)
     {
-        return new DatagramChannelEndPoint(channel, selector, selectionKey, getScheduler());
+        return DatagramEndPointFactory.getDefault().newEndPoint(channel, selector, selectionKey, getScheduler());
     }
 
     protected ServerQuicConnection newConnection(EndPoint endpoint)
@@ -27,4 +27,7 @@ etc/jetty-rewrite-rules.xml
 # tag::documentation[]
 ## Request attribute name used to store the original request path.
 # jetty.rewrite.originalPathAttribute=jetty.rewrite.originalRequestPath
+
+## Whether regex rules are indexed by their literal prefix, to speed up large rule sets.
+# jetty.rewrite.regexRulesIndexed=false
 # end::documentation[]
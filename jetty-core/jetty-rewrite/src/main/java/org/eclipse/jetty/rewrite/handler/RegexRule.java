@@ -17,12 +17,15 @@ import java.io.IOException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.eclipse.jetty.http.pathmap.RegexPathSpec;
+
 /**
  * <p>Abstract rule that uses the regular expression syntax for path pattern matching.</p>
  */
 public abstract class RegexRule extends Rule
 {
     private Pattern _regex;
+    private String _literalPrefix;
     private boolean _matchQuery = true;
 
     public RegexRule()
@@ -51,6 +54,18 @@ public abstract class RegexRule extends Rule
     public void setRegex(String regex)
     {
         _regex = regex == null ? null : Pattern.compile(regex);
+        _literalPrefix = regex == null ? null : RegexPathSpec.getLiteralPrefix(regex);
+    }
+
+    /**
+     * <p>Get the literal prefix that the matched targets start with.</p>
+     *
+     * @return the literal prefix of the regular expression, possibly empty, or null if the regular expression is not set
+     * @see RegexPathSpec#getLiteralPrefix(String)
+     */
+    public String getLiteralPrefix()
+    {
+        return _literalPrefix;
     }
 
     /**
@@ -0,0 +1,113 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+
+package org.eclipse.jetty.rewrite.handler;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jetty.http.HttpURI;
+
+/**
+ * <p>An index of the rules of a {@link RuleContainer} by the literal prefix of {@link RegexRule}s.</p>
+ * <p>For a given URI, the index returns the positions of the candidate rules, that is
+ * the {@link RegexRule}s whose literal prefix matches the URI, plus all the other rules
+ * that cannot be indexed.  Rules that are not candidates cannot match the URI.</p>
+ *
+ * @see RuleContainer#setRegexRulesIndexed(boolean)
+ */
+class RegexRuleIndex
+{
+    private final BitSet _unindexed = new BitSet();
+    private final Node _pathRules = new Node();
+    private final Node _pathQueryRules = new Node();
+
+    RegexRuleIndex(List<Rule> rules)
+    {
+        for (int i = 0; i < rules.size(); ++i)
+        {
+            Rule rule = rules.get(i);
+            String prefix = rule instanceof RegexRule regexRule && isIndexable(regexRule) ? regexRule.getLiteralPrefix() : null;
+            if (prefix == null || prefix.isEmpty())
+                _unindexed.set(i);
+            else if (((RegexRule)rule).isMatchQuery())
+                _pathQueryRules.add(prefix, i);
+            else
+                _pathRules.add(prefix, i);
+        }
+    }
+
+    private static boolean isIndexable(RegexRule rule)
+    {
+        // Rules that override the matching logic may not match against the URI.
+        try
+        {
+            return rule.getClass().getMethod("matchAndApply", Rule.Handler.class).getDeclaringClass() == RegexRule.class;
+        }
+        catch (NoSuchMethodException x)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @param uri the URI to match
+     * @return the positions of the rules that may match the given URI
+     */
+    BitSet getCandidates(HttpURI uri)
+    {
+        BitSet candidates = (BitSet)_unindexed.clone();
+        _pathRules.collect(uri.getPath(), candidates);
+        _pathQueryRules.collect(uri.getPathQuery(), candidates);
+        return candidates;
+    }
+
+    private static class Node
+    {
+        private Map<Character, Node> _children;
+        private BitSet _rules;
+
+        private void add(String prefix, int rule)
+        {
+            Node node = this;
+            for (int i = 0; i < prefix.length(); ++i)
+            {
+                if (node._children == null)
+                    node._children = new HashMap<>();
+                node = node._children.computeIfAbsent(prefix.charAt(i), c -> new Node());
+            }
+            if (node._rules == null)
+                node._rules = new BitSet();
+            node._rules.set(rule);
+        }
+
+        private void collect(String target, BitSet candidates)
+        {
+            if (target == null)
+                return;
+            Node node = this;
+            int i = 0;
+            while (node != null)
+            {
+                if (node._rules != null)
+                    candidates.or(node._rules);
+                if (i == target.length() || node._children == null)
+                    break;
+                node = node._children.get(target.charAt(i++));
+            }
+        }
+    }
+}
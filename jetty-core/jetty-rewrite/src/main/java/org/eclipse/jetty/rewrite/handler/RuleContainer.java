@@ -15,6 +15,7 @@ package org.eclipse.jetty.rewrite.handler;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 
@@ -36,6 +37,8 @@ public class RuleContainer extends Rule implements Iterable<Rule>, Dumpable
 
     private String _originalPathAttribute;
     private String _originalQueryStringAttribute;
+    private boolean _regexRulesIndexed;
+    private volatile RegexRuleIndex _regexRuleIndex;
 
     /**
      * @return the list of {@code Rule}s
@@ -53,6 +56,7 @@ public class RuleContainer extends Rule implements Iterable<Rule>, Dumpable
     {
         clear();
         _rules.addAll(rules);
+        _regexRuleIndex = null;
     }
 
     @Override
@@ -69,6 +73,7 @@ public class RuleContainer extends Rule implements Iterable<Rule>, Dumpable
     public void addRule(Rule rule)
     {
         _rules.add(rule);
+        _regexRuleIndex = null;
     }
 
     /**
@@ -77,6 +82,33 @@ public class RuleContainer extends Rule implements Iterable<Rule>, Dumpable
     public void clear()
     {
         _rules.clear();
+        _regexRuleIndex = null;
+    }
+
+    /**
+     * @return whether {@link RegexRule}s are indexed by the literal prefix of their regular expression
+     * @see #setRegexRulesIndexed(boolean)
+     */
+    public boolean isRegexRulesIndexed()
+    {
+        return _regexRulesIndexed;
+    }
+
+    /**
+     * <p>Sets whether {@link RegexRule}s are indexed by the literal prefix of their regular expression.</p>
+     * <p>When indexed, only the rules whose literal prefix matches the request URI are evaluated,
+     * in the same order as they were added, so that large sets of rules with distinct prefixes
+     * do not cost a regular expression evaluation per rule for each request.</p>
+     * <p>The index is built when the first request is processed after rules are added or set,
+     * so rules must not be modified after they have been added to this container.</p>
+     *
+     * @param regexRulesIndexed whether {@link RegexRule}s are indexed
+     * @see RegexRule#getLiteralPrefix()
+     */
+    public void setRegexRulesIndexed(boolean regexRulesIndexed)
+    {
+        _regexRulesIndexed = regexRulesIndexed;
+        _regexRuleIndex = null;
     }
 
     /**
@@ -124,9 +156,22 @@ public class RuleContainer extends Rule implements Iterable<Rule>, Dumpable
                 input.setAttribute(originalQueryStringAttribute, httpURI.getQuery());
         }
 
+        RegexRuleIndex index = null;
+        if (isRegexRulesIndexed())
+        {
+            index = _regexRuleIndex;
+            if (index == null)
+            {
+                index = new RegexRuleIndex(_rules);
+                _regexRuleIndex = index;
+            }
+        }
+        BitSet candidates = index == null ? null : index.getCandidates(input.getHttpURI());
+
         boolean match = false;
-        for (Rule rule : _rules)
+        for (int i = nextRule(candidates, 0); i >= 0; i = nextRule(candidates, i + 1))
         {
+            Rule rule = _rules.get(i);
             if (LOG.isDebugEnabled())
                 LOG.debug("applying {}", rule);
             Handler output = rule.matchAndApply(input);
@@ -151,12 +196,23 @@ public class RuleContainer extends Rule implements Iterable<Rule>, Dumpable
                         LOG.debug("terminating {}", rule);
                     break;
                 }
+
+                // The rule may have rewritten the URI.
+                if (index != null)
+                    candidates = index.getCandidates(input.getHttpURI());
             }
         }
 
         return match ? input : null;
     }
 
+    private int nextRule(BitSet candidates, int index)
+    {
+        if (candidates != null)
+            return candidates.nextSetBit(index);
+        return index < _rules.size() ? index : -1;
+    }
+
     @Override
     public void dump(Appendable out, String indent) throws IOException
     {
@@ -24,6 +24,7 @@ import org.eclipse.jetty.util.Callback;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class MultipleRulesTest extends AbstractRuleTest
 {
@@ -152,4 +153,55 @@ public class MultipleRulesTest extends AbstractRuleTest
         assertEquals(200, response.getStatus());
         assertEquals("Rule1, Rule3", response.get(responseHeaderName));
     }
+
+    @Test
+    public void testIndexedRegexRulesAppliedInOrder() throws Exception
+    {
+        _rewriteHandler.getRuleContainer().setRegexRulesIndexed(true);
+        for (int i = 0; i < 1000; i++)
+        {
+            _rewriteHandler.addRule(new RewriteRegexRule("/legacy/" + i + "/(.*)", "/modern/" + i + "/$1"));
+        }
+        // Not indexed, must be applied in order.
+        _rewriteHandler.addRule(new HeaderPatternRule("/*", "name1", "value1"));
+        // Matches the URI rewritten by the rules above.
+        RewriteRegexRule terminating = new RewriteRegexRule("/modern/42/(.*)", "/final/$1");
+        terminating.setTerminating(true);
+        _rewriteHandler.addRule(terminating);
+        _rewriteHandler.addRule(new HeaderPatternRule("/*", "name2", "value2"));
+
+        start(new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback)
+            {
+                response.getHeaders().put("X-Path", Request.getPathInContext(request));
+                callback.succeeded();
+                return true;
+            }
+        });
+
+        String request = """
+            GET /legacy/42/page.html HTTP/1.1
+            Host: localhost
+                        
+            """;
+
+        HttpTester.Response response = HttpTester.parseResponse(_connector.getResponse(request));
+        assertEquals(200, response.getStatus());
+        assertEquals("/final/page.html", response.get("X-Path"));
+        assertEquals("value1", response.get("name1"));
+        assertNull(response.get("name2"));
+
+        request = """
+            GET /legacy/7/page.html HTTP/1.1
+            Host: localhost
+                        
+            """;
+
+        response = HttpTester.parseResponse(_connector.getResponse(request));
+        assertEquals(200, response.getStatus());
+        assertEquals("/modern/7/page.html", response.get("X-Path"));
+        assertEquals("value2", response.get("name2"));
+    }
 }
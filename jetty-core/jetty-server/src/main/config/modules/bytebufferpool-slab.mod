@@ -0,0 +1,31 @@
+# DO NOT EDIT THIS FILE - See: https://jetty.org/docs/
+
+[description]
+Configures the ByteBufferPool used by ServerConnectors.
+The buffers are slices of large slabs of memory.
+
+[tags]
+bytebufferpool
+
+[provides]
+bytebufferpool
+
+[xml]
+etc/jetty-bytebufferpool-slab.xml
+
+[ini-template]
+### Server ByteBufferPool Configuration
+## Bucket capacity factor
+#jetty.byteBufferPool.factor=4096
+
+## Maximum capacity to pool ByteBuffers
+#jetty.byteBufferPool.maxCapacity=65536
+
+## Size in bytes of the slabs of memory (-1 for the default)
+#jetty.byteBufferPool.slabSize=-1
+
+## Maximum heap memory held by the slabs (0 for heuristic, -1 for unlimited).
+#jetty.byteBufferPool.maxHeapMemory=0
+
+## Maximum direct memory held by the slabs (0 for heuristic, -1 for unlimited).
+#jetty.byteBufferPool.maxDirectMemory=0
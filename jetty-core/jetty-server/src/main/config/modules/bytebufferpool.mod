@@ -34,3 +34,6 @@ etc/jetty-bytebufferpool.xml
 
 ## Whether statistics are enabled.
 #jetty.byteBufferPool.statisticsEnabled=false
+
+## Maximum number of ByteBuffers cached per magazine for each bucket (0 to disable).
+#jetty.byteBufferPool.magazineSize=0
@@ -24,3 +24,11 @@ etc/jetty-inetaccess.xml
 ## List of InetAddress patterns to exclude (connectorName@addressPattern|pathSpec)
 #jetty.inetaccess.exclude=http@127.0.0.1-127.0.0.2|/pathSpec,tls@,|/pathSpec2,127.0.0.20
 
+## File of InetAddress patterns to include, one per line
+#jetty.inetaccess.includeFile=
+
+## File of InetAddress patterns to exclude, one per line
+#jetty.inetaccess.excludeFile=
+
+## Interval in seconds to scan the include and exclude files for changes (0 to disable)
+#jetty.inetaccess.scanInterval=1
@@ -41,4 +41,13 @@ jetty.requestlog.dir?=logs
 
 ## Timezone of the log file rollover
 # jetty.requestlog.timezone=GMT
+
+## Max number of log entries waiting to be written, further entries are dropped
+# jetty.requestlog.queueSize=1024
+
+## Min interval in milliseconds between flushes of the log file, 0 to flush after every batch of entries
+# jetty.requestlog.flushInterval=0
+
+## Whether flushes also force the log file to the storage device
+# jetty.requestlog.syncOnFlush=false
 # end::documentation[]
@@ -56,6 +56,13 @@ db-connection-type=datasource
 #jetty.session.jdbc.schema.mapColumn=map
 #jetty.session.jdbc.schema.table=JettySessions
 
+## Store each session attribute as a row of a separate table, writing only
+## the attributes that changed when a session is saved.
+#jetty.session.jdbc.attributesAsRows=false
+#jetty.session.jdbc.schema.attributeTable=JettySessionsAttributes
+#jetty.session.jdbc.schema.attributeNameColumn=attributeName
+#jetty.session.jdbc.schema.attributeValueColumn=attributeValue
+
 # Optional name of the schema used to identify where the session table is defined in the database:
 #  "" - empty string, no schema name 
 #  "INFERRED" - special string meaning infer from the current db connection
@@ -18,6 +18,8 @@ module org.eclipse.jetty.server
 
     // Only required if using JMX.
     requires static org.eclipse.jetty.jmx;
+    // Only required if detecting the pinning of virtual threads.
+    requires static jdk.jfr;
 
     exports org.eclipse.jetty.server;
     exports org.eclipse.jetty.server.handler;
@@ -14,43 +14,266 @@
 package org.eclipse.jetty.server;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
-import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.NanoTime;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * An asynchronously writing RequestLogWriter
+ * <p>An asynchronously writing {@link RequestLogWriter}.</p>
+ * <p>Request log entries are encoded, with the platform default charset like
+ * {@link RequestLogWriter} does, by the thread that logs the request into the
+ * pre-allocated slots of a bounded, lock-free, ring buffer,
+ * so that no {@code String} or buffer is allocated per entry in the common case.
+ * A writer thread drains the ring buffer in batches, writing each batch with
+ * a single write to the request log file, and flushes the file either after
+ * every batch, or at most once per {@link #getFlushInterval() flush interval}.</p>
+ * <p>When the ring buffer is full, request log entries are dropped and
+ * {@link #getDroppedEntries() counted}.</p>
  */
+@ManagedObject("Asynchronous Request Log writer which writes to file")
 public class AsyncRequestLogWriter extends RequestLogWriter
 {
     private static final Logger LOG = LoggerFactory.getLogger(AsyncRequestLogWriter.class);
-    private final BlockingQueue<String> _queue;
+    private static final Charset CHARSET = Charset.defaultCharset();
+    private static final boolean UTF_8 = StandardCharsets.UTF_8.equals(CHARSET);
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(CHARSET);
+    private static final int MAX_RETAINED_ENTRY_SIZE = 8 * 1024;
+    private static final int MAX_QUEUE_SIZE = 1 << 30;
+
+    private final AtomicLong _tail = new AtomicLong();
+    private final LongAdder _dropped = new LongAdder();
+    private int _queueSize = 1024;
+    private int _batchSize = 64 * 1024;
+    private long _flushInterval;
+    private boolean _syncOnFlush;
+    private transient Slot[] _slots;
+    private transient long _head;
+    private transient volatile boolean _waiting;
     private transient AsyncRequestLogWriter.WriterThread _thread;
     private boolean _warnedFull;
 
     public AsyncRequestLogWriter()
     {
-        this(null, null);
+        this(null);
     }
 
     public AsyncRequestLogWriter(String filename)
     {
-        this(filename, null);
+        super(filename);
     }
 
+    /**
+     * @param filename the file name of the request log
+     * @param queue ignored, request log entries are queued in a ring buffer
+     * @deprecated the queue argument is ignored, use {@link #AsyncRequestLogWriter(String)}
+     * and {@link #setQueueSize(int)} instead
+     */
+    @Deprecated(since = "12.0.25")
     public AsyncRequestLogWriter(String filename, BlockingQueue<String> queue)
     {
-        super(filename);
-        if (queue == null)
-            queue = new BlockingArrayQueue<>(1024);
-        _queue = queue;
+        this(filename);
+    }
+
+    /**
+     * @return the max number of request log entries waiting to be written
+     */
+    @ManagedAttribute("The max number of request log entries waiting to be written")
+    public int getQueueSize()
+    {
+        return _queueSize;
+    }
+
+    /**
+     * <p>Sets the max number of request log entries waiting to be written,
+     * rounded up to a power of two, and capped to {@code 2^30};
+     * request log entries logged when the queue is full are dropped.</p>
+     *
+     * @param queueSize the max number of request log entries waiting to be written
+     */
+    public void setQueueSize(int queueSize)
+    {
+        if (queueSize < 1)
+            throw new IllegalArgumentException("Invalid queue size " + queueSize);
+        // Integer.highestOneBit(0) is 0, so a size of 1 must not be decremented.
+        int size = Math.min(queueSize, MAX_QUEUE_SIZE);
+        _queueSize = size == 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * @return the max number of bytes written to the request log file with a single write
+     */
+    @ManagedAttribute("The max number of bytes written to the request log file with a single write")
+    public int getBatchSize()
+    {
+        return _batchSize;
+    }
+
+    /**
+     * @param batchSize the max number of bytes written to the request log file with a single write
+     */
+    public void setBatchSize(int batchSize)
+    {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("Invalid batch size " + batchSize);
+        _batchSize = batchSize;
+    }
+
+    /**
+     * @return the min interval in milliseconds between flushes of the request log file
+     */
+    @ManagedAttribute("The min interval in milliseconds between flushes of the request log file")
+    public long getFlushInterval()
+    {
+        return _flushInterval;
+    }
+
+    /**
+     * <p>Sets the min interval in milliseconds between flushes of the request log file.</p>
+     * <p>A value of zero flushes the request log file after every batch of request log entries;
+     * a positive value groups the flushes, at the cost of possibly losing the request log entries
+     * written in the last interval if the JVM crashes.</p>
+     *
+     * @param flushInterval the min interval in milliseconds between flushes of the request log file
+     */
+    public void setFlushInterval(long flushInterval)
+    {
+        _flushInterval = Math.max(0, flushInterval);
+    }
+
+    /**
+     * @return whether flushing the request log file also forces it to the storage device
+     */
+    @ManagedAttribute("Whether flushing the request log file also forces it to the storage device")
+    public boolean isSyncOnFlush()
+    {
+        return _syncOnFlush;
+    }
+
+    /**
+     * @param syncOnFlush whether flushing the request log file also forces it to the storage device
+     */
+    public void setSyncOnFlush(boolean syncOnFlush)
+    {
+        _syncOnFlush = syncOnFlush;
+    }
+
+    /**
+     * @return the number of request log entries dropped because the queue was full
+     */
+    @ManagedAttribute("The number of request log entries dropped because the queue was full")
+    public long getDroppedEntries()
+    {
+        return _dropped.sum();
+    }
+
+    @Override
+    protected void doStart() throws Exception
+    {
+        Slot[] slots = new Slot[_queueSize];
+        for (int i = 0; i < slots.length; ++i)
+        {
+            slots[i] = new Slot(i);
+        }
+        _tail.set(0);
+        _head = 0;
+        _slots = slots;
+        _warnedFull = false;
+        super.doStart();
+        _thread = new AsyncRequestLogWriter.WriterThread();
+        _thread.start();
+    }
+
+    @Override
+    protected void doStop() throws Exception
+    {
+        // The writer thread drains the queue before exiting.
+        LockSupport.unpark(_thread);
+        _thread.join();
+        super.doStop();
+        _thread = null;
+        _slots = null;
+    }
+
+    @Override
+    public void write(String log) throws IOException
+    {
+        write((CharSequence)log);
+    }
+
+    @Override
+    public void write(CharSequence log) throws IOException
+    {
+        Slot[] slots = _slots;
+        // Entries logged while stopping are dropped, so that
+        // the writer thread can drain the queue and exit.
+        if (slots == null || !isRunning())
+        {
+            _dropped.increment();
+            return;
+        }
+
+        int mask = slots.length - 1;
+        Slot slot;
+        long tail;
+        while (true)
+        {
+            tail = _tail.get();
+            slot = slots[(int)(tail & mask)];
+            long sequence = slot._sequence.get();
+            if (sequence == tail)
+            {
+                if (_tail.compareAndSet(tail, tail + 1))
+                    break;
+            }
+            else if (sequence < tail)
+            {
+                // The slot has not been consumed yet, the queue is full.
+                _dropped.increment();
+                if (!_warnedFull)
+                {
+                    _warnedFull = true;
+                    LOG.warn("Request log queue overflow, dropping entries");
+                }
+                return;
+            }
+        }
+
+        try
+        {
+            slot.encode(log);
+        }
+        catch (Throwable x)
+        {
+            // Publish an empty entry, as the writer thread waits for every claimed slot.
+            slot._length = 0;
+            _dropped.increment();
+            throw x;
+        }
+        finally
+        {
+            // Publish the entry, then wake up the writer thread only if it waits.
+            slot._sequence.set(tail + 1);
+            if (_waiting)
+                LockSupport.unpark(_thread);
+        }
     }
 
     private class WriterThread extends Thread
     {
+        private final byte[] _batch = new byte[_batchSize];
+        private long _lastFlush = NanoTime.now();
+        private boolean _needsFlush;
+
         WriterThread()
         {
             setName("AsyncRequestLogWriter@" + Integer.toString(AsyncRequestLogWriter.this.hashCode(), 16));
@@ -59,24 +282,38 @@ public class AsyncRequestLogWriter extends RequestLogWriter
         @Override
         public void run()
         {
-            while (isRunning())
+            while (true)
             {
                 try
                 {
-                    String log = _queue.poll(10, TimeUnit.SECONDS);
-                    if (log != null)
-                        AsyncRequestLogWriter.super.write(log);
+                    if (writeBatch())
+                        continue;
 
-                    while (!_queue.isEmpty())
+                    if (!isRunning())
                     {
-                        log = _queue.poll();
-                        if (log != null)
-                            AsyncRequestLogWriter.super.write(log);
+                        drain();
+                        flush();
+                        return;
                     }
-                }
-                catch (InterruptedException e)
-                {
-                    LOG.trace("IGNORED", e);
+
+                    long parkNanos = TimeUnit.SECONDS.toNanos(10);
+                    if (_needsFlush)
+                    {
+                        long flushNanos = TimeUnit.MILLISECONDS.toNanos(_flushInterval) - NanoTime.since(_lastFlush);
+                        if (flushNanos <= 0)
+                        {
+                            flush();
+                            continue;
+                        }
+                        parkNanos = flushNanos;
+                    }
+
+                    // Declare that this thread is waiting, then check again
+                    // for entries published before the declaration was visible.
+                    _waiting = true;
+                    if (isEmpty() && isRunning())
+                        LockSupport.parkNanos(this, parkNanos);
+                    _waiting = false;
                 }
                 catch (Throwable t)
                 {
@@ -84,33 +321,152 @@ public class AsyncRequestLogWriter extends RequestLogWriter
                 }
             }
         }
-    }
 
-    @Override
-    protected void doStart() throws Exception
-    {
-        super.doStart();
-        _thread = new AsyncRequestLogWriter.WriterThread();
-        _thread.start();
-    }
+        /**
+         * <p>Writes the entries claimed before the stop, waiting
+         * for those that have not been published yet.</p>
+         */
+        private void drain() throws IOException
+        {
+            long tail = _tail.get();
+            while (_head < tail)
+            {
+                if (!writeBatch())
+                    Thread.onSpinWait();
+            }
+        }
 
-    @Override
-    protected void doStop() throws Exception
-    {
-        _thread.interrupt();
-        _thread.join();
-        super.doStop();
-        _thread = null;
+        private boolean isEmpty()
+        {
+            Slot[] slots = _slots;
+            Slot slot = slots[(int)(_head & (slots.length - 1))];
+            return slot._sequence.get() != _head + 1;
+        }
+
+        private boolean writeBatch() throws IOException
+        {
+            Slot[] slots = _slots;
+            int mask = slots.length - 1;
+            int length = 0;
+            while (true)
+            {
+                Slot slot = slots[(int)(_head & mask)];
+                if (slot._sequence.get() != _head + 1)
+                    break;
+
+                int entryLength = slot._length;
+                if (length > 0 && length + entryLength > _batch.length)
+                    break;
+
+                if (entryLength > _batch.length)
+                    AsyncRequestLogWriter.this.write(slot._bytes, 0, entryLength);
+                else
+                    System.arraycopy(slot._bytes, 0, _batch, length, entryLength);
+                length += entryLength;
+
+                slot.release(_head + slots.length);
+                ++_head;
+            }
+
+            if (length == 0)
+                return false;
+
+            if (length <= _batch.length)
+                AsyncRequestLogWriter.this.write(_batch, 0, length);
+            _needsFlush = true;
+            if (_flushInterval == 0 || NanoTime.millisSince(_lastFlush) >= _flushInterval)
+                flush();
+            return true;
+        }
+
+        private void flush() throws IOException
+        {
+            if (_needsFlush)
+            {
+                _needsFlush = false;
+                AsyncRequestLogWriter.this.flush(_syncOnFlush);
+            }
+            _lastFlush = NanoTime.now();
+        }
     }
 
-    @Override
-    public void write(String log) throws IOException
+    private static class Slot
     {
-        if (!_queue.offer(log))
+        private final AtomicLong _sequence;
+        private byte[] _bytes = new byte[256];
+        private int _length;
+
+        private Slot(long sequence)
+        {
+            _sequence = new AtomicLong(sequence);
+        }
+
+        private void encode(CharSequence chars)
+        {
+            if (!UTF_8)
+            {
+                byte[] encoded = chars.toString().getBytes(CHARSET);
+                ensureCapacity(encoded.length + LINE_SEPARATOR.length);
+                System.arraycopy(encoded, 0, _bytes, 0, encoded.length);
+                System.arraycopy(LINE_SEPARATOR, 0, _bytes, encoded.length, LINE_SEPARATOR.length);
+                _length = encoded.length + LINE_SEPARATOR.length;
+                return;
+            }
+
+            int length = chars.length();
+            // The worst case is 3 bytes per char.
+            ensureCapacity(3 * length + LINE_SEPARATOR.length);
+
+            byte[] bytes = _bytes;
+            int p = 0;
+            for (int i = 0; i < length; ++i)
+            {
+                char c = chars.charAt(i);
+                if (c < 0x80)
+                {
+                    bytes[p++] = (byte)c;
+                }
+                else if (c < 0x800)
+                {
+                    bytes[p++] = (byte)(0xC0 | (c >> 6));
+                    bytes[p++] = (byte)(0x80 | (c & 0x3F));
+                }
+                else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars.charAt(i + 1)))
+                {
+                    int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+                    bytes[p++] = (byte)(0xF0 | (codePoint >> 18));
+                    bytes[p++] = (byte)(0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[p++] = (byte)(0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[p++] = (byte)(0x80 | (codePoint & 0x3F));
+                }
+                else if (Character.isSurrogate(c))
+                {
+                    // Unpaired surrogate.
+                    bytes[p++] = '?';
+                }
+                else
+                {
+                    bytes[p++] = (byte)(0xE0 | (c >> 12));
+                    bytes[p++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+                    bytes[p++] = (byte)(0x80 | (c & 0x3F));
+                }
+            }
+            System.arraycopy(LINE_SEPARATOR, 0, bytes, p, LINE_SEPARATOR.length);
+            _length = p + LINE_SEPARATOR.length;
+        }
+
+        private void ensureCapacity(int capacity)
+        {
+            if (_bytes.length < capacity)
+                _bytes = new byte[Math.max(capacity, 2 * _bytes.length)];
+        }
+
+        private void release(long sequence)
         {
-            if (_warnedFull)
-                LOG.warn("Log Queue overflow");
-            _warnedFull = true;
+            // Do not retain the memory of exceptionally large entries.
+            if (_bytes.length > MAX_RETAINED_ENTRY_SIZE)
+                _bytes = new byte[256];
+            _sequence.set(sequence);
         }
     }
 }
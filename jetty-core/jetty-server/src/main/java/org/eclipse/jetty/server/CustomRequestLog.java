@@ -16,6 +16,8 @@ package org.eclipse.jetty.server;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -31,6 +33,7 @@ import java.util.stream.Collectors;
 
 import org.eclipse.jetty.http.HttpCookie;
 import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpURI;
 import org.eclipse.jetty.http.QuotedCSV;
 import org.eclipse.jetty.http.pathmap.PathMappings;
@@ -343,6 +346,7 @@ public class CustomRequestLog extends ContainerLifeCycle implements RequestLog
     public static final String LOG_DETAIL = CustomRequestLog.class.getName() + ".logDetail";
     private static final Logger LOG = LoggerFactory.getLogger(CustomRequestLog.class);
     private static final ThreadLocal<StringBuilder> _buffers = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    private static final ThreadLocal<HostCache> _hosts = ThreadLocal.withInitial(HostCache::new);
     private static final Pattern PATTERN = Pattern.compile("^(?:%(?<MOD>!?[0-9,]+)?(?:\\{(?<ARG>[^}]+)})?(?<CODE>(?:(?:ti)|(?:to)|(?:uri)|(?:attr)|[a-zA-Z%]))|(?<LITERAL>[^%]+))(?<REMAINING>.*)", Pattern.DOTALL | Pattern.MULTILINE);
 
     private final RequestLog.Writer _requestLogWriter;
@@ -413,10 +417,9 @@ public class CustomRequestLog extends ContainerLifeCycle implements RequestLog
             StringBuilder sb = _buffers.get();
             sb.setLength(0);
 
-            _logHandle.invoke(sb, request, response);
+            _logHandle.invokeExact(sb, request, response);
 
-            String log = sb.toString();
-            _requestLogWriter.write(log);
+            _requestLogWriter.write(sb);
         }
         catch (Throwable e)
         {
@@ -477,6 +480,35 @@ public class CustomRequestLog extends ContainerLifeCycle implements RequestLog
         super.doStart();
     }
 
+    private static boolean needsEscaping(String s)
+    {
+        for (int i = 0; i < s.length(); i++)
+        {
+            char c = s.charAt(i);
+            if (c == '\\' || c == '"' || c == ',')
+                return true;
+        }
+        return false;
+    }
+
+    private static void appendPathQuery(StringBuilder buf, String path, String query, boolean quoted)
+    {
+        if (query == null)
+            append(buf, path, quoted);
+        else if (path == null || needsEscaping(path) || needsEscaping(query))
+            append(buf, (path == null ? "" : path) + "?" + query, quoted);
+        else
+            buf.append(path).append('?').append(query);
+    }
+
+    private static void appendHost(StringBuilder buf, SocketAddress address, boolean quoted)
+    {
+        if (address instanceof InetSocketAddress inetSocketAddress)
+            append(buf, _hosts.get().getHostName(inetSocketAddress), quoted);
+        else
+            append(buf, address == null ? null : address.toString(), quoted);
+    }
+
     private static void append(StringBuilder buf, String s, boolean quoted)
     {
         if (s == null || s.isEmpty())
@@ -778,6 +810,10 @@ public class CustomRequestLog extends ContainerLifeCycle implements RequestLog
                 if (StringUtil.isEmpty(arg))
                     throw new IllegalArgumentException("No arg for %i");
 
+                // Lookup known headers by enum rather than by case-insensitive name.
+                HttpHeader header = HttpHeader.CACHE.get(arg);
+                if (header != null)
+                    yield lookup.findStatic(CustomRequestLog.class, "logRequestHttpHeader", methodType(void.class, HttpHeader.class, StringBuilder.class, Request.class, Response.class, Boolean.TYPE)).bindTo(header);
                 yield lookup.findStatic(CustomRequestLog.class, "logRequestHeader", logTypeArg).bindTo(arg);
             }
             case "k" -> lookup.findStatic(CustomRequestLog.class, "logKeepAliveRequests", logType);
@@ -786,6 +822,9 @@ public class CustomRequestLog extends ContainerLifeCycle implements RequestLog
             {
                 if (StringUtil.isEmpty(arg))
                     throw new IllegalArgumentException("No arg for %o");
+                HttpHeader header = HttpHeader.CACHE.get(arg);
+                if (header != null)
+                    yield lookup.findStatic(CustomRequestLog.class, "logResponseHttpHeader", methodType(void.class, HttpHeader.class, StringBuilder.class, Request.class, Response.class, Boolean.TYPE)).bindTo(header);
                 yield lookup.findStatic(CustomRequestLog.class, "logResponseHeader", logTypeArg).bindTo(arg);
             }
             case "q" -> lookup.findStatic(CustomRequestLog.class, "logQueryString", logType);
@@ -933,21 +972,21 @@ public class CustomRequestLog extends ContainerLifeCycle implements RequestLog
     @SuppressWarnings("unused")
     private static void logClientHost(StringBuilder b, Request request, Response response, boolean quoted)
     {
-        append(b, Request.getRemoteAddr(request), quoted);
+        appendHost(b, request.getConnectionMetaData().getRemoteSocketAddress(), quoted);
     }
 
     @SuppressWarnings("unused")
     private static void logLocalHost(StringBuilder b, Request request, Response response, boolean quoted)
     {
         // Unwrap to bypass any customizers
-        append(b, Request.getLocalAddr(Request.unWrap(request)), quoted);
+        appendHost(b, Request.unWrap(request).getConnectionMetaData().getLocalSocketAddress(), quoted);
     }
 
     @SuppressWarnings("unused")
     private static void logRemoteHost(StringBuilder b, Request request, Response response, boolean quoted)
     {
         // Unwrap to bypass any customizers
-        append(b, Request.getRemoteAddr(Request.unWrap(request)), quoted);
+        appendHost(b, Request.unWrap(request).getConnectionMetaData().getRemoteSocketAddress(), quoted);
     }
 
     @SuppressWarnings("unused")
@@ -1121,6 +1160,12 @@ public class CustomRequestLog extends ContainerLifeCycle implements RequestLog
         append(b, request.getHeaders().get(arg), quoted);
     }
 
+    @SuppressWarnings("unused")
+    private static void logRequestHttpHeader(HttpHeader header, StringBuilder b, Request request, Response response, boolean quoted)
+    {
+        append(b, request.getHeaders().get(header), quoted);
+    }
+
     @SuppressWarnings("unused")
     private static void logKeepAliveRequests(StringBuilder b, Request request, Response response, boolean quoted)
     {
@@ -1143,11 +1188,20 @@ public class CustomRequestLog extends ContainerLifeCycle implements RequestLog
         append(b, response.getHeaders().get(arg), quoted);
     }
 
+    @SuppressWarnings("unused")
+    private static void logResponseHttpHeader(HttpHeader header, StringBuilder b, Request request, Response response, boolean quoted)
+    {
+        append(b, response.getHeaders().get(header), quoted);
+    }
+
     @SuppressWarnings("unused")
     private static void logQueryString(StringBuilder b, Request request, Response response, boolean quoted)
     {
         String query = request.getHttpURI().getQuery();
-        append(b, (query == null) ? null : "?" + query, quoted);
+        if (query == null || needsEscaping(query))
+            append(b, (query == null) ? null : "?" + query, quoted);
+        else
+            b.append('?').append(query);
     }
 
     @SuppressWarnings("unused")
@@ -1155,7 +1209,8 @@ public class CustomRequestLog extends ContainerLifeCycle implements RequestLog
     {
         append(b, request.getMethod(), quoted);
         b.append(" ");
-        append(b, request.getHttpURI().getPathQuery(), quoted);
+        HttpURI httpURI = request.getHttpURI();
+        appendPathQuery(b, httpURI.getPath(), httpURI.getQuery(), quoted);
         b.append(" ");
         append(b, request.getConnectionMetaData().getProtocol(), quoted);
     }
@@ -1176,8 +1231,21 @@ public class CustomRequestLog extends ContainerLifeCycle implements RequestLog
     @SuppressWarnings("unused")
     private static void logRequestTime(DateCache dateCache, StringBuilder b, Request request, Response response, boolean quoted)
     {
+        long timeStamp = Request.getTimeStamp(request);
         b.append('[');
-        append(b, dateCache.format(Request.getTimeStamp(request)), quoted);
+        int start = b.length();
+        dateCache.format(timeStamp, b);
+        // Dates rarely need escaping, so format in place and only redo if needed.
+        for (int i = start; i < b.length(); i++)
+        {
+            char c = b.charAt(i);
+            if (c == '\\' || c == '"' || c == ',')
+            {
+                b.setLength(start);
+                append(b, dateCache.format(timeStamp), quoted);
+                break;
+            }
+        }
         b.append(']');
     }
 
@@ -1323,4 +1391,24 @@ public class CustomRequestLog extends ContainerLifeCycle implements RequestLog
         else
             b.append('-');
     }
+
+    /**
+     * <p>Caches the last host name formatted by a thread, so that
+     * the requests of the same connection do not format it again.</p>
+     */
+    private static class HostCache
+    {
+        private InetSocketAddress _address;
+        private String _hostName;
+
+        private String getHostName(InetSocketAddress address)
+        {
+            if (address != _address)
+            {
+                _hostName = Request.getHostName(address);
+                _address = address;
+            }
+            return _hostName;
+        }
+    }
 }
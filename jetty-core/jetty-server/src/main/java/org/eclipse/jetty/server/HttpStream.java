@@ -14,12 +14,14 @@
 package org.eclipse.jetty.server;
 
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.http.MetaData;
 import org.eclipse.jetty.io.Connection;
 import org.eclipse.jetty.io.Content;
 import org.eclipse.jetty.io.Content.Chunk;
+import org.eclipse.jetty.io.IOResources;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.StaticException;
 
@@ -82,6 +84,61 @@ public interface HttpStream extends Callback
      */
     void send(MetaData.Request request, MetaData.Response response, boolean last, ByteBuffer content, Callback callback);
 
+    /**
+     * @return whether this stream supports zero-copy transfers of file regions via
+     * {@link #transferFrom(MetaData.Request, MetaData.Response, boolean, FileChannel, long, long, Callback)}
+     */
+    default boolean isTransferFromSupported()
+    {
+        return false;
+    }
+
+    /**
+     * <p>Send response meta-data and/or a file region as data, with the same semantic as
+     * {@link #send(MetaData.Request, MetaData.Response, boolean, ByteBuffer, Callback)},
+     * but transferring the file bytes without copying them through buffers when possible.</p>
+     * <p>The default implementation, used when {@link #isTransferFromSupported()} returns false,
+     * reads the file bytes into a buffer and sends them via
+     * {@link #send(MetaData.Request, MetaData.Response, boolean, ByteBuffer, Callback)}.</p>
+     * @param request The request metadata for which the response should be sent.
+     * @param response The response metadata to be sent or null if the response is already committed by a previous call
+     *                 to send.
+     * @param last True if this will be the last call to send and the response can be completed.
+     * @param file The file to transfer bytes from.
+     * @param position The file position of the first byte to transfer.
+     * @param length The number of bytes to transfer.
+     * @param callback The callback to invoke when the send is completed successfully or in failure.
+     */
+    default void transferFrom(MetaData.Request request, MetaData.Response response, boolean last, FileChannel file, long position, long length, Callback callback)
+    {
+        IOResources.copy(file, asSink(this, request, response, last), null, 0, false, position, length, callback);
+    }
+
+    /**
+     * <p>Returns a {@link Content.Sink} that sends the response meta-data
+     * with the first write, and the written content as response data.</p>
+     * @param stream The stream to send to.
+     * @param request The request metadata for which the response should be sent.
+     * @param response The response metadata to be sent or null if the response is already committed.
+     * @param last True if the last write to the sink is the last call to send.
+     * @return a sink that sends to the given stream
+     */
+    static Content.Sink asSink(HttpStream stream, MetaData.Request request, MetaData.Response response, boolean last)
+    {
+        return new Content.Sink()
+        {
+            private MetaData.Response _response = response;
+
+            @Override
+            public void write(boolean lastWrite, ByteBuffer byteBuffer, Callback callback)
+            {
+                MetaData.Response metaData = _response;
+                _response = null;
+                stream.send(request, metaData, last && lastWrite, byteBuffer, callback);
+            }
+        };
+    }
+
     /**
      * <p>Pushes the given {@code resource} to the client.</p>
      *
@@ -185,6 +242,18 @@ public interface HttpStream extends Callback
             getWrapped().send(request, response, last, content, callback);
         }
 
+        @Override
+        public boolean isTransferFromSupported()
+        {
+            return getWrapped().isTransferFromSupported();
+        }
+
+        @Override
+        public void transferFrom(MetaData.Request request, MetaData.Response response, boolean last, FileChannel file, long position, long length, Callback callback)
+        {
+            getWrapped().transferFrom(request, response, last, file, position, length, callback);
+        }
+
         @Override
         public void push(MetaData.Request resource)
         {
@@ -33,6 +33,20 @@ public interface RequestLog
     interface Writer
     {
         void write(String requestEntry) throws IOException;
+
+        /**
+         * <p>Writes the generated log entry, without creating an intermediate {@code String}
+         * if the implementation supports it.</p>
+         * <p>The given {@code CharSequence} may be reused by the caller after this
+         * method returns, so implementations must not retain it.</p>
+         *
+         * @param requestEntry the log entry to write
+         * @throws IOException if the write fails
+         */
+        default void write(CharSequence requestEntry) throws IOException
+        {
+            write(requestEntry.toString());
+        }
     }
 
     class Collection implements RequestLog
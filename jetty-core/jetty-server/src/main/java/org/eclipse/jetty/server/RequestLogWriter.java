@@ -182,6 +182,44 @@ public class RequestLogWriter extends AbstractLifeCycle implements RequestLog.Wr
         }
     }
 
+    /**
+     * <p>Writes already encoded request log entries, including their line separators.</p>
+     * <p>This method does not flush the output, see {@link #flush(boolean)}.</p>
+     *
+     * @param bytes the request log entries, encoded with the platform default charset
+     * @param offset the offset of the first byte to write
+     * @param length the number of bytes to write
+     * @throws IOException if the write fails
+     */
+    protected void write(byte[] bytes, int offset, int length) throws IOException
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            if (_out == null)
+                return;
+            _out.write(bytes, offset, length);
+        }
+    }
+
+    /**
+     * <p>Flushes the output, optionally also forcing the
+     * request log file to be written to the storage device.</p>
+     *
+     * @param sync whether to force the request log file to the storage device
+     * @throws IOException if the flush fails
+     */
+    protected void flush(boolean sync) throws IOException
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            if (_out == null)
+                return;
+            _out.flush();
+            if (sync && _fileOut instanceof RolloverFileOutputStream rolloverOut)
+                rolloverOut.sync();
+        }
+    }
+
     @Override
     protected void doStart() throws Exception
     {
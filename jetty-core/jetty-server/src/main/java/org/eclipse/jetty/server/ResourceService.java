@@ -15,8 +15,11 @@ package org.eclipse.jetty.server;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -47,6 +50,7 @@ import org.eclipse.jetty.io.Content;
 import org.eclipse.jetty.io.IOResources;
 import org.eclipse.jetty.server.handler.ContextHandler;
 import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.IO;
 import org.eclipse.jetty.util.URIUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -77,6 +81,7 @@ public class ResourceService
     private int _encodingCacheSize = 100;
     private boolean _dirAllowed = true;
     private boolean _acceptRanges = true;
+    private boolean _useFileTransfer;
     private HttpField _cacheControl;
 
     public ResourceService()
@@ -690,8 +695,15 @@ public class ResourceService
             response.setStatus(HttpStatus.PARTIAL_CONTENT_206);
             response.getHeaders().put(HttpHeader.CONTENT_RANGE, range.toHeaderValue(contentLength));
 
-            // TODO use a buffer pool
-            IOResources.copy(content.getResource(), response, null, 0, false, range.first(), range.getLength(), callback);
+            if (!transferHttpContent(response, callback, content, range.first(), range.getLength()))
+            {
+                IOResources.copy(
+                    content.getResource(),
+                    response, request.getComponents().getByteBufferPool(),
+                    request.getConnectionMetaData().getHttpConfiguration().getOutputBufferSize(),
+                    request.getConnectionMetaData().getHttpConfiguration().isUseOutputDirectByteBuffers(),
+                    range.first(), range.getLength(), callback);
+            }
             return;
         }
 
@@ -712,6 +724,9 @@ public class ResourceService
     {
         try
         {
+            if (transferHttpContent(response, callback, content, 0, content.getContentLengthValue()))
+                return;
+
             ByteBuffer buffer = content.getByteBuffer(); // this buffer is going to be consumed by response.write()
             if (buffer != null)
             {
@@ -734,6 +749,38 @@ public class ResourceService
         }
     }
 
+    /**
+     * <p>Writes a region of the content file with a zero-copy transfer, if the
+     * content is backed by a file and the response supports such transfers.</p>
+     *
+     * @return whether the content file region is being transferred
+     * @see Response#isTransferFromSupported(Response)
+     */
+    private boolean transferHttpContent(Response response, Callback callback, HttpContent content, long position, long length)
+    {
+        if (!_useFileTransfer || length <= 0 || !Response.isTransferFromSupported(response))
+            return false;
+
+        Path path = content.getResource().getPath();
+        if (path == null)
+            return false;
+
+        FileChannel file;
+        try
+        {
+            file = FileChannel.open(path, StandardOpenOption.READ);
+        }
+        catch (IOException x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Could not open {} for transfer", path, x);
+            return false;
+        }
+
+        Response.transferFrom(response, true, file, position, length, Callback.from(callback, () -> IO.close(file)));
+        return true;
+    }
+
     protected void putHeaders(Response response, HttpContent content, long contentLength)
     {
         HttpFields.Mutable headers = response.getHeaders();
@@ -846,6 +893,27 @@ public class ResourceService
         _cacheControl = new PreEncodedHttpField(HttpHeader.CACHE_CONTROL, cacheControl);
     }
 
+    /**
+     * @return True if file content is written with zero-copy transfers when possible
+     */
+    public boolean isUseFileTransfer()
+    {
+        return _useFileTransfer;
+    }
+
+    /**
+     * <p>Zero-copy transfers (for example, using {@code sendfile(2)}) are only used
+     * when the content is backed by a file, the connection is not encrypted and the
+     * response content is not transformed (for example, compressed).</p>
+     * <p>When enabled, zero-copy transfers are preferred over the content buffers
+     * that may be cached in memory or mapped from the file.</p>
+     * @param useFileTransfer If true, file content is written with zero-copy transfers when possible
+     */
+    public void setUseFileTransfer(boolean useFileTransfer)
+    {
+        _useFileTransfer = useFileTransfer;
+    }
+
     /**
      * @param dirAllowed If true, directory listings are returned if no welcome target is found. Else 403 Forbidden.
      */
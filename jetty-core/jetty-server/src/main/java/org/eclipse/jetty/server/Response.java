@@ -15,6 +15,7 @@ package org.eclipse.jetty.server;
 
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ListIterator;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
@@ -36,7 +37,9 @@ import org.eclipse.jetty.http.Trailers;
 import org.eclipse.jetty.http.UriCompliance;
 import org.eclipse.jetty.io.ByteBufferPool;
 import org.eclipse.jetty.io.Content;
+import org.eclipse.jetty.io.IOResources;
 import org.eclipse.jetty.io.QuietException;
+import org.eclipse.jetty.server.handler.ContextResponse;
 import org.eclipse.jetty.server.handler.ErrorHandler;
 import org.eclipse.jetty.server.internal.HttpChannelState;
 import org.eclipse.jetty.util.Callback;
@@ -676,6 +679,59 @@ public interface Response extends Content.Sink
         return -1;
     }
 
+    /**
+     * <p>Returns whether the given response can write file regions as content via
+     * {@link #transferFrom(Response, boolean, FileChannel, long, long, Callback)}.</p>
+     * <p>This is only possible if the response is not wrapped by wrappers that may
+     * transform the content (for example, to compress it), and if the underlying
+     * stream supports zero-copy transfers, typically a clear-text HTTP/1.1 stream.</p>
+     *
+     * @param response the HTTP response
+     * @return whether the given response can write file regions as content
+     */
+    static boolean isTransferFromSupported(Response response)
+    {
+        while (response instanceof Response.Wrapper wrapper)
+        {
+            // Only wrappers that are known to not transform the content are allowed.
+            if (!(wrapper instanceof ContextResponse))
+                return false;
+            response = wrapper.getWrapped();
+        }
+        return response instanceof HttpChannelState.ChannelResponse channelResponse && channelResponse.isTransferFromSupported();
+    }
+
+    /**
+     * <p>Writes a region of the given file as content of the given response, transferring
+     * the file bytes to the network without copying them through buffers.</p>
+     * <p>If {@link #isTransferFromSupported(Response)} returns {@code false}, the file bytes
+     * are read into buffers taken from the request's {@link ByteBufferPool} and written
+     * to the given response.</p>
+     *
+     * @param response the HTTP response
+     * @param last whether the file region is the last content
+     * @param file the file to transfer bytes from
+     * @param position the file position of the first byte to transfer
+     * @param length the number of bytes to transfer
+     * @param callback the callback to notify when the write is complete
+     */
+    static void transferFrom(Response response, boolean last, FileChannel file, long position, long length, Callback callback)
+    {
+        if (isTransferFromSupported(response) && getOriginalResponse(response) instanceof HttpChannelState.ChannelResponse channelResponse)
+        {
+            channelResponse.transferFrom(last, file, position, length, callback);
+        }
+        else
+        {
+            Request request = response.getRequest();
+            HttpConfiguration httpConfiguration = request.getConnectionMetaData().getHttpConfiguration();
+            Content.Sink sink = last ? response : (l, b, c) -> response.write(false, b, c);
+            IOResources.copy(file, sink, request.getComponents().getByteBufferPool(),
+                httpConfiguration.getOutputBufferSize(), httpConfiguration.isUseOutputDirectByteBuffers(),
+                position, length, callback);
+        }
+    }
+
     /**
      * <p>Wraps a {@link Response} as a {@link OutputStream} that performs buffering. The necessary
      * {@link ByteBufferPool} is taken from the request's connector while the size and direction of the buffer
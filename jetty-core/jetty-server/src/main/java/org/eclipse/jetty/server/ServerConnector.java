@@ -26,7 +26,9 @@ import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
 import java.util.EventListener;
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -68,12 +70,20 @@ import org.eclipse.jetty.util.thread.Scheduler;
  * which should allow optimal performance even if all the connections used are performing
  * significant non-blocking work in the callback tasks.
  * </p>
+ * <h2>Partitions</h2>
+ * <p>
+ * When the {@link #getSelectorManager() selector manager} is {@link SelectorManager#setPartitionThreads(int) partitioned},
+ * there are no acceptor threads and {@link #setReusePort(boolean) SO_REUSEPORT} is enabled, then the connector binds
+ * a server socket per selector to the same host and port, so that the kernel spreads the new connections across
+ * the selectors, and each selector accepts the connections that are then handled by its own partition.
+ * </p>
  */
 @ManagedObject("HTTP connector using NIO ByteChannels and Selectors")
 public class ServerConnector extends AbstractNetworkConnector
 {
     private final SelectorManager _manager;
     private final AtomicReference<Closeable> _acceptor = new AtomicReference<>();
+    private final List<ServerSocketChannel> _partitionChannels = new ArrayList<>();
     private volatile ServerSocketChannel _acceptChannel;
     private volatile boolean _inheritChannel = false;
     private volatile int _localPort = -1;
@@ -233,8 +243,47 @@ public class ServerConnector extends AbstractNetworkConnector
         if (getAcceptors() == 0)
         {
             _acceptChannel.configureBlocking(false);
-            _acceptor.set(_manager.acceptor(_acceptChannel));
+            if (isReusePort() && _manager.isPartitioned())
+                openPartitionChannels();
+            _acceptor.set(newAcceptor());
+        }
+    }
+
+    private void openPartitionChannels() throws IOException
+    {
+        InetSocketAddress bindAddress = getHost() == null ? new InetSocketAddress(getLocalPort()) : new InetSocketAddress(getHost(), getLocalPort());
+        for (int i = 1; i < _manager.getSelectorCount(); ++i)
+        {
+            ServerSocketChannel serverChannel = ServerSocketChannel.open();
+            setSocketOption(serverChannel, StandardSocketOptions.SO_REUSEADDR, getReuseAddress());
+            setSocketOption(serverChannel, StandardSocketOptions.SO_REUSEPORT, true);
+            try
+            {
+                serverChannel.bind(bindAddress, getAcceptQueueSize());
+                serverChannel.configureBlocking(false);
+            }
+            catch (Throwable e)
+            {
+                IO.close(serverChannel);
+                throw new IOException("Failed to bind partition to " + bindAddress, e);
+            }
+            _partitionChannels.add(serverChannel);
+        }
+    }
+
+    private Closeable newAcceptor()
+    {
+        if (_partitionChannels.isEmpty())
+            return _manager.acceptor(_acceptChannel);
+
+        // Each server channel is accepted by its own selector.
+        List<Closeable> acceptors = new ArrayList<>();
+        acceptors.add(_manager.acceptor(_acceptChannel, 0));
+        for (int i = 0; i < _partitionChannels.size(); ++i)
+        {
+            acceptors.add(_manager.acceptor(_partitionChannels.get(i), i + 1));
         }
+        return () -> acceptors.forEach(IO::close);
     }
 
     @Override
@@ -246,6 +295,8 @@ public class ServerConnector extends AbstractNetworkConnector
 
         removeBean(_acceptChannel);
         _acceptChannel = null;
+        _partitionChannels.forEach(IO::close);
+        _partitionChannels.clear();
 
         for (EventListener l : getBeans(EventListener.class))
         {
@@ -376,6 +427,12 @@ public class ServerConnector extends AbstractNetworkConnector
         // SelectorManager is stopped (as a bean) in doStop().
         if (getAcceptors() > 0)
             IO.close(_acceptChannel);
+        // The partition channels are registered with the selectors,
+        // so they are deregistered and closed by their selectors.
+        for (int i = 0; i < _partitionChannels.size(); ++i)
+        {
+            _manager.closeAcceptor(_partitionChannels.get(i), i + 1);
+        }
 
         _localPort = -2;
     }
@@ -570,7 +627,7 @@ public class ServerConnector extends AbstractNetworkConnector
             {
                 if (_acceptor.get() == null)
                 {
-                    Closeable acceptor = _manager.acceptor(_acceptChannel);
+                    Closeable acceptor = newAcceptor();
                     if (!_acceptor.compareAndSet(null, acceptor))
                         acceptor.close();
                 }
@@ -16,6 +16,9 @@ package org.eclipse.jetty.server;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLSession;
 
@@ -25,10 +28,16 @@ import org.eclipse.jetty.io.Connection;
 import org.eclipse.jetty.io.EndPoint;
 import org.eclipse.jetty.io.ssl.SslConnection;
 import org.eclipse.jetty.io.ssl.SslHandshakeListener;
+import org.eclipse.jetty.util.NanoTime;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
 import org.eclipse.jetty.util.annotation.Name;
 import org.eclipse.jetty.util.component.ContainerLifeCycle;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.statistic.SampleStatistic;
 
+@ManagedObject("TLS connection factory")
 public class SslConnectionFactory extends AbstractConnectionFactory implements ConnectionFactory.Detecting, ConnectionFactory.Configuring
 {
     private static final int TLS_ALERT_FRAME_TYPE = 0x15;
@@ -40,6 +49,9 @@ public class SslConnectionFactory extends AbstractConnectionFactory implements C
     private boolean _directBuffersForEncryption = false;
     private boolean _directBuffersForDecryption = false;
     private boolean _ensureSecureRequestCustomizer = true;
+    private final HandshakeStatistics _handshakeStatistics = new HandshakeStatistics();
+    private final SampleStatistic _delegatedTaskTimes = new SampleStatistic();
+    private Executor _delegatedTaskExecutor;
 
     public SslConnectionFactory()
     {
@@ -104,6 +116,86 @@ public class SslConnectionFactory extends AbstractConnectionFactory implements C
         _ensureSecureRequestCustomizer = ensureSecureRequestCustomizer;
     }
 
+    /**
+     * @return the executor that runs the TLS delegated tasks, or {@code null}
+     * if the delegated tasks are run by the I/O threads
+     */
+    public Executor getDelegatedTaskExecutor()
+    {
+        return _delegatedTaskExecutor;
+    }
+
+    /**
+     * <p>Sets the executor that runs the TLS delegated tasks, typically a bounded
+     * thread pool dedicated to expensive TLS handshake work, so that it does not
+     * stall the I/O of other connections.</p>
+     *
+     * @param delegatedTaskExecutor the executor that runs the TLS delegated tasks,
+     * or {@code null} to run the delegated tasks in the I/O threads
+     * @see SslConnection#setDelegatedTaskExecutor(Executor)
+     */
+    public void setDelegatedTaskExecutor(Executor delegatedTaskExecutor)
+    {
+        updateBean(_delegatedTaskExecutor, delegatedTaskExecutor, true);
+        _delegatedTaskExecutor = delegatedTaskExecutor;
+    }
+
+    @ManagedAttribute("The number of TLS handshakes that succeeded")
+    public long getHandshakes()
+    {
+        return _handshakeStatistics._handshakeTimes.getCount();
+    }
+
+    @ManagedAttribute("The number of TLS handshakes that failed")
+    public long getHandshakesFailed()
+    {
+        return _handshakeStatistics._handshakesFailed.longValue();
+    }
+
+    @ManagedAttribute("The max duration of a TLS handshake in microseconds")
+    public long getHandshakeTimeMax()
+    {
+        return _handshakeStatistics._handshakeTimes.getMax();
+    }
+
+    @ManagedAttribute("The mean duration of a TLS handshake in microseconds")
+    public double getHandshakeTimeMean()
+    {
+        return _handshakeStatistics._handshakeTimes.getMean();
+    }
+
+    @ManagedAttribute("The standard deviation of the duration of a TLS handshake in microseconds")
+    public double getHandshakeTimeStdDev()
+    {
+        return _handshakeStatistics._handshakeTimes.getStdDev();
+    }
+
+    @ManagedAttribute("The number of TLS delegated tasks run by the delegated task executor")
+    public long getDelegatedTasks()
+    {
+        return _delegatedTaskTimes.getCount();
+    }
+
+    @ManagedAttribute("The max duration, including queueing, of a TLS delegated task in microseconds")
+    public long getDelegatedTaskTimeMax()
+    {
+        return _delegatedTaskTimes.getMax();
+    }
+
+    @ManagedAttribute("The mean duration, including queueing, of a TLS delegated task in microseconds")
+    public double getDelegatedTaskTimeMean()
+    {
+        return _delegatedTaskTimes.getMean();
+    }
+
+    @ManagedOperation(value = "Resets the TLS statistics", impact = "ACTION")
+    public void resetStatistics()
+    {
+        _handshakeStatistics._handshakeTimes.reset();
+        _handshakeStatistics._handshakesFailed.reset();
+        _delegatedTaskTimes.reset();
+    }
+
     @Override
     protected void doStart() throws Exception
     {
@@ -153,6 +245,8 @@ public class SslConnectionFactory extends AbstractConnectionFactory implements C
         SslConnection sslConnection = newSslConnection(connector, endPoint, engine);
         sslConnection.setRenegotiationAllowed(_sslContextFactory.isRenegotiationAllowed());
         sslConnection.setRenegotiationLimit(_sslContextFactory.getRenegotiationLimit());
+        if (_delegatedTaskExecutor != null)
+            sslConnection.setDelegatedTaskExecutor(this::executeDelegatedTask);
         configure(sslConnection, connector, endPoint);
 
         ConnectionFactory next = connector.getConnectionFactory(_nextProtocol);
@@ -176,13 +270,55 @@ public class SslConnectionFactory extends AbstractConnectionFactory implements C
             if (connector instanceof ContainerLifeCycle container)
                 container.getBeans(SslHandshakeListener.class).forEach(sslConnection::addHandshakeListener);
             getBeans(SslHandshakeListener.class).forEach(sslConnection::addHandshakeListener);
+            sslConnection.addHandshakeListener(_handshakeStatistics);
         }
         return super.configure(connection, connector, endPoint);
     }
 
+    private void executeDelegatedTask(Runnable task)
+    {
+        long begin = NanoTime.now();
+        _delegatedTaskExecutor.execute(() ->
+        {
+            try
+            {
+                task.run();
+            }
+            finally
+            {
+                _delegatedTaskTimes.record(TimeUnit.NANOSECONDS.toMicros(NanoTime.since(begin)));
+            }
+        });
+    }
+
     @Override
     public String toString()
     {
         return String.format("%s@%x{%s->%s}", this.getClass().getSimpleName(), hashCode(), getProtocol(), _nextProtocol);
     }
+
+    /**
+     * <p>Records the duration of TLS handshakes, measured from when the first TLS
+     * handshake bytes are read, so that it includes the time spent waiting for
+     * I/O threads and delegated tasks, but not the connection establishment.</p>
+     */
+    private static class HandshakeStatistics implements SslHandshakeListener
+    {
+        private final SampleStatistic _handshakeTimes = new SampleStatistic();
+        private final LongAdder _handshakesFailed = new LongAdder();
+
+        @Override
+        public void handshakeSucceeded(Event event)
+        {
+            long duration = event.getHandshakeDuration();
+            if (duration >= 0)
+                _handshakeTimes.record(TimeUnit.NANOSECONDS.toMicros(duration));
+        }
+
+        @Override
+        public void handshakeFailed(Event event, Throwable failure)
+        {
+            _handshakesFailed.increment();
+        }
+    }
 }
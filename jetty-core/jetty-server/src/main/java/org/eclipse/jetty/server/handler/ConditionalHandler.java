@@ -37,6 +37,7 @@ import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.IncludeExclude;
 import org.eclipse.jetty.util.IncludeExcludeSet;
 import org.eclipse.jetty.util.InetAddressPattern;
+import org.eclipse.jetty.util.InetAddressSet;
 import org.eclipse.jetty.util.TypeUtil;
 import org.eclipse.jetty.util.component.DumpableCollection;
 import org.slf4j.Logger;
@@ -157,6 +158,15 @@ public abstract class ConditionalHandler extends Handler.Wrapper
         _predicates.clear();
     }
 
+    /**
+     * @return whether any inclusion or exclusion has been configured, so that
+     * {@link #onConditionsNotMet(Request, Response, Callback)} may be called
+     */
+    protected boolean hasConditions()
+    {
+        return !_methods.isEmpty() || !_pathSpecs.isEmpty() || !_predicates.isEmpty();
+    }
+
     IncludeExclude<String> getMethods()
     {
         // Used only for testing
@@ -633,6 +643,40 @@ public abstract class ConditionalHandler extends Handler.Wrapper
         }
     }
 
+    /**
+     * A {@link Predicate} over {@link Request} that tests an {@link InetAddressSet}
+     * against the {@link ConnectionMetaData#getRemoteSocketAddress() getRemoteSocketAddress()} of
+     * {@link Request#getConnectionMetaData()}.
+     * Testing a single set of many patterns is more efficient than testing many
+     * {@link InetAddressPatternPredicate}s.
+     */
+    public static class InetAddressSetPredicate implements Predicate<Request>
+    {
+        private final InetAddressSet _set;
+
+        public InetAddressSetPredicate(InetAddressSet set)
+        {
+            _set = Objects.requireNonNull(set);
+        }
+
+        public InetAddressSet getInetAddressSet()
+        {
+            return _set;
+        }
+
+        @Override
+        public boolean test(Request request)
+        {
+            return _set.test(InetAddressPatternPredicate.getInetAddress(request.getConnectionMetaData().getRemoteSocketAddress()));
+        }
+
+        @Override
+        public String toString()
+        {
+            return "%s@%x{size=%d}".formatted(getClass().getSimpleName(), hashCode(), _set.size());
+        }
+    }
+
     /**
      * A {@link Predicate} over {@link Request} that tests {@link Request#getMethod() method} name.
      * Using predicates in less efficient than using {@link ConditionalHandler#includeMethod(String...)}
@@ -13,6 +13,8 @@
 
 package org.eclipse.jetty.server.handler;
 
+import java.nio.file.Path;
+
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.http.pathmap.PathSpec;
 import org.eclipse.jetty.server.Handler;
@@ -22,6 +24,10 @@ import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.IncludeExcludeSet;
 import org.eclipse.jetty.util.InetAddressPattern;
 import org.eclipse.jetty.util.InetAddressSet;
+import org.eclipse.jetty.util.InetAddressSetScanner;
+import org.eclipse.jetty.util.StringUtil;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
 
 /**
  * InetAddress Access Handler
@@ -31,9 +37,24 @@ import org.eclipse.jetty.util.InetAddressSet;
  * handler uses the real internet address of the connection, not one reported in
  * the forwarded for headers, as this cannot be as easily forged.
  * </p>
+ * <p>
+ * Patterns that only have an InetAddress part are grouped in a single {@link InetAddressSet}
+ * for inclusions and one for exclusions, so that large lists of addresses and ranges are
+ * tested efficiently. Those sets may also be loaded from files, that are monitored for
+ * changes so that the addresses can be updated without restarting this handler.
+ * </p>
  */
+@ManagedObject("InetAddress Access Handler")
 public class InetAccessHandler extends ConditionalHandler.Abstract
 {
+    private InetAddressSet _includedAddresses;
+    private InetAddressSet _excludedAddresses;
+    private InetAddressSetPredicate _includeFilePredicate;
+    private InetAddressSetPredicate _excludeFilePredicate;
+    private InetAddressSetScanner _includeScanner;
+    private InetAddressSetScanner _excludeScanner;
+    private int _scanInterval = 1;
+
     public InetAccessHandler()
     {
         this(null);
@@ -44,6 +65,20 @@ public class InetAccessHandler extends ConditionalHandler.Abstract
         super(handler);
     }
 
+    @Override
+    public void clear()
+    {
+        super.clear();
+        _includedAddresses = null;
+        _excludedAddresses = null;
+        _includeFilePredicate = null;
+        _excludeFilePredicate = null;
+        removeBean(_includeScanner);
+        _includeScanner = null;
+        removeBean(_excludeScanner);
+        _excludeScanner = null;
+    }
+
     @Override
     protected boolean onConditionsMet(Request request, Response response, Callback callback) throws Exception
     {
@@ -160,6 +195,124 @@ public class InetAccessHandler extends ConditionalHandler.Abstract
         exclude(from(connectorName, InetAddressPattern.from(addressPattern), null, pathSpec));
     }
 
+    /**
+     * @return the file of InetAddress patterns to include, or null
+     */
+    @ManagedAttribute("The file of InetAddress patterns to include")
+    public String getIncludeFile()
+    {
+        return _includeScanner == null ? null : _includeScanner.getFile().toString();
+    }
+
+    /**
+     * <p>Sets the file of InetAddress patterns to include, one per line.</p>
+     * <p>The file is loaded when this handler is started and it is monitored
+     * so that the included patterns are atomically replaced when it is modified.</p>
+     *
+     * @param file the file of InetAddress patterns to include, or null
+     * @see InetAddressSetScanner
+     */
+    public void setIncludeFile(String file)
+    {
+        if (isStarted())
+            throw new IllegalStateException(getState());
+        removeBean(_includeScanner);
+        _includeScanner = null;
+        if (_includeFilePredicate != null)
+            getPredicates().getIncluded().remove(_includeFilePredicate);
+        _includeFilePredicate = null;
+        if (StringUtil.isBlank(file))
+            return;
+        _includeFilePredicate = new InetAddressSetPredicate(new InetAddressSet());
+        include(_includeFilePredicate);
+        _includeScanner = newInetAddressSetScanner(_includeFilePredicate.getInetAddressSet(), Path.of(file));
+    }
+
+    /**
+     * @return the file of InetAddress patterns to exclude, or null
+     */
+    @ManagedAttribute("The file of InetAddress patterns to exclude")
+    public String getExcludeFile()
+    {
+        return _excludeScanner == null ? null : _excludeScanner.getFile().toString();
+    }
+
+    /**
+     * <p>Sets the file of InetAddress patterns to exclude, one per line.</p>
+     * <p>The file is loaded when this handler is started and it is monitored
+     * so that the excluded patterns are atomically replaced when it is modified.</p>
+     *
+     * @param file the file of InetAddress patterns to exclude, or null
+     * @see InetAddressSetScanner
+     */
+    public void setExcludeFile(String file)
+    {
+        if (isStarted())
+            throw new IllegalStateException(getState());
+        removeBean(_excludeScanner);
+        _excludeScanner = null;
+        if (_excludeFilePredicate != null)
+            getPredicates().getExcluded().remove(_excludeFilePredicate);
+        _excludeFilePredicate = null;
+        if (StringUtil.isBlank(file))
+            return;
+        _excludeFilePredicate = new InetAddressSetPredicate(new InetAddressSet());
+        exclude(_excludeFilePredicate);
+        _excludeScanner = newInetAddressSetScanner(_excludeFilePredicate.getInetAddressSet(), Path.of(file));
+    }
+
+    /**
+     * @return the interval in seconds to scan the include and exclude files for changes
+     */
+    @ManagedAttribute("The interval in seconds to scan the include and exclude files for changes")
+    public int getScanInterval()
+    {
+        return _scanInterval;
+    }
+
+    /**
+     * @param scanInterval the interval in seconds to scan the include and exclude files for changes,
+     * or zero to only load the files when this handler is started
+     */
+    public void setScanInterval(int scanInterval)
+    {
+        if (isStarted())
+            throw new IllegalStateException(getState());
+        _scanInterval = scanInterval;
+        if (_includeScanner != null)
+            _includeScanner.setScanInterval(scanInterval);
+        if (_excludeScanner != null)
+            _excludeScanner.setScanInterval(scanInterval);
+    }
+
+    protected InetAddressSetScanner newInetAddressSetScanner(InetAddressSet inetAddressSet, Path file)
+    {
+        InetAddressSetScanner scanner = new InetAddressSetScanner(inetAddressSet, file);
+        scanner.setScanInterval(_scanInterval);
+        addBean(scanner, true);
+        return scanner;
+    }
+
+    private InetAddressSet includedAddresses()
+    {
+        if (_includedAddresses == null)
+        {
+            _includedAddresses = new InetAddressSet();
+            include(new InetAddressSetPredicate(_includedAddresses));
+        }
+        return _includedAddresses;
+    }
+
+    private InetAddressSet excludedAddresses()
+    {
+        if (_excludedAddresses == null)
+        {
+            _excludedAddresses = new InetAddressSet();
+            exclude(new InetAddressSetPredicate(_excludedAddresses));
+        }
+        return _excludedAddresses;
+    }
+
     private void includeExclude(boolean include, String pattern)
     {
         String path = null;
@@ -189,7 +342,15 @@ public class InetAccessHandler extends ConditionalHandler.Abstract
         if (addrStart != addrEnd)
             addr = pattern.substring(addrStart, addrEnd);
 
-        if (include)
+        if (connector == null && method == null && path == null && addr != null)
+        {
+            // Group plain InetAddress patterns in a single set.
+            if (include)
+                includedAddresses().add(addr);
+            else
+                excludedAddresses().add(addr);
+        }
+        else if (include)
             include(from(connector, addr, method, path));
         else
             exclude(from(connector, addr, method, path));
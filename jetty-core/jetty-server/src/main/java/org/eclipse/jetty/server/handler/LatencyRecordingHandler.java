@@ -17,15 +17,21 @@ import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.util.NanoTime;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.statistic.HistogramStatistic;
 
 /**
  * <p>A <code>Handler</code> that helps recording the total latency of the requests executed by the wrapped handler.</p>
  * <p>The latency reported by {@link #onRequestComplete(String, long)} is the delay between when {@link Request#getBeginNanoTime()
  * the request arrived to a connector} until {@link EventsHandler#onComplete(Request, Throwable) the completion of that
  * request}.</p>
+ * <p>The latencies are also recorded in a {@link HistogramStatistic}, so that
+ * their percentiles over the last minute are available.</p>
  */
 public abstract class LatencyRecordingHandler extends EventsHandler
 {
+    private final HistogramStatistic _latencies = new HistogramStatistic();
+
     public LatencyRecordingHandler()
     {
     }
@@ -38,7 +44,41 @@ public abstract class LatencyRecordingHandler extends EventsHandler
     @Override
     protected final void onComplete(Request request, int status, HttpFields headers, Throwable failure)
     {
-        onRequestComplete(request.getId(), NanoTime.since(request.getBeginNanoTime()));
+        long latency = NanoTime.since(request.getBeginNanoTime());
+        _latencies.record(latency);
+        onRequestComplete(request.getId(), latency);
+    }
+
+    /**
+     * @return the histogram of the latencies of the requests completed in the last minute
+     */
+    public HistogramStatistic getLatencyHistogram()
+    {
+        return _latencies;
+    }
+
+    @ManagedAttribute("50th percentile of request latency in the last minute (in ns)")
+    public long getLatencyP50()
+    {
+        return _latencies.getValueAtPercentile(50);
+    }
+
+    @ManagedAttribute("90th percentile of request latency in the last minute (in ns)")
+    public long getLatencyP90()
+    {
+        return _latencies.getValueAtPercentile(90);
+    }
+
+    @ManagedAttribute("99th percentile of request latency in the last minute (in ns)")
+    public long getLatencyP99()
+    {
+        return _latencies.getValueAtPercentile(99);
+    }
+
+    @ManagedAttribute("99.9th percentile of request latency in the last minute (in ns)")
+    public long getLatencyP999()
+    {
+        return _latencies.getValueAtPercentile(99.9);
     }
 
     /**
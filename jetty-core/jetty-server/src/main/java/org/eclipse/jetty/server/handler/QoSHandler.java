@@ -18,14 +18,12 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Queue;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.io.CyclicTimeouts;
@@ -57,10 +55,13 @@ import org.slf4j.LoggerFactory;
  * When this limit is reached, the request will fail fast
  * with status code {@code 503} (not available).</p>
  * <p>Priorities are determined via {@link #getPriority(Request)},
- * that should return values between {@code 0} (the lowest priority)
- * and positive numbers, typically in the range {@code 0-10}.</p>
+ * that should return values equal or greater than {@code 0}
+ * (the lowest priority).</p>
  * <p>When a request that is being processed completes, the suspended
- * request that current has the highest priority is resumed.</p>
+ * request that current has the highest priority is resumed.
+ * Optionally, suspended requests can be {@link #setPriorityAging(Duration) aged},
+ * so that low priority requests are not starved by a continuous flow
+ * of high priority requests.</p>
  * <p>This {@link Handler} is ideal to avoid contending on slow/limited
  * resources such as a JDBC connection pool, avoiding the situation
  * where all server threads blocked contending on the limited
@@ -73,6 +74,12 @@ import org.slf4j.LoggerFactory;
  * priority, followed by requests performed by admin users, etc.
  * so that regardless of the load, "ping" and "admin" requests will
  * always be able to access the web application.</p>
+ * <p>The admission of requests is lock-free: a single atomic counter
+ * tracks the available permits (when positive) or the number of
+ * suspended requests (when negative), and suspended requests are
+ * stored in lock-free queues, one for each priority, so that this
+ * {@code Handler} does not become a bottleneck when the server is
+ * overloaded.</p>
  */
 @ManagedObject
 public class QoSHandler extends ConditionalHandler.Abstract
@@ -80,14 +87,15 @@ public class QoSHandler extends ConditionalHandler.Abstract
     private static final Logger LOG = LoggerFactory.getLogger(QoSHandler.class);
     private static final String EXPIRED_ATTRIBUTE_NAME = QoSHandler.class.getName() + ".expired";
 
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
     private final AtomicInteger state = new AtomicInteger();
-    private final Map<Integer, Queue<Entry>> queues = new ConcurrentHashMap<>();
-    private final Set<Integer> priorities = new ConcurrentSkipListSet<>(Comparator.reverseOrder());
+    // The queues in descending priority order.
+    private final ConcurrentNavigableMap<Integer, Queue<Entry>> queues = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
     private CyclicTimeouts<Entry> timeouts;
     private int maxRequests;
     private int maxSuspendedRequests = 1024;
     private Duration maxSuspend = Duration.ZERO;
+    private Duration priorityAging = Duration.ZERO;
+    private long priorityAgingNanos;
 
     public QoSHandler()
     {
@@ -174,6 +182,35 @@ public class QoSHandler extends ConditionalHandler.Abstract
         this.maxSuspend = maxSuspend;
     }
 
+    /**
+     * @return the duration of time after which the priority of a suspended request is raised by one
+     */
+    @ManagedAttribute("The duration of time after which the priority of a suspended request is raised by one")
+    public Duration getPriorityAging()
+    {
+        return priorityAging;
+    }
+
+    /**
+     * <p>Sets the duration of time after which the priority of a suspended
+     * request is raised by one, when choosing the request to resume.</p>
+     * <p>For example, with an aging of 1 second, a request with priority
+     * {@code 0} suspended for 3 seconds is resumed before a request with
+     * priority {@code 2} suspended for less than 1 second.</p>
+     * <p>{@link Duration#ZERO} means that the priority of suspended requests
+     * is not raised, and that requests are always resumed in strict
+     * priority order.</p>
+     *
+     * @param priorityAging the duration of time after which the priority of a suspended request is raised by one
+     */
+    public void setPriorityAging(Duration priorityAging)
+    {
+        if (priorityAging.isNegative())
+            throw new IllegalArgumentException("Invalid priorityAging duration");
+        this.priorityAging = priorityAging;
+        this.priorityAgingNanos = priorityAging.toNanos();
+    }
+
     @ManagedAttribute("The number of suspended requests")
     public int getSuspendedRequestCount()
     {
@@ -211,6 +248,7 @@ public class QoSHandler extends ConditionalHandler.Abstract
         super.doStop();
         removeBean(timeouts);
         timeouts.destroy();
+        queues.clear();
     }
 
     @Override
@@ -224,57 +262,40 @@ public class QoSHandler extends ConditionalHandler.Abstract
         if (LOG.isDebugEnabled())
             LOG.debug("{} processing {}", this, request);
 
-        boolean expired = false;
-        boolean tooManyRequests = false;
-
-        // The read lock allows concurrency with resume(),
-        // which is the common case, but not with expire().
-        lock.readLock().lock();
-        try
+        // A request that was suspended, expired, and was re-handled
+        // must not be suspended again, but completed with 503 unavailable.
+        boolean expired = request.getAttribute(EXPIRED_ATTRIBUTE_NAME) != null;
+        int maxSuspended = getMaxSuspendedRequestCount();
+        while (true)
         {
-            int permits = state.decrementAndGet();
-            if (permits < 0)
+            int permits = state.get();
+            if (permits <= 0)
             {
-                int maxSuspended = getMaxSuspendedRequestCount();
-                if (maxSuspended >= 0 && Math.abs(permits) > maxSuspended)
+                // The state is only updated if the request is suspended,
+                // as undoing a decrement would race with resume(), that
+                // could count on this request being suspended.
+                if (expired || (maxSuspended >= 0 && -permits >= maxSuspended))
                 {
-                    // Reached the limit of suspended requests,
-                    // complete the request with 503 unavailable.
-                    state.incrementAndGet();
-                    tooManyRequests = true;
-                }
-                else if (request.getAttribute(EXPIRED_ATTRIBUTE_NAME) == null)
-                {
-                    // Cover this race condition:
-                    // T1 in this method may find no permits, so it will suspend the request.
-                    // T2 in resume() finds no suspended request yet and increments the permits.
-                    // T1 suspends the request, despite permits are available.
-                    // This is avoided in resume() using a spin loop to wait for the request to be suspended.
-                    // See correspondent state machine logic in resume() and expire().
-                    suspend(request, response, callback);
+                    notAvailable(response, callback);
                     return true;
                 }
-                else
-                {
-                    // This is a request that was suspended, it expired, and was re-handled.
-                    // Do not suspend it again, just complete it with 503 unavailable.
-                    state.incrementAndGet();
-                    expired = true;
-                }
             }
-        }
-        finally
-        {
-            lock.readLock().unlock();
-        }
 
-        if (expired || tooManyRequests)
-        {
-            notAvailable(response, callback);
-            return true;
+            if (state.compareAndSet(permits, permits - 1))
+            {
+                if (permits > 0)
+                    return handleWithPermit(request, response, callback);
+
+                // Cover this race condition:
+                // T1 in this method may find no permits, so it will suspend the request.
+                // T2 in resume() finds no suspended request yet and increments the permits.
+                // T1 suspends the request, despite permits are available.
+                // This is avoided in resume() using a spin loop to wait for the request to be suspended.
+                // See correspondent state machine logic in resume() and expire().
+                suspend(request, response, callback);
+                return true;
+            }
         }
-
-        return handleWithPermit(request, response, callback);
     }
 
     @Override
@@ -299,7 +320,7 @@ public class QoSHandler extends ConditionalHandler.Abstract
      * a value greater than or equal to {@code 0}.</p>
      * <p>Priority {@code 0} is the lowest priority.</p>
      * <p>The set of returned priorities should be stable over
-     * time, typically constrained in the range {@code 0-10}.</p>
+     * time, as a queue is retained for each priority.</p>
      *
      * @param request the suspended request to compute the priority for
      * @return the priority of the given suspended request, a value {@code >= 0}
@@ -339,69 +360,83 @@ public class QoSHandler extends ConditionalHandler.Abstract
         if (LOG.isDebugEnabled())
             LOG.debug("{} suspending priority={} {}", this, priority, request);
         Entry entry = new Entry(request, response, callback, priority);
-        queues.compute(priority, (k, v) ->
-        {
-            if (v == null)
-            {
-                priorities.add(priority);
-                v = new ConcurrentLinkedQueue<>();
-            }
-            v.offer(entry);
-            return v;
-        });
+        queues.computeIfAbsent(priority, p -> new ConcurrentLinkedQueue<>()).offer(entry);
         timeouts.schedule(entry);
     }
 
     private void resume(Throwable x)
     {
-        // Allows concurrency with process(), but not with expire().
-        lock.readLock().lock();
-        try
+        // See correspondent state machine logic in process() and expire().
+        int permits = state.incrementAndGet();
+        while (permits <= 0)
         {
-            // See correspondent state machine logic in process() and expire().
-            int permits = state.incrementAndGet();
-            if (permits > 0)
+            // There is a suspended request to give the permit to.
+            Entry entry = pollSuspended();
+            if (entry == null)
             {
-                if (LOG.isDebugEnabled())
-                    LOG.debug("{} no suspended requests to resume", this, x);
-                return;
-            }
-
-            while (true)
-            {
-                if (resumeSuspended())
-                    return;
-
                 // Found no suspended requests yet, but there will be.
                 // This covers the small race window in process(), where
                 // the state is updated and then the request suspended.
                 Thread.onSpinWait();
+                continue;
+            }
+
+            switch (entry.resume())
+            {
+                case RESUMED ->
+                {
+                    if (LOG.isDebugEnabled())
+                        LOG.debug("{} resuming {}", this, entry.request);
+                    // Always dispatch to avoid StackOverflowError.
+                    execute(entry.request, entry);
+                    return;
+                }
+                case EXPIRED ->
+                {
+                    // The request expired and expire() already updated the state.
+                }
+                // The request expired, but expire() could not update the state,
+                // as this thread was already counting on the request: do it now.
+                case EXPIRED_COUNTED -> permits = state.incrementAndGet();
+                default -> throw new IllegalStateException(entry.toString());
             }
         }
-        finally
-        {
-            lock.readLock().unlock();
-        }
+
+        if (LOG.isDebugEnabled())
+            LOG.debug("{} no suspended requests to resume", this, x);
     }
 
-    private boolean resumeSuspended()
+    private Entry pollSuspended()
     {
-        for (Integer priority : priorities)
+        if (priorityAgingNanos <= 0)
         {
-            Queue<Entry> queue = queues.get(priority);
-            if (queue == null)
-                return false;
-            Entry entry = queue.poll();
-            if (entry != null)
+            for (Queue<Entry> queue : queues.values())
             {
-                if (LOG.isDebugEnabled())
-                    LOG.debug("{} resuming {}", this, entry.request);
-                // Always dispatch to avoid StackOverflowError.
-                execute(entry.request, entry);
-                return true;
+                Entry entry = queue.poll();
+                if (entry != null)
+                    return entry;
             }
+            return null;
         }
-        return false;
+
+        // Choose the queue whose oldest request has the highest aged priority;
+        // concurrent polls may change the queue heads, which is benign.
+        long now = NanoTime.now();
+        Queue<Entry> chosen = null;
+        long chosenPriority = -1;
+        for (Map.Entry<Integer, Queue<Entry>> entry : queues.entrySet())
+        {
+            Entry head = entry.getValue().peek();
+            if (head == null)
+                continue;
+            long agedPriority = entry.getKey() + NanoTime.elapsed(head.suspendNanoTime, now) / priorityAgingNanos;
+            if (agedPriority > chosenPriority)
+            {
+                chosen = entry.getValue();
+                chosenPriority = agedPriority;
+            }
+        }
+        return chosen == null ? null : chosen.poll();
     }
 
     private void execute(Request request, Runnable task)
@@ -409,12 +444,19 @@ public class QoSHandler extends ConditionalHandler.Abstract
         request.getComponents().getExecutor().execute(task);
     }
 
+    private enum Status
+    {
+        SUSPENDED, RESUMED, EXPIRING, EXPIRED, EXPIRED_COUNTED
+    }
+
     private class Entry implements CyclicTimeouts.Expirable, Runnable
     {
+        private final AtomicReference<Status> status = new AtomicReference<>(Status.SUSPENDED);
         private final Request request;
         private final Response response;
         private final Callback callback;
         private final int priority;
+        private final long suspendNanoTime;
         private final long expireNanoTime;
 
         private Entry(Request request, Response response, Callback callback, int priority)
@@ -423,8 +465,9 @@ public class QoSHandler extends ConditionalHandler.Abstract
             this.response = response;
             this.callback = callback;
             this.priority = priority;
+            this.suspendNanoTime = NanoTime.now();
             Duration maxSuspend = getMaxSuspend();
-            long suspendNanos = NanoTime.now() + maxSuspend.toNanos();
+            long suspendNanos = suspendNanoTime + maxSuspend.toNanos();
             if (suspendNanos == Long.MAX_VALUE)
                 --suspendNanos;
             this.expireNanoTime = maxSuspend.isZero() ? Long.MAX_VALUE : suspendNanos;
@@ -436,34 +479,64 @@ public class QoSHandler extends ConditionalHandler.Abstract
             return expireNanoTime;
         }
 
-        private void expire()
+        /**
+         * @return {@link Status#RESUMED} if this request has been resumed,
+         * otherwise the expired status of this request
+         */
+        private Status resume()
         {
-            boolean removed;
-            // It should be rare that requests expire.
-            // Grab the write lock to atomically operate on the queue and
-            // the state, avoiding concurrency with process() and resume().
-            lock.writeLock().lock();
-            try
+            while (true)
             {
-                // The request timed out, therefore it was not handled.
-                removed = queues.get(priority).remove(this);
-                // The remove() may fail to a concurrent resume().
-                if (removed)
+                Status current = status.get();
+                switch (current)
                 {
-                    // See correspondent state machine logic in process() and resume().
-                    state.incrementAndGet();
-                    if (LOG.isDebugEnabled())
-                        LOG.debug("{} timeout {}", QoSHandler.this, request);
-                    request.setAttribute(EXPIRED_ATTRIBUTE_NAME, true);
+                    case SUSPENDED ->
+                    {
+                        if (status.compareAndSet(current, Status.RESUMED))
+                            return Status.RESUMED;
+                    }
+                    // Wait for expire() to update the state.
+                    case EXPIRING -> Thread.onSpinWait();
+                    default ->
+                    {
+                        return current;
+                    }
                 }
             }
-            finally
+        }
+
+        private void expire()
+        {
+            // It should be rare that requests expire.
+            // The expiration may race with a concurrent resume().
+            if (!status.compareAndSet(Status.SUSPENDED, Status.EXPIRING))
+                return;
+
+            // See correspondent state machine logic in process() and resume().
+            // Only count this request out if there are more suspended requests
+            // than threads in resume() counting on suspended requests, otherwise
+            // one of these threads will poll this request and count it out.
+            boolean counted = true;
+            int permits = state.get();
+            while (permits < 0)
             {
-                lock.writeLock().unlock();
+                if (state.compareAndSet(permits, permits + 1))
+                {
+                    counted = false;
+                    break;
+                }
+                permits = state.get();
             }
 
-            if (removed)
-                execute(request, () -> failSuspended(request, response, callback, HttpStatus.SERVICE_UNAVAILABLE_503, new TimeoutException()));
+            if (LOG.isDebugEnabled())
+                LOG.debug("{} timeout {}", QoSHandler.this, request);
+            // The request timed out, therefore it was not handled.
+            request.setAttribute(EXPIRED_ATTRIBUTE_NAME, true);
+            status.set(counted ? Status.EXPIRED_COUNTED : Status.EXPIRED);
+            if (!counted)
+                queues.get(priority).remove(this);
+
+            execute(request, () -> failSuspended(request, response, callback, HttpStatus.SERVICE_UNAVAILABLE_503, new TimeoutException()));
         }
 
         @Override
@@ -484,6 +557,12 @@ public class QoSHandler extends ConditionalHandler.Abstract
                 failSuspended(request, response, callback, HttpStatus.INTERNAL_SERVER_ERROR_500, x);
             }
         }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x[%s,p=%d,%s]", getClass().getSimpleName(), hashCode(), status.get(), priority, request);
+        }
     }
 
     private class Timeouts extends CyclicTimeouts<Entry>
@@ -20,6 +20,7 @@ import org.eclipse.jetty.http.CompressedContentFormat;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpURI;
 import org.eclipse.jetty.http.MimeTypes;
+import org.eclipse.jetty.http.content.CompressingHttpContentFactory;
 import org.eclipse.jetty.http.content.FileMappingHttpContentFactory;
 import org.eclipse.jetty.http.content.HttpContent;
 import org.eclipse.jetty.http.content.PreCompressedHttpContentFactory;
@@ -62,6 +63,7 @@ public class ResourceHandler extends Handler.Wrapper
     private MimeTypes _mimeTypes;
     private List<String> _welcomes = List.of("index.html");
     private boolean _useFileMapping = true;
+    private boolean _useCompressedVariants;
 
     public ResourceHandler()
     {
@@ -101,7 +103,10 @@ public class ResourceHandler extends Handler.Wrapper
 
         _byteBufferPool = getByteBufferPool(context);
         ResourceService resourceService = getResourceService();
-        resourceService.setHttpContentFactory(newHttpContentFactory());
+        HttpContent.Factory contentFactory = newHttpContentFactory();
+        // Expose the content factory, and possibly its cache statistics, as a bean.
+        updateBean(resourceService.getHttpContentFactory(), contentFactory);
+        resourceService.setHttpContentFactory(contentFactory);
         resourceService.setWelcomeFactory(setupWelcomeFactory());
         if (getStyleSheet() == null)
             setStyleSheet(getServer().getDefaultStyleSheet());
@@ -132,6 +137,8 @@ public class ResourceHandler extends Handler.Wrapper
         contentFactory = new VirtualHttpContentFactory(contentFactory, getStyleSheet(), "text/css");
         contentFactory = new PreCompressedHttpContentFactory(contentFactory, getPrecompressedFormats());
         contentFactory = new ValidatingCachingHttpContentFactory(contentFactory, Duration.ofSeconds(1).toMillis(), getByteBufferPool());
+        if (isUseCompressedVariants())
+            contentFactory = new CompressingHttpContentFactory(contentFactory, getServer().getThreadPool());
         return contentFactory;
     }
 
@@ -251,6 +258,22 @@ public class ResourceHandler extends Handler.Wrapper
         return _useFileMapping;
     }
 
+    /**
+     * @return True if compressed variants of frequently requested resources are generated in the background
+     */
+    public boolean isUseCompressedVariants()
+    {
+        return _useCompressedVariants;
+    }
+
+    /**
+     * @return True if file content is written with zero-copy transfers when possible
+     */
+    public boolean isUseFileTransfer()
+    {
+        return _resourceService.isUseFileTransfer();
+    }
+
     /**
      * @return Precompressed resources formats that can be used to serve compressed variant of resources.
      */
@@ -368,6 +391,27 @@ public class ResourceHandler extends Handler.Wrapper
         _useFileMapping = useFileMapping;
     }
 
+    /**
+     * @param useCompressedVariants If true, compressed variants of frequently requested resources are
+     * generated in the background and served as precompressed resources
+     * @see CompressingHttpContentFactory
+     */
+    public void setUseCompressedVariants(boolean useCompressedVariants)
+    {
+        if (isRunning())
+            throw new IllegalStateException("Unable to set useCompressedVariants on started " + this);
+        _useCompressedVariants = useCompressedVariants;
+    }
+
+    /**
+     * @param useFileTransfer If true, file content is written with zero-copy transfers when possible
+     * @see ResourceService#setUseFileTransfer(boolean)
+     */
+    public void setUseFileTransfer(boolean useFileTransfer)
+    {
+        _resourceService.setUseFileTransfer(useFileTransfer);
+    }
+
     public void setWelcomeMode(ResourceService.WelcomeMode welcomeMode)
     {
         _resourceService.setWelcomeMode(welcomeMode);
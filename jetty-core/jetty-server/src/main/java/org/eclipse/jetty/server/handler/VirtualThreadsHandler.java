@@ -0,0 +1,299 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.handler;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.consumer.RecordingStream;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.VirtualThreads;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.statistic.SampleStatistic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A {@link ConditionalHandler} that calls the {@link #getHandler() next handler}
+ * in a virtual thread for the requests that meet the conditions.</p>
+ * <p>This handler allows to run blocking handlers, for example handlers that call
+ * a database, in virtual threads, while the other handlers and the I/O production
+ * still run in the platform threads of the server's thread pool:</p>
+ * <pre>{@code
+ * VirtualThreadsHandler virtualThreads = new VirtualThreadsHandler(jdbcContext);
+ * contexts.addHandler(virtualThreads);
+ * contexts.addHandler(cacheContext);
+ * }</pre>
+ * <p>The requests that do not meet the conditions are handled in the calling thread.
+ * Without conditions, this handler declares itself as
+ * {@link InvocationType#NON_BLOCKING non-blocking}, so that the server does not
+ * need to dispatch the requests to a platform thread before this handler
+ * dispatches them to a virtual thread.</p>
+ * <p>Once a request is dispatched to a virtual thread, this handler has
+ * handled it: if the next handler does not handle the request, a
+ * {@link HttpStatus#NOT_FOUND_404} response is sent.</p>
+ * <p>The virtual threads are provided by the {@link #getVirtualThreadsExecutor()
+ * configured executor}, or by the server's thread pool, if it is
+ * {@link VirtualThreads.Configurable configured} with virtual threads, or by the
+ * default virtual threads executor; if virtual threads are not supported,
+ * the requests are handled in the calling thread.</p>
+ * <p>When {@link #setPinningDetection(boolean) enabled}, this handler records the
+ * {@code jdk.VirtualThreadPinned} JFR events emitted by the JVM, so that the blocking
+ * operations that pin virtual threads to their carrier platform threads can be detected.</p>
+ */
+@ManagedObject
+public class VirtualThreadsHandler extends ConditionalHandler.ElseNext
+{
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadsHandler.class);
+
+    private final LongAdder _dispatched = new LongAdder();
+    private final LongAdder _inline = new LongAdder();
+    private final SampleStatistic _pinned = new SampleStatistic();
+    private Executor _virtualThreadsExecutor;
+    private Executor _executor;
+    private boolean _pinningDetection;
+    private long _pinningThreshold = 20;
+    private AutoCloseable _pinningMonitor;
+
+    public VirtualThreadsHandler()
+    {
+        this(null);
+    }
+
+    public VirtualThreadsHandler(Handler handler)
+    {
+        super(handler);
+    }
+
+    /**
+     * @return the executor of virtual threads, or null to use the server's or the default one
+     */
+    public Executor getVirtualThreadsExecutor()
+    {
+        return _virtualThreadsExecutor;
+    }
+
+    /**
+     * @param executor the executor of virtual threads, or null to use the server's or the default one
+     */
+    public void setVirtualThreadsExecutor(Executor executor)
+    {
+        if (isStarted())
+            throw new IllegalStateException(getState());
+        _virtualThreadsExecutor = executor;
+    }
+
+    /**
+     * @return whether the pinning of virtual threads is recorded
+     */
+    @ManagedAttribute("Whether the pinning of virtual threads is recorded")
+    public boolean isPinningDetection()
+    {
+        return _pinningDetection;
+    }
+
+    /**
+     * @param pinningDetection whether to record the pinning of virtual threads
+     */
+    public void setPinningDetection(boolean pinningDetection)
+    {
+        if (isStarted())
+            throw new IllegalStateException(getState());
+        _pinningDetection = pinningDetection;
+    }
+
+    /**
+     * @return the minimum time a virtual thread is pinned to be recorded, in milliseconds
+     */
+    @ManagedAttribute("The minimum time a virtual thread is pinned to be recorded, in ms")
+    public long getPinningThreshold()
+    {
+        return _pinningThreshold;
+    }
+
+    /**
+     * @param pinningThreshold the minimum time a virtual thread is pinned to be recorded, in milliseconds
+     */
+    public void setPinningThreshold(long pinningThreshold)
+    {
+        if (isStarted())
+            throw new IllegalStateException(getState());
+        _pinningThreshold = pinningThreshold;
+    }
+
+    @ManagedAttribute("The number of requests handled in a virtual thread")
+    public long getDispatched()
+    {
+        return _dispatched.sum();
+    }
+
+    @ManagedAttribute("The number of requests handled in the calling thread")
+    public long getInline()
+    {
+        return _inline.sum();
+    }
+
+    @ManagedAttribute("The number of times virtual threads were pinned")
+    public long getPinnedEvents()
+    {
+        return _pinned.getCount();
+    }
+
+    @ManagedAttribute("The total time virtual threads were pinned, in ms")
+    public long getPinnedTime()
+    {
+        return Duration.ofNanos(_pinned.getTotal()).toMillis();
+    }
+
+    @ManagedAttribute("The maximum time a virtual thread was pinned, in ms")
+    public long getPinnedTimeMax()
+    {
+        return Duration.ofNanos(_pinned.getMax()).toMillis();
+    }
+
+    @ManagedOperation(value = "Resets the statistics", impact = "ACTION")
+    public void reset()
+    {
+        _dispatched.reset();
+        _inline.reset();
+        _pinned.reset();
+    }
+
+    @Override
+    public InvocationType getInvocationType()
+    {
+        // All the requests are dispatched to virtual threads, so this handler never blocks.
+        if (_executor != null && !hasConditions())
+            return InvocationType.NON_BLOCKING;
+        return super.getInvocationType();
+    }
+
+    @Override
+    protected void doStart() throws Exception
+    {
+        _executor = _virtualThreadsExecutor;
+        if (_executor == null)
+        {
+            Server server = getServer();
+            _executor = server == null ? null : VirtualThreads.getVirtualThreadsExecutor(server.getThreadPool());
+        }
+        if (_executor == null)
+            _executor = VirtualThreads.getDefaultVirtualThreadsExecutor();
+        if (_executor == null)
+            LOG.warn("Virtual threads are not supported, requests will be handled in the calling thread by {}", this);
+
+        if (_pinningDetection)
+        {
+            try
+            {
+                _pinningMonitor = PinningMonitor.start(_pinned, Duration.ofMillis(_pinningThreshold));
+            }
+            catch (Throwable x)
+            {
+                LOG.warn("Could not record the pinning of virtual threads for {}", this, x);
+            }
+        }
+
+        super.doStart();
+    }
+
+    @Override
+    protected void doStop() throws Exception
+    {
+        super.doStop();
+        if (_pinningMonitor != null)
+            _pinningMonitor.close();
+        _pinningMonitor = null;
+        _executor = null;
+    }
+
+    @Override
+    protected boolean onConditionsMet(Request request, Response response, Callback callback) throws Exception
+    {
+        Executor executor = _executor;
+        if (executor != null && !VirtualThreads.isVirtualThread())
+        {
+            try
+            {
+                executor.execute(() -> handleDispatched(request, response, callback));
+                _dispatched.increment();
+                return true;
+            }
+            catch (RejectedExecutionException x)
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Could not dispatch {}", request, x);
+            }
+        }
+        _inline.increment();
+        return nextHandler(request, response, callback);
+    }
+
+    @Override
+    protected boolean onConditionsNotMet(Request request, Response response, Callback callback) throws Exception
+    {
+        _inline.increment();
+        return super.onConditionsNotMet(request, response, callback);
+    }
+
+    private void handleDispatched(Request request, Response response, Callback callback)
+    {
+        try
+        {
+            if (!nextHandler(request, response, callback))
+                Response.writeError(request, response, callback, HttpStatus.NOT_FOUND_404);
+        }
+        catch (Throwable x)
+        {
+            Response.writeError(request, response, callback, x);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x{%s,executor=%s}", getClass().getSimpleName(), hashCode(), getState(), _executor);
+    }
+
+    /**
+     * <p>Records the {@code jdk.VirtualThreadPinned} JFR events.</p>
+     * <p>This class is only loaded if the pinning detection is enabled,
+     * so that the {@code jdk.jfr} module is otherwise not required.</p>
+     */
+    private static class PinningMonitor
+    {
+        private static AutoCloseable start(SampleStatistic pinned, Duration threshold)
+        {
+            RecordingStream stream = new RecordingStream();
+            stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold);
+            stream.onEvent("jdk.VirtualThreadPinned", event ->
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Virtual thread pinned for {} at {}", event.getDuration(), event.getStackTrace());
+                pinned.record(event.getDuration().toNanos());
+            });
+            stream.startAsync();
+            return stream;
+        }
+    }
+}
@@ -13,10 +13,13 @@
 
 package org.eclipse.jetty.server.handler.gzip;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ListIterator;
 import java.util.Set;
 import java.util.zip.Deflater;
 
+import org.eclipse.jetty.http.CompressedContentFormat;
 import org.eclipse.jetty.http.EtagUtils;
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
@@ -24,6 +27,8 @@ import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.MimeTypes;
 import org.eclipse.jetty.http.PreEncodedHttpField;
+import org.eclipse.jetty.http.QuotedCSV;
+import org.eclipse.jetty.http.QuotedQualityCSV;
 import org.eclipse.jetty.http.pathmap.PathSpecSet;
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.Request;
@@ -33,7 +38,9 @@ import org.eclipse.jetty.util.AsciiLowerCaseSet;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.IncludeExclude;
 import org.eclipse.jetty.util.StringUtil;
+import org.eclipse.jetty.util.compression.Compression;
 import org.eclipse.jetty.util.compression.DeflaterPool;
+import org.eclipse.jetty.util.compression.GzipCompression;
 import org.eclipse.jetty.util.compression.InflaterPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,6 +65,12 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
     private final IncludeExclude<String> _paths = new IncludeExclude<>(PathSpecSet.class);
     private final IncludeExclude<String> _mimeTypes = new IncludeExclude<>(AsciiLowerCaseSet.class);
     private HttpField _vary = new PreEncodedHttpField(HttpHeader.VARY, HttpHeader.ACCEPT_ENCODING.asString());
+    private final List<Compression> _compressions = new ArrayList<>();
+    private final List<Compression> _defaultCompressions = new ArrayList<>();
+    private List<Encoding> _encodings = List.of();
+    private List<String> _preferredEncodings = List.of();
+    private List<CompressedContentFormat> _compressedContentFormats = List.of();
+    private Compression _gzipCompression;
 
     /**
      * Instantiates a new GzipHandler.
@@ -129,6 +142,29 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
             addBean(_deflaterPool);
         }
 
+        List<Compression> compressions = _compressions;
+        if (compressions.isEmpty())
+        {
+            // Prefer the discovered compressions, typically more efficient than gzip.
+            for (Compression compression : Compression.loadAll())
+            {
+                if (!GZIP.equals(compression.getEncoding()))
+                    _defaultCompressions.add(compression);
+            }
+            _defaultCompressions.add(new GzipCompression(_deflaterPool));
+            _defaultCompressions.forEach(compression -> addBean(compression, true));
+            compressions = _defaultCompressions;
+        }
+        _encodings = compressions.stream()
+            .map(compression -> new Encoding(compression, new CompressedContentFormat(compression.getEncoding(), compression.getExtension())))
+            .toList();
+        _preferredEncodings = compressions.stream().map(Compression::getEncoding).toList();
+        _compressedContentFormats = _encodings.stream().map(Encoding::format).toList();
+        _gzipCompression = compressions.stream()
+            .filter(compression -> GZIP.equals(compression.getEncoding()))
+            .findFirst()
+            .orElseGet(() -> new GzipCompression(_deflaterPool));
+
         super.doStart();
     }
 
@@ -142,6 +178,45 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
 
         removeBean(_deflaterPool);
         _deflaterPool = null;
+
+        _defaultCompressions.forEach(this::removeBean);
+        _defaultCompressions.clear();
+        _encodings = List.of();
+        _preferredEncodings = List.of();
+        _compressedContentFormats = List.of();
+        _gzipCompression = null;
+    }
+
+    /**
+     * <p>Get the compressions that can be negotiated with the {@code Accept-Encoding} request header,
+     * in order of preference.</p>
+     * <p>If no compression is configured, the {@link Compression}s discovered by
+     * {@link Compression#loadAll()}, such as {@code br} or {@code zstd}, are preferred,
+     * followed by {@code gzip}.</p>
+     *
+     * @return the compressions, in order of preference
+     */
+    public List<Compression> getCompressions()
+    {
+        return _compressions.isEmpty() ? List.copyOf(_defaultCompressions) : List.copyOf(_compressions);
+    }
+
+    /**
+     * <p>Set the compressions that can be negotiated with the {@code Accept-Encoding} request header,
+     * in order of preference.</p>
+     * <p>When the client accepts several content-codings with the same quality value,
+     * the first compression in this list is used.</p>
+     *
+     * @param compressions the compressions, in order of preference
+     */
+    public void setCompressions(List<Compression> compressions)
+    {
+        if (isStarted())
+            throw new IllegalStateException(getState());
+        _compressions.forEach(this::removeBean);
+        _compressions.clear();
+        _compressions.addAll(compressions);
+        _compressions.forEach(compression -> addBean(compression, true));
     }
 
     /**
@@ -410,6 +485,86 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
         return _deflaterPool.acquire();
     }
 
+    /**
+     * <p>Negotiates the compression of the response from the {@code Accept-Encoding} request header.</p>
+     * <p>Content-codings are selected by quality value and, for the same quality value,
+     * by the order of {@link #getCompressions()}.</p>
+     */
+    private Encoding negotiateEncoding(HttpField acceptEncoding)
+    {
+        List<Encoding> encodings = _encodings;
+        String value = acceptEncoding.getValue();
+        if (value.indexOf(';') < 0 && value.indexOf('*') < 0)
+        {
+            // Fast path: all the content-codings have the same quality.
+            for (Encoding encoding : encodings)
+            {
+                if (acceptEncoding.contains(encoding.compression().getEncoding()))
+                    return encoding;
+            }
+            return null;
+        }
+
+        QuotedQualityCSV values = new QuotedQualityCSV(_preferredEncodings);
+        values.addValue(value);
+        for (String coding : values)
+        {
+            if ("*".equals(coding))
+            {
+                // The wildcard matches any content-coding not explicitly listed.
+                List<String> listed = new QuotedCSV(value).getValues().stream()
+                    .map(v -> HttpField.getValueParameters(v, null))
+                    .toList();
+                for (Encoding encoding : encodings)
+                {
+                    String name = encoding.compression().getEncoding();
+                    if (listed.stream().noneMatch(name::equalsIgnoreCase))
+                        return encoding;
+                }
+                continue;
+            }
+
+            for (Encoding encoding : encodings)
+            {
+                if (encoding.compression().getEncoding().equalsIgnoreCase(coding))
+                    return encoding;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * <p>Get an {@link Compression.Encoder} to compress a response.</p>
+     *
+     * @param request the request
+     * @param compression the negotiated compression
+     * @param contentLength the response content length, or -1 if unknown
+     * @return an encoder, or {@code null} if the response must not be compressed
+     */
+    public Compression.Encoder getEncoder(Request request, Compression compression, long contentLength)
+    {
+        if (contentLength >= 0 && contentLength < _minGzipSize)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("{} excluded minGzipSize {}", this, request);
+            return null;
+        }
+        return compression.newEncoder(_syncFlush);
+    }
+
+    List<CompressedContentFormat> getCompressedContentFormats()
+    {
+        return _compressedContentFormats;
+    }
+
+    /**
+     * @return the {@code gzip} compression shared by the responses, or {@code null} if not started
+     */
+    Compression getGzipCompression()
+    {
+        return _gzipCompression;
+    }
+
     /**
      * Get the current filter list of excluded HTTP methods
      *
@@ -565,7 +720,7 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
         // Look for inflate and deflate headers
         HttpFields fields = request.getHeaders();
         boolean inflatable = false;
-        boolean deflatable = false;
+        HttpField acceptEncoding = null;
         boolean etagMatches = false;
         boolean seenContentEncoding = false;
         for (ListIterator<HttpField> i = fields.listIterator(fields.size()); i.hasPrevious();)
@@ -581,7 +736,8 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
                     inflatable |= !seenContentEncoding && field.containsLast("gzip");
                     seenContentEncoding = true;
                 }
-                case ACCEPT_ENCODING -> deflatable = field.contains("gzip");
+                case ACCEPT_ENCODING -> acceptEncoding = acceptEncoding == null ? field
+                    : new HttpField(HttpHeader.ACCEPT_ENCODING, field.getValue() + ", " + acceptEncoding.getValue());
                 case IF_MATCH, IF_NONE_MATCH -> etagMatches |= field.getValue().contains(EtagUtils.ETAG_SEPARATOR);
             }
         }
@@ -590,7 +746,7 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
         if (inflatable && tryInflate || etagMatches)
         {
             // Wrap the request to update the fields and do any inflation
-            request = new GzipRequest(request, inflatable && tryInflate ? getInflateBufferSize() : -1);
+            request = new GzipRequest(request, inflatable && tryInflate ? getInflateBufferSize() : -1, getCompressedContentFormats());
         }
 
         if (tryDeflate && _vary != null)
@@ -600,9 +756,10 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
         }
 
         // Wrap the response and callback IFF we can be deflated and will try to deflate
-        if (deflatable && tryDeflate)
+        Encoding encoding = tryDeflate && acceptEncoding != null ? negotiateEncoding(acceptEncoding) : null;
+        if (encoding != null)
         {
-            GzipResponseAndCallback gzipResponseAndCallback = new GzipResponseAndCallback(this, request, response, callback);
+            GzipResponseAndCallback gzipResponseAndCallback = new GzipResponseAndCallback(this, encoding.compression(), encoding.format(), request, response, callback);
             response = gzipResponseAndCallback;
             callback = gzipResponseAndCallback;
         }
@@ -908,4 +1065,8 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
     {
         return String.format("%s@%x{%s,min=%s,inflate=%s}", getClass().getSimpleName(), hashCode(), getState(), _minGzipSize, _inflateBufferSize);
     }
+
+    private record Encoding(Compression compression, CompressedContentFormat format)
+    {
+    }
 }
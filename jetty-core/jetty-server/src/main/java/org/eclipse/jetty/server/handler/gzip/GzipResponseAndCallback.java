@@ -14,12 +14,10 @@
 package org.eclipse.jetty.server.handler.gzip;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.channels.WritePendingException;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.zip.CRC32;
-import java.util.zip.Deflater;
 
+import org.eclipse.jetty.http.CompressedContentFormat;
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.http.HttpHeader;
@@ -30,24 +28,17 @@ import org.eclipse.jetty.server.Response;
 import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.IteratingNestedCallback;
-import org.eclipse.jetty.util.compression.DeflaterPool;
+import org.eclipse.jetty.util.compression.Compression;
+import org.eclipse.jetty.util.compression.GzipCompression;
 import org.eclipse.jetty.util.thread.Invocable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static org.eclipse.jetty.http.CompressedContentFormat.GZIP;
-
 public class GzipResponseAndCallback extends Response.Wrapper implements Callback, Invocable
 {
     private static final Logger LOG = LoggerFactory.getLogger(GzipResponseAndCallback.class);
-
-    // Per RFC-1952 this is the "unknown" OS value byte.
-    private static final byte OS_UNKNOWN = (byte)0xFF;
-    private static final byte[] GZIP_HEADER = new byte[]{
-        (byte)0x1f, (byte)0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, OS_UNKNOWN
-    };
-    // Per RFC-1952, the GZIP trailer is 8 bytes
-    private static final int GZIP_TRAILER_SIZE = 8;
+    // Large enough for the GZIP header and trailer, see RFC-1952.
+    private static final int MIN_BUFFER_SIZE = 18;
 
     private enum GZState
     {
@@ -59,29 +50,49 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
         COMMITTING,
         // The response is compressing its body content
         COMPRESSING,
-        // The last content has is being compressed and deflater is being flushed
+        // The last content has is being compressed and encoder is being flushed
         FINISHING,
         // The content has finished compressing and trailers have been sent (this is a final state)
         FINISHED
     }
 
     private final AtomicReference<GZState> _state = new AtomicReference<>(GZState.MIGHT_COMPRESS);
-    private final CRC32 _crc = new CRC32();
     private final Callback _callback;
-    private final GzipFactory _factory;
+    private final GzipHandler _handler;
+    private final Compression _compression;
+    private final CompressedContentFormat _format;
     private final int _bufferSize;
-    private final boolean _syncFlush;
-    private DeflaterPool.Entry _deflaterEntry;
+    private Compression.Encoder _encoder;
     private RetainableByteBuffer _buffer;
     private boolean _last;
 
     public GzipResponseAndCallback(GzipHandler handler, Request request, Response response, Callback callback)
+    {
+        this(handler, gzipCompression(handler), CompressedContentFormat.GZIP, request, response, callback);
+    }
+
+    private static Compression gzipCompression(GzipHandler handler)
+    {
+        Compression compression = handler.getGzipCompression();
+        return compression != null ? compression : new GzipCompression(handler.getDeflaterPool());
+    }
+
+    /**
+     * @param handler the handler that negotiated the compression
+     * @param compression the compression of the response content
+     * @param format the format of the compressed content, used for the response headers
+     * @param request the request
+     * @param response the response to wrap
+     * @param callback the callback to wrap
+     */
+    public GzipResponseAndCallback(GzipHandler handler, Compression compression, CompressedContentFormat format, Request request, Response response, Callback callback)
     {
         super(request, response);
         _callback = callback;
-        _factory = handler;
-        _bufferSize = Math.max(GZIP_HEADER.length + GZIP_TRAILER_SIZE, request.getConnectionMetaData().getHttpConfiguration().getOutputBufferSize());
-        _syncFlush = handler.isSyncFlush();
+        _handler = handler;
+        _compression = compression;
+        _format = format;
+        _bufferSize = Math.max(MIN_BUFFER_SIZE, request.getConnectionMetaData().getHttpConfiguration().getOutputBufferSize());
     }
 
     @Override
@@ -143,14 +154,6 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
         }
     }
 
-    private void addTrailer(ByteBuffer outputBuffer)
-    {
-        if (LOG.isDebugEnabled())
-            LOG.debug("addTrailer: _crc={}, _totalIn={})", _crc.getValue(), _deflaterEntry.get().getTotalIn());
-        outputBuffer.putInt((int)_crc.getValue());
-        outputBuffer.putInt(_deflaterEntry.get().getTotalIn());
-    }
-
     private void gzip(boolean complete, final Callback callback, ByteBuffer content)
     {
         if (content != null || complete)
@@ -197,7 +200,7 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
         if (ct != null)
         {
             String baseType = HttpField.getValueParameters(ct, null);
-            if (!_factory.isMimeTypeDeflatable(baseType))
+            if (!_handler.isMimeTypeDeflatable(baseType))
             {
                 if (LOG.isDebugEnabled())
                     LOG.debug("{} exclude by mimeType {}", this, ct);
@@ -235,18 +238,17 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
             if (contentLength < 0 && last)
                 contentLength = BufferUtil.length(content);
 
-            _deflaterEntry = _factory.getDeflaterEntry(request, contentLength);
-            if (_deflaterEntry == null)
+            _encoder = _handler.getEncoder(request, _compression, contentLength);
+            if (_encoder == null)
             {
                 if (LOG.isDebugEnabled())
-                    LOG.debug("{} exclude no deflater", this);
+                    LOG.debug("{} exclude no encoder", this);
                 _state.set(GZState.NOT_COMPRESSING);
                 super.write(last, content, callback);
                 return;
             }
 
-            fields.put(GZIP.getContentEncoding());
-            _crc.reset();
+            fields.put(_format.getContentEncoding());
 
             // Adjust headers
             fields.remove(HttpHeader.CONTENT_LENGTH);
@@ -255,7 +257,7 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
                 fields.put(HttpHeader.ETAG, etagGzip(etag));
 
             if (LOG.isDebugEnabled())
-                LOG.debug("{} compressing {}", this, _deflaterEntry);
+                LOG.debug("{} compressing {}", this, _encoder);
             _state.set(GZState.COMPRESSING);
 
             if (BufferUtil.isEmpty(content))
@@ -276,7 +278,7 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
 
     private String etagGzip(String etag)
     {
-        return GZIP.etag(etag);
+        return _format.etag(etag);
     }
 
     public void noCompression()
@@ -311,11 +313,7 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
             _last = complete;
 
             if (_content != null)
-            {
-                _crc.update(_content.slice());
-                Deflater deflater = _deflaterEntry.get();
-                deflater.setInput(_content);
-            }
+                _encoder.setInput(_content);
 
             if (LOG.isDebugEnabled())
                 LOG.debug("GzipBufferCB(complete={}, callback={}, content={})", complete, callback, BufferUtil.toDetailString(content));
@@ -346,40 +344,27 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
                 return Action.SUCCEEDED;
             }
 
-            // If we have no buffer
+            // If we have no buffer, acquire one, otherwise clear it as previous writes will always fully consume.
             if (_buffer == null)
-            {
                 _buffer = getRequest().getComponents().getByteBufferPool().acquire(_bufferSize, false);
-                ByteBuffer byteBuffer = _buffer.getByteBuffer();
-                // Per RFC-1952, GZIP is LITTLE_ENDIAN
-                byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
-                BufferUtil.flipToFill(byteBuffer);
-                // Add GZIP Header
-                byteBuffer.put(GZIP_HEADER, 0, GZIP_HEADER.length);
-            }
-            else
-            {
-                // otherwise clear the buffer as previous writes will always fully consume.
-                BufferUtil.clearToFill(_buffer.getByteBuffer());
-            }
-
-            Deflater deflater = _deflaterEntry.get();
+            ByteBuffer outputBuffer = _buffer.getByteBuffer();
+            BufferUtil.clearToFill(outputBuffer);
 
             return switch (gzstate)
             {
-                case COMPRESSING -> compressing(deflater, _buffer.getByteBuffer());
-                case FINISHING -> finishing(deflater, _buffer.getByteBuffer());
+                case COMPRESSING -> compressing(outputBuffer);
+                case FINISHING -> finishing(outputBuffer);
                 default -> throw new IllegalStateException("Unexpected state [" + _state.get() + "]");
             };
         }
 
         private void cleanup()
         {
-            if (_deflaterEntry != null)
+            if (_encoder != null)
             {
                 _state.set(GZState.FINISHED);
-                _deflaterEntry.release();
-                _deflaterEntry = null;
+                _encoder.close();
+                _encoder = null;
             }
 
             if (_buffer != null)
@@ -389,95 +374,66 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
             }
         }
 
-        private int getFlushMode()
-        {
-            return _syncFlush ? Deflater.SYNC_FLUSH : Deflater.NO_FLUSH;
-        }
-
         /**
          * This method is called directly from {@link #process()} to perform the compressing of
          * the content this {@link GzipBufferCB} represents.
          */
-        private Action compressing(Deflater deflater, ByteBuffer outputBuffer)
+        private Action compressing(ByteBuffer outputBuffer)
         {
             if (LOG.isDebugEnabled())
-                LOG.debug("compressing() deflater={}, outputBuffer={}", deflater, BufferUtil.toDetailString(outputBuffer));
-
-            if (!deflater.finished())
-            {
-                if (!deflater.needsInput())
-                {
-                    int len = deflater.deflate(outputBuffer, getFlushMode());
-                    if (len > 0)
-                    {
-                        BufferUtil.flipToFlush(outputBuffer, 0);
-                        write(false, outputBuffer);
-                        return Action.SCHEDULED;
-                    }
-                }
-            }
+                LOG.debug("compressing() encoder={}, outputBuffer={}", _encoder, BufferUtil.toDetailString(outputBuffer));
 
             if (_last)
             {
+                // Finish immediately to possibly produce a single write (header + compressed content + trailer).
                 _state.set(GZState.FINISHING);
-                deflater.finish();
-                return finishing(deflater, outputBuffer);
+                _encoder.finish();
+                return finishing(outputBuffer);
             }
 
-            BufferUtil.flipToFlush(outputBuffer, 0);
-            if (outputBuffer.hasRemaining())
+            if (_encoder.encode(outputBuffer) > 0)
             {
+                BufferUtil.flipToFlush(outputBuffer, 0);
                 write(false, outputBuffer);
                 return Action.SCHEDULED;
             }
 
-            // the content held by GzipBufferCB is fully consumed as input to the Deflater instance, we are done
-            if (BufferUtil.isEmpty(_content))
+            // the content held by GzipBufferCB is fully consumed as input to the encoder, we are done
+            if (_encoder.needsInput())
                 return Action.SUCCEEDED;
 
-            // No progress made on deflate, but the _content wasn't consumed, we shouldn't be able to reach this.
-            throw new AssertionError("No progress on deflate made for " + this);
+            // No progress made on encode, but the _content wasn't consumed, we shouldn't be able to reach this.
+            throw new AssertionError("No progress on encode made for " + this);
         }
 
         /**
-         * This method is called by {@link #compressing(Deflater, ByteBuffer)}, once the last chunk is compressed;
+         * This method is called by {@link #compressing(ByteBuffer)}, once the last chunk is compressed;
          * or directly from {@link #process()} if an earlier call to this method was unable to complete.
          */
-        private Action finishing(Deflater deflater, ByteBuffer outputBuffer)
+        private Action finishing(ByteBuffer outputBuffer)
         {
             if (LOG.isDebugEnabled())
-                LOG.debug("finishing() deflater={}, outputBuffer={}", deflater, BufferUtil.toDetailString(outputBuffer));
-            if (!deflater.finished())
-            {
-                int len = deflater.deflate(outputBuffer, getFlushMode());
-                // try to preserve single write if possible (header + compressed content + trailer)
-                if (deflater.finished() && outputBuffer.remaining() >= GZIP_TRAILER_SIZE)
-                {
-                    _state.set(GZState.FINISHED);
-                    addTrailer(outputBuffer);
-                    BufferUtil.flipToFlush(outputBuffer, 0);
-                    write(true, outputBuffer);
-                    return Action.SCHEDULED;
-                }
-
-                if (len > 0)
-                {
-                    BufferUtil.flipToFlush(outputBuffer, 0);
-                    write(false, outputBuffer);
-                    return Action.SCHEDULED;
-                }
+                LOG.debug("finishing() encoder={}, outputBuffer={}", _encoder, BufferUtil.toDetailString(outputBuffer));
 
-                // No progress made on deflate, deflater not finished, we shouldn't be able to reach this.
-                throw new AssertionError("No progress on deflate made for " + this);
-            }
-            else
+            int len = _encoder.encode(outputBuffer);
+            // try to preserve single write if possible (header + compressed content + trailer)
+            if (_encoder.isFinished())
             {
                 _state.set(GZState.FINISHED);
-                addTrailer(outputBuffer);
                 BufferUtil.flipToFlush(outputBuffer, 0);
                 write(true, outputBuffer);
                 return Action.SCHEDULED;
             }
+
+            if (len > 0)
+            {
+                BufferUtil.flipToFlush(outputBuffer, 0);
+                write(false, outputBuffer);
+                return Action.SCHEDULED;
+            }
+
+            // No progress made on encode, encoder not finished, we shouldn't be able to reach this.
+            throw new AssertionError("No progress on encode made for " + this);
         }
 
         private void write(boolean last, ByteBuffer outputBuffer)
@@ -490,12 +446,12 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
         @Override
         public String toString()
         {
-            return String.format("%s[content=%s last=%b buffer=%s deflate=%s %s]",
+            return String.format("%s[content=%s last=%b buffer=%s encoder=%s %s]",
                 super.toString(),
                 BufferUtil.toDetailString(_content),
                 _last,
                 _buffer,
-                _deflaterEntry,
+                _encoder,
                 _state.get());
         }
     }
@@ -15,6 +15,7 @@ package org.eclipse.jetty.server.internal;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.WritePendingException;
 import java.util.ArrayList;
 import java.util.List;
@@ -1252,8 +1253,39 @@ public class HttpChannelState implements HttpChannel, Components
         @Override
         public void write(boolean last, ByteBuffer content, Callback callback)
         {
-            long length = BufferUtil.length(content);
+            write(last, content, null, 0, BufferUtil.length(content), callback);
+        }
+
+        /**
+         * @return whether the stream of this response supports zero-copy transfers of file regions
+         * @see #transferFrom(boolean, FileChannel, long, long, Callback)
+         */
+        public boolean isTransferFromSupported()
+        {
+            HttpStream stream = _request.getHttpStream();
+            return stream != null && stream.isTransferFromSupported();
+        }
 
+        /**
+         * <p>Writes a region of the given file as content, with the same semantic of
+         * {@link #write(boolean, ByteBuffer, Callback)}, but transferring the file bytes
+         * without copying them through buffers.</p>
+         * <p>The response must have a known content length.</p>
+         *
+         * @param last whether the file region is the last content
+         * @param file the file to transfer bytes from
+         * @param position the file position of the first byte to transfer
+         * @param length the number of bytes to transfer
+         * @param callback the callback to notify when the write is complete
+         * @see #isTransferFromSupported()
+         */
+        public void transferFrom(boolean last, FileChannel file, long position, long length, Callback callback)
+        {
+            write(last, null, Objects.requireNonNull(file), position, length, callback);
+        }
+
+        private void write(boolean last, ByteBuffer content, FileChannel file, long position, long length, Callback callback)
+        {
             HttpChannelState httpChannelState;
             HttpStream stream;
             Throwable writeFailure;
@@ -1271,7 +1303,7 @@ public class HttpChannelState implements HttpChannel, Components
                         if (_writeCallback instanceof InterimCallback interimCallback)
                         {
                             // Do this write after the interim callback.
-                            interimCallback.whenComplete((v, t) -> write(last, content, callback));
+                            interimCallback.whenComplete((v, t) -> write(last, content, file, position, length, callback));
                             return;
                         }
                         writeFailure = new WritePendingException();
@@ -1326,9 +1358,18 @@ public class HttpChannelState implements HttpChannel, Components
                     responseMetaData = lockedPrepareResponse(httpChannelState, last);
             }
 
-            if (LOG.isDebugEnabled())
-                LOG.debug("writing last={} {} {}", last, BufferUtil.toDetailString(content), this);
-            stream.send(_request._metaData, responseMetaData, last, content, this);
+            if (file == null)
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("writing last={} {} {}", last, BufferUtil.toDetailString(content), this);
+                stream.send(_request._metaData, responseMetaData, last, content, this);
+            }
+            else
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("transferring last={} {}@{}+{} {}", last, file, position, length, this);
+                stream.transferFrom(_request._metaData, responseMetaData, last, file, position, length, this);
+            }
         }
 
         /**
@@ -15,6 +15,7 @@ package org.eclipse.jetty.server.internal;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.WritePendingException;
 import java.util.List;
 import java.util.Objects;
@@ -51,6 +52,7 @@ import org.eclipse.jetty.io.Connection;
 import org.eclipse.jetty.io.Content;
 import org.eclipse.jetty.io.EndPoint;
 import org.eclipse.jetty.io.EofException;
+import org.eclipse.jetty.io.IOResources;
 import org.eclipse.jetty.io.RetainableByteBuffer;
 import org.eclipse.jetty.io.RuntimeIOException;
 import org.eclipse.jetty.io.ssl.SslConnection;
@@ -712,6 +714,9 @@ public class HttpConnection extends AbstractMetaDataConnection implements Runnab
         private MetaData.Response _info;
         private boolean _head;
         private ByteBuffer _content;
+        private FileChannel _file;
+        private long _filePosition;
+        private long _fileLength;
         private boolean _lastContent;
         private Callback _callback;
         private RetainableByteBuffer _header;
@@ -730,12 +735,20 @@ public class HttpConnection extends AbstractMetaDataConnection implements Runnab
         }
 
         private boolean reset(MetaData.Request request, MetaData.Response response, ByteBuffer content, boolean last, Callback callback)
+        {
+            return reset(request, response, content, null, 0, 0, last, callback);
+        }
+
+        private boolean reset(MetaData.Request request, MetaData.Response response, ByteBuffer content, FileChannel file, long filePosition, long fileLength, boolean last, Callback callback)
         {
             if (reset())
             {
                 _info = response;
                 _head = request != null && HttpMethod.HEAD.is(request.getMethod());
                 _content = content;
+                _file = file;
+                _filePosition = filePosition;
+                _fileLength = fileLength;
                 _lastContent = last;
                 _callback = callback;
                 _header = null;
@@ -764,9 +777,22 @@ public class HttpConnection extends AbstractMetaDataConnection implements Runnab
             boolean useDirectByteBuffers = isUseOutputDirectByteBuffers();
             while (true)
             {
+                // Once the headers have been generated and flushed, transfer the file region, if any.
+                if (_file != null && _generator.isCommitted())
+                {
+                    FileChannel file = _file;
+                    _file = null;
+                    if (!_head && !_generator.isNoContent() && _fileLength > 0)
+                    {
+                        HttpConnection.this.bytesOut.add(_fileLength);
+                        getEndPoint().transferFrom(this, file, _filePosition, _fileLength);
+                        return Action.SCHEDULED;
+                    }
+                }
+
                 ByteBuffer headerByteBuffer = _header == null ? null : _header.getByteBuffer();
                 ByteBuffer chunkByteBuffer = _chunk == null ? null : _chunk.getByteBuffer();
-                HttpGenerator.Result result = _generator.generateResponse(_info, _head, headerByteBuffer, chunkByteBuffer, _content, _lastContent);
+                HttpGenerator.Result result = _generator.generateResponse(_info, _head, headerByteBuffer, chunkByteBuffer, _content, _lastContent && _file == null);
                 if (LOG.isDebugEnabled())
                     LOG.debug("generate: {} for {} ({},{},{})@{}",
                         result,
@@ -907,6 +933,7 @@ public class HttpConnection extends AbstractMetaDataConnection implements Runnab
             _callback = null;
             _info = null;
             _content = null;
+            _file = null;
             releaseHeader();
             releaseChunk();
             return complete;
@@ -1448,6 +1475,44 @@ public class HttpConnection extends AbstractMetaDataConnection implements Runnab
                 _sendCallback.iterate();
         }
 
+        @Override
+        public boolean isTransferFromSupported()
+        {
+            return getEndPoint().isTransferFromSupported();
+        }
+
+        @Override
+        public void transferFrom(MetaData.Request request, MetaData.Response response, boolean last, FileChannel file, long position, long length, Callback callback)
+        {
+            boolean chunked = response == null ? _generator.isChunking() : response.getContentLength() < 0 || response.getTrailersSupplier() != null;
+            if (chunked)
+            {
+                // The file bytes cannot be transferred as they are within chunks, copy them.
+                Content.Sink sink = HttpStream.asSink(this, request, response, last);
+                IOResources.copy(file, sink, _bufferPool, getHttpConfiguration().getOutputBufferSize(), isUseOutputDirectByteBuffers(), position, length, callback);
+                return;
+            }
+
+            if (response != null)
+            {
+                if (_generator.isCommitted())
+                {
+                    callback.failed(new IllegalStateException("Committed"));
+                    return;
+                }
+                if (_expects100Continue)
+                {
+                    // Expecting to send a 100 Continue response, but it's a content response,
+                    // then cannot be persistent because likely the client did not send the content.
+                    _expects100Continue = false;
+                    _generator.setPersistent(false);
+                }
+            }
+
+            if (_sendCallback.reset(_request, response, null, file, position, length, last, callback))
+                _sendCallback.iterate();
+        }
+
         @Override
         public long getIdleTimeout()
         {
@@ -0,0 +1,250 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDir;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDirExtension;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(WorkDirExtension.class)
+public class AsyncRequestLogWriterTest
+{
+    public WorkDir workDir;
+    private AsyncRequestLogWriter writer;
+
+    @AfterEach
+    public void dispose()
+    {
+        LifeCycle.stop(writer);
+    }
+
+    @Test
+    public void testConcurrentWrites() throws Exception
+    {
+        Path file = workDir.getEmptyPathDir().resolve("request.log");
+        writer = new AsyncRequestLogWriter(file.toString());
+        writer.setQueueSize(64 * 1024);
+        writer.setBatchSize(1024);
+        writer.start();
+
+        int threads = 8;
+        int entries = 5000;
+        IntStream.range(0, threads).parallel().forEach(t ->
+        {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < entries; ++i)
+            {
+                builder.setLength(0);
+                builder.append("entry ").append(t).append('-').append(i);
+                try
+                {
+                    writer.write(builder);
+                }
+                catch (IOException x)
+                {
+                    throw new RuntimeException(x);
+                }
+            }
+        });
+        writer.stop();
+
+        assertEquals(0, writer.getDroppedEntries());
+        List<String> lines = Files.readAllLines(file, Charset.defaultCharset());
+        assertThat(lines.size(), is(threads * entries));
+        Set<String> unique = new HashSet<>(lines);
+        assertThat(unique.size(), is(threads * entries));
+        assertTrue(unique.contains("entry 7-4999"));
+    }
+
+    @Test
+    public void testEncoding() throws Exception
+    {
+        Path file = workDir.getEmptyPathDir().resolve("request.log");
+        writer = new AsyncRequestLogWriter(file.toString());
+        writer.setFlushInterval(60_000);
+        writer.start();
+
+        String entry = "GET /café/€/😀 200";
+        writer.write(entry);
+        // An entry larger than the batch size.
+        String large = "x".repeat(100 * 1024);
+        writer.write(large);
+        writer.stop();
+
+        // Entries are encoded with the platform default charset, like RequestLogWriter does.
+        Charset charset = Charset.defaultCharset();
+        String expected = new String(entry.getBytes(charset), charset);
+        assertThat(Files.readAllLines(file, charset), contains(expected, large));
+    }
+
+    @Test
+    public void testQueueFullDropsEntries() throws Exception
+    {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        List<String> written = new CopyOnWriteArrayList<>();
+        writer = new AsyncRequestLogWriter()
+        {
+            @Override
+            protected void write(byte[] bytes, int offset, int length) throws IOException
+            {
+                written.add(new String(bytes, offset, length, Charset.defaultCharset()));
+                blocked.countDown();
+                try
+                {
+                    unblock.await();
+                }
+                catch (InterruptedException x)
+                {
+                    throw new IOException(x);
+                }
+            }
+        };
+        writer.setQueueSize(3);
+        assertEquals(4, writer.getQueueSize());
+        writer.start();
+
+        // Block the writer thread with the first entry.
+        writer.write("first");
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 6; ++i)
+        {
+            writer.write("entry" + i);
+        }
+        assertEquals(2, writer.getDroppedEntries());
+
+        unblock.countDown();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> String.join("", written).lines().count(), is(5L));
+    }
+
+    @Test
+    public void testQueueSizeBounds()
+    {
+        writer = new AsyncRequestLogWriter();
+        writer.setQueueSize(1);
+        assertEquals(1, writer.getQueueSize());
+        writer.setQueueSize((1 << 30) + 1);
+        assertEquals(1 << 30, writer.getQueueSize());
+        writer.setQueueSize(Integer.MAX_VALUE);
+        assertEquals(1 << 30, writer.getQueueSize());
+    }
+
+    @Test
+    public void testStopWritesClaimedEntries() throws Exception
+    {
+        Path file = workDir.getEmptyPathDir().resolve("request.log");
+        writer = new AsyncRequestLogWriter(file.toString());
+        writer.start();
+
+        // An entry that blocks while being encoded, after its slot has been claimed.
+        CountDownLatch encoding = new CountDownLatch(1);
+        CountDownLatch encode = new CountDownLatch(1);
+        String entry = "slow entry";
+        CharSequence slow = new CharSequence()
+        {
+            @Override
+            public int length()
+            {
+                // Called when encoding to UTF-8.
+                block();
+                return entry.length();
+            }
+
+            @Override
+            public char charAt(int index)
+            {
+                return entry.charAt(index);
+            }
+
+            @Override
+            public CharSequence subSequence(int start, int end)
+            {
+                return entry.subSequence(start, end);
+            }
+
+            @Override
+            public String toString()
+            {
+                // Called when encoding to other charsets.
+                block();
+                return entry;
+            }
+
+            private void block()
+            {
+                encoding.countDown();
+                try
+                {
+                    encode.await();
+                }
+                catch (InterruptedException x)
+                {
+                    throw new RuntimeException(x);
+                }
+            }
+        };
+        Thread logger = new Thread(() ->
+        {
+            try
+            {
+                writer.write(slow);
+            }
+            catch (IOException x)
+            {
+                throw new RuntimeException(x);
+            }
+        });
+        logger.start();
+        assertTrue(encoding.await(5, TimeUnit.SECONDS));
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        new Thread(() ->
+        {
+            LifeCycle.stop(writer);
+            stopped.countDown();
+        }).start();
+
+        // The stop waits for the claimed entry to be published.
+        assertFalse(stopped.await(500, TimeUnit.MILLISECONDS));
+        encode.countDown();
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        logger.join(5000);
+
+        assertThat(Files.readAllLines(file, Charset.defaultCharset()), contains(entry));
+    }
+}
@@ -528,6 +528,32 @@ public class CustomRequestLogTest
         assertThat(log, is("RequestFirstLine: GET /path?query HTTP/1.0"));
     }
 
+    @Test
+    public void testLogEscapedQueryAndTime() throws Exception
+    {
+        AtomicLong requestTimeRef = new AtomicLong();
+        start("%r %q %{EEE, dd MMM yyyy|GMT|en}t %{user-agent}i", new SimpleHandler()
+        {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback)
+            {
+                requestTimeRef.set(Request.getTimeStamp(request));
+                callback.succeeded();
+                return true;
+            }
+        });
+
+        HttpTester.Response response = getResponse("""
+            GET /path?a=1,2 HTTP/1.0
+            User-Agent: agent
+
+            """);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        String log = _logs.poll(5, TimeUnit.SECONDS);
+        DateCache dateCache = new DateCache("EEE, dd MMM yyyy", Locale.forLanguageTag("en"), "GMT");
+        assertThat(log, is("GET \"/path?a=1,2\" HTTP/1.0 \"?a=1,2\" [\"" + dateCache.format(requestTimeRef.get()) + "\"] agent"));
+    }
+
     @Test
     public void testLogResponseStatus() throws Exception
     {
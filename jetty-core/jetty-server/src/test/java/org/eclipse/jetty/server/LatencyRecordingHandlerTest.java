@@ -29,9 +29,12 @@ import org.junit.jupiter.api.Test;
 import org.slf4j.LoggerFactory;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class LatencyRecordingHandlerTest
 {
@@ -39,6 +42,7 @@ public class LatencyRecordingHandlerTest
     private Server _server;
     private LocalConnector _local;
     private final List<Long> _latencies = new CopyOnWriteArrayList<>();
+    private LatencyRecordingHandler _latencyRecordingHandler;
 
     @BeforeEach
     public void setUp() throws Exception
@@ -60,7 +64,7 @@ public class LatencyRecordingHandlerTest
                 return true;
             }
         };
-        LatencyRecordingHandler latencyRecordingHandler = new LatencyRecordingHandler()
+        _latencyRecordingHandler = new LatencyRecordingHandler()
         {
             @Override
             protected void onRequestComplete(String requestId, long durationInNs)
@@ -68,10 +72,10 @@ public class LatencyRecordingHandlerTest
                 _latencies.add(durationInNs);
             }
         };
-        latencyRecordingHandler.setHandler(handler);
+        _latencyRecordingHandler.setHandler(handler);
 
         ContextHandler contextHandler = new ContextHandler("/ctx");
-        contextHandler.setHandler(latencyRecordingHandler);
+        contextHandler.setHandler(_latencyRecordingHandler);
 
         _server.setHandler(contextHandler);
         _server.start();
@@ -105,6 +109,11 @@ public class LatencyRecordingHandlerTest
         {
             assertThat(latency, greaterThan(0L));
         }
+
+        assertThat(_latencyRecordingHandler.getLatencyHistogram().getCount(), is(100L));
+        long max = _latencies.stream().mapToLong(Long::longValue).max().orElseThrow();
+        assertThat(_latencyRecordingHandler.getLatencyP999(), allOf(greaterThanOrEqualTo(max), lessThanOrEqualTo(max + max / 32)));
+        assertThat(_latencyRecordingHandler.getLatencyP50(), allOf(greaterThan(0L), lessThanOrEqualTo(_latencyRecordingHandler.getLatencyP99())));
     }
 
     @Test
@@ -30,6 +30,8 @@ import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.jetty.http.HttpHeader;
@@ -47,6 +49,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledOnOs;
 import org.junit.jupiter.api.condition.OS;
 
+import static org.awaitility.Awaitility.await;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.containsString;
@@ -268,6 +271,82 @@ public class ServerConnectorTest
         }
     }
 
+    @Test
+    @DisabledOnOs(value = OS.WINDOWS, disabledReason = "SO_REUSEPORT not available on windows")
+    public void testPartitionedReusePort() throws Exception
+    {
+        Server server = new Server();
+        try
+        {
+            ServerConnector connector = new ServerConnector(server, 0, 2);
+            connector.setReusePort(true);
+            connector.getSelectorManager().setPartitionThreads(4);
+            server.addConnector(connector);
+
+            server.setHandler(new Handler.Abstract()
+            {
+                @Override
+                public boolean handle(Request request, Response response, Callback callback)
+                {
+                    response.write(true, BufferUtil.toBuffer(Thread.currentThread().getName()), callback);
+                    return true;
+                }
+            });
+
+            server.start();
+
+            for (int i = 0; i < 8; ++i)
+            {
+                try (SocketChannel client = SocketChannel.open(new InetSocketAddress("localhost", connector.getLocalPort())))
+                {
+                    HttpTester.Request request = HttpTester.newRequest();
+                    request.put(HttpHeader.HOST, "localhost");
+                    client.write(request.generate());
+                    HttpTester.Response response = HttpTester.parseResponse(HttpTester.from(client));
+                    assertNotNull(response);
+                    assertEquals(HttpStatus.OK_200, response.getStatus());
+                    // The requests are handled by the partitions, not by the server thread pool.
+                    assertThat(response.getContent(), Matchers.startsWith("partition-"));
+                }
+            }
+        }
+        finally
+        {
+            server.stop();
+        }
+    }
+
+    @Test
+    @DisabledOnOs(value = OS.WINDOWS, disabledReason = "SO_REUSEPORT not available on windows")
+    public void testPartitionedReusePortClose() throws Exception
+    {
+        Server server = new Server();
+        try
+        {
+            ServerConnector connector = new ServerConnector(server, 0, 2);
+            connector.setReusePort(true);
+            connector.getSelectorManager().setPartitionThreads(4);
+            server.addConnector(connector);
+            server.start();
+
+            Field field = ServerConnector.class.getDeclaredField("_partitionChannels");
+            field.setAccessible(true);
+            @SuppressWarnings("unchecked")
+            List<ServerSocketChannel> partitionChannels = List.copyOf((List<ServerSocketChannel>)field.get(connector));
+            assertThat(partitionChannels.size(), is(connector.getSelectorManager().getSelectorCount() - 1));
+
+            connector.close();
+
+            // The partition channels are deregistered from, and closed by, their selectors.
+            await().atMost(5, TimeUnit.SECONDS).until(() -> partitionChannels.stream()
+                .noneMatch(channel -> channel.isOpen() || channel.isRegistered()));
+        }
+        finally
+        {
+            server.stop();
+        }
+    }
+
     @Test
     public void testAddFirstConnectionFactory()
     {
@@ -16,6 +16,8 @@ package org.eclipse.jetty.server.handler;
 import java.io.IOException;
 import java.net.Socket;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -30,17 +32,23 @@ import org.eclipse.jetty.server.Response;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDir;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDirExtension;
 import org.eclipse.jetty.util.StringUtil;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+@ExtendWith(WorkDirExtension.class)
 public class InetAccessHandlerTest
 {
+    public WorkDir workDir;
     private Server _server;
     private ServerConnector _connector1;
     private ServerConnector _connector2;
@@ -127,6 +135,29 @@ public class InetAccessHandlerTest
         testConnector(_connector2.getLocalPort(), path, include, exclude, includeConnectors, excludeConnectors, codePerConnector.get(1));
     }
 
+    @Test
+    public void testIncludeExcludeFiles() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        Path includeFile = dir.resolve("include.txt");
+        Files.writeString(includeFile, "# local\n127.0.0.0/8\n");
+        Path excludeFile = dir.resolve("exclude.txt");
+        Files.writeString(excludeFile, "");
+
+        _handler.setScanInterval(0);
+        _handler.setIncludeFile(includeFile.toString());
+        _handler.setExcludeFile(excludeFile.toString());
+        _server.start();
+
+        testConnector(_connector1.getLocalPort(), "", "", "", "", "", "200");
+
+        _server.stop();
+        Files.writeString(excludeFile, "127.0.0.1\n");
+        _server.start();
+
+        testConnector(_connector1.getLocalPort(), "", "", "", "", "", "403");
+    }
+
     private void testConnector(int port, String path, String include, String exclude, String includeConnectors, String excludeConnectors, String code) throws IOException
     {
         try (Socket socket = new Socket("127.0.0.1", port);)
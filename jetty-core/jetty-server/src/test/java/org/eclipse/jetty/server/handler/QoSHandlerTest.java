@@ -19,6 +19,7 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
@@ -45,6 +46,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import static org.awaitility.Awaitility.await;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -289,6 +291,148 @@ public class QoSHandlerTest
         assertEquals(HttpStatus.OK_200, response.getStatus());
     }
 
+    @Test
+    public void testPriorityAging() throws Exception
+    {
+        QoSHandler qosHandler = new QoSHandler()
+        {
+            @Override
+            protected int getPriority(Request request)
+            {
+                return (int)request.getHeaders().getLongField("Priority");
+            }
+        };
+        qosHandler.setMaxRequestCount(1);
+        qosHandler.setPriorityAging(Duration.ofMillis(100));
+        List<Callback> callbacks = new CopyOnWriteArrayList<>();
+        qosHandler.setHandler(new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback)
+            {
+                callbacks.add(callback);
+                return true;
+            }
+        });
+        start(qosHandler);
+
+        LocalConnector.LocalEndPoint endPoint0 = connector.executeRequest("""
+            GET /0 HTTP/1.1
+            Host: localhost
+
+            """);
+        await().atMost(5, TimeUnit.SECONDS).until(callbacks::size, is(1));
+
+        // A low priority request that waits long enough to be aged.
+        LocalConnector.LocalEndPoint endPoint1 = connector.executeRequest("""
+            GET /1 HTTP/1.1
+            Host: localhost
+            Priority: 0
+
+            """);
+        await().atMost(5, TimeUnit.SECONDS).until(qosHandler::getSuspendedRequestCount, is(1));
+        Thread.sleep(500);
+
+        LocalConnector.LocalEndPoint endPoint2 = connector.executeRequest("""
+            GET /2 HTTP/1.1
+            Host: localhost
+            Priority: 2
+
+            """);
+        await().atMost(5, TimeUnit.SECONDS).until(qosHandler::getSuspendedRequestCount, is(2));
+
+        callbacks.remove(0).succeeded();
+        assertEquals(HttpStatus.OK_200, HttpTester.parseResponse(endPoint0.getResponse(false, 5, TimeUnit.SECONDS)).getStatus());
+
+        // The aged low priority request is resumed first.
+        await().atMost(5, TimeUnit.SECONDS).until(callbacks::size, is(1));
+        assertNull(endPoint2.getResponse(false, 500, TimeUnit.MILLISECONDS));
+        callbacks.remove(0).succeeded();
+        assertEquals(HttpStatus.OK_200, HttpTester.parseResponse(endPoint1.getResponse(false, 5, TimeUnit.SECONDS)).getStatus());
+
+        await().atMost(5, TimeUnit.SECONDS).until(callbacks::size, is(1));
+        callbacks.remove(0).succeeded();
+        assertEquals(HttpStatus.OK_200, HttpTester.parseResponse(endPoint2.getResponse(false, 5, TimeUnit.SECONDS)).getStatus());
+    }
+
+    @Test
+    public void testConcurrentRequestsWithExpiration() throws Exception
+    {
+        int maxRequests = 2;
+        QoSHandler qosHandler = new QoSHandler()
+        {
+            @Override
+            protected int getPriority(Request request)
+            {
+                return Request.getPathInContext(request).hashCode() & 0xF;
+            }
+        };
+        qosHandler.setMaxRequestCount(maxRequests);
+        qosHandler.setMaxSuspendedRequestCount(16);
+        qosHandler.setMaxSuspend(Duration.ofMillis(50));
+        qosHandler.setHandler(new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback)
+            {
+                new Thread(() ->
+                {
+                    try
+                    {
+                        Thread.sleep(5);
+                        callback.succeeded();
+                    }
+                    catch (Throwable x)
+                    {
+                        callback.failed(x);
+                    }
+                }).start();
+                return true;
+            }
+        });
+        start(qosHandler);
+
+        int parallelism = 16;
+        int iterations = 32;
+        IntStream.range(0, parallelism).parallel().forEach(i ->
+            IntStream.range(0, iterations).forEach(j ->
+            {
+                try (LocalConnector.LocalEndPoint endPoint = connector.executeRequest("""
+                    GET /%d/%d HTTP/1.1
+                    Host: localhost
+
+                    """.formatted(i, j)))
+                {
+                    String text = endPoint.getResponse(false, 5, TimeUnit.SECONDS);
+                    HttpTester.Response response = HttpTester.parseResponse(text);
+                    assertThat(response.getStatus(), anyOf(is(HttpStatus.OK_200), is(HttpStatus.SERVICE_UNAVAILABLE_503)));
+                }
+                catch (Exception x)
+                {
+                    fail(x);
+                }
+            })
+        );
+
+        // All the permits must be available again.
+        await().atMost(5, TimeUnit.SECONDS).until(qosHandler::getSuspendedRequestCount, is(0));
+        List<LocalConnector.LocalEndPoint> endPoints = new ArrayList<>();
+        for (int i = 0; i < maxRequests; ++i)
+        {
+            endPoints.add(connector.executeRequest("""
+                GET /check/%d HTTP/1.1
+                Host: localhost
+
+                """.formatted(i)));
+        }
+        for (LocalConnector.LocalEndPoint endPoint : endPoints)
+        {
+            HttpTester.Response response = HttpTester.parseResponse(endPoint.getResponse(false, 5, TimeUnit.SECONDS));
+            assertEquals(HttpStatus.OK_200, response.getStatus());
+        }
+        assertThat(qosHandler.getSuspendedRequestCount(), is(0));
+    }
+
     @ParameterizedTest
     @ValueSource(booleans = {true, false})
     public void testConcurrentRequests(boolean async) throws Exception
@@ -0,0 +1,289 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.handler;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.eclipse.jetty.toolchain.test.FS;
+import org.eclipse.jetty.toolchain.test.MavenTestingUtils;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.IO;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.eclipse.jetty.util.resource.ResourceFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class ResourceHandlerFileTransferTest
+{
+    private static final int FILE_SIZE = 4 * 1024 * 1024 + 13;
+
+    private Server server;
+    private ServerConnector connector;
+    private ResourceHandler resourceHandler;
+    private byte[] fileBytes;
+
+    @BeforeEach
+    public void start() throws Exception
+    {
+        server = new Server();
+        connector = new ServerConnector(server, 1, 1);
+        server.addConnector(connector);
+
+        Path dir = MavenTestingUtils.getTargetTestingPath(ResourceHandlerFileTransferTest.class.getSimpleName());
+        FS.ensureEmpty(dir);
+        fileBytes = new byte[FILE_SIZE];
+        new Random().nextBytes(fileBytes);
+        Files.write(dir.resolve("big.bin"), fileBytes);
+        Files.writeString(dir.resolve("big.txt"), "0123456789".repeat(FILE_SIZE / 10));
+
+        resourceHandler = new ResourceHandler();
+        resourceHandler.setUseFileTransfer(true);
+        resourceHandler.setBaseResource(ResourceFactory.of(resourceHandler).newResource(dir));
+        server.setHandler(resourceHandler);
+        server.start();
+    }
+
+    @AfterEach
+    public void dispose()
+    {
+        LifeCycle.stop(server);
+    }
+
+    @Test
+    public void testFileTransferPersistentConnection() throws Exception
+    {
+        try (SocketChannel socket = SocketChannel.open(new InetSocketAddress("localhost", connector.getLocalPort())))
+        {
+            for (int i = 0; i < 2; ++i)
+            {
+                socket.write(BufferUtil.toBuffer("""
+                    GET /big.bin HTTP/1.1\r
+                    Host: local\r
+                    \r
+                    """));
+
+                HttpTester.Response response = HttpTester.parseResponse(HttpTester.from(socket));
+                assertNotNull(response);
+                assertEquals(HttpStatus.OK_200, response.getStatus());
+                assertEquals(String.valueOf(FILE_SIZE), response.get(HttpHeader.CONTENT_LENGTH));
+                assertArrayEquals(fileBytes, response.getContentBytes());
+            }
+        }
+    }
+
+    @Test
+    public void testFileTransferRange() throws Exception
+    {
+        try (SocketChannel socket = SocketChannel.open(new InetSocketAddress("localhost", connector.getLocalPort())))
+        {
+            socket.write(BufferUtil.toBuffer("""
+                GET /big.bin HTTP/1.1\r
+                Host: local\r
+                Range: bytes=1000-2000999\r
+                Connection: close\r
+                \r
+                """));
+
+            HttpTester.Response response = HttpTester.parseResponse(HttpTester.from(socket));
+            assertNotNull(response);
+            assertEquals(HttpStatus.PARTIAL_CONTENT_206, response.getStatus());
+            assertEquals("2000000", response.get(HttpHeader.CONTENT_LENGTH));
+            assertArrayEquals(Arrays.copyOfRange(fileBytes, 1000, 2001000), response.getContentBytes());
+        }
+    }
+
+    @Test
+    public void testFileTransferHead() throws Exception
+    {
+        try (SocketChannel socket = SocketChannel.open(new InetSocketAddress("localhost", connector.getLocalPort())))
+        {
+            for (String method : new String[]{"HEAD", "GET"})
+            {
+                socket.write(BufferUtil.toBuffer("""
+                    %s /big.bin HTTP/1.1\r
+                    Host: local\r
+                    \r
+                    """.formatted(method)));
+
+                HttpTester.Response response = HttpTester.parseResponse(HttpTester.from(socket), "HEAD".equals(method));
+                assertNotNull(response);
+                assertEquals(HttpStatus.OK_200, response.getStatus());
+                assertEquals(String.valueOf(FILE_SIZE), response.get(HttpHeader.CONTENT_LENGTH));
+                if ("GET".equals(method))
+                    assertArrayEquals(fileBytes, response.getContentBytes());
+            }
+        }
+    }
+
+    @Test
+    public void testFileTransferCompressedVariant() throws Exception
+    {
+        server.stop();
+        resourceHandler.setUseCompressedVariants(true);
+        server.start();
+
+        String request = """
+            GET /big.txt HTTP/1.1\r
+            Host: local\r
+            Accept-Encoding: gzip\r
+            \r
+            """;
+        try (SocketChannel socket = SocketChannel.open(new InetSocketAddress("localhost", connector.getLocalPort())))
+        {
+            // The variant is compressed in the background after the first requests.
+            await().atMost(5, TimeUnit.SECONDS).until(() ->
+            {
+                socket.write(BufferUtil.toBuffer(request));
+                HttpTester.Response response = HttpTester.parseResponse(HttpTester.from(socket));
+                assertNotNull(response);
+                assertEquals(HttpStatus.OK_200, response.getStatus());
+                return response.get(HttpHeader.CONTENT_ENCODING) != null;
+            });
+
+            socket.write(BufferUtil.toBuffer(request));
+            HttpTester.Response response = HttpTester.parseResponse(HttpTester.from(socket));
+            assertNotNull(response);
+            assertEquals(HttpStatus.OK_200, response.getStatus());
+            assertThat(response.get(HttpHeader.CONTENT_ENCODING), is("gzip"));
+            assertThat(response.get(HttpHeader.VARY), is("Accept-Encoding"));
+            byte[] compressed = response.getContentBytes();
+            assertThat(compressed.length, lessThan(FILE_SIZE));
+            assertEquals(String.valueOf(compressed.length), response.get(HttpHeader.CONTENT_LENGTH));
+            try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed)))
+            {
+                assertEquals("0123456789".repeat(FILE_SIZE / 10), new String(input.readAllBytes(), StandardCharsets.US_ASCII));
+            }
+        }
+    }
+
+    @Test
+    public void testNoFileTransferWithGzip() throws Exception
+    {
+        server.stop();
+        GzipHandler gzipHandler = new GzipHandler();
+        gzipHandler.setHandler(resourceHandler);
+        server.setHandler(gzipHandler);
+        server.start();
+
+        try (SocketChannel socket = SocketChannel.open(new InetSocketAddress("localhost", connector.getLocalPort())))
+        {
+            socket.write(BufferUtil.toBuffer("""
+                GET /big.txt HTTP/1.1\r
+                Host: local\r
+                Accept-Encoding: gzip\r
+                Connection: close\r
+                \r
+                """));
+
+            HttpTester.Response response = HttpTester.parseResponse(HttpTester.from(socket));
+            assertNotNull(response);
+            assertEquals(HttpStatus.OK_200, response.getStatus());
+            assertThat(response.get(HttpHeader.CONTENT_ENCODING), is("gzip"));
+            assertThat(response.getContentBytes().length, lessThan(FILE_SIZE));
+        }
+    }
+
+    @Test
+    public void testFileTransferChunkedFallsBackToCopy() throws Exception
+    {
+        Path file = resourceHandler.getBaseResource().resolve("big.bin").getPath();
+        server.stop();
+        server.setHandler(new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback) throws Exception
+            {
+                // Not the last write and no Content-Length, so the response content is chunked.
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                Response.transferFrom(response, false, channel, 0, FILE_SIZE, Callback.from(() ->
+                {
+                    IO.close(channel);
+                    response.write(true, null, callback);
+                }, x ->
+                {
+                    IO.close(channel);
+                    callback.failed(x);
+                }));
+                return true;
+            }
+        });
+        server.start();
+
+        try (SocketChannel socket = SocketChannel.open(new InetSocketAddress("localhost", connector.getLocalPort())))
+        {
+            socket.write(BufferUtil.toBuffer("""
+                GET /big.bin HTTP/1.1\r
+                Host: local\r
+                \r
+                """));
+
+            HttpTester.Response response = HttpTester.parseResponse(HttpTester.from(socket));
+            assertNotNull(response);
+            assertEquals(HttpStatus.OK_200, response.getStatus());
+            assertEquals("chunked", response.get(HttpHeader.TRANSFER_ENCODING));
+            assertArrayEquals(fileBytes, response.getContentBytes());
+        }
+    }
+
+    @Test
+    public void testFileTransferNotSupportedFallsBackToCopy() throws Exception
+    {
+        LocalConnector localConnector = new LocalConnector(server);
+        server.addConnector(localConnector);
+        localConnector.start();
+
+        HttpTester.Response response = HttpTester.parseResponse(localConnector.getResponse(BufferUtil.toBuffer("""
+            GET /big.bin HTTP/1.1\r
+            Host: local\r
+            Range: bytes=1000-2000999\r
+            Connection: close\r
+            \r
+            """), 5, TimeUnit.SECONDS));
+        assertNotNull(response);
+        assertEquals(HttpStatus.PARTIAL_CONTENT_206, response.getStatus());
+        assertArrayEquals(Arrays.copyOfRange(fileBytes, 1000, 2001000), response.getContentBytes());
+    }
+}
@@ -48,6 +48,7 @@ import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -815,6 +816,18 @@ public class StatisticsHandlerTest
                 lessThan(TimeUnit.MILLISECONDS.toNanos(handleTime + wastedTime) * 5 / 4)));
             assertEquals(_statsHandler.getHandleTimeTotal(), _statsHandler.getHandleTimeMax());
             assertEquals(_statsHandler.getHandleTimeTotal(), _statsHandler.getHandleTimeMean(), 1.0);
+
+            // With a single sample, all percentiles are the sample, within the histogram precision.
+            long requestTimeMax = _statsHandler.getRequestTimeMax();
+            assertThat(_statsHandler.getRequestTimeP50(), allOf(greaterThanOrEqualTo(requestTimeMax), lessThanOrEqualTo(requestTimeMax + requestTimeMax / 32)));
+            assertEquals(_statsHandler.getRequestTimeP50(), _statsHandler.getRequestTimeP999());
+            long handleTimeMax = _statsHandler.getHandleTimeMax();
+            assertThat(_statsHandler.getHandleTimeP99(), allOf(greaterThanOrEqualTo(handleTimeMax), lessThanOrEqualTo(handleTimeMax + handleTimeMax / 32)));
+            assertEquals(_statsHandler.getHandleTimeP90(), _statsHandler.getHandleTimePercentile(10));
+
+            _statsHandler.reset();
+            assertEquals(0, _statsHandler.getRequestTimeP99());
+            assertEquals(0, _statsHandler.getHandleTimeP99());
         }
     }
 
@@ -0,0 +1,161 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.handler;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.logging.StacklessLogging;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.thread.Invocable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class VirtualThreadsHandlerTest
+{
+    private final AtomicInteger _threadIds = new AtomicInteger();
+    private Server _server;
+    private LocalConnector _connector;
+    private ExecutorService _virtualThreads;
+    private VirtualThreadsHandler _virtualThreadsHandler;
+
+    @BeforeEach
+    public void beforeEach()
+    {
+        _server = new Server();
+        _connector = new LocalConnector(_server);
+        _server.addConnector(_connector);
+        // Platform threads stand in for virtual threads, that may not be supported.
+        _virtualThreads = Executors.newCachedThreadPool(task -> new Thread(task, "virtual-" + _threadIds.incrementAndGet()));
+        _virtualThreadsHandler = new VirtualThreadsHandler();
+        _virtualThreadsHandler.setVirtualThreadsExecutor(_virtualThreads);
+    }
+
+    @AfterEach
+    public void afterEach() throws Exception
+    {
+        _server.stop();
+        _virtualThreads.shutdownNow();
+    }
+
+    private void start(Handler handler) throws Exception
+    {
+        _virtualThreadsHandler.setHandler(handler);
+        _server.setHandler(_virtualThreadsHandler);
+        _server.start();
+    }
+
+    private HttpTester.Response get(String path) throws Exception
+    {
+        return HttpTester.parseResponse(_connector.getResponse("GET " + path + " HTTP/1.0\r\n\r\n"));
+    }
+
+    @Test
+    public void testDispatchedToVirtualThread() throws Exception
+    {
+        start(new ThreadNameHandler(Invocable.InvocationType.BLOCKING));
+
+        HttpTester.Response response = get("/jdbc");
+        assertThat(response.getStatus(), is(HttpStatus.OK_200));
+        assertThat(response.getContent(), startsWith("virtual-"));
+        assertEquals(1, _virtualThreadsHandler.getDispatched());
+        assertEquals(0, _virtualThreadsHandler.getInline());
+
+        // The blocking handler does not make the server blocking.
+        assertThat(_server.getInvocationType(), is(Invocable.InvocationType.NON_BLOCKING));
+    }
+
+    @Test
+    public void testConditionsNotMetHandledInline() throws Exception
+    {
+        _virtualThreadsHandler.includePath("/jdbc/*");
+        start(new ThreadNameHandler(Invocable.InvocationType.BLOCKING));
+
+        HttpTester.Response response = get("/jdbc/query");
+        assertThat(response.getContent(), startsWith("virtual-"));
+
+        response = get("/cache/lookup");
+        assertThat(response.getStatus(), is(HttpStatus.OK_200));
+        assertThat(response.getContent().startsWith("virtual-"), is(false));
+        assertEquals(1, _virtualThreadsHandler.getDispatched());
+        assertEquals(1, _virtualThreadsHandler.getInline());
+
+        // The requests that are not dispatched may block.
+        assertThat(_server.getInvocationType(), is(Invocable.InvocationType.BLOCKING));
+    }
+
+    @Test
+    public void testNotHandled() throws Exception
+    {
+        start(new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback)
+            {
+                return false;
+            }
+        });
+
+        assertThat(get("/").getStatus(), is(HttpStatus.NOT_FOUND_404));
+    }
+
+    @Test
+    public void testHandlerFailure() throws Exception
+    {
+        start(new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback)
+            {
+                throw new IllegalStateException("explicitly thrown");
+            }
+        });
+
+        try (StacklessLogging ignored = new StacklessLogging(Response.class))
+        {
+            assertThat(get("/").getStatus(), is(HttpStatus.INTERNAL_SERVER_ERROR_500));
+        }
+    }
+
+    private static class ThreadNameHandler extends Handler.Abstract
+    {
+        private ThreadNameHandler(InvocationType invocationType)
+        {
+            super(invocationType);
+        }
+
+        @Override
+        public boolean handle(Request request, Response response, Callback callback)
+        {
+            response.write(true, ByteBuffer.wrap(Thread.currentThread().getName().getBytes(StandardCharsets.UTF_8)), callback);
+            return true;
+        }
+    }
+}
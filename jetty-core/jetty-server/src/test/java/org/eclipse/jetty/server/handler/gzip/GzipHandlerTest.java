@@ -35,6 +35,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 import java.util.zip.Inflater;
@@ -73,6 +74,8 @@ import org.eclipse.jetty.util.Fields;
 import org.eclipse.jetty.util.IO;
 import org.eclipse.jetty.util.StringUtil;
 import org.eclipse.jetty.util.component.LifeCycle;
+import org.eclipse.jetty.util.compression.Compression;
+import org.eclipse.jetty.util.compression.GzipCompression;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.AfterEach;
@@ -441,6 +444,70 @@ public class GzipHandlerTest
         assertThat(response.getContentBytes().length, is(0));
     }
 
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', nullValues = "none", value = {
+        "gzip                     | gzip",
+        "deflate                  | deflate",
+        "gzip, deflate            | gzip",
+        "deflate, gzip            | gzip",
+        "gzip;q=0.5, deflate      | deflate",
+        "GZIP;q=0.8, deflate;q=.5 | gzip",
+        "deflate;q=0, *           | gzip",
+        "gzip;q=0, *;q=0.1        | deflate",
+        "gzip;q=0                 | none",
+        "br, zstd                 | none"
+    })
+    public void testNegotiateCompression(String acceptEncoding, String expectedEncoding) throws Exception
+    {
+        _gzipHandler.setCompressions(List.of(new GzipCompression(), new DeflateCompression()));
+        _contextHandler.setHandler(new SingleWriteHandler(CONTENT_BYTES).setEtag(CONTENT_ETAG));
+        _server.start();
+
+        String rawRequest = """
+            GET /ctx/buffer/info HTTP/1.1
+            Host: tester
+            Connection: close
+            Accept-Encoding: %s
+
+            """.formatted(acceptEncoding);
+
+        HttpTester.Response response = HttpTester.parseResponse(_connector.getResponse(rawRequest));
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.get(HttpHeader.CONTENT_ENCODING), is(expectedEncoding));
+
+        ByteArrayInputStream content = new ByteArrayInputStream(response.getContentBytes());
+        try (InputStream input = expectedEncoding == null ? content
+            : "gzip".equals(expectedEncoding) ? new GZIPInputStream(content) : new InflaterInputStream(content))
+        {
+            assertEquals(CONTENT, IO.toString(input, UTF_8));
+        }
+
+        if (expectedEncoding != null)
+            assertThat(response.get(HttpHeader.ETAG), is(new CompressedContentFormat(expectedEncoding, "").etag(CONTENT_ETAG)));
+    }
+
+    @Test
+    public void testNotModifiedWithNonGzipCompressionEtag() throws Exception
+    {
+        _gzipHandler.setCompressions(List.of(new DeflateCompression()));
+        _contextHandler.setHandler(new SingleWriteHandler(CONTENT_BYTES).setEtag(CONTENT_ETAG));
+        _server.start();
+
+        String etag = new CompressedContentFormat("deflate", "").etag(CONTENT_ETAG);
+        String rawRequest = """
+            GET /ctx/buffer/info HTTP/1.1
+            Host: tester
+            Connection: close
+            Accept-Encoding: deflate
+            If-None-Match: %s
+
+            """.formatted(etag);
+
+        HttpTester.Response response = HttpTester.parseResponse(_connector.getResponse(rawRequest));
+        assertThat(response.getStatus(), is(HttpStatus.NOT_MODIFIED_304));
+        assertThat(response.get(HttpHeader.ETAG), is(etag));
+    }
+
     @Test
     public void testBufferResponse() throws Exception
     {
@@ -2076,6 +2143,61 @@ public class GzipHandlerTest
         }
     }
 
+    /**
+     * A {@code deflate} (zlib) compression, to test the negotiation of compressions other than gzip.
+     */
+    private static class DeflateCompression extends Compression
+    {
+        private DeflateCompression()
+        {
+            super("deflate", ".zz");
+        }
+
+        @Override
+        public Encoder newEncoder(boolean syncFlush)
+        {
+            Deflater deflater = new Deflater();
+            return new Encoder()
+            {
+                @Override
+                public void setInput(ByteBuffer input)
+                {
+                    deflater.setInput(input);
+                }
+
+                @Override
+                public void finish()
+                {
+                    deflater.finish();
+                }
+
+                @Override
+                public int encode(ByteBuffer output)
+                {
+                    return deflater.deflate(output, syncFlush ? Deflater.SYNC_FLUSH : Deflater.NO_FLUSH);
+                }
+
+                @Override
+                public boolean needsInput()
+                {
+                    return deflater.needsInput();
+                }
+
+                @Override
+                public boolean isFinished()
+                {
+                    return deflater.finished();
+                }
+
+                @Override
+                public void close()
+                {
+                    deflater.end();
+                }
+            };
+        }
+    }
+
     /**
      * Handler that will write a ByteBuffer in a single write, resulting in a Content-Length response header.
      */
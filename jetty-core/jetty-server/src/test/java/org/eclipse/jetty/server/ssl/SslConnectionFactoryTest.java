@@ -22,7 +22,11 @@ import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.net.ssl.SNIHostName;
 import javax.net.ssl.SNIServerName;
 import javax.net.ssl.SSLParameters;
@@ -54,6 +58,8 @@ import org.junit.jupiter.api.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -183,6 +189,99 @@ public class SslConnectionFactoryTest
         assertEquals(0, history.size());
     }
 
+    @Test
+    public void testHandshakeStatistics() throws Exception
+    {
+        SslConnectionFactory sslConnectionFactory = _connector.getBean(SslConnectionFactory.class);
+
+        getResponse("127.0.0.1", null);
+        getResponse("127.0.0.1", null);
+        assertEquals(2, sslConnectionFactory.getHandshakes());
+        assertEquals(0, sslConnectionFactory.getHandshakesFailed());
+        assertThat(sslConnectionFactory.getHandshakeTimeMax(), greaterThan(0L));
+        assertThat(sslConnectionFactory.getHandshakeTimeMean(), greaterThan(0D));
+
+        try (Socket socket = new Socket("127.0.0.1", _port);
+             OutputStream out = socket.getOutputStream())
+        {
+            out.write("Rubbish".getBytes());
+            out.flush();
+            socket.setSoTimeout(1000);
+            assertThat(socket.getInputStream().read(), Matchers.equalTo(21));
+        }
+        assertEquals(2, sslConnectionFactory.getHandshakes());
+        assertEquals(1, sslConnectionFactory.getHandshakesFailed());
+
+        sslConnectionFactory.resetStatistics();
+        assertEquals(0, sslConnectionFactory.getHandshakes());
+        assertEquals(0, sslConnectionFactory.getHandshakesFailed());
+    }
+
+    @Test
+    public void testDelegatedTaskExecutor() throws Exception
+    {
+        AtomicInteger tasks = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            SslConnectionFactory sslConnectionFactory = _connector.getBean(SslConnectionFactory.class);
+            sslConnectionFactory.setDelegatedTaskExecutor(task ->
+            {
+                tasks.incrementAndGet();
+                executor.execute(task);
+            });
+
+            for (int i = 0; i < 3; ++i)
+            {
+                HttpTester.Response response = getResponse("127.0.0.1", null);
+                assertThat(response.getContent(), containsString("host=127.0.0.1"));
+            }
+
+            assertThat(tasks.get(), greaterThan(0));
+            assertEquals(tasks.get(), sslConnectionFactory.getDelegatedTasks());
+            assertEquals(3, sslConnectionFactory.getHandshakes());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testHandshakeTimeIncludesDelegatedTasks() throws Exception
+    {
+        long delay = 250;
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            SslConnectionFactory sslConnectionFactory = _connector.getBean(SslConnectionFactory.class);
+            sslConnectionFactory.setDelegatedTaskExecutor(task -> executor.execute(() ->
+            {
+                try
+                {
+                    Thread.sleep(delay);
+                }
+                catch (InterruptedException x)
+                {
+                    throw new RuntimeException(x);
+                }
+                task.run();
+            }));
+
+            HttpTester.Response response = getResponse("127.0.0.1", null);
+            assertThat(response.getContent(), containsString("host=127.0.0.1"));
+
+            assertEquals(1, sslConnectionFactory.getHandshakes());
+            assertThat(sslConnectionFactory.getDelegatedTasks(), greaterThan(0L));
+            long minHandshakeTime = TimeUnit.MILLISECONDS.toMicros(delay * sslConnectionFactory.getDelegatedTasks());
+            assertThat(sslConnectionFactory.getHandshakeTimeMax(), greaterThanOrEqualTo(minHandshakeTime));
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void testServerWithoutHttpConnectionFactory() throws Exception
     {
@@ -698,7 +698,7 @@ public abstract class AbstractSessionCache extends ContainerLifeCycle implements
                             session.onSessionPassivation();
 
                         //Fake being dirty to force the write
-                        session.getSessionData().setDirty(true);
+                        session.getSessionData().forceWrite();
                         _sessionDataStore.store(session.getId(), session.getSessionData());
                     }
 
@@ -24,7 +24,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.jetty.util.StringUtil;
@@ -36,7 +38,14 @@ import org.slf4j.LoggerFactory;
 /**
  * JDBCSessionDataStore
  *
- * Session data stored in database
+ * Session data stored in database.
+ * <p>
+ * By default the attributes of a session are serialized together into a single
+ * blob column of the session table, which is rewritten every time the session
+ * is saved. If {@link #setAttributesAsRows(boolean)} is enabled, each attribute
+ * is instead stored as a row of a separate attribute table, and only the rows of
+ * the attributes that changed since the session was last saved are written,
+ * in a single batch and transaction.
  */
 @ManagedObject
 public class JDBCSessionDataStore extends ObjectStreamSessionDataStore
@@ -52,6 +61,7 @@ public class JDBCSessionDataStore extends ObjectStreamSessionDataStore
     protected DatabaseAdaptor _dbAdaptor;
     protected SessionTableSchema _sessionTableSchema;
     protected boolean _schemaProvided;
+    protected boolean _attributesAsRows;
 
     private static final ByteArrayInputStream EMPTY = new ByteArrayInputStream(new byte[0]);
 
@@ -79,6 +89,9 @@ public class JDBCSessionDataStore extends ObjectStreamSessionDataStore
         protected String _expiryTimeColumn = "expiryTime";
         protected String _maxIntervalColumn = "maxInterval";
         protected String _mapColumn = "map";
+        protected String _attributeTableName = null;
+        protected String _attributeNameColumn = "attributeName";
+        protected String _attributeValueColumn = "attributeValue";
 
         protected void setDatabaseAdaptor(DatabaseAdaptor dbadaptor)
         {
@@ -259,6 +272,51 @@ public class JDBCSessionDataStore extends ObjectStreamSessionDataStore
             _mapColumn = mapColumn;
         }
 
+        /**
+         * @return the name of the table holding one row per session attribute,
+         * by default the session table name suffixed with {@code Attributes}
+         * @see JDBCSessionDataStore#setAttributesAsRows(boolean)
+         */
+        public String getAttributeTableName()
+        {
+            return _attributeTableName == null ? getTableName() + "Attributes" : _attributeTableName;
+        }
+
+        public void setAttributeTableName(String attributeTableName)
+        {
+            if (attributeTableName != null && StringUtil.isBlank(attributeTableName))
+                _attributeTableName = null;
+            else
+                _attributeTableName = attributeTableName;
+        }
+
+        private String getSchemaAttributeTableName()
+        {
+            return (getSchemaName() != null ? getSchemaName() + "." : "") + getAttributeTableName();
+        }
+
+        public String getAttributeNameColumn()
+        {
+            return _attributeNameColumn;
+        }
+
+        public void setAttributeNameColumn(String attributeNameColumn)
+        {
+            checkNotNull(attributeNameColumn);
+            _attributeNameColumn = attributeNameColumn;
+        }
+
+        public String getAttributeValueColumn()
+        {
+            return _attributeValueColumn;
+        }
+
+        public void setAttributeValueColumn(String attributeValueColumn)
+        {
+            checkNotNull(attributeValueColumn);
+            _attributeValueColumn = attributeValueColumn;
+        }
+
         public String getCreateStatementAsString()
         {
             if (_dbAdaptor == null)
@@ -275,6 +333,20 @@ public class JDBCSessionDataStore extends ObjectStreamSessionDataStore
                 _mapColumn + " " + blobType + ", primary key(" + _idColumn + ", " + _contextPathColumn + "," + _virtualHostColumn + "))";
         }
 
+        public String getCreateAttributeTableStatementAsString()
+        {
+            if (_dbAdaptor == null)
+                throw new IllegalStateException("No DBAdaptor");
+
+            String blobType = _dbAdaptor.getBlobType();
+            String stringType = _dbAdaptor.getStringType();
+
+            return "create table " + getSchemaAttributeTableName() + " (" + _idColumn + " " + stringType + "(120), " +
+                _contextPathColumn + " " + stringType + "(60), " + _virtualHostColumn + " " + stringType + "(60), " +
+                _attributeNameColumn + " " + stringType + "(120), " + _attributeValueColumn + " " + blobType + ", " +
+                "primary key(" + _idColumn + ", " + _contextPathColumn + ", " + _virtualHostColumn + ", " + _attributeNameColumn + "))";
+        }
+
         public String getCreateIndexOverExpiryStatementAsString(String indexName)
         {
             return "create index " + indexName + " on " + getSchemaTableName() + " (" + getExpiryTimeColumn() + ")";
@@ -480,6 +552,118 @@ public class JDBCSessionDataStore extends ObjectStreamSessionDataStore
 
         }
 
+        public PreparedStatement getUpdateSessionMetaDataStatement(Connection connection, String id, SessionContext context)
+            throws SQLException
+        {
+            if (_dbAdaptor == null)
+                throw new IllegalStateException("No DB adaptor");
+
+            String s = "update " + getSchemaTableName() +
+                " set " + getLastNodeColumn() + " = ?, " + getAccessTimeColumn() + " = ?, " +
+                getLastAccessTimeColumn() + " = ?, " + getLastSavedTimeColumn() + " = ?, " + getExpiryTimeColumn() + " = ?, " +
+                getMaxIntervalColumn() + " = ? where " + getIdColumn() + " = ? and " + getContextPathColumn() +
+                " = ? and " + getVirtualHostColumn() + " = ?";
+
+            PreparedStatement statement = connection.prepareStatement(s);
+            statement.setString(7, id);
+            statement.setString(8, canonicalContextPath(context));
+            statement.setString(9, context.getVhost());
+            return statement;
+        }
+
+        public PreparedStatement getLoadAttributesStatement(Connection connection, String id, SessionContext context)
+            throws SQLException
+        {
+            if (_dbAdaptor == null)
+                throw new IllegalStateException("No DB adaptor");
+
+            PreparedStatement statement = connection.prepareStatement("select " + getAttributeNameColumn() + ", " + getAttributeValueColumn() +
+                " from " + getSchemaAttributeTableName() +
+                " where " + getIdColumn() + " = ? and " + getContextPathColumn() +
+                " = ? and " + getVirtualHostColumn() + " = ?");
+            statement.setString(1, id);
+            statement.setString(2, canonicalContextPath(context));
+            statement.setString(3, context.getVhost());
+            return statement;
+        }
+
+        /**
+         * @return a statement to insert an attribute, with the attribute name at index 4 and the value at index 5
+         */
+        public PreparedStatement getInsertAttributeStatement(Connection connection, String id, SessionContext context)
+            throws SQLException
+        {
+            if (_dbAdaptor == null)
+                throw new IllegalStateException("No DB adaptor");
+
+            PreparedStatement statement = connection.prepareStatement("insert into " + getSchemaAttributeTableName() +
+                " (" + getIdColumn() + ", " + getContextPathColumn() + ", " + getVirtualHostColumn() + ", " +
+                getAttributeNameColumn() + ", " + getAttributeValueColumn() + ") values (?, ?, ?, ?, ?)");
+            statement.setString(1, id);
+            statement.setString(2, canonicalContextPath(context));
+            statement.setString(3, context.getVhost());
+            return statement;
+        }
+
+        /**
+         * @return a statement to delete an attribute, with the attribute name at index 4
+         */
+        public PreparedStatement getDeleteAttributeStatement(Connection connection, String id, SessionContext context)
+            throws SQLException
+        {
+            if (_dbAdaptor == null)
+                throw new IllegalStateException("No DB adaptor");
+
+            PreparedStatement statement = connection.prepareStatement("delete from " + getSchemaAttributeTableName() +
+                " where " + getIdColumn() + " = ? and " + getContextPathColumn() +
+                " = ? and " + getVirtualHostColumn() + " = ? and " + getAttributeNameColumn() + " = ?");
+            statement.setString(1, id);
+            statement.setString(2, canonicalContextPath(context));
+            statement.setString(3, context.getVhost());
+            return statement;
+        }
+
+        public PreparedStatement getDeleteAttributesStatement(Connection connection, String id, SessionContext context)
+            throws SQLException
+        {
+            if (_dbAdaptor == null)
+                throw new IllegalStateException("No DB adaptor");
+
+            PreparedStatement statement = connection.prepareStatement("delete from " + getSchemaAttributeTableName() +
+                " where " + getIdColumn() + " = ? and " + getContextPathColumn() +
+                " = ? and " + getVirtualHostColumn() + " = ?");
+            statement.setString(1, id);
+            statement.setString(2, canonicalContextPath(context));
+            statement.setString(3, context.getVhost());
+            return statement;
+        }
+
+        public PreparedStatement getCleanOrphanAttributesStatement(Connection connection, long timeLimit)
+            throws SQLException
+        {
+            if (_dbAdaptor == null)
+                throw new IllegalStateException("No DB adaptor");
+
+            String attributes = getSchemaAttributeTableName();
+            String sessions = getSchemaTableName();
+            PreparedStatement statement = connection.prepareStatement("delete from " + attributes +
+                " where exists (select 1 from " + sessions + " where " +
+                sessions + "." + getIdColumn() + " = " + attributes + "." + getIdColumn() + " and " +
+                sessions + "." + getContextPathColumn() + " = " + attributes + "." + getContextPathColumn() + " and " +
+                sessions + "." + getVirtualHostColumn() + " = " + attributes + "." + getVirtualHostColumn() + " and " +
+                sessions + "." + getExpiryTimeColumn() + " > 0 and " + sessions + "." + getExpiryTimeColumn() + " <= ?)");
+            statement.setLong(1, timeLimit);
+            return statement;
+        }
+
+        private String canonicalContextPath(SessionContext context)
+        {
+            String cp = context.getCanonicalContextPath();
+            if (_dbAdaptor.isEmptyStringNull() && StringUtil.isBlank(cp))
+                cp = NULL_CONTEXT_PATH;
+            return cp;
+        }
+
         /**
          * Set up the tables in the database
          *
@@ -588,6 +772,37 @@ public class JDBCSessionDataStore extends ObjectStreamSessionDataStore
             }
         }
 
+        /**
+         * Set up the table holding one row per session attribute, if it does not exist.
+         *
+         * @throws SQLException if unable to prepare the table
+         * @see JDBCSessionDataStore#setAttributesAsRows(boolean)
+         */
+        public void prepareAttributeTable()
+            throws SQLException
+        {
+            try (Connection connection = _dbAdaptor.getConnection();
+                 Statement statement = connection.createStatement())
+            {
+                connection.setAutoCommit(true);
+                DatabaseMetaData metaData = connection.getMetaData();
+                _dbAdaptor.adaptTo(metaData);
+
+                String tableName = _dbAdaptor.convertIdentifier(getAttributeTableName());
+                String schemaName = _dbAdaptor.convertIdentifier(getSchemaName());
+                String catalogName = _dbAdaptor.convertIdentifier(getCatalogName());
+                try (ResultSet result = metaData.getTables(catalogName, schemaName, tableName, null))
+                {
+                    if (!result.next())
+                    {
+                        if (LOG.isDebugEnabled())
+                            LOG.debug("Creating table {} schema={} catalog={}", tableName, schemaName, catalogName);
+                        statement.executeUpdate(getCreateAttributeTableStatementAsString());
+                    }
+                }
+            }
+        }
+
         @Override
         public String toString()
         {
@@ -637,6 +852,8 @@ public class JDBCSessionDataStore extends ObjectStreamSessionDataStore
             _dbAdaptor.initialize();
             _sessionTableSchema.setDatabaseAdaptor(_dbAdaptor);
             _sessionTableSchema.prepareTables();
+            if (_attributesAsRows)
+                _sessionTableSchema.prepareAttributeTable();
         }
     }
 
@@ -662,13 +879,27 @@ public class JDBCSessionDataStore extends ObjectStreamSessionDataStore
                 data.setContextPath(_context.getCanonicalContextPath());
                 data.setVhost(_context.getVhost());
 
-                try (InputStream is = _dbAdaptor.getBlobInputStream(result, _sessionTableSchema.getMapColumn()))
+                if (_attributesAsRows)
                 {
-                   deserializeAttributes(data, is);
+                    try
+                    {
+                        loadAttributes(connection, id, data);
+                    }
+                    catch (Exception e)
+                    {
+                        throw new UnreadableSessionDataException(id, _context, e);
+                    }
                 }
-                catch (Exception e)
+                else
                 {
-                    throw new UnreadableSessionDataException(id, _context, e);
+                    try (InputStream is = _dbAdaptor.getBlobInputStream(result, _sessionTableSchema.getMapColumn()))
+                    {
+                       deserializeAttributes(data, is);
+                    }
+                    catch (Exception e)
+                    {
+                        throw new UnreadableSessionDataException(id, _context, e);
+                    }
                 }
 
                 if (LOG.isDebugEnabled())
@@ -681,18 +912,59 @@ public class JDBCSessionDataStore extends ObjectStreamSessionDataStore
         }
     }
 
+    protected void loadAttributes(Connection connection, String id, SessionData data)
+        throws Exception
+    {
+        try (PreparedStatement statement = _sessionTableSchema.getLoadAttributesStatement(connection, id, _context);
+             ResultSet result = statement.executeQuery())
+        {
+            Map<String, Object> attributes = new HashMap<>();
+            while (result.next())
+            {
+                String name = result.getString(_sessionTableSchema.getAttributeNameColumn());
+                try (InputStream is = _dbAdaptor.getBlobInputStream(result, _sessionTableSchema.getAttributeValueColumn()))
+                {
+                    Object value = deserializeAttribute(name, is);
+                    if (value != null)
+                        attributes.put(name, value);
+                }
+            }
+            data.putAllAttributes(attributes);
+        }
+    }
+
     @Override
     public boolean delete(String id) throws Exception
     {
         try (Connection connection = _dbAdaptor.getConnection();
              PreparedStatement statement = _sessionTableSchema.getDeleteStatement(connection, id, _context))
         {
-            connection.setAutoCommit(true);
-            int rows = statement.executeUpdate();
-            if (LOG.isDebugEnabled())
-                LOG.debug("Deleted Session {}:{}", id, (rows > 0));
+            if (!_attributesAsRows)
+            {
+                connection.setAutoCommit(true);
+                int rows = statement.executeUpdate();
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Deleted Session {}:{}", id, (rows > 0));
+
+                return rows > 0;
+            }
+
+            connection.setAutoCommit(false);
+            try (PreparedStatement deleteAttributes = _sessionTableSchema.getDeleteAttributesStatement(connection, id, _context))
+            {
+                deleteAttributes.executeUpdate();
+                int rows = statement.executeUpdate();
+                connection.commit();
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Deleted Session {}:{}", id, (rows > 0));
 
-            return rows > 0;
+                return rows > 0;
+            }
+            catch (Exception e)
+            {
+                connection.rollback();
+                throw e;
+            }
         }
     }
 
@@ -740,16 +1012,40 @@ public class JDBCSessionDataStore extends ObjectStreamSessionDataStore
                 statement.setLong(10, data.getExpiry());
                 statement.setLong(11, data.getMaxInactiveMs());
 
-                try (ByteArrayOutputStream baos = new ByteArrayOutputStream();)
+                if (_attributesAsRows)
                 {
-                    serializeAttributes(data, baos);
-
-                    byte[] bytes = baos.toByteArray();
-                    ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
-                    statement.setBinaryStream(12, bais, bytes.length); //attribute map as blob
+                    statement.setBinaryStream(12, new ByteArrayInputStream(new byte[0]), 0); //attributes are in their own table
+                    connection.setAutoCommit(false);
+                    try
+                    {
+                        statement.executeUpdate();
+                        //remove any rows left over from a previous session with the same id
+                        try (PreparedStatement deleteAttributes = _sessionTableSchema.getDeleteAttributesStatement(connection, id, _context))
+                        {
+                            deleteAttributes.executeUpdate();
+                        }
+                        storeAttributes(connection, id, data, data.getKeys());
+                        connection.commit();
+                    }
+                    catch (Exception e)
+                    {
+                        connection.rollback();
+                        throw e;
+                    }
                 }
+                else
+                {
+                    try (ByteArrayOutputStream baos = new ByteArrayOutputStream();)
+                    {
+                        serializeAttributes(data, baos);
 
-                statement.executeUpdate();
+                        byte[] bytes = baos.toByteArray();
+                        ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
+                        statement.setBinaryStream(12, bais, bytes.length); //attribute map as blob
+                    }
+
+                    statement.executeUpdate();
+                }
                 if (LOG.isDebugEnabled())
                     LOG.debug("Inserted session {}", data);
             }
@@ -759,6 +1055,12 @@ public class JDBCSessionDataStore extends ObjectStreamSessionDataStore
     protected void doUpdate(String id, SessionData data)
         throws Exception
     {
+        if (_attributesAsRows)
+        {
+            doUpdateAttributeRows(id, data);
+            return;
+        }
+
         try (Connection connection = _dbAdaptor.getConnection())
         {
             connection.setAutoCommit(true);
@@ -790,6 +1092,103 @@ public class JDBCSessionDataStore extends ObjectStreamSessionDataStore
         }
     }
 
+    /**
+     * Update the session row and only the rows of the attributes that changed
+     * since the session was last saved, within a single transaction.
+     *
+     * @param id the session id
+     * @param data the session data
+     * @throws Exception if the session cannot be updated
+     */
+    protected void doUpdateAttributeRows(String id, SessionData data)
+        throws Exception
+    {
+        //snapshot the dirty attributes before writing, as they are cleaned after the store
+        boolean allDirty = data.isAllAttributesDirty();
+        Set<String> dirty = allDirty ? Set.of() : Set.copyOf(data.getDirtyAttributes());
+
+        try (Connection connection = _dbAdaptor.getConnection())
+        {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = _sessionTableSchema.getUpdateSessionMetaDataStatement(connection, data.getId(), _context))
+            {
+                statement.setString(1, data.getLastNode()); //should be my node id
+                statement.setLong(2, data.getAccessed()); //accessTime
+                statement.setLong(3, data.getLastAccessed()); //lastAccessTime
+                statement.setLong(4, data.getLastSaved()); //last saved time
+                statement.setLong(5, data.getExpiry());
+                statement.setLong(6, data.getMaxInactiveMs());
+                statement.executeUpdate();
+
+                if (allDirty)
+                {
+                    try (PreparedStatement deleteAttributes = _sessionTableSchema.getDeleteAttributesStatement(connection, data.getId(), _context))
+                    {
+                        deleteAttributes.executeUpdate();
+                    }
+                    storeAttributes(connection, data.getId(), data, data.getKeys());
+                }
+                else if (!dirty.isEmpty())
+                {
+                    try (PreparedStatement deleteAttribute = _sessionTableSchema.getDeleteAttributeStatement(connection, data.getId(), _context))
+                    {
+                        for (String name : dirty)
+                        {
+                            deleteAttribute.setString(4, name);
+                            deleteAttribute.addBatch();
+                        }
+                        deleteAttribute.executeBatch();
+                    }
+                    storeAttributes(connection, data.getId(), data, dirty);
+                }
+                connection.commit();
+
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Updated session {} attributes {}", data, allDirty ? "*" : dirty);
+            }
+            catch (Exception e)
+            {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Insert, in a single batch, a row for each of the named attributes that is present in the session.
+     *
+     * @param connection the connection, within a transaction
+     * @param id the session id
+     * @param data the session data
+     * @param names the names of the attributes to insert
+     * @throws Exception if the attributes cannot be stored
+     */
+    protected void storeAttributes(Connection connection, String id, SessionData data, Set<String> names)
+        throws Exception
+    {
+        try (PreparedStatement statement = _sessionTableSchema.getInsertAttributeStatement(connection, id, _context))
+        {
+            boolean batched = false;
+            for (String name : names)
+            {
+                Object value = data.getAttribute(name);
+                if (value == null)
+                    continue; //attribute was removed
+                try (ByteArrayOutputStream baos = new ByteArrayOutputStream())
+                {
+                    serializeAttribute(name, value, baos);
+                    byte[] bytes = baos.toByteArray();
+                    statement.setString(4, name);
+                    statement.setBinaryStream(5, new ByteArrayInputStream(bytes), bytes.length);
+                    statement.addBatch();
+                    batched = true;
+                }
+            }
+            if (batched)
+                statement.executeBatch();
+        }
+    }
+
     @Override
     public Set<String> doCheckExpired(Set<String> candidates, long time)
     {
@@ -918,6 +1317,13 @@ public class JDBCSessionDataStore extends ObjectStreamSessionDataStore
              PreparedStatement statement = _sessionTableSchema.getCleanOrphansStatement(connection, time))
         {
             connection.setAutoCommit(true);
+            if (_attributesAsRows)
+            {
+                try (PreparedStatement attributes = _sessionTableSchema.getCleanOrphanAttributesStatement(connection, time))
+                {
+                    attributes.executeUpdate();
+                }
+            }
             int rows = statement.executeUpdate();
             if (LOG.isDebugEnabled())
                 LOG.debug("Deleted {} orphaned sessions", rows);
@@ -943,6 +1349,32 @@ public class JDBCSessionDataStore extends ObjectStreamSessionDataStore
         _schemaProvided = true;
     }
 
+    /**
+     * @return true if each session attribute is stored as a row of the attribute table
+     */
+    @ManagedAttribute(value = "are attributes stored as individual rows", readonly = true)
+    public boolean isAttributesAsRows()
+    {
+        return _attributesAsRows;
+    }
+
+    /**
+     * Set whether each session attribute is stored as a row of the attribute table
+     * (see {@link SessionTableSchema#getAttributeTableName()}), so that only the attributes
+     * that changed are written when a session is saved, rather than the whole attribute map.
+     * <p>
+     * Only attributes changed via {@link SessionData#setAttribute(String, Object)} are
+     * written; changes made to the state of an attribute value are only saved once the
+     * attribute is set again. The two storage modes are not compatible with each other's data.
+     *
+     * @param attributesAsRows true to store attributes as individual rows
+     */
+    public void setAttributesAsRows(boolean attributesAsRows)
+    {
+        checkStarted();
+        _attributesAsRows = attributesAsRows;
+    }
+
     @Override
     @ManagedAttribute(value = "does this store serialize sessions", readonly = true)
     public boolean isPassivating()
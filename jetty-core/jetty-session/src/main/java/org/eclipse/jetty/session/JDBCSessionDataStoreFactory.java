@@ -29,12 +29,18 @@ public class JDBCSessionDataStoreFactory extends AbstractSessionDataStoreFactory
      */
     JDBCSessionDataStore.SessionTableSchema _schema;
 
+    /**
+     *
+     */
+    boolean _attributesAsRows;
+
     @Override
     public SessionDataStore getSessionDataStore(SessionManager manager)
     {
         JDBCSessionDataStore ds = new JDBCSessionDataStore();
         ds.setDatabaseAdaptor(_adaptor);
         ds.setSessionTableSchema(_schema);
+        ds.setAttributesAsRows(_attributesAsRows);
         ds.setGracePeriodSec(getGracePeriodSec());
         ds.setSavePeriodSec(getSavePeriodSec());
         return ds;
@@ -57,4 +63,13 @@ public class JDBCSessionDataStoreFactory extends AbstractSessionDataStoreFactory
     {
         _schema = schema;
     }
+
+    /**
+     * @param attributesAsRows true to store each session attribute as an individual row
+     * @see JDBCSessionDataStore#setAttributesAsRows(boolean)
+     */
+    public void setAttributesAsRows(boolean attributesAsRows)
+    {
+        _attributesAsRows = attributesAsRows;
+    }
 }
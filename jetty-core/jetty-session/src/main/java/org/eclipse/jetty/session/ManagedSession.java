@@ -387,7 +387,7 @@ public class ManagedSession implements Session
             //maxinactiveinterval should write the session out because
             //it may affect the session on other nodes, or on the same
             //node in the case of the nullsessioncache
-            _sessionData.setDirty(true);
+            _sessionData.forceWrite();
 
             if (LOG.isDebugEnabled())
             {
@@ -99,4 +99,37 @@ public abstract class ObjectStreamSessionDataStore extends AbstractSessionDataSt
             SessionData.deserializeAttributes(data, ois);
         }
     }
+
+    /**
+     * Serialize the value of a single attribute into the OutputStream provided.
+     * @param name the name of the attribute
+     * @param value the value of the attribute
+     * @param os the OutputStream to receive the serialized value
+     * @throws Exception if the value cannot be serialized
+     */
+    protected void serializeAttribute(String name, Object value, OutputStream os) throws Exception
+    {
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(os);
+        try (ObjectOutputStream oos = newObjectOutputStream(os))
+        {
+            SessionData.serializeAttribute(name, value, oos);
+        }
+    }
+
+    /**
+     * Deserialize the value of a single attribute from the InputStream provided.
+     * @param name the name of the attribute
+     * @param is the InputStream for reading the serialized value
+     * @return the value of the attribute
+     * @throws Exception if the value cannot be deserialized
+     */
+    protected Object deserializeAttribute(String name, InputStream is) throws Exception
+    {
+        Objects.requireNonNull(is);
+        try (ObjectInputStream ois = newObjectInputStream(is))
+        {
+            return SessionData.deserializeAttribute(name, ois);
+        }
+    }
 }
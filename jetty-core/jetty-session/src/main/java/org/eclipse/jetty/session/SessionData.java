@@ -52,6 +52,8 @@ public class SessionData implements Serializable
     protected long _maxInactiveMs;
     protected Map<String, Object> _attributes;
     protected boolean _dirty;
+    protected transient Set<String> _dirtyAttributes = ConcurrentHashMap.newKeySet(); //names of the attributes changed since last clean
+    protected transient boolean _allAttributesDirty; //all attributes must be considered changed
     protected long _lastSaved; //time in msec since last save
     protected boolean _metaDataDirty; //non-attribute data has changed
 
@@ -73,44 +75,59 @@ public class SessionData implements Serializable
         for (Entry<String, Object> entry : data._attributes.entrySet())
         {
             out.writeUTF(entry.getKey());
+            serializeAttribute(entry.getKey(), entry.getValue(), out);
+        }
+    }
 
-            Class<?> clazz = entry.getValue().getClass();
-            ClassLoader loader = clazz.getClassLoader();
-            ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
-            
-            boolean isContextLoader;
-
-            if (loader == contextLoader) //is it the context classloader?
-                isContextLoader = true;
-            else if (contextLoader == null) //not context classloader
-                isContextLoader = false;
-            else if (contextLoader instanceof ClassVisibilityChecker)
+    /**
+     * Serialize the value of a single attribute of the session, recording
+     * which classloader should be used to load it, as for {@link #serializeAttributes(SessionData, java.io.ObjectOutputStream)}.
+     *
+     * @param name the name of the attribute
+     * @param value the value of the attribute
+     * @param out the stream to which to serialize
+     * @throws IOException if the value cannot be serialized
+     * @see #deserializeAttribute(String, java.io.ObjectInputStream)
+     */
+    public static void serializeAttribute(String name, Object value, java.io.ObjectOutputStream out)
+        throws IOException
+    {
+        Class<?> clazz = value.getClass();
+        ClassLoader loader = clazz.getClassLoader();
+        ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+
+        boolean isContextLoader;
+
+        if (loader == contextLoader) //is it the context classloader?
+            isContextLoader = true;
+        else if (contextLoader == null) //not context classloader
+            isContextLoader = false;
+        else if (contextLoader instanceof ClassVisibilityChecker)
+        {
+            //Clazz not loaded by context classloader, but ask if loadable by context classloader,
+            //because preferable to use context classloader if possible (eg for deep structures).
+            ClassVisibilityChecker checker = (ClassVisibilityChecker)(contextLoader);
+            isContextLoader = (checker.isProtectedClass(clazz) && !(checker.isHiddenClass(clazz)));
+        }
+        else
+        {
+            //Class wasn't loaded by context classloader, but try loading from context loader,
+            //because preferable to use context classloader if possible (eg for deep structures).
+            try
             {
-                //Clazz not loaded by context classloader, but ask if loadable by context classloader,
-                //because preferable to use context classloader if possible (eg for deep structures).
-                ClassVisibilityChecker checker = (ClassVisibilityChecker)(contextLoader);
-                isContextLoader = (checker.isProtectedClass(clazz) && !(checker.isHiddenClass(clazz)));
+                Class<?> result = contextLoader.loadClass(clazz.getName());
+                isContextLoader = (result == clazz); //only if TTCL loaded this instance of the class
             }
-            else
+            catch (Throwable e)
             {
-                //Class wasn't loaded by context classloader, but try loading from context loader,
-                //because preferable to use context classloader if possible (eg for deep structures).
-                try
-                {
-                    Class<?> result = contextLoader.loadClass(clazz.getName());
-                    isContextLoader = (result == clazz); //only if TTCL loaded this instance of the class
-                }
-                catch (Throwable e)
-                {
-                    isContextLoader = false; //TCCL can't see the class
-                }
+                isContextLoader = false; //TCCL can't see the class
             }
-            
-            if (LOG.isDebugEnabled())
-                LOG.debug("Attribute {} class={} isServerLoader={}", entry.getKey(), clazz.getName(), (!isContextLoader));
-            out.writeBoolean(!isContextLoader);
-            out.writeObject(entry.getValue());
         }
+
+        if (LOG.isDebugEnabled())
+            LOG.debug("Attribute {} class={} isServerLoader={}", name, clazz.getName(), (!isContextLoader));
+        out.writeBoolean(!isContextLoader);
+        out.writeObject(value);
     }
 
     /**
@@ -135,15 +152,10 @@ public class SessionData implements Serializable
 
             data._attributes = new ConcurrentHashMap<>();
             int entries = ((Integer)o).intValue();
-            ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
-            ClassLoader serverLoader = SessionData.class.getClassLoader();
             for (int i = 0; i < entries; i++)
             {
                 String name = in.readUTF(); //attribute name
-                boolean isServerClassLoader = in.readBoolean(); //use server or webapp classloader to load
-                if (LOG.isDebugEnabled())
-                    LOG.debug("Deserialize {} isServerLoader={} serverLoader={} tccl={}", name, isServerClassLoader, serverLoader, contextLoader);
-                Object value = ((ClassLoadingObjectInputStream)in).readObject(isServerClassLoader ? serverLoader : contextLoader);
+                Object value = deserializeAttribute(name, in);
                 if (value != null)
                     data._attributes.put(name, value);
             }
@@ -158,6 +170,28 @@ public class SessionData implements Serializable
         }
     }
 
+    /**
+     * De-serialize the value of a single attribute of the session, using the classloader
+     * recorded by {@link #serializeAttribute(String, Object, java.io.ObjectOutputStream)}.
+     *
+     * @param name the name of the attribute
+     * @param in the serialized stream, which must be a {@link ClassLoadingObjectInputStream}
+     * @return the value of the attribute
+     */
+    public static Object deserializeAttribute(String name, java.io.ObjectInputStream in)
+        throws IOException, ClassNotFoundException
+    {
+        if (!(in instanceof ClassLoadingObjectInputStream classLoadingIn))
+            throw new IOException("Not ClassLoadingObjectInputStream");
+
+        ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+        ClassLoader serverLoader = SessionData.class.getClassLoader();
+        boolean isServerClassLoader = in.readBoolean(); //use server or webapp classloader to load
+        if (LOG.isDebugEnabled())
+            LOG.debug("Deserialize {} isServerLoader={} serverLoader={} tccl={}", name, isServerClassLoader, serverLoader, contextLoader);
+        return classLoadingIn.readObject(isServerClassLoader ? serverLoader : contextLoader);
+    }
+
     public SessionData(String id, String cpath, String vhost, long created, long accessed, long lastAccessed, long maxInactiveMs)
     {
         _id = id;
@@ -229,14 +263,61 @@ public class SessionData implements Serializable
         return _dirty;
     }
 
+    /**
+     * Set whether the session needs to be written out.
+     * <p>
+     * Setting true without naming an attribute means that any
+     * attribute may have changed, see {@link #isAllAttributesDirty()}.
+     *
+     * @param dirty true if the session needs to be written out
+     */
     public void setDirty(boolean dirty)
     {
         _dirty = dirty;
+        _allAttributesDirty = dirty;
+        _dirtyAttributes.clear();
     }
 
+    /**
+     * Mark the named attribute as changed, so that the session needs to be written out.
+     *
+     * @param name the name of the attribute that changed
+     */
     public void setDirty(String name)
     {
-        setDirty(true);
+        if (!_allAttributesDirty)
+            _dirtyAttributes.add(name);
+        _dirty = true;
+    }
+
+    /**
+     * Mark the session as needing to be written out, without marking
+     * any attribute as changed, for example when only non-attribute
+     * data has changed but the write must not be skipped.
+     *
+     * @see #setMetaDataDirty(boolean)
+     */
+    public void forceWrite()
+    {
+        _dirty = true;
+    }
+
+    /**
+     * @return the names of the attributes that changed since the session was last
+     * written out; only meaningful if {@link #isAllAttributesDirty()} is false
+     */
+    public Set<String> getDirtyAttributes()
+    {
+        return Collections.unmodifiableSet(_dirtyAttributes);
+    }
+
+    /**
+     * @return true if the session was marked dirty without naming the attributes
+     * that changed, so that all attributes must be written out
+     */
+    public boolean isAllAttributesDirty()
+    {
+        return _allAttributesDirty;
     }
 
     /**
@@ -494,6 +575,7 @@ public class SessionData implements Serializable
         _lastNode = in.readUTF(); //last managing node
         _expiry = in.readLong();
         _maxInactiveMs = in.readLong();
+        _dirtyAttributes = ConcurrentHashMap.newKeySet();
         deserializeAttributes(this, in);
     }
 
@@ -13,9 +13,12 @@
 
 package org.eclipse.jetty.session;
 
+import java.util.Set;
+
 import org.eclipse.jetty.server.Server;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -100,4 +103,84 @@ public class DirtyAttributeTest
         assertTrue(sessionManager._sessionBoundListenersCalled.contains(id));
         assertTrue(sessionManager._sessionAttributeListenersCalled.contains(id));
     }
+
+    @Test
+    public void testMaxInactiveIntervalDoesNotDirtyAttributes() throws Exception
+    {
+        Server server = new Server();
+        DefaultSessionIdManager idManager = new DefaultSessionIdManager(server);
+        server.addBean(idManager, true);
+
+        TestableSessionManager sessionManager = new TestableSessionManager();
+        TestableSessionDataStore sessionDataStore = new TestableSessionDataStore(true);
+        DefaultSessionCache sessionCache = new DefaultSessionCache(sessionManager);
+        sessionCache.setSaveOnCreate(true);
+        sessionCache.setSessionDataStore(sessionDataStore);
+        sessionManager.setSessionCache(sessionCache);
+
+        server.addBean(sessionManager);
+        sessionManager.setServer(server);
+        server.start();
+
+        //make a session with an attribute, and save it
+        TestableSessionConsumer consumer = new TestableSessionConsumer();
+        sessionManager.newSession(null, "1234", consumer);
+        ManagedSession session = consumer.getSession();
+        String id = session.getId();
+        session.setAttribute("aaa", "one");
+        sessionManager.commit(session);
+        sessionManager.complete(session);
+        assertFalse(session.getSessionData().isDirty());
+
+        //changing the max inactive interval forces a write, but no attribute is dirty
+        session = sessionCache.getAndEnter(id, true);
+        session.setMaxInactiveInterval(100);
+        SessionData data = session.getSessionData();
+        assertTrue(data.isDirty());
+        assertTrue(data.isMetaDataDirty());
+        assertFalse(data.isAllAttributesDirty());
+        assertTrue(data.getDirtyAttributes().isEmpty());
+        sessionManager.commit(session);
+        sessionManager.complete(session);
+        assertFalse(data.isDirty());
+        assertEquals(100_000L, sessionDataStore.load(id).getMaxInactiveMs());
+    }
+
+    @Test
+    public void testDirtyAttributeNames() throws Exception
+    {
+        long now = System.currentTimeMillis();
+        SessionData data = new SessionData("1234", "/", "0.0.0.0", now, now, now, -1);
+        assertFalse(data.isDirty());
+        assertTrue(data.getDirtyAttributes().isEmpty());
+
+        //changing attributes records their names
+        data.setAttribute("aaa", "one");
+        data.setAttribute("bbb", "two");
+        assertTrue(data.isDirty());
+        assertFalse(data.isAllAttributesDirty());
+        assertEquals(Set.of("aaa", "bbb"), data.getDirtyAttributes());
+
+        //cleaning forgets them, setting the same value again still records the name
+        data.clean();
+        assertFalse(data.isDirty());
+        assertTrue(data.getDirtyAttributes().isEmpty());
+        data.setAttribute("aaa", "one");
+        assertEquals(Set.of("aaa"), data.getDirtyAttributes());
+
+        //removing an attribute records its name
+        data.setAttribute("bbb", null);
+        assertEquals(Set.of("aaa", "bbb"), data.getDirtyAttributes());
+
+        //marking the whole session dirty supersedes the names
+        data.setDirty(true);
+        assertTrue(data.isAllAttributesDirty());
+        assertTrue(data.getDirtyAttributes().isEmpty());
+        data.setAttribute("ccc", "three");
+        assertTrue(data.getDirtyAttributes().isEmpty());
+
+        data.clean();
+        assertFalse(data.isDirty());
+        assertFalse(data.isAllAttributesDirty());
+    }
 }
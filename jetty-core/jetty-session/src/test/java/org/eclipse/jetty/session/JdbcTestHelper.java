@@ -27,7 +27,9 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -108,6 +110,15 @@ public class JdbcTestHelper
         }
     }
 
+    public static void shutdownAttributeTable(String sessionTableName)
+        throws Exception
+    {
+        try (Connection connection = getConnection())
+        {
+            connection.prepareStatement("truncate table " + getAttributeTableName(sessionTableName)).executeUpdate();
+        }
+    }
+
     public static DatabaseAdaptor buildDatabaseAdaptor()
     {
         DatabaseAdaptor da = new DatabaseAdaptor();
@@ -177,6 +188,11 @@ public class JdbcTestHelper
     }
 
     public static SessionDataStoreFactory newSessionDataStoreFactory(DatabaseAdaptor da, String sessionTableName, boolean compress)
+    {
+        return newSessionDataStoreFactory(da, sessionTableName, compress, false);
+    }
+
+    public static SessionDataStoreFactory newSessionDataStoreFactory(DatabaseAdaptor da, String sessionTableName, boolean compress, boolean attributesAsRows)
     {
         JDBCSessionDataStoreFactory factory = new JDBCSessionDataStoreFactory()
         {
@@ -199,6 +215,7 @@ public class JdbcTestHelper
                 };
                 ds.setDatabaseAdaptor(_adaptor);
                 ds.setSessionTableSchema(_schema);
+                ds.setAttributesAsRows(attributesAsRows);
                 ds.setGracePeriodSec(getGracePeriodSec());
                 ds.setSavePeriodSec(getSavePeriodSec());
                 return ds;
@@ -236,6 +253,101 @@ public class JdbcTestHelper
         sessionTableSchema.prepareTables();
     }
     
+    public static void prepareAttributeTable(String sessionTableName) throws SQLException
+    {
+        DatabaseAdaptor da = buildDatabaseAdaptor();
+        JDBCSessionDataStore.SessionTableSchema sessionTableSchema = newSessionTableSchema(sessionTableName);
+        sessionTableSchema.setDatabaseAdaptor(da);
+        sessionTableSchema.prepareAttributeTable();
+    }
+
+    public static String getAttributeTableName(String sessionTableName)
+    {
+        return newSessionTableSchema(sessionTableName).getAttributeTableName();
+    }
+
+    public static Map<String, Object> getAttributeRows(String id, String sessionTableName) throws Exception
+    {
+        Map<String, Object> attributes = new HashMap<>();
+        try (Connection con = getConnection();
+             PreparedStatement statement = con.prepareStatement("select attributeName, attributeValue from " +
+                 getAttributeTableName(sessionTableName) + " where " + ID_COL + " = ?"))
+        {
+            statement.setString(1, id);
+            try (ResultSet result = statement.executeQuery())
+            {
+                while (result.next())
+                {
+                    String name = result.getString(1);
+                    try (InputStream is = result.getBlob(2).getBinaryStream();
+                         ObjectInputStream ois = new ClassLoadingObjectInputStream(is))
+                    {
+                        attributes.put(name, SessionData.deserializeAttribute(name, ois));
+                    }
+                }
+            }
+        }
+        return attributes;
+    }
+
+    public static boolean checkSessionAttributeRowsPersisted(SessionData data, String sessionTableName)
+        throws Exception
+    {
+        if (!existsInSessionTable(data.getId(), false, sessionTableName))
+            return false;
+        Map<String, Object> attributes = getAttributeRows(data.getId(), sessionTableName);
+        assertEquals(data.getAllAttributes(), attributes);
+        return true;
+    }
+
+    public static void insertSessionAttributeRows(SessionData data, String sessionTableName) throws Exception
+    {
+        insertUnreadableSession(data.getId(), data.getContextPath(), data.getVhost(), data.getLastNode(),
+            data.getCreated(), data.getAccessed(), data.getLastAccessed(),
+            data.getMaxInactiveMs(), data.getExpiry(), data.getCookieSet(),
+            data.getLastSaved(), sessionTableName);
+        for (String name : data.getKeys())
+        {
+            try (ByteArrayOutputStream baos = new ByteArrayOutputStream())
+            {
+                try (ObjectOutputStream oos = new ObjectOutputStream(baos))
+                {
+                    SessionData.serializeAttribute(name, data.getAttribute(name), oos);
+                }
+                insertAttributeRow(data, name, baos.toByteArray(), sessionTableName);
+            }
+        }
+    }
+
+    public static void insertAttributeRow(SessionData data, String name, byte[] value, String sessionTableName) throws Exception
+    {
+        try (Connection con = getConnection();
+             PreparedStatement statement = con.prepareStatement("insert into " + getAttributeTableName(sessionTableName) +
+                 " (" + ID_COL + ", " + CONTEXT_COL + ", virtualHost, attributeName, attributeValue) values (?, ?, ?, ?, ?)"))
+        {
+            statement.setString(1, data.getId());
+            statement.setString(2, data.getContextPath());
+            statement.setString(3, data.getVhost());
+            statement.setString(4, name);
+            statement.setBinaryStream(5, new ByteArrayInputStream(value), value.length);
+            statement.execute();
+            assertEquals(1, statement.getUpdateCount());
+        }
+    }
+
+    public static void deleteAttributeRow(String id, String name, String sessionTableName) throws Exception
+    {
+        try (Connection con = getConnection();
+             PreparedStatement statement = con.prepareStatement("delete from " + getAttributeTableName(sessionTableName) +
+                 " where " + ID_COL + " = ? and attributeName = ?"))
+        {
+            statement.setString(1, id);
+            statement.setString(2, name);
+            statement.execute();
+            assertEquals(1, statement.getUpdateCount());
+        }
+    }
+
     public static void dumpRow(ResultSet row) throws SQLException
     {
         if (row != null)
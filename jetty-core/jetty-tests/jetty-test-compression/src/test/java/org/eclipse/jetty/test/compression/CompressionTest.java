@@ -0,0 +1,255 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.test.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import com.aayushatharva.brotli4j.decoder.BrotliInputStream;
+import com.github.luben.zstd.ZstdInputStream;
+import org.eclipse.jetty.compression.brotli.BrotliCompression;
+import org.eclipse.jetty.compression.zstd.ZstdCompression;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.eclipse.jetty.util.compression.Compression;
+import org.eclipse.jetty.util.compression.GzipCompression;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CompressionTest
+{
+    private static final String CONTENT = "The quick brown fox jumps over the lazy dog. ".repeat(200);
+
+    private Compression compression;
+    private Server server;
+
+    public static Stream<Codec> codecs()
+    {
+        return Stream.of(
+            new Codec(BrotliCompression.class, BrotliCompression::new, BrotliInputStream::new),
+            new Codec(ZstdCompression.class, ZstdCompression::new, ZstdInputStream::new)
+        );
+    }
+
+    public static Stream<Arguments> encodes()
+    {
+        return codecs().flatMap(codec -> Stream.of(
+            Arguments.of(codec, 1, false),
+            Arguments.of(codec, 7, true),
+            Arguments.of(codec, 4096, false),
+            Arguments.of(codec, 4096, true)
+        ));
+    }
+
+    public static Stream<Arguments> negotiations()
+    {
+        // The %s placeholder is replaced with the content-coding of the compression.
+        return codecs().flatMap(codec -> Stream.of(
+            Arguments.of(codec, "%s", "%s"),
+            Arguments.of(codec, "gzip, %s", "%s"),
+            Arguments.of(codec, "gzip;q=1, %s;q=0.5", "gzip"),
+            Arguments.of(codec, "*", "%s"),
+            Arguments.of(codec, "%s;q=0, *", "gzip"),
+            Arguments.of(codec, "identity", null)
+        ));
+    }
+
+    private void start(Codec codec) throws Exception
+    {
+        compression = codec.factory().get();
+        compression.start();
+    }
+
+    @AfterEach
+    public void dispose()
+    {
+        LifeCycle.stop(server);
+        LifeCycle.stop(compression);
+    }
+
+    @ParameterizedTest
+    @MethodSource("codecs")
+    public void testDiscoveredAsService(Codec codec)
+    {
+        assertThat(Compression.loadAll(), hasItem(instanceOf(codec.type())));
+    }
+
+    @ParameterizedTest
+    @MethodSource("encodes")
+    public void testEncode(Codec codec, int outputSize, boolean syncFlush) throws Exception
+    {
+        start(codec);
+
+        byte[] bytes = new byte[64 * 1024];
+        Random random = new Random();
+        for (int i = 0; i < bytes.length; ++i)
+        {
+            // Compressible, but not trivially.
+            bytes[i] = (byte)('a' + random.nextInt(8));
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        ByteBuffer output = ByteBuffer.allocate(outputSize);
+        try (Compression.Encoder encoder = compression.newEncoder(syncFlush))
+        {
+            for (int offset = 0; offset < bytes.length; offset += 10 * 1024)
+            {
+                encoder.setInput(ByteBuffer.wrap(bytes, offset, Math.min(10 * 1024, bytes.length - offset)));
+                while (!encoder.needsInput())
+                {
+                    encode(encoder, output, compressed);
+                }
+            }
+
+            encoder.finish();
+            while (!encoder.isFinished())
+            {
+                encode(encoder, output, compressed);
+            }
+        }
+
+        assertThat(compressed.size(), greaterThan(0));
+        assertThat(compressed.size(), lessThan(bytes.length));
+        try (InputStream input = codec.decoder().newInputStream(new ByteArrayInputStream(compressed.toByteArray())))
+        {
+            assertArrayEquals(bytes, input.readAllBytes());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("codecs")
+    public void testEncodersReused(Codec codec) throws Exception
+    {
+        start(codec);
+
+        // Encoders returned to the pool must encode the next stream from scratch.
+        for (int i = 0; i < 3; ++i)
+        {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            ByteBuffer output = ByteBuffer.allocate(4096);
+            try (Compression.Encoder encoder = compression.newEncoder(false))
+            {
+                encoder.setInput(BufferUtil.toBuffer(CONTENT, UTF_8));
+                encoder.finish();
+                while (!encoder.isFinished())
+                {
+                    encode(encoder, output, compressed);
+                }
+            }
+
+            try (InputStream input = codec.decoder().newInputStream(new ByteArrayInputStream(compressed.toByteArray())))
+            {
+                assertEquals(CONTENT, new String(input.readAllBytes(), UTF_8));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("negotiations")
+    public void testNegotiate(Codec codec, String acceptEncoding, String expectedEncoding) throws Exception
+    {
+        start(codec);
+        String encoding = compression.getEncoding();
+        acceptEncoding = acceptEncoding.formatted(encoding);
+        if (expectedEncoding != null)
+            expectedEncoding = expectedEncoding.formatted(encoding);
+
+        server = new Server();
+        LocalConnector connector = new LocalConnector(server);
+        server.addConnector(connector);
+        GzipHandler gzipHandler = new GzipHandler();
+        gzipHandler.setCompressions(List.of(compression, new GzipCompression()));
+        gzipHandler.setHandler(new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback)
+            {
+                response.getHeaders().put(HttpHeader.CONTENT_TYPE, "text/plain;charset=utf-8");
+                response.write(true, BufferUtil.toBuffer(CONTENT, UTF_8), callback);
+                return true;
+            }
+        });
+        server.setHandler(gzipHandler);
+        server.start();
+
+        String rawRequest = """
+            GET / HTTP/1.1
+            Host: localhost
+            Connection: close
+            Accept-Encoding: %s
+
+            """.formatted(acceptEncoding);
+        HttpTester.Response response = HttpTester.parseResponse(connector.getResponse(rawRequest));
+
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.get(HttpHeader.CONTENT_ENCODING), is(expectedEncoding));
+        ByteArrayInputStream content = new ByteArrayInputStream(response.getContentBytes());
+        try (InputStream input = expectedEncoding == null ? content
+            : "gzip".equals(expectedEncoding) ? new GZIPInputStream(content) : codec.decoder().newInputStream(content))
+        {
+            assertEquals(CONTENT, new String(input.readAllBytes(), UTF_8));
+        }
+    }
+
+    private static void encode(Compression.Encoder encoder, ByteBuffer output, ByteArrayOutputStream compressed) throws Exception
+    {
+        BufferUtil.clearToFill(output);
+        encoder.encode(output);
+        BufferUtil.flipToFlush(output, 0);
+        BufferUtil.writeTo(output, compressed);
+    }
+
+    public interface Decoder
+    {
+        InputStream newInputStream(InputStream input) throws IOException;
+    }
+
+    public record Codec(Class<? extends Compression> type, Supplier<Compression> factory, Decoder decoder)
+    {
+        @Override
+        public String toString()
+        {
+            return type.getSimpleName();
+        }
+    }
+}
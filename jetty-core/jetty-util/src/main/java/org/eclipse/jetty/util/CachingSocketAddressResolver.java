@@ -0,0 +1,461 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util;
+
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.component.Dumpable;
+import org.eclipse.jetty.util.component.DumpableCollection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A {@link SocketAddressResolver} that caches the addresses resolved by another
+ * {@link SocketAddressResolver}, typically {@link SocketAddressResolver.Async}.</p>
+ * <p>Successful resolutions are cached for the {@link #getPositiveTTL() positive TTL},
+ * while failed resolutions are cached for the {@link #getNegativeTTL() negative TTL},
+ * independently of the JVM-wide DNS caching configured by the
+ * {@code networkaddress.cache.ttl} security properties.</p>
+ * <p>Concurrent resolutions of the same host are coalesced into a single resolution
+ * performed by the delegate resolver, whose result is notified to all the callers.</p>
+ * <p>When a cached host is resolved after the {@link #getRefreshThreshold() refresh threshold}
+ * of its positive TTL has elapsed, the cached addresses are returned and the host is resolved
+ * again in the background, so that frequently used hosts never expire from the cache.
+ * If the background resolution fails, the cached addresses are used until they expire.</p>
+ * <p>Optionally, the resolved addresses may be ordered as recommended by
+ * <a href="https://datatracker.ietf.org/doc/html/rfc8305#section-4">RFC 8305 (Happy Eyeballs)</a>,
+ * interleaving IPv6 and IPv4 addresses so that a connection attempt to one address family
+ * that fails is followed by an attempt to the other address family.</p>
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * SocketAddressResolver async = new SocketAddressResolver.Async(executor, scheduler, timeout);
+ * CachingSocketAddressResolver resolver = new CachingSocketAddressResolver(async);
+ * resolver.setPositiveTTL(60000);
+ * httpClient.setSocketAddressResolver(resolver);
+ * }</pre>
+ */
+@ManagedObject("The caching address resolver")
+public class CachingSocketAddressResolver implements SocketAddressResolver, Dumpable
+{
+    private static final Logger LOG = LoggerFactory.getLogger(CachingSocketAddressResolver.class);
+
+    private final ConcurrentMap<String, Entry> _cache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Entry>> _pending = new ConcurrentHashMap<>();
+    private final LongAdder _hits = new LongAdder();
+    private final LongAdder _misses = new LongAdder();
+    private final LongAdder _coalesced = new LongAdder();
+    private final LongAdder _resolutions = new LongAdder();
+    private final LongAdder _refreshes = new LongAdder();
+    private final SocketAddressResolver _resolver;
+    private long _positiveTTL = 30000;
+    private long _negativeTTL = 10000;
+    private double _refreshThreshold = 0.8D;
+    private int _maxEntries = 1024;
+    private boolean _interleaveAddressFamilies;
+
+    /**
+     * @param resolver the resolver that performs the resolutions of the hosts that are not cached
+     */
+    public CachingSocketAddressResolver(SocketAddressResolver resolver)
+    {
+        _resolver = resolver;
+    }
+
+    /**
+     * @return the resolver that performs the resolutions of the hosts that are not cached
+     */
+    public SocketAddressResolver getSocketAddressResolver()
+    {
+        return _resolver;
+    }
+
+    /**
+     * @return the time, in milliseconds, successful resolutions are cached
+     */
+    @ManagedAttribute("The time, in milliseconds, successful resolutions are cached")
+    public long getPositiveTTL()
+    {
+        return _positiveTTL;
+    }
+
+    /**
+     * @param positiveTTL the time, in milliseconds, successful resolutions are cached,
+     * or zero to not cache successful resolutions
+     */
+    public void setPositiveTTL(long positiveTTL)
+    {
+        _positiveTTL = positiveTTL;
+    }
+
+    /**
+     * @return the time, in milliseconds, failed resolutions are cached
+     */
+    @ManagedAttribute("The time, in milliseconds, failed resolutions are cached")
+    public long getNegativeTTL()
+    {
+        return _negativeTTL;
+    }
+
+    /**
+     * @param negativeTTL the time, in milliseconds, failed resolutions are cached,
+     * or zero to not cache failed resolutions
+     */
+    public void setNegativeTTL(long negativeTTL)
+    {
+        _negativeTTL = negativeTTL;
+    }
+
+    /**
+     * @return the fraction of the positive TTL after which a cache hit triggers a background resolution
+     */
+    @ManagedAttribute("The fraction of the positive TTL after which a cache hit triggers a background resolution")
+    public double getRefreshThreshold()
+    {
+        return _refreshThreshold;
+    }
+
+    /**
+     * <p>Sets the fraction of the positive TTL after which a cache hit triggers
+     * a background resolution of the host.</p>
+     * <p>For example, with a positive TTL of 30 seconds and a refresh threshold of {@code 0.8},
+     * a host resolved from the cache 24 seconds after it was cached is resolved again in
+     * the background, while the cached addresses are returned to the caller.</p>
+     *
+     * @param refreshThreshold the refresh threshold, between 0 and 1, where 1 disables background resolutions
+     */
+    public void setRefreshThreshold(double refreshThreshold)
+    {
+        if (refreshThreshold < 0 || refreshThreshold > 1)
+            throw new IllegalArgumentException("Invalid refresh threshold " + refreshThreshold);
+        _refreshThreshold = refreshThreshold;
+    }
+
+    /**
+     * @return the max number of hosts that are cached
+     */
+    @ManagedAttribute("The max number of hosts that are cached")
+    public int getMaxEntries()
+    {
+        return _maxEntries;
+    }
+
+    /**
+     * @param maxEntries the max number of hosts that are cached
+     */
+    public void setMaxEntries(int maxEntries)
+    {
+        _maxEntries = maxEntries;
+    }
+
+    /**
+     * @return whether the resolved addresses are ordered interleaving IPv6 and IPv4 addresses
+     */
+    @ManagedAttribute("Whether the resolved addresses are ordered interleaving IPv6 and IPv4 addresses")
+    public boolean isInterleaveAddressFamilies()
+    {
+        return _interleaveAddressFamilies;
+    }
+
+    /**
+     * <p>Sets whether the resolved addresses are ordered as recommended by RFC 8305,
+     * section 4, interleaving IPv6 and IPv4 addresses.</p>
+     * <p>The address family of the first address returned by the delegate resolver,
+     * which depends on the {@code java.net.preferIPv6Addresses} system property,
+     * is the preferred address family, and the relative order of the addresses
+     * of the same address family is preserved.</p>
+     *
+     * @param interleaveAddressFamilies whether the resolved addresses are ordered interleaving IPv6 and IPv4 addresses
+     */
+    public void setInterleaveAddressFamilies(boolean interleaveAddressFamilies)
+    {
+        _interleaveAddressFamilies = interleaveAddressFamilies;
+    }
+
+    @ManagedAttribute("The number of cached hosts")
+    public int getSize()
+    {
+        return _cache.size();
+    }
+
+    @ManagedAttribute("The number of resolutions served from the cache")
+    public long getHits()
+    {
+        return _hits.longValue();
+    }
+
+    @ManagedAttribute("The number of resolutions not served from the cache")
+    public long getMisses()
+    {
+        return _misses.longValue();
+    }
+
+    @ManagedAttribute("The number of resolutions that waited for a pending resolution of the same host")
+    public long getCoalesced()
+    {
+        return _coalesced.longValue();
+    }
+
+    @ManagedAttribute("The number of resolutions performed by the delegate resolver")
+    public long getResolutions()
+    {
+        return _resolutions.longValue();
+    }
+
+    @ManagedAttribute("The number of background resolutions of cached hosts")
+    public long getRefreshes()
+    {
+        return _refreshes.longValue();
+    }
+
+    @ManagedOperation(value = "Removes all the cached hosts", impact = "ACTION")
+    public void clear()
+    {
+        _cache.clear();
+    }
+
+    @ManagedOperation(value = "Resets the statistics", impact = "ACTION")
+    public void resetStatistics()
+    {
+        _hits.reset();
+        _misses.reset();
+        _coalesced.reset();
+        _resolutions.reset();
+        _refreshes.reset();
+    }
+
+    @Override
+    public void resolve(String host, int port, Promise<List<InetSocketAddress>> promise)
+    {
+        String key = StringUtil.asciiToLowerCase(host);
+        long now = NanoTime.now();
+        Entry entry = _cache.get(key);
+        if (entry != null && entry.isValid(now))
+        {
+            _hits.increment();
+            if (entry.isStale(now) && !_pending.containsKey(key))
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Refreshing {}", host);
+                _refreshes.increment();
+                lookup(key);
+            }
+            notify(entry, port, promise);
+            return;
+        }
+
+        _misses.increment();
+        lookup(key).whenComplete((result, x) ->
+        {
+            if (x == null)
+                notify(result, port, promise);
+            else
+                promise.failed(x);
+        });
+    }
+
+    private CompletableFuture<Entry> lookup(String host)
+    {
+        CompletableFuture<Entry> lookup = new CompletableFuture<>();
+        CompletableFuture<Entry> pending = _pending.putIfAbsent(host, lookup);
+        if (pending != null)
+        {
+            _coalesced.increment();
+            return pending;
+        }
+
+        _resolutions.increment();
+        try
+        {
+            _resolver.resolve(host, 0, new Promise<>()
+            {
+                @Override
+                public void succeeded(List<InetSocketAddress> result)
+                {
+                    List<InetAddress> addresses = new ArrayList<>(result.size());
+                    for (InetSocketAddress socketAddress : result)
+                    {
+                        addresses.add(socketAddress.getAddress());
+                    }
+                    if (isInterleaveAddressFamilies())
+                        addresses = interleave(addresses);
+
+                    long now = NanoTime.now();
+                    long ttl = TimeUnit.MILLISECONDS.toNanos(getPositiveTTL());
+                    long refresh = getRefreshThreshold() < 1 ? (long)(ttl * getRefreshThreshold()) : ttl;
+                    Entry entry = new Entry(List.copyOf(addresses), null, now + refresh, now + ttl);
+                    if (ttl > 0)
+                        cache(host, entry);
+                    complete(host, lookup, entry);
+                }
+
+                @Override
+                public void failed(Throwable x)
+                {
+                    if (LOG.isDebugEnabled())
+                        LOG.debug("Could not resolve {}", host, x);
+                    long now = NanoTime.now();
+                    Entry cached = _cache.get(host);
+                    if (cached != null && cached.isValid(now) && cached.failure == null)
+                    {
+                        // A background resolution failed, keep using the cached
+                        // addresses until they expire, without refreshing them again.
+                        _cache.replace(host, cached, new Entry(cached.addresses, null, cached.expire, cached.expire));
+                        complete(host, lookup, cached);
+                        return;
+                    }
+
+                    long ttl = TimeUnit.MILLISECONDS.toNanos(getNegativeTTL());
+                    Entry entry = new Entry(List.of(), x, now + ttl, now + ttl);
+                    if (ttl > 0)
+                        cache(host, entry);
+                    else
+                        _cache.remove(host);
+                    complete(host, lookup, entry);
+                }
+            });
+        }
+        catch (Throwable x)
+        {
+            _pending.remove(host, lookup);
+            lookup.completeExceptionally(x);
+        }
+        return lookup;
+    }
+
+    private void cache(String host, Entry entry)
+    {
+        if (_cache.put(host, entry) == null && _cache.size() > getMaxEntries())
+            evict(host);
+    }
+
+    private void evict(String host)
+    {
+        long now = NanoTime.now();
+        _cache.values().removeIf(entry -> !entry.isValid(now));
+        Iterator<String> iterator = _cache.keySet().iterator();
+        while (_cache.size() > getMaxEntries() && iterator.hasNext())
+        {
+            if (!host.equals(iterator.next()))
+                iterator.remove();
+        }
+    }
+
+    private void complete(String host, CompletableFuture<Entry> lookup, Entry entry)
+    {
+        _pending.remove(host, lookup);
+        lookup.complete(entry);
+    }
+
+    private void notify(Entry entry, int port, Promise<List<InetSocketAddress>> promise)
+    {
+        if (entry.failure != null)
+        {
+            promise.failed(entry.failure);
+            return;
+        }
+
+        List<InetSocketAddress> result = new ArrayList<>(entry.addresses.size());
+        for (InetAddress address : entry.addresses)
+        {
+            result.add(new InetSocketAddress(address, port));
+        }
+        if (result.isEmpty())
+            promise.failed(new UnknownHostException());
+        else
+            promise.succeeded(result);
+    }
+
+    /**
+     * <p>Orders the given addresses alternating address families,
+     * starting with the address family of the first address.</p>
+     *
+     * @param addresses the addresses to order
+     * @return the addresses ordered alternating address families
+     */
+    static List<InetAddress> interleave(List<InetAddress> addresses)
+    {
+        if (addresses.size() < 2)
+            return addresses;
+
+        boolean ipv6First = addresses.get(0) instanceof Inet6Address;
+        List<InetAddress> preferred = new ArrayList<>();
+        List<InetAddress> others = new ArrayList<>();
+        for (InetAddress address : addresses)
+        {
+            if ((address instanceof Inet6Address) == ipv6First)
+                preferred.add(address);
+            else
+                others.add(address);
+        }
+
+        List<InetAddress> result = new ArrayList<>(addresses.size());
+        for (int i = 0; i < Math.max(preferred.size(), others.size()); ++i)
+        {
+            if (i < preferred.size())
+                result.add(preferred.get(i));
+            if (i < others.size())
+                result.add(others.get(i));
+        }
+        return result;
+    }
+
+    @Override
+    public void dump(Appendable out, String indent) throws IOException
+    {
+        List<String> entries = new ArrayList<>();
+        long now = NanoTime.now();
+        for (Map.Entry<String, Entry> entry : _cache.entrySet())
+        {
+            Entry value = entry.getValue();
+            if (value.isValid(now))
+                entries.add("%s=%s expires in %d ms".formatted(entry.getKey(), value.failure == null ? value.addresses : value.failure, NanoTime.millisUntil(value.expire)));
+        }
+        Dumpable.dumpObjects(out, indent, this, _resolver, new DumpableCollection("cache", entries));
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[size=%d,hits=%d,misses=%d]", getClass().getSimpleName(), hashCode(), getSize(), getHits(), getMisses());
+    }
+
+    private record Entry(List<InetAddress> addresses, Throwable failure, long refresh, long expire)
+    {
+        private boolean isValid(long now)
+        {
+            return NanoTime.isBefore(now, expire);
+        }
+
+        private boolean isStale(long now)
+        {
+            return failure == null && NanoTime.isBeforeOrSame(refresh, now) && NanoTime.isBefore(refresh, expire);
+        }
+    }
+}
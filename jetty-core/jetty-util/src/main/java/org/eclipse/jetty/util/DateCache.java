@@ -75,17 +75,31 @@ public class DateCache
             if (_suffix == null)
                 return _prefix;
 
-            long ms = inDate % 1000;
             StringBuilder sb = new StringBuilder();
-            sb.append(_prefix);
+            format(inDate, sb);
+            return sb.toString();
+        }
+
+        /**
+         * Appends the formatted date to the given {@code StringBuilder}, without allocating.
+         *
+         * @param inDate the date in milliseconds since unix epoch.
+         * @param builder the {@code StringBuilder} to append the formatted date to.
+         */
+        public void format(long inDate, StringBuilder builder)
+        {
+            builder.append(_prefix);
+            if (_suffix == null)
+                return;
+
+            long ms = inDate % 1000;
             if (ms < 10)
-                sb.append("00").append(ms);
+                builder.append("00").append(ms);
             else if (ms < 100)
-                sb.append('0').append(ms);
+                builder.append('0').append(ms);
             else
-                sb.append(ms);
-            sb.append(_suffix);
-            return sb.toString();
+                builder.append(ms);
+            builder.append(_suffix);
         }
     }
 
@@ -191,6 +205,20 @@ public class DateCache
         return formatTick(inDate).format(inDate);
     }
 
+    /**
+     * Format a date according to our stored formatter, appending it to the
+     * given {@code StringBuilder}.
+     * If it happens to be in the same second as the last
+     * formatNow call, then the format is reused and no object is allocated.
+     *
+     * @param inDate the date in milliseconds since unix epoch.
+     * @param builder the {@code StringBuilder} to append the formatted date to.
+     */
+    public void format(long inDate, StringBuilder builder)
+    {
+        formatTick(inDate).format(inDate, builder);
+    }
+
     /**
      * Format a date according to supplied formatter.
      *
@@ -200,6 +200,7 @@ public abstract class InetAddressPattern implements Predicate<InetAddress>
     static class CidrInetAddressRange extends InetAddressPattern
     {
         final byte[] _raw;
+        final int _cidr;
         final int _octets;
         final int _mask;
         final int _masked;
@@ -208,6 +209,7 @@ public abstract class InetAddressPattern implements Predicate<InetAddress>
         {
             super(pattern);
             _raw = address.getAddress();
+            _cidr = cidr;
             _octets = cidr / 8;
             _mask = 0xff & (0xff << (8 - cidr % 8));
             _masked = _mask == 0 ? 0 : _raw[_octets] & _mask;
@@ -15,8 +15,11 @@ package org.eclipse.jetty.util;
 
 import java.net.InetAddress;
 import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -27,30 +30,89 @@ import java.util.function.Predicate;
  * a {@link Predicate} over InetAddress for containment semantics.
  * The patterns that may be set are defined in {@link InetAddressPattern}.
  * </p>
+ * <p>Single address, CIDR and address range patterns are matched with an
+ * {@link InetAddressTrie}, so that the cost of a test does not depend on the
+ * number of patterns in the set. Legacy patterns are tested one by one.</p>
+ * <p>Adding or removing single patterns is not thread safe, while
+ * {@link #setPatterns(Collection)} atomically replaces all the patterns
+ * and may be called while the set is being tested.</p>
  * <p>This class is designed to work with {@link IncludeExcludeSet}</p>
  *
  * @see IncludeExcludeSet
  */
 public class InetAddressSet extends AbstractSet<String> implements Set<String>, Predicate<InetAddress>
 {
-    private Map<String, InetAddressPattern> _patterns = new HashMap<>();
+    private volatile Map<String, InetAddressPattern> _patterns = new HashMap<>();
+    private volatile Predicate<InetAddress> _matcher;
 
     @Override
     public boolean add(String pattern)
     {
-        return _patterns.put(pattern, InetAddressPattern.from(pattern)) == null;
+        boolean added = _patterns.put(pattern, InetAddressPattern.from(pattern)) == null;
+        _matcher = null;
+        return added;
     }
 
     @Override
     public boolean remove(Object pattern)
     {
-        return _patterns.remove(pattern) != null;
+        boolean removed = _patterns.remove(pattern) != null;
+        _matcher = null;
+        return removed;
+    }
+
+    @Override
+    public void clear()
+    {
+        _patterns.clear();
+        _matcher = null;
+    }
+
+    /**
+     * <p>Atomically replaces all the patterns of this set.</p>
+     * <p>All the patterns are parsed before any is replaced, so that if one
+     * of the patterns is not valid, this set is left unchanged.</p>
+     *
+     * @param patterns the new patterns of this set
+     * @throws IllegalArgumentException if one of the patterns is not valid
+     */
+    public void setPatterns(Collection<String> patterns)
+    {
+        Map<String, InetAddressPattern> map = new HashMap<>();
+        for (String pattern : patterns)
+        {
+            map.put(pattern, InetAddressPattern.from(pattern));
+        }
+        Predicate<InetAddress> matcher = newMatcher(map.values());
+        _patterns = map;
+        _matcher = matcher;
     }
 
     @Override
     public Iterator<String> iterator()
     {
-        return _patterns.keySet().iterator();
+        Iterator<String> iterator = _patterns.keySet().iterator();
+        return new Iterator<>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public String next()
+            {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove()
+            {
+                iterator.remove();
+                _matcher = null;
+            }
+        };
     }
 
     @Override
@@ -64,11 +126,55 @@ public class InetAddressSet extends AbstractSet<String> implements Set<String>,
     {
         if (address == null)
             return false;
-        for (InetAddressPattern pattern : _patterns.values())
+        Predicate<InetAddress> matcher = _matcher;
+        if (matcher == null)
+        {
+            matcher = newMatcher(_patterns.values());
+            _matcher = matcher;
+        }
+        return matcher.test(address);
+    }
+
+    private static Predicate<InetAddress> newMatcher(Collection<InetAddressPattern> patterns)
+    {
+        InetAddressTrie trie = new InetAddressTrie();
+        List<InetAddressPattern> others = new ArrayList<>();
+        for (InetAddressPattern pattern : patterns)
+        {
+            if (pattern instanceof InetAddressPattern.SingletonInetAddressRange singleton)
+                trie.add(singleton._address, singleton._address.getAddress().length * 8);
+            else if (pattern instanceof InetAddressPattern.CidrInetAddressRange cidr)
+                trie.add(cidr._raw, cidr._cidr);
+            else if (pattern instanceof InetAddressPattern.MinMaxInetAddressRange range)
+                trie.add(toBytes(range._min), toBytes(range._max));
+            else
+                others.add(pattern);
+        }
+
+        if (others.isEmpty())
+            return trie;
+        if (trie.isEmpty())
+            return address -> matchesAny(others, address);
+        return address -> trie.test(address) || matchesAny(others, address);
+    }
+
+    private static boolean matchesAny(List<InetAddressPattern> patterns, InetAddress address)
+    {
+        for (InetAddressPattern pattern : patterns)
         {
             if (pattern.test(address))
                 return true;
         }
         return false;
     }
+
+    private static byte[] toBytes(int[] octets)
+    {
+        byte[] bytes = new byte[octets.length];
+        for (int i = 0; i < octets.length; ++i)
+        {
+            bytes[i] = (byte)octets[i];
+        }
+        return bytes;
+    }
 }
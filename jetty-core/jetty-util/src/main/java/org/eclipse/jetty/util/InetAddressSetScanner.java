@@ -0,0 +1,153 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+
+package org.eclipse.jetty.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.component.ContainerLifeCycle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>The {@link InetAddressSetScanner} is used to load the patterns of an {@link InetAddressSet}
+ * from a file, and to monitor that file so that the whole set is atomically replaced
+ * whenever the file is modified.</p>
+ * <p>The file contains one {@link InetAddressPattern} per line. Empty lines are ignored,
+ * as well as the text after a {@code #} character.</p>
+ * <p>The file is loaded when this component is started, failing the start if it cannot
+ * be loaded. If a later reload fails, the patterns of the set are left unchanged.</p>
+ */
+@ManagedObject("Monitors the file of an InetAddressSet")
+public class InetAddressSetScanner extends ContainerLifeCycle implements Scanner.DiscreteListener
+{
+    private static final Logger LOG = LoggerFactory.getLogger(InetAddressSetScanner.class);
+
+    private final InetAddressSet _inetAddressSet;
+    private final Path _file;
+    private final Scanner _scanner;
+
+    public InetAddressSetScanner(InetAddressSet inetAddressSet, Path file)
+    {
+        _inetAddressSet = inetAddressSet;
+        _file = file;
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent == null || !Files.isDirectory(parent))
+            throw new IllegalArgumentException("error obtaining directory of " + file);
+
+        _scanner = new Scanner(null, false);
+        _scanner.addDirectory(parent);
+        _scanner.setScanInterval(1);
+        _scanner.setReportDirs(false);
+        _scanner.setReportExistingFilesOnStartup(false);
+        _scanner.setScanDepth(1);
+        _scanner.addListener(this);
+        installBean(_scanner);
+    }
+
+    public InetAddressSet getInetAddressSet()
+    {
+        return _inetAddressSet;
+    }
+
+    @ManagedAttribute("The monitored file")
+    public Path getFile()
+    {
+        return _file;
+    }
+
+    @Override
+    protected void doStart() throws Exception
+    {
+        load();
+        super.doStart();
+    }
+
+    @Override
+    public void fileAdded(String filename)
+    {
+        if (isMonitoredFile(filename))
+            reload();
+    }
+
+    @Override
+    public void fileChanged(String filename)
+    {
+        if (isMonitoredFile(filename))
+            reload();
+    }
+
+    @Override
+    public void fileRemoved(String filename)
+    {
+        // Keep the current patterns until the file is added back.
+        if (LOG.isDebugEnabled())
+            LOG.debug("fileRemoved {}", filename);
+    }
+
+    private boolean isMonitoredFile(String filename)
+    {
+        if (LOG.isDebugEnabled())
+            LOG.debug("file {} modified, monitoring {}", filename, _file);
+        return _file.toAbsolutePath().toString().equals(filename) || _file.toString().equals(filename);
+    }
+
+    @ManagedOperation(value = "Reload the InetAddressSet file", impact = "ACTION")
+    public void reload()
+    {
+        try
+        {
+            load();
+        }
+        catch (Throwable x)
+        {
+            LOG.warn("Failed to reload {}", _file, x);
+        }
+    }
+
+    private void load() throws IOException
+    {
+        List<String> patterns = new ArrayList<>();
+        for (String line : Files.readAllLines(_file, StandardCharsets.UTF_8))
+        {
+            int comment = line.indexOf('#');
+            String pattern = (comment < 0 ? line : line.substring(0, comment)).trim();
+            if (!pattern.isEmpty())
+                patterns.add(pattern);
+        }
+        _inetAddressSet.setPatterns(patterns);
+        if (LOG.isDebugEnabled())
+            LOG.debug("loaded {} patterns from {}", patterns.size(), _file);
+    }
+
+    @ManagedAttribute("scanning interval in seconds to detect changes of the file")
+    public int getScanInterval()
+    {
+        return _scanner.getScanInterval();
+    }
+
+    public void setScanInterval(int scanInterval)
+    {
+        _scanner.setScanInterval(scanInterval);
+    }
+}
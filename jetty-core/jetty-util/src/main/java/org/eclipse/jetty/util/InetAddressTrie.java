@@ -0,0 +1,250 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+
+package org.eclipse.jetty.util;
+
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.util.function.Predicate;
+
+/**
+ * <p>A compressed binary radix trie of IPv4 and IPv6 address prefixes.</p>
+ * <p>Each node of the trie holds a prefix and only branches where the prefixes
+ * of its children differ, so that an address is tested in at most as many steps
+ * as the bits of its longest matching prefix, regardless of the number of prefixes
+ * in the trie.</p>
+ * <p>IPv4 and IPv6 prefixes are held in separate tries, and an address only
+ * matches prefixes of its own family, like {@link InetAddressPattern} does.</p>
+ * <p>Adding prefixes is not thread safe, but once populated and safely published,
+ * the trie may be tested concurrently.</p>
+ *
+ * @see InetAddressSet
+ */
+public class InetAddressTrie implements Predicate<InetAddress>
+{
+    private final Node _ipv4 = new Node(new byte[4], 0);
+    private final Node _ipv6 = new Node(new byte[16], 0);
+
+    /**
+     * Adds the prefix of the given address.
+     *
+     * @param address the address
+     * @param prefixLength the number of significant bits of the address
+     */
+    public void add(InetAddress address, int prefixLength)
+    {
+        add(address.getAddress(), prefixLength);
+    }
+
+    /**
+     * Adds the inclusive range of addresses between the given addresses,
+     * split into the minimal list of prefixes that cover the range.
+     *
+     * @param min the first address of the range
+     * @param max the last address of the range
+     */
+    public void add(InetAddress min, InetAddress max)
+    {
+        add(min.getAddress(), max.getAddress());
+    }
+
+    void add(byte[] min, byte[] max)
+    {
+        if (min.length != max.length)
+            throw new IllegalArgumentException("Cannot mix IPv4 and IPv6");
+
+        int width = min.length * 8;
+        BigInteger start = new BigInteger(1, min);
+        BigInteger end = new BigInteger(1, max);
+        if (start.compareTo(end) > 0)
+            throw new IllegalArgumentException("min is greater than max");
+
+        BigInteger limit = end.add(BigInteger.ONE);
+        while (start.compareTo(end) <= 0)
+        {
+            // Take the largest block aligned on start that does not go beyond end.
+            int size = start.signum() == 0 ? width : Math.min(width, start.getLowestSetBit());
+            while (size > 0 && start.add(BigInteger.ONE.shiftLeft(size)).compareTo(limit) > 0)
+            {
+                --size;
+            }
+            add(toAddress(start, min.length), width - size);
+            start = start.add(BigInteger.ONE.shiftLeft(size));
+        }
+    }
+
+    void add(byte[] address, int prefixLength)
+    {
+        if (address.length != 4 && address.length != 16)
+            throw new IllegalArgumentException("Bad address length: " + address.length);
+        if (prefixLength < 0 || prefixLength > address.length * 8)
+            throw new IllegalArgumentException("Bad prefix length: " + prefixLength);
+
+        byte[] prefix = mask(address, prefixLength);
+        Node node = address.length == 4 ? _ipv4 : _ipv6;
+        while (true)
+        {
+            // A shorter prefix already covers this prefix.
+            if (node._terminal)
+                return;
+
+            if (node._bits == prefixLength)
+            {
+                node._terminal = true;
+                // Longer prefixes are now redundant.
+                node._zero = null;
+                node._one = null;
+                return;
+            }
+
+            int bit = bit(prefix, node._bits);
+            Node child = node.getChild(bit);
+            if (child == null)
+            {
+                Node leaf = new Node(prefix, prefixLength);
+                leaf._terminal = true;
+                node.setChild(bit, leaf);
+                return;
+            }
+
+            int common = commonPrefixLength(child._prefix, prefix, node._bits, Math.min(child._bits, prefixLength));
+            if (common == child._bits)
+            {
+                node = child;
+                continue;
+            }
+
+            // Split the child at the common prefix.
+            Node split = new Node(mask(prefix, common), common);
+            if (common == prefixLength)
+            {
+                split._terminal = true;
+            }
+            else
+            {
+                split.setChild(bit(child._prefix, common), child);
+                Node leaf = new Node(prefix, prefixLength);
+                leaf._terminal = true;
+                split.setChild(bit(prefix, common), leaf);
+            }
+            node.setChild(bit, split);
+            return;
+        }
+    }
+
+    @Override
+    public boolean test(InetAddress inetAddress)
+    {
+        if (inetAddress == null)
+            return false;
+
+        byte[] address = inetAddress.getAddress();
+        int width = address.length * 8;
+        Node node = address.length == 4 ? _ipv4 : _ipv6;
+        int matched = 0;
+        while (node != null)
+        {
+            if (commonPrefixLength(node._prefix, address, matched, node._bits) < node._bits)
+                return false;
+            if (node._terminal)
+                return true;
+            if (node._bits == width)
+                return false;
+            matched = node._bits;
+            node = node.getChild(bit(address, matched));
+        }
+        return false;
+    }
+
+    /**
+     * @return whether no prefix has been added to this trie
+     */
+    public boolean isEmpty()
+    {
+        return _ipv4.isEmpty() && _ipv6.isEmpty();
+    }
+
+    private static int bit(byte[] address, int index)
+    {
+        return (address[index >>> 3] >>> (7 - (index & 7))) & 1;
+    }
+
+    private static byte[] mask(byte[] address, int prefixLength)
+    {
+        byte[] masked = new byte[address.length];
+        int octets = prefixLength >>> 3;
+        System.arraycopy(address, 0, masked, 0, octets);
+        int bits = prefixLength & 7;
+        if (bits > 0)
+            masked[octets] = (byte)(address[octets] & (0xFF << (8 - bits)));
+        return masked;
+    }
+
+    /**
+     * @return the number of leading bits, up to {@code max}, that are equal in the given
+     * addresses, knowing that the leading {@code from} bits are already equal
+     */
+    private static int commonPrefixLength(byte[] a, byte[] b, int from, int max)
+    {
+        for (int i = from >>> 3; i << 3 < max; ++i)
+        {
+            int diff = (a[i] ^ b[i]) & 0xFF;
+            if (diff != 0)
+                return Math.min(max, (i << 3) + Integer.numberOfLeadingZeros(diff) - 24);
+        }
+        return max;
+    }
+
+    private static byte[] toAddress(BigInteger value, int length)
+    {
+        byte[] bytes = value.toByteArray();
+        byte[] address = new byte[length];
+        int count = Math.min(length, bytes.length);
+        System.arraycopy(bytes, bytes.length - count, address, length - count, count);
+        return address;
+    }
+
+    private static class Node
+    {
+        private final byte[] _prefix;
+        private final int _bits;
+        private boolean _terminal;
+        private Node _zero;
+        private Node _one;
+
+        private Node(byte[] prefix, int bits)
+        {
+            _prefix = prefix;
+            _bits = bits;
+        }
+
+        private Node getChild(int bit)
+        {
+            return bit == 0 ? _zero : _one;
+        }
+
+        private void setChild(int bit, Node child)
+        {
+            if (bit == 0)
+                _zero = child;
+            else
+                _one = child;
+        }
+
+        private boolean isEmpty()
+        {
+            return !_terminal && _zero == null && _one == null;
+        }
+    }
+}
@@ -380,6 +380,21 @@ public class RolloverFileOutputStream extends OutputStream
         }
     }
 
+    /**
+     * <p>Flushes this stream and forces the current file to be written to the storage device.</p>
+     *
+     * @throws IOException if the file cannot be synced
+     */
+    public void sync() throws IOException
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            _out.flush();
+            if (_out instanceof FileOutputStream fileOut)
+                fileOut.getFD().sync();
+        }
+    }
+
     @Override
     public void close() throws IOException
     {
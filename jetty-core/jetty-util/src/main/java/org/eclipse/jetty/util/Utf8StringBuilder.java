@@ -16,7 +16,9 @@ package org.eclipse.jetty.util;
 import java.io.IOException;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.CodingErrorAction;
 import java.util.function.Supplier;
@@ -76,6 +78,8 @@ public class Utf8StringBuilder implements CharsetStringBuilder
             12, 36, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12
         };
 
+    private static final long ASCII_MASK = 0x8080808080808080L;
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.nativeOrder());
     private static final MethodHandle REPORT;
     private static final MethodHandle REPLACE;
     private static final MethodHandle IGNORE;
@@ -279,17 +283,43 @@ public class Utf8StringBuilder implements CharsetStringBuilder
     @Override
     public void append(ByteBuffer buf)
     {
+        int end = buf.limit();
+        int i = buf.position();
         try
         {
-            while (buf.remaining() > 0)
+            while (i < end)
             {
-                appendByte(buf.get());
+                byte b = buf.get(i);
+                if (b >= 0 && _state == UTF8_ACCEPT)
+                {
+                    // Append runs of ASCII bytes without going through the state machine.
+                    int ascii = asciiEnd(buf, i, end);
+                    if (buf.hasArray())
+                    {
+                        bufferAppend(buf.array(), buf.arrayOffset() + i, ascii - i);
+                        i = ascii;
+                    }
+                    else
+                    {
+                        for (; i < ascii; i++)
+                        {
+                            bufferAppend((char)buf.get(i));
+                        }
+                    }
+                    continue;
+                }
+                i++;
+                appendByte(b);
             }
         }
         catch (IOException e)
         {
             throw new RuntimeException(e);
         }
+        finally
+        {
+            buf.position(i);
+        }
     }
 
     @Override
@@ -304,9 +334,18 @@ public class Utf8StringBuilder implements CharsetStringBuilder
         try
         {
             int end = offset + length;
-            for (int i = offset; i < end; i++)
+            int i = offset;
+            while (i < end)
             {
-                appendByte(b[i]);
+                if (b[i] >= 0 && _state == UTF8_ACCEPT)
+                {
+                    // Append runs of ASCII bytes without going through the state machine.
+                    int ascii = asciiEnd(b, i, end);
+                    bufferAppend(b, i, ascii - i);
+                    i = ascii;
+                    continue;
+                }
+                appendByte(b[i++]);
             }
         }
         catch (IOException e)
@@ -339,6 +378,59 @@ public class Utf8StringBuilder implements CharsetStringBuilder
         _buffer.append(c);
     }
 
+    /**
+     * <p>Appends to the buffer a run of ASCII bytes, that are also their own characters.</p>
+     *
+     * @param ascii the array containing the ASCII bytes
+     * @param offset the offset of the first ASCII byte
+     * @param length the number of ASCII bytes
+     */
+    protected void bufferAppend(byte[] ascii, int offset, int length)
+    {
+        _buffer.ensureCapacity(_buffer.length() + length);
+        int end = offset + length;
+        for (int i = offset; i < end; i++)
+        {
+            _buffer.append((char)ascii[i]);
+        }
+    }
+
+    /**
+     * @return the index of the first non ASCII byte at or after {@code offset}, or {@code end}
+     */
+    private static int asciiEnd(ByteBuffer buf, int offset, int end)
+    {
+        int i = offset;
+        // Test 8 bytes at a time for their high bit.
+        while (i + 8 <= end && (buf.getLong(i) & ASCII_MASK) == 0)
+        {
+            i += 8;
+        }
+        while (i < end && buf.get(i) >= 0)
+        {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return the index of the first non ASCII byte at or after {@code offset}, or {@code end}
+     */
+    private static int asciiEnd(byte[] b, int offset, int end)
+    {
+        int i = offset;
+        // Test 8 bytes at a time for their high bit.
+        while (i + 8 <= end && ((long)LONG_VIEW.get(b, i) & ASCII_MASK) == 0)
+        {
+            i += 8;
+        }
+        while (i < end && b[i] >= 0)
+        {
+            i++;
+        }
+        return i;
+    }
+
     protected void bufferReset()
     {
         _buffer.setLength(0);
@@ -0,0 +1,159 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.compression;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+import java.util.ServiceLoader;
+
+import org.eclipse.jetty.util.StringUtil;
+import org.eclipse.jetty.util.TypeUtil;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.component.ContainerLifeCycle;
+
+/**
+ * <p>A compression algorithm, identified by its HTTP content-coding name such as
+ * {@code gzip}, {@code br} or {@code zstd}.</p>
+ * <p>A {@code Compression} creates {@link Encoder}s, typically backed by a
+ * {@link CompressionPool} of native encoders, that compress content incrementally.</p>
+ * <p>{@link GzipCompression} is always available, while other algorithms that
+ * require third party libraries can be provided by implementations of this class
+ * registered as {@link ServiceLoader} services, and discovered with {@link #loadAll()}.
+ * The {@code jetty-compression-brotli} and {@code jetty-compression-zstd} modules
+ * provide the {@code br} and {@code zstd} content-codings.</p>
+ */
+@ManagedObject
+public abstract class Compression extends ContainerLifeCycle
+{
+    private final String _encoding;
+    private final String _extension;
+
+    /**
+     * @param encoding the HTTP content-coding name
+     * @param extension the file extension of pre-compressed resources, for example {@code .gz}
+     */
+    protected Compression(String encoding, String extension)
+    {
+        _encoding = StringUtil.asciiToLowerCase(Objects.requireNonNull(encoding));
+        _extension = Objects.requireNonNull(extension);
+    }
+
+    /**
+     * @return the HTTP content-coding name, in lower case
+     */
+    @ManagedAttribute("The HTTP content-coding name")
+    public String getEncoding()
+    {
+        return _encoding;
+    }
+
+    /**
+     * @return the file extension of pre-compressed resources, for example {@code .gz}
+     */
+    @ManagedAttribute("The file extension of pre-compressed resources")
+    public String getExtension()
+    {
+        return _extension;
+    }
+
+    /**
+     * <p>Creates a new {@link Encoder}, which must be closed once the encoding is finished,
+     * or if it is abandoned, so that its resources can be reused.</p>
+     *
+     * @param syncFlush whether each call to {@link Encoder#encode(ByteBuffer)} must produce
+     * all the output for the input provided so far, at the expense of the compression ratio
+     * @return a new encoder
+     */
+    public abstract Encoder newEncoder(boolean syncFlush);
+
+    /**
+     * <p>Discovers the {@code Compression} implementations registered as {@link ServiceLoader} services.</p>
+     * <p>Implementations that fail to load, for example because a native library is not available,
+     * are skipped.</p>
+     *
+     * @return the discovered {@code Compression} implementations
+     */
+    public static List<Compression> loadAll()
+    {
+        return TypeUtil.serviceStream(ServiceLoader.load(Compression.class)).toList();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x{%s,%s}", getClass().getSimpleName(), hashCode(), getState(), _encoding);
+    }
+
+    /**
+     * <p>A stateful, incremental compressor of content.</p>
+     * <p>Typical usage is:</p>
+     * <pre>{@code
+     * encoder.setInput(content);
+     * while (!encoder.needsInput())
+     *     write(encoder.encode(output));
+     * // Repeat for more content, then:
+     * encoder.finish();
+     * while (!encoder.isFinished())
+     *     write(encoder.encode(output));
+     * encoder.close();
+     * }</pre>
+     * <p>Encoders produce the complete content-coding format, including any header
+     * and trailer, and are not thread-safe.</p>
+     */
+    public interface Encoder extends Closeable
+    {
+        /**
+         * <p>Sets the content to compress.</p>
+         * <p>The buffer is consumed by subsequent calls to {@link #encode(ByteBuffer)},
+         * so it must not be modified until {@link #needsInput()} returns {@code true}.</p>
+         *
+         * @param input the content to compress
+         */
+        void setInput(ByteBuffer input);
+
+        /**
+         * <p>Signals that no more content will be provided.</p>
+         */
+        void finish();
+
+        /**
+         * <p>Compresses the content provided so far into the given buffer.</p>
+         *
+         * @param output the buffer, in fill mode, where the compressed bytes are written at its position
+         * @return the number of compressed bytes written
+         */
+        int encode(ByteBuffer output);
+
+        /**
+         * @return whether all the content provided so far has been compressed and written,
+         * so that more content can be provided
+         */
+        boolean needsInput();
+
+        /**
+         * @return whether all the compressed bytes, including any trailer, have been written
+         * after a call to {@link #finish()}
+         */
+        boolean isFinished();
+
+        /**
+         * <p>Releases the resources of this encoder.</p>
+         */
+        @Override
+        void close();
+    }
+}
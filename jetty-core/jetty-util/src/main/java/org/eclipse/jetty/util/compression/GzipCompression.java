@@ -0,0 +1,169 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.compression;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * <p>The {@code gzip} {@link Compression}, as specified by RFC 1952,
+ * that uses {@link Deflater}s from a {@link DeflaterPool}.</p>
+ */
+public class GzipCompression extends Compression
+{
+    // Per RFC-1952 this is the "unknown" OS value byte.
+    private static final byte OS_UNKNOWN = (byte)0xFF;
+    private static final byte[] GZIP_HEADER = new byte[]{
+        (byte)0x1f, (byte)0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, OS_UNKNOWN
+    };
+
+    private DeflaterPool _deflaterPool;
+
+    public GzipCompression()
+    {
+        this(null);
+    }
+
+    /**
+     * @param deflaterPool the pool of {@link Deflater}s, which must produce raw deflate data
+     * (i.e. created with {@code nowrap=true}), or {@code null} to use a default pool
+     */
+    public GzipCompression(DeflaterPool deflaterPool)
+    {
+        super("gzip", ".gz");
+        _deflaterPool = deflaterPool;
+        if (deflaterPool != null)
+            installBean(deflaterPool, false);
+    }
+
+    public DeflaterPool getDeflaterPool()
+    {
+        return _deflaterPool;
+    }
+
+    @Override
+    protected void doStart() throws Exception
+    {
+        if (_deflaterPool == null)
+        {
+            _deflaterPool = new DeflaterPool(CompressionPool.DEFAULT_CAPACITY, Deflater.DEFAULT_COMPRESSION, true);
+            addBean(_deflaterPool, true);
+        }
+        super.doStart();
+    }
+
+    @Override
+    public Encoder newEncoder(boolean syncFlush)
+    {
+        return new GzipEncoder(_deflaterPool.acquire(), syncFlush);
+    }
+
+    private static class GzipEncoder implements Encoder
+    {
+        private final CRC32 _crc = new CRC32();
+        // Holds the GZIP header, then the GZIP trailer, that may not fit in a single output buffer.
+        private final ByteBuffer _frame = ByteBuffer.allocate(GZIP_HEADER.length).order(ByteOrder.LITTLE_ENDIAN);
+        private final DeflaterPool.Entry _deflaterEntry;
+        private final boolean _syncFlush;
+        private boolean _finishing;
+        private boolean _flushing;
+        private boolean _trailer;
+
+        private GzipEncoder(DeflaterPool.Entry deflaterEntry, boolean syncFlush)
+        {
+            _deflaterEntry = deflaterEntry;
+            _syncFlush = syncFlush;
+            _frame.put(GZIP_HEADER).flip();
+        }
+
+        @Override
+        public void setInput(ByteBuffer input)
+        {
+            _crc.update(input.slice());
+            _deflaterEntry.get().setInput(input);
+        }
+
+        @Override
+        public void finish()
+        {
+            _finishing = true;
+            _deflaterEntry.get().finish();
+        }
+
+        @Override
+        public int encode(ByteBuffer output)
+        {
+            int position = output.position();
+            if (drainFrame(output))
+            {
+                Deflater deflater = _deflaterEntry.get();
+                if (!deflater.finished() && (_finishing || _flushing || !deflater.needsInput()))
+                {
+                    int space = output.remaining();
+                    int deflated = deflater.deflate(output, _syncFlush ? Deflater.SYNC_FLUSH : Deflater.NO_FLUSH);
+                    // A sync flush that fills the output must be repeated to flush the remaining bytes.
+                    _flushing = _syncFlush && deflated == space;
+                }
+
+                if (deflater.finished() && !_trailer)
+                {
+                    _trailer = true;
+                    _frame.clear();
+                    _frame.putInt((int)_crc.getValue());
+                    _frame.putInt((int)deflater.getBytesRead());
+                    _frame.flip();
+                    drainFrame(output);
+                }
+            }
+            return output.position() - position;
+        }
+
+        private boolean drainFrame(ByteBuffer output)
+        {
+            int length = Math.min(_frame.remaining(), output.remaining());
+            if (length > 0)
+            {
+                output.put(_frame.slice(_frame.position(), length));
+                _frame.position(_frame.position() + length);
+            }
+            return !_frame.hasRemaining();
+        }
+
+        @Override
+        public boolean needsInput()
+        {
+            return !_finishing && !_flushing && !_frame.hasRemaining() && _deflaterEntry.get().needsInput();
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return _trailer && !_frame.hasRemaining();
+        }
+
+        @Override
+        public void close()
+        {
+            _deflaterEntry.release();
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x{%s,finishing=%b,finished=%b}", getClass().getSimpleName(), hashCode(), _deflaterEntry.get(), _finishing, isFinished());
+        }
+    }
+}
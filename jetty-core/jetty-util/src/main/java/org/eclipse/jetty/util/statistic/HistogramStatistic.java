@@ -0,0 +1,251 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.statistic;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.jetty.util.NanoTime;
+
+/**
+ * <p>Statistics on the distribution of a sampled value, such as a latency,
+ * providing percentiles of the samples recorded in a rolling time window.</p>
+ * <p>Samples are counted in log-linear buckets, similarly to
+ * <a href="https://hdrhistogram.github.io/HdrHistogram/">HdrHistogram</a>:
+ * each power of two range of values is split into {@code 2^precision}
+ * buckets of equal width, so that the values reported by
+ * {@link #getValueAtPercentile(double)} have a relative error of at most
+ * {@code 2^-precision}, for example about 3% with the default precision
+ * of {@code 5}.</p>
+ * <p>The window is split into slots, each with its own buckets: the oldest
+ * slot is cleared and reused once its time has passed, so that the
+ * percentiles only account for the samples of the last window.</p>
+ * <p>Recording a sample is lock-free and does not allocate, so it is cheap
+ * enough to be always enabled, while computing the percentiles iterates
+ * over all the buckets, so it should be done infrequently.</p>
+ */
+public class HistogramStatistic
+{
+    private final int _precision;
+    private final long _slotNanos;
+    private final Slot[] _slots;
+
+    /**
+     * <p>Creates a histogram with a precision of {@code 5} and a
+     * window of 1 minute, split in 6 slots of 10 seconds.</p>
+     */
+    public HistogramStatistic()
+    {
+        this(5, Duration.ofMinutes(1), 6);
+    }
+
+    /**
+     * @param precision the number of bits of precision, between {@code 1} and {@code 10}
+     * @param window the duration of the rolling window
+     * @param slots the number of slots of the rolling window
+     */
+    public HistogramStatistic(int precision, Duration window, int slots)
+    {
+        if (precision < 1 || precision > 10)
+            throw new IllegalArgumentException("Invalid precision " + precision);
+        if (slots < 1)
+            throw new IllegalArgumentException("Invalid slots " + slots);
+        _precision = precision;
+        _slotNanos = Math.max(1, window.toNanos() / slots);
+        _slots = new Slot[slots];
+        int buckets = (64 - precision) << precision;
+        for (int i = 0; i < slots; ++i)
+        {
+            _slots[i] = new Slot(buckets);
+        }
+    }
+
+    /**
+     * Resets the statistics.
+     */
+    public void reset()
+    {
+        for (Slot slot : _slots)
+        {
+            slot.clear();
+        }
+    }
+
+    /**
+     * Records a sample value.
+     *
+     * @param sample the value to record, negative values are recorded as {@code 0}
+     */
+    public void record(long sample)
+    {
+        record(sample, NanoTime.now());
+    }
+
+    void record(long sample, long nanoTime)
+    {
+        long epoch = Math.floorDiv(nanoTime, _slotNanos);
+        Slot slot = _slots[Math.floorMod(epoch, _slots.length)];
+        slot.rotate(epoch);
+        slot._counts.incrementAndGet(bucketOf(Math.max(0, sample)));
+    }
+
+    /**
+     * Get the number of samples recorded in the window.
+     * @return the number of samples recorded in the window
+     */
+    public long getCount()
+    {
+        return getCount(NanoTime.now());
+    }
+
+    long getCount(long nanoTime)
+    {
+        long count = 0;
+        for (long c : snapshot(nanoTime))
+        {
+            count += c;
+        }
+        return count;
+    }
+
+    /**
+     * <p>Get the value below which the given percentage of the samples
+     * recorded in the window fall, or zero if there are no samples.</p>
+     *
+     * @param percentile the percentage, between {@code 0} and {@code 100}, for example {@code 99.9}
+     * @return the value at the given percentile, or zero if there are no samples
+     */
+    public long getValueAtPercentile(double percentile)
+    {
+        return getValueAtPercentile(percentile, NanoTime.now());
+    }
+
+    long getValueAtPercentile(double percentile, long nanoTime)
+    {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("Invalid percentile " + percentile);
+
+        long[] counts = snapshot(nanoTime);
+        long total = 0;
+        for (long count : counts)
+        {
+            total += count;
+        }
+        if (total == 0)
+            return 0;
+
+        long target = Math.max(1, (long)Math.ceil(percentile * total / 100.0D));
+        long cumulative = 0;
+        for (int bucket = 0; bucket < counts.length; ++bucket)
+        {
+            cumulative += counts[bucket];
+            if (cumulative >= target)
+                return highestValueOf(bucket);
+        }
+        return highestValueOf(counts.length - 1);
+    }
+
+    /**
+     * Get the max value of the samples recorded in the window, within the precision of this histogram.
+     * @return the max value of the samples recorded in the window, or zero if there are no samples
+     */
+    public long getMax()
+    {
+        return getValueAtPercentile(100);
+    }
+
+    private long[] snapshot(long nanoTime)
+    {
+        long epoch = Math.floorDiv(nanoTime, _slotNanos);
+        long[] counts = new long[_slots[0]._counts.length()];
+        for (Slot slot : _slots)
+        {
+            long slotEpoch = slot._epoch.get();
+            // Skip the slots that are outside the window.
+            if (slotEpoch > epoch || slotEpoch <= epoch - _slots.length)
+                continue;
+            for (int bucket = 0; bucket < counts.length; ++bucket)
+            {
+                counts[bucket] += slot._counts.get(bucket);
+            }
+        }
+        return counts;
+    }
+
+    int bucketOf(long value)
+    {
+        int subBuckets = 1 << _precision;
+        if (value < subBuckets)
+            return (int)value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - _precision;
+        int subBucket = (int)(value >>> shift);
+        return ((shift + 1) << _precision) + subBucket - subBuckets;
+    }
+
+    long highestValueOf(int bucket)
+    {
+        int subBuckets = 1 << _precision;
+        if (bucket < subBuckets)
+            return bucket;
+        int shift = (bucket >> _precision) - 1;
+        long subBucket = subBuckets + (bucket & (subBuckets - 1));
+        long highest = ((subBucket + 1) << shift) - 1;
+        // The last bucket overflows.
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(Locale.ROOT, "%s@%x{count=%d,p50=%d,p90=%d,p99=%d,p999=%d,max=%d}",
+            getClass().getSimpleName(), hashCode(), getCount(),
+            getValueAtPercentile(50), getValueAtPercentile(90), getValueAtPercentile(99), getValueAtPercentile(99.9), getMax());
+    }
+
+    private static class Slot
+    {
+        private final AtomicLong _epoch = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicLongArray _counts;
+
+        private Slot(int buckets)
+        {
+            _counts = new AtomicLongArray(buckets);
+        }
+
+        private void rotate(long epoch)
+        {
+            long current = _epoch.get();
+            // Samples recorded concurrently with the rotation may be lost,
+            // which is an acceptable imprecision for statistics.
+            if (current < epoch && _epoch.compareAndSet(current, epoch))
+                clearCounts();
+        }
+
+        private void clear()
+        {
+            _epoch.set(Long.MIN_VALUE);
+            clearCounts();
+        }
+
+        private void clearCounts()
+        {
+            for (int i = 0; i < _counts.length(); ++i)
+            {
+                _counts.set(i, 0);
+            }
+        }
+    }
+}
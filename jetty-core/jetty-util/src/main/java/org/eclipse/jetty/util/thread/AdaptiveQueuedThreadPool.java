@@ -0,0 +1,273 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.thread;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.NanoTime;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.statistic.SampleStatistic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A {@link MonitoredQueuedThreadPool} that adapts its size to hold the time tasks
+ * remain in the queue close to a {@link #getQueueLatencyTarget() target}.</p>
+ * <p>Every {@link #getControlPeriod() control period}, the average time tasks remained
+ * in the queue and the average task execution time during the period are measured.
+ * When the queue latency is above the target, the number of threads available to
+ * transient jobs grows quickly, to at least the number of threads needed to sustain
+ * the task arrival rate, and all the reserved threads are kept when idle.
+ * When the queue latency is well below the target, the number of threads shrinks
+ * slowly, so that threads in excess of the demand are evicted after the
+ * {@link #getIdleTimeout() idle timeout}, rather than thrashing the CPU caches.</p>
+ * <p>The number of threads is adapted by adjusting {@link #getMaxThreads()} between
+ * {@link #getMinThreads()} and {@link #getMaxThreadsLimit()}; setting the maximum
+ * number of threads sets the limit.</p>
+ */
+@ManagedObject
+public class AdaptiveQueuedThreadPool extends MonitoredQueuedThreadPool
+{
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveQueuedThreadPool.class);
+
+    private int _maxThreadsLimit;
+    private long _queueLatencyTarget = 10;
+    private long _controlPeriod = 1000;
+    private Scheduler _scheduler;
+    private Scheduler.Task _task;
+    private long _lastControl;
+    private long _lastQueueLatencyTotal;
+    private long _lastQueueLatencyCount;
+    private long _lastTaskLatencyTotal;
+    private long _lastTaskLatencyCount;
+    private volatile long _recentQueueLatency;
+    private volatile double _recentDemand;
+
+    public AdaptiveQueuedThreadPool()
+    {
+        this(256);
+    }
+
+    public AdaptiveQueuedThreadPool(int maxThreads)
+    {
+        this(maxThreads, Math.min(8, maxThreads), 60000, new BlockingArrayQueue<>(maxThreads, 256));
+    }
+
+    public AdaptiveQueuedThreadPool(int maxThreads, int minThreads, int idleTimeout, BlockingQueue<Runnable> queue)
+    {
+        super(maxThreads, minThreads, idleTimeout, queue);
+        _maxThreadsLimit = maxThreads;
+    }
+
+    /**
+     * @return the maximum number of threads the pool can adapt to
+     */
+    @ManagedAttribute("maximum number of threads the pool can adapt to")
+    public int getMaxThreadsLimit()
+    {
+        return _maxThreadsLimit;
+    }
+
+    /**
+     * <p>Sets the maximum number of threads the pool can adapt to.</p>
+     *
+     * @param maxThreads the maximum number of threads
+     */
+    @Override
+    public void setMaxThreads(int maxThreads)
+    {
+        _maxThreadsLimit = maxThreads;
+        super.setMaxThreads(maxThreads);
+    }
+
+    /**
+     * @return the target average time a task remains in the queue, in milliseconds
+     */
+    @ManagedAttribute("target average time a task remains in the queue, in ms")
+    public long getQueueLatencyTarget()
+    {
+        return _queueLatencyTarget;
+    }
+
+    /**
+     * @param queueLatencyTarget the target average time a task remains in the queue, in milliseconds
+     */
+    public void setQueueLatencyTarget(long queueLatencyTarget)
+    {
+        if (queueLatencyTarget <= 0)
+            throw new IllegalArgumentException("Invalid queue latency target: " + queueLatencyTarget);
+        _queueLatencyTarget = queueLatencyTarget;
+    }
+
+    /**
+     * @return the period between adaptations of the pool size, in milliseconds
+     */
+    @ManagedAttribute("period between adaptations of the pool size, in ms")
+    public long getControlPeriod()
+    {
+        return _controlPeriod;
+    }
+
+    /**
+     * @param controlPeriod the period between adaptations of the pool size, in milliseconds
+     */
+    public void setControlPeriod(long controlPeriod)
+    {
+        if (controlPeriod <= 0)
+            throw new IllegalArgumentException("Invalid control period: " + controlPeriod);
+        if (isRunning())
+            throw new IllegalStateException(getState());
+        _controlPeriod = controlPeriod;
+    }
+
+    /**
+     * @return the average time tasks remained in the queue during the last control period, in nanoseconds
+     */
+    @ManagedAttribute("average time tasks remained in the queue during the last control period, in ns")
+    public long getRecentQueueLatency()
+    {
+        return _recentQueueLatency;
+    }
+
+    /**
+     * @return the number of threads needed to sustain the task arrival rate of the last control period
+     */
+    @ManagedAttribute("number of threads needed to sustain the task arrival rate of the last control period")
+    public double getRecentDemand()
+    {
+        return _recentDemand;
+    }
+
+    @Override
+    public boolean isLowOnThreads()
+    {
+        // Low on threads only if the pool cannot grow anymore.
+        return getMaxThreadsLimit() - getThreads() + getReadyThreads() - getQueueSize() <= getLowThreadsThreshold();
+    }
+
+    @Override
+    protected void doStart() throws Exception
+    {
+        super.setMaxThreads(_maxThreadsLimit);
+        super.doStart();
+        _lastControl = NanoTime.now();
+        _scheduler = new ScheduledExecutorScheduler(getName() + "-adaptive", true);
+        _scheduler.start();
+        _task = _scheduler.schedule(this::control, _controlPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected void doStop() throws Exception
+    {
+        Scheduler scheduler = _scheduler;
+        _scheduler = null;
+        if (scheduler != null)
+        {
+            _task.cancel();
+            scheduler.stop();
+        }
+        super.doStop();
+        super.setMaxThreads(_maxThreadsLimit);
+    }
+
+    private void control()
+    {
+        if (!isRunning())
+            return;
+        try
+        {
+            adapt();
+        }
+        catch (Throwable x)
+        {
+            LOG.warn("Could not adapt {}", this, x);
+        }
+        finally
+        {
+            Scheduler scheduler = _scheduler;
+            if (scheduler != null && isRunning())
+                _task = scheduler.schedule(this::control, _controlPeriod, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void adapt()
+    {
+        long now = NanoTime.now();
+        long period = NanoTime.elapsed(_lastControl, now);
+        _lastControl = now;
+
+        SampleStatistic queueStats = getQueueLatencyStatistic();
+        long queueLatencyTotal = queueStats.getTotal();
+        long queueLatencyCount = queueStats.getCount();
+        SampleStatistic taskStats = getTaskLatencyStatistic();
+        long taskLatencyTotal = taskStats.getTotal();
+        long taskLatencyCount = taskStats.getCount();
+        long queued = queueLatencyCount - _lastQueueLatencyCount;
+        long queueLatency = queueLatencyTotal - _lastQueueLatencyTotal;
+        long executed = taskLatencyCount - _lastTaskLatencyCount;
+        long taskLatency = taskLatencyTotal - _lastTaskLatencyTotal;
+        _lastQueueLatencyTotal = queueLatencyTotal;
+        _lastQueueLatencyCount = queueLatencyCount;
+        _lastTaskLatencyTotal = taskLatencyTotal;
+        _lastTaskLatencyCount = taskLatencyCount;
+
+        // The statistics have been reset during the period.
+        if (queued < 0 || queueLatency < 0 || executed < 0 || taskLatency < 0 || period <= 0)
+            return;
+
+        // Little's law: the threads needed are the arrival rate times the execution time.
+        long averageQueueLatency = queued == 0 ? 0 : queueLatency / queued;
+        double averageTaskLatency = executed == 0 ? 0 : (double)taskLatency / executed;
+        double demand = queued * averageTaskLatency / period;
+        _recentQueueLatency = averageQueueLatency;
+        _recentDemand = demand;
+
+        // Tasks waiting in the queue while none was dequeued also exceed the target.
+        long target = TimeUnit.MILLISECONDS.toNanos(getQueueLatencyTarget());
+        boolean overloaded = averageQueueLatency > target || (queued == 0 && getQueueSize() > 0);
+
+        int leased = getMaxLeasedThreads();
+        int available = getMaxThreads() - leased;
+        int minAvailable = Math.max(1, getMinThreads() - leased);
+        int maxAvailable = Math.max(minAvailable, getMaxThreadsLimit() - leased);
+        int needed = (int)Math.ceil(demand);
+        int adapted = available;
+        if (overloaded)
+            adapted = Math.max(available + Math.max(1, available / 2), needed + 1);
+        else if (averageQueueLatency < target / 2)
+            adapted = Math.max(available - Math.max(1, available / 8), needed + 1);
+        adapted = Math.max(minAvailable, Math.min(maxAvailable, adapted));
+
+        if (LOG.isDebugEnabled())
+            LOG.debug("Adapting queueLatency={}ns taskLatency={}ns demand={} available={}->{} {}",
+                averageQueueLatency, (long)averageTaskLatency, demand, available, adapted, this);
+
+        if (adapted != available)
+            super.setMaxThreads(leased + adapted);
+
+        if (getBean(TryExecutor.class) instanceof ReservedThreadExecutor reserved)
+        {
+            int capacity = reserved.getCapacity();
+            int minSize = reserved.getMinSize();
+            if (overloaded)
+                minSize = capacity;
+            else if (averageQueueLatency < target / 2)
+                minSize = Math.max(Math.min(1, capacity), minSize - 1);
+            reserved.setMinSize(minSize);
+        }
+    }
+}
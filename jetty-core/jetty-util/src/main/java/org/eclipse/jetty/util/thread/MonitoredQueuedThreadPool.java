@@ -88,6 +88,22 @@ public class MonitoredQueuedThreadPool extends QueuedThreadPool
         });
     }
 
+    /**
+     * @return the statistic of the time tasks remain in the queue, in nanoseconds
+     */
+    SampleStatistic getQueueLatencyStatistic()
+    {
+        return queueLatencyStats;
+    }
+
+    /**
+     * @return the statistic of the task execution time, in nanoseconds
+     */
+    SampleStatistic getTaskLatencyStatistic()
+    {
+        return taskLatencyStats;
+    }
+
     /**
      * Resets the statistics.
      */
@@ -409,6 +409,10 @@ public class QueuedThreadPool extends ContainerLifeCycle implements ThreadFactor
         _maxThreads = maxThreads;
         if (_minThreads > _maxThreads)
             _minThreads = _maxThreads;
+
+        // Queued jobs may now be run by new threads.
+        if (isStarted())
+            ensureThreads();
     }
 
     /**
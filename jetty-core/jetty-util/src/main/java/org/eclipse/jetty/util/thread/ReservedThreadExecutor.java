@@ -48,7 +48,7 @@ public class ReservedThreadExecutor extends ContainerLifeCycle implements TryExe
     private final Executor _executor;
     private final ThreadIdPool<ReservedThread> _threads;
     private final AtomicInteger _pending = new AtomicInteger();
-    private final int _minSize;
+    private volatile int _minSize;
     private final int _maxPending;
     private ThreadPoolBudget.Lease _lease;
     private long _idleTimeoutMs;
@@ -148,6 +148,28 @@ public class ReservedThreadExecutor extends ContainerLifeCycle implements TryExe
         return _threads.size();
     }
 
+    /**
+     * @return the minimum number of reserved threads that are kept when idle
+     */
+    @ManagedAttribute("minimum number of reserved threads kept when idle")
+    public int getMinSize()
+    {
+        return _minSize;
+    }
+
+    /**
+     * <p>Sets the minimum number of reserved threads that are kept when idle,
+     * while the other reserved threads return to the executor after the idle timeout.</p>
+     *
+     * @param minSize the minimum number of reserved threads, between 0 and the {@link #getCapacity() capacity}
+     */
+    public void setMinSize(int minSize)
+    {
+        if (minSize < 0 || minSize > getCapacity())
+            throw new IllegalArgumentException("minSize out of range: " + minSize);
+        _minSize = minSize;
+    }
+
     @ManagedAttribute(value = "pending reserved threads (deprecated)", readonly = true)
     @Deprecated
     public int getPending()
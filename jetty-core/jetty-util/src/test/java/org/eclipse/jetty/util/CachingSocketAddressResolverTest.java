@@ -0,0 +1,207 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CachingSocketAddressResolverTest
+{
+    @Test
+    public void testConcurrentResolutionsCoalesced() throws Exception
+    {
+        PendingResolver pending = new PendingResolver();
+        CachingSocketAddressResolver resolver = new CachingSocketAddressResolver(pending);
+
+        CompletableFuture<List<InetSocketAddress>> result1 = new CompletableFuture<>();
+        resolver.resolve("example.com", 80, Promise.from(result1));
+        CompletableFuture<List<InetSocketAddress>> result2 = new CompletableFuture<>();
+        resolver.resolve("EXAMPLE.com", 443, Promise.from(result2));
+        assertEquals(1, pending.promises.size());
+        assertFalse(result1.isDone());
+        assertFalse(result2.isDone());
+
+        pending.succeed(0, "10.0.0.1", "10.0.0.2");
+        assertThat(result1.get(5, TimeUnit.SECONDS), contains(
+            new InetSocketAddress(InetAddress.getByName("10.0.0.1"), 80),
+            new InetSocketAddress(InetAddress.getByName("10.0.0.2"), 80)));
+        assertThat(result2.get(5, TimeUnit.SECONDS), contains(
+            new InetSocketAddress(InetAddress.getByName("10.0.0.1"), 443),
+            new InetSocketAddress(InetAddress.getByName("10.0.0.2"), 443)));
+
+        CompletableFuture<List<InetSocketAddress>> result3 = new CompletableFuture<>();
+        resolver.resolve("example.com", 8080, Promise.from(result3));
+        assertTrue(result3.isDone());
+        assertEquals(1, pending.promises.size());
+        assertEquals(1, resolver.getResolutions());
+        assertEquals(1, resolver.getCoalesced());
+        assertEquals(1, resolver.getHits());
+        assertEquals(2, resolver.getMisses());
+    }
+
+    @Test
+    public void testNegativeTTL() throws Exception
+    {
+        PendingResolver pending = new PendingResolver();
+        CachingSocketAddressResolver resolver = new CachingSocketAddressResolver(pending);
+        resolver.setNegativeTTL(500);
+
+        CompletableFuture<List<InetSocketAddress>> result1 = new CompletableFuture<>();
+        resolver.resolve("unknown", 80, Promise.from(result1));
+        pending.fail(0);
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> result1.get(5, TimeUnit.SECONDS));
+        assertThat(failure.getCause(), instanceOf(UnknownHostException.class));
+
+        CompletableFuture<List<InetSocketAddress>> result2 = new CompletableFuture<>();
+        resolver.resolve("unknown", 80, Promise.from(result2));
+        assertTrue(result2.isCompletedExceptionally());
+        assertEquals(1, pending.promises.size());
+
+        await().atMost(5, TimeUnit.SECONDS).until(() ->
+        {
+            resolver.resolve("unknown", 80, Promise.noop());
+            return pending.promises.size();
+        }, is(2));
+    }
+
+    @Test
+    public void testHotHostRefreshedBeforeExpiration() throws Exception
+    {
+        PendingResolver pending = new PendingResolver();
+        CachingSocketAddressResolver resolver = new CachingSocketAddressResolver(pending);
+        resolver.setPositiveTTL(1000);
+        resolver.setRefreshThreshold(0.5);
+
+        resolver.resolve("example.com", 80, Promise.noop());
+        pending.succeed(0, "10.0.0.1");
+
+        // After the refresh threshold, the cached address is
+        // returned while the host is resolved in the background.
+        CompletableFuture<List<InetSocketAddress>> result = new CompletableFuture<>();
+        await().atMost(5, TimeUnit.SECONDS).until(() ->
+        {
+            resolver.resolve("example.com", 80, Promise.noop());
+            return pending.promises.size();
+        }, is(2));
+        resolver.resolve("example.com", 80, Promise.from(result));
+        assertThat(result.get(5, TimeUnit.SECONDS), contains(new InetSocketAddress(InetAddress.getByName("10.0.0.1"), 80)));
+        assertEquals(2, pending.promises.size());
+        assertEquals(1, resolver.getRefreshes());
+
+        pending.succeed(1, "10.0.0.2");
+        CompletableFuture<List<InetSocketAddress>> refreshed = new CompletableFuture<>();
+        resolver.resolve("example.com", 80, Promise.from(refreshed));
+        assertThat(refreshed.get(5, TimeUnit.SECONDS), contains(new InetSocketAddress(InetAddress.getByName("10.0.0.2"), 80)));
+    }
+
+    @Test
+    public void testFailedRefreshKeepsCachedAddresses() throws Exception
+    {
+        PendingResolver pending = new PendingResolver();
+        CachingSocketAddressResolver resolver = new CachingSocketAddressResolver(pending);
+        resolver.setPositiveTTL(60000);
+        resolver.setRefreshThreshold(0);
+
+        resolver.resolve("example.com", 80, Promise.noop());
+        pending.succeed(0, "10.0.0.1");
+        resolver.resolve("example.com", 80, Promise.noop());
+        assertEquals(2, pending.promises.size());
+        pending.fail(1);
+
+        CompletableFuture<List<InetSocketAddress>> result = new CompletableFuture<>();
+        resolver.resolve("example.com", 80, Promise.from(result));
+        assertThat(result.get(5, TimeUnit.SECONDS), contains(new InetSocketAddress(InetAddress.getByName("10.0.0.1"), 80)));
+        // No further background resolutions after a failed one.
+        assertEquals(2, pending.promises.size());
+    }
+
+    @Test
+    public void testInterleaveAddressFamilies() throws Exception
+    {
+        PendingResolver pending = new PendingResolver();
+        CachingSocketAddressResolver resolver = new CachingSocketAddressResolver(pending);
+        resolver.setInterleaveAddressFamilies(true);
+
+        CompletableFuture<List<InetSocketAddress>> result = new CompletableFuture<>();
+        resolver.resolve("example.com", 80, Promise.from(result));
+        pending.succeed(0, "::1", "::2", "::3", "10.0.0.1");
+        assertThat(result.get(5, TimeUnit.SECONDS), contains(
+            new InetSocketAddress(InetAddress.getByName("::1"), 80),
+            new InetSocketAddress(InetAddress.getByName("10.0.0.1"), 80),
+            new InetSocketAddress(InetAddress.getByName("::2"), 80),
+            new InetSocketAddress(InetAddress.getByName("::3"), 80)));
+    }
+
+    @Test
+    public void testMaxEntries() throws Exception
+    {
+        PendingResolver pending = new PendingResolver();
+        CachingSocketAddressResolver resolver = new CachingSocketAddressResolver(pending);
+        resolver.setMaxEntries(2);
+
+        for (int i = 0; i < 5; ++i)
+        {
+            resolver.resolve("host" + i, 80, Promise.noop());
+            pending.succeed(i, "10.0.0." + i);
+        }
+        assertEquals(2, resolver.getSize());
+
+        resolver.clear();
+        assertEquals(0, resolver.getSize());
+    }
+
+    private static class PendingResolver implements SocketAddressResolver
+    {
+        private final List<Promise<List<InetSocketAddress>>> promises = new ArrayList<>();
+
+        @Override
+        public void resolve(String host, int port, Promise<List<InetSocketAddress>> promise)
+        {
+            promises.add(promise);
+        }
+
+        private void succeed(int index, String... addresses) throws UnknownHostException
+        {
+            List<InetSocketAddress> result = new ArrayList<>();
+            for (String address : addresses)
+            {
+                result.add(new InetSocketAddress(InetAddress.getByName(address), 0));
+            }
+            promises.get(index).succeeded(result);
+        }
+
+        private void fail(int index)
+        {
+            promises.get(index).failed(new UnknownHostException());
+        }
+    }
+}
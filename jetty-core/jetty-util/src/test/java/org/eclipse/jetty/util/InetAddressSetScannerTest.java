@@ -0,0 +1,79 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+
+package org.eclipse.jetty.util;
+
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDir;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDirExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(WorkDirExtension.class)
+public class InetAddressSetScannerTest
+{
+    public WorkDir workDir;
+
+    @Test
+    public void testLoadAndReload() throws Exception
+    {
+        Path file = workDir.getEmptyPathDir().resolve("addresses.txt");
+        Files.writeString(file, """
+            # blocked networks
+            10.0.0.0/8
+
+            192.168.1.1 # single host
+            """);
+
+        InetAddressSet set = new InetAddressSet();
+        InetAddressSetScanner scanner = new InetAddressSetScanner(set, file);
+        scanner.setScanInterval(0);
+        scanner.start();
+        try
+        {
+            assertTrue(set.test(InetAddress.getByName("10.1.2.3")));
+            assertTrue(set.test(InetAddress.getByName("192.168.1.1")));
+            assertFalse(set.test(InetAddress.getByName("192.168.1.2")));
+
+            Files.writeString(file, "192.168.1.0-192.168.1.255\n");
+            scanner.reload();
+            assertFalse(set.test(InetAddress.getByName("10.1.2.3")));
+            assertTrue(set.test(InetAddress.getByName("192.168.1.2")));
+
+            // A bad file leaves the patterns unchanged.
+            Files.writeString(file, "1.2.3.4/99\n");
+            scanner.reload();
+            assertTrue(set.test(InetAddress.getByName("192.168.1.2")));
+        }
+        finally
+        {
+            scanner.stop();
+        }
+    }
+
+    @Test
+    public void testMissingFileFailsStart()
+    {
+        Path file = workDir.getEmptyPathDir().resolve("missing.txt");
+        InetAddressSetScanner scanner = new InetAddressSetScanner(new InetAddressSet(), file);
+        assertThrows(Exception.class, scanner::start);
+    }
+}
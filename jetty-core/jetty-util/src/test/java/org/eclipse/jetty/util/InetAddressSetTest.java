@@ -28,6 +28,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -354,4 +355,61 @@ public class InetAddressSetTest
         assertTrue(set.test(InetAddress.getByName("10.0.0.5")));
         assertTrue(set.test(InetAddress.getByName("10.0.0.6")));
     }
+
+    @Test
+    public void testManyPatterns() throws Exception
+    {
+        InetAddressSet set = new InetAddressSet();
+        for (int i = 0; i < 256; i++)
+        {
+            for (int j = 0; j < 256; j += 2)
+            {
+                set.add("10." + i + "." + j + ".0/24");
+            }
+        }
+        set.add("192.168.0.10-192.168.0.20");
+        set.add("[2001:db8::]/32");
+
+        assertTrue(set.test(InetAddress.getByName("10.0.0.1")));
+        assertTrue(set.test(InetAddress.getByName("10.255.254.255")));
+        assertFalse(set.test(InetAddress.getByName("10.0.1.1")));
+        assertFalse(set.test(InetAddress.getByName("10.255.255.255")));
+        assertFalse(set.test(InetAddress.getByName("11.0.0.1")));
+        assertFalse(set.test(InetAddress.getByName("192.168.0.9")));
+        assertTrue(set.test(InetAddress.getByName("192.168.0.10")));
+        assertTrue(set.test(InetAddress.getByName("192.168.0.15")));
+        assertTrue(set.test(InetAddress.getByName("192.168.0.20")));
+        assertFalse(set.test(InetAddress.getByName("192.168.0.21")));
+        assertTrue(set.test(InetAddress.getByName("2001:db8::1")));
+        assertTrue(set.test(InetAddress.getByName("2001:db8:ffff::1")));
+        assertFalse(set.test(InetAddress.getByName("2001:db9::1")));
+
+        set.add("10.0.0.0/8");
+        assertTrue(set.test(InetAddress.getByName("10.0.1.1")));
+        set.remove("10.0.0.0/8");
+        assertFalse(set.test(InetAddress.getByName("10.0.1.1")));
+    }
+
+    @Test
+    public void testSetPatterns() throws Exception
+    {
+        InetAddressSet set = new InetAddressSet();
+        set.add("1.2.3.4");
+        set.add("10.10.10-14.0-128");
+
+        assertTrue(set.test(InetAddress.getByName("1.2.3.4")));
+        assertTrue(set.test(InetAddress.getByName("10.10.11.1")));
+
+        set.setPatterns(List.of("5.6.7.0/24", "10.10.10-14.0-128"));
+        assertThat(set.size(), is(2));
+        assertFalse(set.test(InetAddress.getByName("1.2.3.4")));
+        assertTrue(set.test(InetAddress.getByName("5.6.7.8")));
+        assertTrue(set.test(InetAddress.getByName("10.10.11.1")));
+        assertFalse(set.test(InetAddress.getByName("10.10.11.129")));
+
+        assertThrows(IllegalArgumentException.class, () -> set.setPatterns(List.of("1.2.3.4", "1.2.3.4/99")));
+        assertThat(set.size(), is(2));
+        assertFalse(set.test(InetAddress.getByName("1.2.3.4")));
+        assertTrue(set.test(InetAddress.getByName("5.6.7.8")));
+    }
 }
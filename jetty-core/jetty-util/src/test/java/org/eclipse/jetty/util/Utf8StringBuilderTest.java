@@ -390,4 +390,62 @@ public class Utf8StringBuilderTest
         String ourResult = utf8Builder.toCompleteString();
         assertThat("Utf8Appendable with REPLACE mode", ourResult, is(expectedResult));
     }
+
+    public static Stream<String> bulkAppendSource()
+    {
+        return Stream.of(
+            "",
+            "short",
+            "exactly8",
+            "a longer ASCII string that spans several words",
+            "ASCII then multi-byte: Grüße, 日本語, and an emoji 😀 then ASCII again",
+            "😀 starts with a supplementary character and ends in ASCII........",
+            "0123456\u00e9" + "x".repeat(31) + "\u00e9",
+            "nul\u0000characters\u0000inside"
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("bulkAppendSource")
+    public void testBulkAppend(String input)
+    {
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        // Split the input at every position, so that the ASCII runs
+        // and the multi-byte sequences are split across appends.
+        for (int split = 0; split <= bytes.length; split++)
+        {
+            Utf8StringBuilder array = new Utf8StringBuilder();
+            array.append(bytes, 0, split);
+            array.append(bytes, split, bytes.length - split);
+            assertEquals(input, array.toCompleteString());
+
+            Utf8StringBuilder heap = new Utf8StringBuilder();
+            ByteBuffer heapBuffer = ByteBuffer.wrap(bytes);
+            heap.append(heapBuffer.slice(0, split));
+            heap.append(heapBuffer.slice(split, bytes.length - split));
+            assertEquals(input, heap.toCompleteString());
+
+            Utf8StringBuilder direct = new Utf8StringBuilder();
+            ByteBuffer directBuffer = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+            directBuffer.limit(split);
+            direct.append(directBuffer);
+            assertEquals(split, directBuffer.position());
+            directBuffer.limit(bytes.length);
+            direct.append(directBuffer);
+            assertFalse(directBuffer.hasRemaining());
+            assertEquals(input, direct.toCompleteString());
+        }
+    }
+
+    @Test
+    public void testBulkAppendInvalidAfterAscii()
+    {
+        byte[] bytes = ("x".repeat(17) + "\u00e9").getBytes(StandardCharsets.UTF_8);
+        // Truncate the last 2 byte sequence and follow it by ASCII.
+        bytes[bytes.length - 1] = 'y';
+        Utf8StringBuilder utf8 = new Utf8StringBuilder();
+        utf8.append(bytes);
+        assertTrue(utf8.hasCodingErrors());
+        assertEquals("x".repeat(17) + Utf8StringBuilder.REPLACEMENT + "y", utf8.toCompleteString());
+    }
 }
@@ -0,0 +1,129 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GzipCompressionTest
+{
+    private GzipCompression compression;
+
+    @BeforeEach
+    public void prepare() throws Exception
+    {
+        compression = new GzipCompression();
+        compression.start();
+    }
+
+    @AfterEach
+    public void dispose()
+    {
+        LifeCycle.stop(compression);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "1, false",
+        "7, false",
+        "64, true",
+        "4096, false",
+        "4096, true"
+    })
+    public void testEncode(int outputSize, boolean syncFlush) throws Exception
+    {
+        byte[] bytes = new byte[64 * 1024];
+        Random random = new Random();
+        for (int i = 0; i < bytes.length; ++i)
+        {
+            // Compressible, but not trivially.
+            bytes[i] = (byte)('a' + random.nextInt(8));
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        ByteBuffer output = ByteBuffer.allocate(outputSize);
+        try (Compression.Encoder encoder = compression.newEncoder(syncFlush))
+        {
+            for (int offset = 0; offset < bytes.length; offset += 10 * 1024)
+            {
+                encoder.setInput(ByteBuffer.wrap(bytes, offset, Math.min(10 * 1024, bytes.length - offset)));
+                while (!encoder.needsInput())
+                {
+                    encode(encoder, output, compressed);
+                }
+            }
+
+            encoder.finish();
+            while (!encoder.isFinished())
+            {
+                encode(encoder, output, compressed);
+            }
+        }
+
+        assertThat(compressed.size(), greaterThan(0));
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray())))
+        {
+            assertArrayEquals(bytes, input.readAllBytes());
+        }
+    }
+
+    @Test
+    public void testEncodeEmpty() throws Exception
+    {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        ByteBuffer output = ByteBuffer.allocate(1024);
+        try (Compression.Encoder encoder = compression.newEncoder(false))
+        {
+            assertFalse(encoder.needsInput());
+            encoder.finish();
+            while (!encoder.isFinished())
+            {
+                encode(encoder, output, compressed);
+            }
+            assertTrue(encoder.isFinished());
+        }
+
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray())))
+        {
+            assertThat(input.readAllBytes().length, is(0));
+        }
+    }
+
+    private static void encode(Compression.Encoder encoder, ByteBuffer output, ByteArrayOutputStream compressed) throws Exception
+    {
+        BufferUtil.clearToFill(output);
+        encoder.encode(output);
+        BufferUtil.flipToFlush(output, 0);
+        BufferUtil.writeTo(output, compressed);
+    }
+}
@@ -0,0 +1,128 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.statistic;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class HistogramStatisticTest
+{
+    @Test
+    public void testBuckets()
+    {
+        HistogramStatistic histogram = new HistogramStatistic();
+        Random random = new Random();
+        int previous = -1;
+        for (long value = 0; value < 1_000_000; ++value)
+        {
+            int bucket = histogram.bucketOf(value);
+            // Buckets are contiguous and monotonic.
+            assertThat(bucket - previous, lessThanOrEqualTo(1));
+            assertThat(bucket, greaterThanOrEqualTo(previous));
+            previous = bucket;
+        }
+
+        for (int i = 0; i < 100_000; ++i)
+        {
+            long value = random.nextLong() >>> (1 + random.nextInt(63));
+            long highest = histogram.highestValueOf(histogram.bucketOf(value));
+            assertThat(highest, greaterThanOrEqualTo(value));
+            // The relative error is at most 2^-precision.
+            assertThat((double)(highest - value), lessThanOrEqualTo(value / 32.0D));
+        }
+
+        assertEquals(Long.MAX_VALUE, histogram.highestValueOf(histogram.bucketOf(Long.MAX_VALUE)));
+        assertEquals(0, histogram.bucketOf(0));
+    }
+
+    @Test
+    public void testPercentiles()
+    {
+        HistogramStatistic histogram = new HistogramStatistic();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+
+        for (long value = 1; value <= 100_000; ++value)
+        {
+            histogram.record(value);
+        }
+        histogram.record(-1);
+
+        assertEquals(100_001, histogram.getCount());
+        assertThat((double)histogram.getValueAtPercentile(50), closeTo(50_000, 50_000 / 32.0D));
+        assertThat((double)histogram.getValueAtPercentile(99), closeTo(99_000, 99_000 / 32.0D));
+        assertThat((double)histogram.getValueAtPercentile(99.9), closeTo(99_900, 99_900 / 32.0D));
+        assertThat((double)histogram.getMax(), closeTo(100_000, 100_000 / 32.0D));
+        assertEquals(0, histogram.getValueAtPercentile(0));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(101));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    public void testRollingWindow()
+    {
+        HistogramStatistic histogram = new HistogramStatistic(5, Duration.ofSeconds(4), 4);
+        long second = TimeUnit.SECONDS.toNanos(1);
+        long now = 1000 * second;
+
+        histogram.record(1000, now);
+        histogram.record(10, now + second);
+        assertEquals(2, histogram.getCount(now + second));
+        assertThat((double)histogram.getValueAtPercentile(100, now + second), closeTo(1000, 1000 / 32.0D));
+
+        // After the window, the first sample is not accounted.
+        assertEquals(1, histogram.getCount(now + 4 * second));
+        assertEquals(10, histogram.getValueAtPercentile(100, now + 4 * second));
+
+        // Recording in the slot of the first sample clears it.
+        histogram.record(20, now + 4 * second);
+        assertEquals(2, histogram.getCount(now + 4 * second));
+        assertEquals(20, histogram.getValueAtPercentile(100, now + 4 * second));
+
+        // After another window, nothing is accounted.
+        assertEquals(0, histogram.getCount(now + 9 * second));
+        assertEquals(0, histogram.getValueAtPercentile(100, now + 9 * second));
+    }
+
+    @Test
+    public void testConcurrentRecording()
+    {
+        // A single, very long, slot so that there is no rotation while recording.
+        HistogramStatistic histogram = new HistogramStatistic(5, Duration.ofDays(10_000), 1);
+        histogram.record(0);
+        int threads = 8;
+        int samples = 100_000;
+        IntStream.range(0, threads).parallel().forEach(t ->
+        {
+            for (int i = 0; i < samples; ++i)
+            {
+                histogram.record(i);
+            }
+        });
+        assertEquals(threads * samples + 1, histogram.getCount());
+    }
+}
@@ -0,0 +1,116 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.thread;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AdaptiveQueuedThreadPoolTest
+{
+    private AdaptiveQueuedThreadPool pool;
+
+    @AfterEach
+    public void dispose()
+    {
+        LifeCycle.stop(pool);
+    }
+
+    private void start(int maxThreads, int minThreads) throws Exception
+    {
+        pool = new AdaptiveQueuedThreadPool(maxThreads, minThreads, 60000, new BlockingArrayQueue<>(maxThreads, maxThreads));
+        pool.setReservedThreads(0);
+        pool.setQueueLatencyTarget(5);
+        pool.setControlPeriod(50);
+        pool.start();
+    }
+
+    @Test
+    public void testShrinksWhenIdle() throws Exception
+    {
+        start(64, 4);
+        assertEquals(64, pool.getMaxThreads());
+
+        await().atMost(5, TimeUnit.SECONDS).until(pool::getMaxThreads, is(4));
+        assertEquals(64, pool.getMaxThreadsLimit());
+        assertThat(pool.isLowOnThreads(), is(false));
+    }
+
+    @Test
+    public void testGrowsUnderLoad() throws Exception
+    {
+        start(64, 2);
+        await().atMost(5, TimeUnit.SECONDS).until(pool::getMaxThreads, is(2));
+
+        // Submit a 100 ms task every 5 ms, which needs about 20 threads.
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread load = new Thread(() ->
+        {
+            while (running.get())
+            {
+                pool.execute(() -> sleep(100));
+                sleep(5);
+            }
+        });
+        load.start();
+        try
+        {
+            await().atMost(5, TimeUnit.SECONDS).until(pool::getMaxThreads, greaterThanOrEqualTo(20));
+            assertThat(pool.getRecentDemand(), greaterThan(1.0));
+            assertThat(pool.getMaxThreads(), lessThanOrEqualTo(64));
+        }
+        finally
+        {
+            running.set(false);
+            load.join();
+        }
+
+        await().atMost(10, TimeUnit.SECONDS).until(pool::getMaxThreads, is(2));
+    }
+
+    @Test
+    public void testSetMaxThreadsSetsLimit() throws Exception
+    {
+        start(64, 4);
+        await().atMost(5, TimeUnit.SECONDS).until(pool::getMaxThreads, is(4));
+
+        pool.setMaxThreads(3);
+        assertEquals(3, pool.getMaxThreadsLimit());
+        await().atMost(5, TimeUnit.SECONDS).until(pool::getMaxThreads, is(3));
+    }
+
+    private static void sleep(long ms)
+    {
+        try
+        {
+            Thread.sleep(ms);
+        }
+        catch (InterruptedException x)
+        {
+            throw new RuntimeException(x);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.websocket.core;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.websocket.core.internal.PreEncodedFrame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Sends the same data message to many sessions, generating it only once.</p>
+ * <p>The frame is generated once in a buffer that is shared by all the sessions,
+ * and written as is by the sessions that do not need to transform it.
+ * The sessions whose {@code permessage-deflate} extension compresses without context
+ * takeover, for example because the {@code server_no_context_takeover} parameter was
+ * negotiated, share a frame that is compressed only once, the first time it is needed.
+ * The frame is sent as a regular frame to the other sessions, for example those
+ * that need to mask it, to compress it with context takeover or to fragment it.</p>
+ */
+public class Broadcaster
+{
+    private static final Logger LOG = LoggerFactory.getLogger(Broadcaster.class);
+
+    private final WebSocketComponents _components;
+
+    /**
+     * @param components the components providing the buffers and compressors of the broadcast frames
+     */
+    public Broadcaster(WebSocketComponents components)
+    {
+        _components = components;
+    }
+
+    /**
+     * <p>Sends a whole data frame to the given sessions.</p>
+     * <p>The callback is succeeded once the frame has been sent, or has failed to be sent,
+     * to all the sessions, as a failure to send the frame to one session does not prevent
+     * to send it to the other sessions; the callback is failed only if the frame is not
+     * a whole, unmasked, data frame.
+     * The frame payload must not be modified until the callback is completed.</p>
+     *
+     * @param frame the whole data frame to send
+     * @param sessions the sessions to send the frame to
+     * @param callback the callback completed once the frame has been sent to all the sessions
+     * @param batch whether the frame can be batched
+     */
+    public void broadcast(Frame frame, Collection<? extends CoreSession> sessions, Callback callback, boolean batch)
+    {
+        PreEncodedFrame.Message message;
+        try
+        {
+            message = new PreEncodedFrame.Message(_components.getByteBufferPool(), _components.getDeflaterPool(), frame);
+        }
+        catch (Throwable x)
+        {
+            callback.failed(x);
+            return;
+        }
+
+        BroadcastCallback broadcastCallback = new BroadcastCallback(message, callback);
+        for (CoreSession session : sessions)
+        {
+            broadcastCallback.increment();
+            session.sendFrame(message.newFrame(), broadcastCallback, batch);
+        }
+        // Complete the reference held while sending.
+        broadcastCallback.succeeded();
+    }
+
+    private static class BroadcastCallback implements Callback
+    {
+        private final AtomicInteger _pending = new AtomicInteger(1);
+        private final PreEncodedFrame.Message _message;
+        private final Callback _callback;
+
+        private BroadcastCallback(PreEncodedFrame.Message message, Callback callback)
+        {
+            _message = message;
+            _callback = callback;
+        }
+
+        private void increment()
+        {
+            _pending.incrementAndGet();
+        }
+
+        @Override
+        public void succeeded()
+        {
+            if (_pending.decrementAndGet() == 0)
+            {
+                _message.release();
+                _callback.succeeded();
+            }
+        }
+
+        @Override
+        public void failed(Throwable x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Failed to broadcast to a session", x);
+            succeeded();
+        }
+    }
+}
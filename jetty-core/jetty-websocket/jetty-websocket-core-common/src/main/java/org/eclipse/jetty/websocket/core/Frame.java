@@ -15,6 +15,7 @@ package org.eclipse.jetty.websocket.core;
 
 import java.io.Closeable;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 
 import org.eclipse.jetty.util.BufferUtil;
@@ -372,26 +373,21 @@ public class Frame
                 maskInt = (maskInt << 8) + (maskByte & 0xFF);
             }
 
-            int maskOffset = 0;
+            // Demask 8 bytes at a time, the mask being repeated in both halves of the long.
+            long maskLong = ((long)maskInt << 32) | (maskInt & 0xFFFFFFFFL);
+            if (payload.order() == ByteOrder.LITTLE_ENDIAN)
+                maskLong = Long.reverseBytes(maskLong);
 
             int start = payload.position();
             int end = payload.limit();
-            int offset = maskOffset;
-            int remaining;
-            while ((remaining = end - start) > 0)
+            int longEnd = start + ((end - start) & ~7);
+            for (; start < longEnd; start += 8)
             {
-                if (remaining >= 4 && (offset & 3) == 0)
-                {
-                    payload.putInt(start, payload.getInt(start) ^ maskInt);
-                    start += 4;
-                    offset += 4;
-                }
-                else
-                {
-                    payload.put(start, (byte)(payload.get(start) ^ mask[offset & 3]));
-                    ++start;
-                    ++offset;
-                }
+                payload.putLong(start, payload.getLong(start) ^ maskLong);
+            }
+            for (int offset = 0; start < end; ++start, ++offset)
+            {
+                payload.put(start, (byte)(payload.get(start) ^ mask[offset & 3]));
             }
 
             Arrays.fill(mask, (byte)0);
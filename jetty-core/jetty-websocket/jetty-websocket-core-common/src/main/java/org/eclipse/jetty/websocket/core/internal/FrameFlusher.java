@@ -264,6 +264,9 @@ public class FrameFlusher extends IteratingCallback
                 continue;
             _messagesOut.increment();
 
+            // The bytes of the frame may have been generated in advance.
+            ByteBuffer encoded = entry.frame instanceof PreEncodedFrame preEncodedFrame ? preEncodedFrame.getEncoded() : null;
+
             int batchSpace = _batchBuffer == null ? _bufferSize : BufferUtil.space(_batchBuffer.getByteBuffer());
             boolean batch = canBatch && entry.batch &&
                 !entry.frame.isControlFrame() &&
@@ -280,7 +283,17 @@ public class FrameFlusher extends IteratingCallback
                 }
 
                 // Generate the frame into the batchBuffer.
-                _generator.generateWholeFrame(entry.frame, _batchBuffer.getByteBuffer());
+                if (encoded != null)
+                    BufferUtil.append(_batchBuffer.getByteBuffer(), encoded);
+                else
+                    _generator.generateWholeFrame(entry.frame, _batchBuffer.getByteBuffer());
+            }
+            else if (encoded != null)
+            {
+                // Add the shared bytes of the frame to the list of buffers.
+                buffers.add(encoded);
+                canBatch = false;
+                flush = true;
             }
             else
             {
@@ -14,6 +14,7 @@
 package org.eclipse.jetty.websocket.core.internal;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.websocket.core.Frame;
@@ -176,27 +177,25 @@ public class Generator
             maskInt = (maskInt << 8) + (maskByte & 0xFF);
         }
 
-        // perform data masking here
+        // perform data masking here, 8 bytes at a time, the mask being repeated in both halves of the long
         ByteBuffer payload = frame.getPayload();
         if ((payload != null) && (payload.remaining() > 0))
         {
-            int maskOffset = 0;
+            long maskLong = ((long)maskInt << 32) | (maskInt & 0xFFFFFFFFL);
+            if (payload.order() == ByteOrder.LITTLE_ENDIAN)
+                maskLong = Long.reverseBytes(maskLong);
+            boolean reverse = payload.order() != buffer.order();
             int start = payload.position();
             int end = payload.limit();
-            int remaining;
-            while ((remaining = end - start) > 0)
+            int longEnd = start + ((end - start) & ~7);
+            for (; start < longEnd; start += 8)
             {
-                if (remaining >= 4)
-                {
-                    buffer.putInt(payload.getInt(start) ^ maskInt);
-                    start += 4;
-                }
-                else
-                {
-                    buffer.put((byte)(payload.get(start) ^ mask[maskOffset & 3]));
-                    ++start;
-                    ++maskOffset;
-                }
+                long masked = payload.getLong(start) ^ maskLong;
+                buffer.putLong(reverse ? Long.reverseBytes(masked) : masked);
+            }
+            for (int maskOffset = 0; start < end; ++start, ++maskOffset)
+            {
+                buffer.put((byte)(payload.get(start) ^ mask[maskOffset & 3]));
             }
         }
     }
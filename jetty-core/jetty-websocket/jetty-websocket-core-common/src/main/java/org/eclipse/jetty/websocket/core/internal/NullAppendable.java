@@ -69,6 +69,11 @@ public class NullAppendable extends Utf8StringBuilder
     {
     }
 
+    @Override
+    protected void bufferAppend(byte[] ascii, int offset, int length)
+    {
+    }
+
     @Override
     protected void bufferReset()
     {
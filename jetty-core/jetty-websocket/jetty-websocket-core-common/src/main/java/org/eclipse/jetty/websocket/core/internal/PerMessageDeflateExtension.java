@@ -277,6 +277,21 @@ public class PerMessageDeflateExtension extends AbstractExtension implements Dem
                 return true;
             }
 
+            // Without context takeover, every message is compressed in the same way,
+            // so a message compressed once can be sent as is to many sessions.
+            if (!outgoingContextTakeover && frame instanceof PreEncodedFrame preEncodedFrame)
+            {
+                PreEncodedFrame deflated = preEncodedFrame.getDeflated();
+                long maxFrameSize = getConfiguration().getMaxFrameSize();
+                if (deflated != null && (maxFrameSize <= 0 || deflated.getPayloadLength() <= maxFrameSize))
+                {
+                    if (LOG.isDebugEnabled())
+                        LOG.debug("Pre-compressed {}: payload:{}", frame, deflated.getPayloadLength());
+                    nextOutgoingFrame(deflated, callback, batch);
+                    return true;
+                }
+            }
+
             _first = true;
             _frame = frame;
             _batch = batch;
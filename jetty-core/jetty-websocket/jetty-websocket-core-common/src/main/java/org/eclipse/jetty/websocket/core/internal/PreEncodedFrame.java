@@ -0,0 +1,189 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.websocket.core.internal;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import org.eclipse.jetty.io.ByteBufferPool;
+import org.eclipse.jetty.io.RetainableByteBuffer;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.compression.DeflaterPool;
+import org.eclipse.jetty.util.thread.AutoLock;
+import org.eclipse.jetty.websocket.core.Frame;
+
+/**
+ * <p>A data frame whose bytes have been generated in advance, in a buffer
+ * that is shared by all the frames created from the same {@link Message}.</p>
+ * <p>This frame behaves as a regular frame for the extensions that transform it,
+ * while the {@link FrameFlusher} writes the pre-generated bytes if the frame
+ * reaches it unmodified, without generating the frame again.</p>
+ */
+public class PreEncodedFrame extends Frame
+{
+    private final Message _message;
+    private final ByteBuffer _encoded;
+    private final byte _encodedFinRsvOp;
+    private final ByteBuffer _encodedPayload;
+
+    private PreEncodedFrame(Message message, ByteBuffer encoded, int headerLength)
+    {
+        super(encoded.get(0), null, null);
+        _message = message;
+        _encoded = encoded;
+        _encodedFinRsvOp = finRsvOp;
+        _encodedPayload = encoded.slice(headerLength, encoded.remaining() - headerLength);
+        payload = _encodedPayload;
+    }
+
+    /**
+     * @return the bytes of this frame, or null if this frame was modified after it was generated
+     */
+    public ByteBuffer getEncoded()
+    {
+        if (finRsvOp != _encodedFinRsvOp || mask != null || payload != _encodedPayload ||
+            _encodedPayload.position() != 0 || _encodedPayload.limit() != _encodedPayload.capacity())
+            return null;
+        return _encoded.slice();
+    }
+
+    /**
+     * @return a frame with the compressed payload of this frame, as generated by the
+     * {@code permessage-deflate} extension without context takeover, or null
+     * if this frame cannot be compressed
+     */
+    public PreEncodedFrame getDeflated()
+    {
+        return _message.getDeflated();
+    }
+
+    /**
+     * <p>A data message, generated once in buffers that are shared by the frames
+     * {@link #newFrame() created} to send it to many sessions.</p>
+     * <p>The compressed version of the message is generated lazily, the first
+     * time it is {@link PreEncodedFrame#getDeflated() requested}.</p>
+     */
+    public static class Message
+    {
+        private static final byte[] TAIL_BYTES = new byte[]{0x00, 0x00, (byte)0xFF, (byte)0xFF};
+
+        private final AutoLock _lock = new AutoLock();
+        private final ByteBufferPool _bufferPool;
+        private final DeflaterPool _deflaterPool;
+        private final Frame _frame;
+        private final RetainableByteBuffer _buffer;
+        private final int _headerLength;
+        private RetainableByteBuffer _deflatedBuffer;
+        private int _deflatedHeaderLength;
+        private boolean _deflated;
+
+        /**
+         * @param bufferPool the pool of the buffers of the generated frames
+         * @param deflaterPool the pool of the {@link Deflater} used to compress the message
+         * @param frame a whole, unmasked, data frame
+         */
+        public Message(ByteBufferPool bufferPool, DeflaterPool deflaterPool, Frame frame)
+        {
+            if (!frame.isDataFrame() || !frame.isFin() || frame.isMasked() || frame.hasRsv())
+                throw new IllegalArgumentException("Not a whole unmasked data frame: " + frame);
+            _bufferPool = bufferPool;
+            _deflaterPool = deflaterPool;
+            _frame = new Frame(frame.getOpCode(), frame.getPayload().slice());
+            _buffer = generate(_frame);
+            _headerLength = _buffer.remaining() - _frame.getPayloadLength();
+        }
+
+        /**
+         * @return a new frame for this message, to be sent to a single session
+         */
+        public PreEncodedFrame newFrame()
+        {
+            return new PreEncodedFrame(this, _buffer.getByteBuffer().slice(), _headerLength);
+        }
+
+        private PreEncodedFrame getDeflated()
+        {
+            try (AutoLock l = _lock.lock())
+            {
+                if (!_deflated)
+                {
+                    _deflated = true;
+                    Frame deflated = new Frame(_frame.getOpCode(), ByteBuffer.wrap(deflate(_frame.getPayload().slice())));
+                    deflated.setRsv1(true);
+                    _deflatedBuffer = generate(deflated);
+                    _deflatedHeaderLength = _deflatedBuffer.remaining() - deflated.getPayloadLength();
+                }
+                if (_deflatedBuffer == null)
+                    return null;
+                return new PreEncodedFrame(this, _deflatedBuffer.getByteBuffer().slice(), _deflatedHeaderLength);
+            }
+        }
+
+        private byte[] deflate(ByteBuffer payload)
+        {
+            DeflaterPool.Entry entry = _deflaterPool.acquire();
+            try
+            {
+                // Compress as PerMessageDeflateExtension does for a whole message.
+                Deflater deflater = entry.get();
+                deflater.setInput(payload);
+                byte[] output = new byte[Math.max(64, payload.remaining() / 2)];
+                int length = 0;
+                while (true)
+                {
+                    length += deflater.deflate(output, length, output.length - length, Deflater.SYNC_FLUSH);
+                    if (length < output.length)
+                        break;
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+
+                if (length >= TAIL_BYTES.length && Arrays.equals(output, length - TAIL_BYTES.length, length, TAIL_BYTES, 0, TAIL_BYTES.length))
+                    length -= TAIL_BYTES.length;
+                // RFC 7692, 7.2.3.6. Generating an Empty Fragment Manually.
+                if (length == 0)
+                    return new byte[]{0x00};
+                return Arrays.copyOf(output, length);
+            }
+            finally
+            {
+                entry.release();
+            }
+        }
+
+        private RetainableByteBuffer generate(Frame frame)
+        {
+            RetainableByteBuffer buffer = _bufferPool.acquire(Generator.MAX_HEADER_LENGTH + frame.getPayloadLength(), false);
+            BufferUtil.clear(buffer.getByteBuffer());
+            Generator generator = new Generator();
+            generator.generateWholeFrame(frame, buffer.getByteBuffer());
+            return buffer;
+        }
+
+        /**
+         * <p>Releases the buffers of this message, once all the frames
+         * {@link #newFrame() created} from this message have been sent.</p>
+         */
+        public void release()
+        {
+            _buffer.release();
+            try (AutoLock l = _lock.lock())
+            {
+                if (_deflatedBuffer != null)
+                    _deflatedBuffer.release();
+                _deflatedBuffer = null;
+            }
+        }
+    }
+}
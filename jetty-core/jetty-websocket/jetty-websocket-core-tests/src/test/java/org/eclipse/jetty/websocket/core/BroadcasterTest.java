@@ -0,0 +1,145 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.websocket.core;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.Blocker;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.websocket.core.client.CoreClientUpgradeRequest;
+import org.eclipse.jetty.websocket.core.client.WebSocketCoreClient;
+import org.eclipse.jetty.websocket.core.server.WebSocketUpgradeHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BroadcasterTest
+{
+    private final BlockingQueue<CoreSession> _serverSessions = new BlockingArrayQueue<>();
+    private Server _server;
+    private WebSocketUpgradeHandler _upgradeHandler;
+    private WebSocketCoreClient _client;
+    private ServerConnector _serverConnector;
+
+    @BeforeEach
+    public void before() throws Exception
+    {
+        _server = new Server();
+        _serverConnector = new ServerConnector(_server);
+        _server.addConnector(_serverConnector);
+
+        _upgradeHandler = new WebSocketUpgradeHandler();
+        _upgradeHandler.addMapping("/", (req, resp, cb) -> new TestFrameHandler()
+        {
+            @Override
+            public void onOpen(CoreSession coreSession)
+            {
+                super.onOpen(coreSession);
+                _serverSessions.offer(coreSession);
+            }
+        });
+        _server.setHandler(_upgradeHandler);
+        _server.start();
+
+        _client = new WebSocketCoreClient();
+        _client.start();
+    }
+
+    @AfterEach
+    public void after() throws Exception
+    {
+        _client.stop();
+        _server.stop();
+    }
+
+    private TestMessageHandler connect(String extensions) throws Exception
+    {
+        TestMessageHandler clientHandler = new TestMessageHandler();
+        URI uri = URI.create("ws://localhost:" + _serverConnector.getLocalPort());
+        CoreClientUpgradeRequest upgradeRequest = CoreClientUpgradeRequest.from(_client, uri, clientHandler);
+        if (extensions != null)
+            upgradeRequest.addExtensions(extensions);
+        _client.connect(upgradeRequest).get(5, TimeUnit.SECONDS);
+        return clientHandler;
+    }
+
+    @Test
+    public void testBroadcast() throws Exception
+    {
+        List<TestMessageHandler> clients = new ArrayList<>();
+        // Sessions that share the same pre-generated frame.
+        clients.add(connect(null));
+        clients.add(connect(null));
+        // Sessions that share the same pre-compressed frame.
+        clients.add(connect("permessage-deflate; server_no_context_takeover"));
+        clients.add(connect("permessage-deflate; server_no_context_takeover"));
+        // Session that compresses the frame itself.
+        clients.add(connect("permessage-deflate"));
+
+        List<CoreSession> sessions = new ArrayList<>();
+        for (int i = 0; i < clients.size(); ++i)
+        {
+            CoreSession session = _serverSessions.poll(5, TimeUnit.SECONDS);
+            assertNotNull(session);
+            sessions.add(session);
+        }
+
+        Broadcaster broadcaster = new Broadcaster(sessions.get(0).getWebSocketComponents());
+        String small = "hello world";
+        String large = "market data ".repeat(4_000);
+        for (String message : List.of(small, large, small))
+        {
+            try (Blocker.Callback callback = Blocker.callback())
+            {
+                broadcaster.broadcast(new Frame(OpCode.TEXT, message), sessions, callback, false);
+                callback.block();
+            }
+        }
+
+        for (TestMessageHandler client : clients)
+        {
+            assertThat(client.textMessages.poll(5, TimeUnit.SECONDS), equalTo(small));
+            assertThat(client.textMessages.poll(5, TimeUnit.SECONDS), equalTo(large));
+            assertThat(client.textMessages.poll(5, TimeUnit.SECONDS), equalTo(small));
+            client.getCoreSession().close(Callback.NOOP);
+        }
+    }
+
+    @Test
+    public void testBroadcastPartialFrame() throws Exception
+    {
+        connect(null);
+        CoreSession session = _serverSessions.poll(5, TimeUnit.SECONDS);
+        assertNotNull(session);
+
+        Broadcaster broadcaster = new Broadcaster(session.getWebSocketComponents());
+        try (Blocker.Callback callback = Blocker.callback())
+        {
+            broadcaster.broadcast(new Frame(OpCode.TEXT, false, "partial"), List.of(session), callback, false);
+            assertThrows(IllegalArgumentException.class, callback::block);
+        }
+    }
+}
@@ -520,6 +520,40 @@ public class GeneratorTest
         assertGeneratedBytes(expected, frames);
     }
 
+    /**
+     * Masks and demasks payloads of all lengths around the long word size,
+     * starting at an offset that is not aligned to a long word.
+     */
+    @Test
+    public void testGenerateMaskedPayloadLengths()
+    {
+        byte[] maskingKey = Hex.asByteArray("A1B2C3D4");
+        for (int length = 0; length <= 40; length++)
+        {
+            byte[] bytes = new byte[length + 3];
+            for (int i = 0; i < bytes.length; i++)
+            {
+                bytes[i] = (byte)(i * 31);
+            }
+            ByteBuffer payload = ByteBuffer.wrap(bytes, 3, length);
+            byte[] expected = Arrays.copyOfRange(bytes, 3, bytes.length);
+            mask(expected, maskingKey);
+
+            Frame frame = new Frame(OpCode.BINARY).setPayload(payload.slice()).setMask(maskingKey);
+            ByteBuffer buffer = generate(frame);
+            buffer.position(buffer.limit() - length);
+            byte[] actual = BufferUtil.toArray(buffer);
+            assertThat("length " + length, Hex.asHex(actual), is(Hex.asHex(expected)));
+
+            ByteBuffer masked = ByteBuffer.allocate(length + 5);
+            masked.position(5);
+            masked.put(actual).flip().position(5);
+            Frame received = new Frame((byte)0x82, Arrays.copyOf(maskingKey, 4), masked);
+            received.demask();
+            assertThat("length " + length, Hex.asHex(BufferUtil.toArray(received.getPayload())), is(Hex.asHex(Arrays.copyOfRange(bytes, 3, bytes.length))));
+        }
+    }
+
     /**
      * From Autobahn WebSocket Client Testcase 2.4
      */
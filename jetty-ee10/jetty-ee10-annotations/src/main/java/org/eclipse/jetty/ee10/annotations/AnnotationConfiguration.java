@@ -13,7 +13,9 @@
 
 package org.eclipse.jetty.ee10.annotations;
 
+import java.io.File;
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
@@ -26,9 +28,12 @@ import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
@@ -74,6 +79,7 @@ public class AnnotationConfiguration extends AbstractConfiguration
     public static final String CONTAINER_INITIALIZER_STARTER = "org.eclipse.jetty.containerInitializerStarter";
     public static final String MULTI_THREADED = "org.eclipse.jetty.annotations.multiThreaded";
     public static final String MAX_SCAN_WAIT = "org.eclipse.jetty.annotations.maxWait";
+    public static final String SCAN_INDEX_DIR = "org.eclipse.jetty.annotations.scanIndexDir";
     protected static final String STATE = "org.eclipse.jetty.annotations.state";
 
     public static final int DEFAULT_MAX_SCAN_WAIT = 60; /* time in sec */
@@ -314,7 +320,7 @@ public class AnnotationConfiguration extends AbstractConfiguration
     public static class DiscoveredServletContainerInitializerHolder extends ServletContainerInitializerHolder
     {
         private final Set<Class<?>> _handlesTypes = new HashSet<>();
-        private final Set<String> _discoveredClassNames = new HashSet<>();
+        private final Set<String> _discoveredClassNames = ConcurrentHashMap.newKeySet();
         
         public DiscoveredServletContainerInitializerHolder(Source source, ServletContainerInitializer sci, Class<?>... startupClasses)
         {
@@ -511,15 +517,19 @@ public class AnnotationConfiguration extends AbstractConfiguration
         if (target != null)
             javaPlatform = Integer.parseInt(target.toString());
         AnnotationParser parser = createAnnotationParser(javaPlatform);
+        Path scanIndexDir = getScanIndexDirectory(context);
+        if (scanIndexDir != null)
+            parser.setScanIndex(new AnnotationScanIndex(scanIndexDir));
         state._parserTasks = new ArrayList<>();
 
         if (LOG.isDebugEnabled())
-            LOG.debug("Annotation scanning commencing: webxml={}, metadatacomplete={}, configurationDiscovered={}, multiThreaded={}, maxScanWait={}",
+            LOG.debug("Annotation scanning commencing: webxml={}, metadatacomplete={}, configurationDiscovered={}, multiThreaded={}, maxScanWait={}, scanIndexDir={}",
                 context.getServletContext().getEffectiveMajorVersion(),
                 context.getMetaData().isMetaDataComplete(),
                 context.isConfigurationDiscovered(),
                 isUseMultiThreading(context),
-                getMaxScanWait(context));
+                getMaxScanWait(context),
+                scanIndexDir);
 
         //scan selected jars on the container classpath first
         parseContainerPath(context, parser);
@@ -534,23 +544,51 @@ public class AnnotationConfiguration extends AbstractConfiguration
 
         long start = NanoTime.now();
 
-        //execute scan, either effectively synchronously (1 thread only), or asynchronously (limited by number of processors available) 
-        final Semaphore task_limit = (isUseMultiThreading(context) ? new Semaphore(ProcessorUtils.availableProcessors()) : new Semaphore(1));
-        final CountDownLatch latch = new CountDownLatch(state._parserTasks.size());
+        //execute scan, either synchronously in this thread, or in a work-stealing pool (limited by number of processors available)
+        //where the classes of large jars are parsed in parallel by the AnnotationParser
         final ExceptionUtil.MultiException multiException = new ExceptionUtil.MultiException();
+        boolean timeout = false;
+        if (isUseMultiThreading(context))
+        {
+            ForkJoinPool pool = newScanPool(context);
+            try
+            {
+                List<ForkJoinTask<Void>> tasks = new ArrayList<>();
+                for (ParserTask p : state._parserTasks)
+                {
+                    tasks.add(pool.submit(p));
+                }
 
-        for (final ParserTask p : state._parserTasks)
+                long maxScanWaitNanos = TimeUnit.SECONDS.toNanos(getMaxScanWait(context));
+                for (ForkJoinTask<Void> task : tasks)
+                {
+                    try
+                    {
+                        task.get(Math.max(0, maxScanWaitNanos - NanoTime.since(start)), TimeUnit.NANOSECONDS);
+                    }
+                    catch (ExecutionException x)
+                    {
+                        multiException.add(x.getCause());
+                    }
+                    catch (TimeoutException x)
+                    {
+                        timeout = true;
+                        break;
+                    }
+                }
+            }
+            finally
+            {
+                pool.shutdownNow();
+            }
+        }
+        else
         {
-            task_limit.acquire();
-            context.getServer().getThreadPool().execute(() ->
+            for (ParserTask p : state._parserTasks)
             {
                 multiException.callAndCatch(p::call);
-                task_limit.release();
-                latch.countDown();
-            });
+            }
         }
-
-        boolean timeout = !latch.await(getMaxScanWait(context), TimeUnit.SECONDS);
         long elapsedMs = NanoTime.millisSince(start);
 
         if (LOG.isDebugEnabled())
@@ -574,6 +612,24 @@ public class AnnotationConfiguration extends AbstractConfiguration
         multiException.ifExceptionThrow();
     }
 
+    /**
+     * @param context the context being scanned
+     * @return a new work-stealing pool, sized on the number of available processors, to execute the scan
+     */
+    protected ForkJoinPool newScanPool(WebAppContext context)
+    {
+        String name = "annotation-scan-" + Integer.toHexString(context.hashCode()) + "-";
+        return new ForkJoinPool(ProcessorUtils.availableProcessors(), pool ->
+        {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(name + thread.getPoolIndex());
+            thread.setDaemon(true);
+            // Classes are parsed with ASM, the webapp ClassLoader is not needed.
+            thread.setContextClassLoader(AnnotationConfiguration.class.getClassLoader());
+            return thread;
+        }, null, false);
+    }
+
     /**
      * @param javaPlatform The java platform to scan for.
      * @return a new AnnotationParser. This method can be overridden to use a different implementation of
@@ -634,6 +690,51 @@ public class AnnotationConfiguration extends AbstractConfiguration
         return Integer.getInteger(MAX_SCAN_WAIT, DEFAULT_MAX_SCAN_WAIT);
     }
 
+    /**
+     * Work out the directory where the results of scanning jars are stored,
+     * so that unchanged jars are not scanned again when the webapp is redeployed
+     * or the server is restarted.
+     * <p>
+     * By default, the results are stored in the {@code annotation-index} subdirectory
+     * of the server {@code work} directory, if there is one.
+     *
+     * @param context the context of the scan index directory setting
+     * @return the scan index directory on the context, or server, or via a System property,
+     * or null if the results of scanning jars are not stored.
+     * @see #SCAN_INDEX_DIR
+     */
+    protected Path getScanIndexDirectory(WebAppContext context)
+    {
+        //try context attribute to get the scan index directory
+        Path dir = asPath(context.getAttribute(SCAN_INDEX_DIR));
+        if (dir != null)
+            return dir;
+        //try server attribute to get the scan index directory
+        dir = asPath(context.getServer().getAttribute(SCAN_INDEX_DIR));
+        if (dir != null)
+            return dir;
+        //try system property to get the scan index directory
+        dir = asPath(System.getProperty(SCAN_INDEX_DIR));
+        if (dir != null)
+            return dir;
+        //default to a subdirectory of the work directory, but not of the system temp directory
+        File tempDir = context.getServer().getContext().getTempDirectory();
+        if (tempDir != null && "work".equals(tempDir.getName()))
+            return tempDir.toPath().resolve("annotation-index");
+        return null;
+    }
+
+    private static Path asPath(Object o)
+    {
+        if (o instanceof Path path)
+            return path;
+        if (o instanceof File file)
+            return file.toPath();
+        if (o instanceof String s && StringUtil.isNotBlank(s))
+            return Path.of(s);
+        return null;
+    }
+
     public void createServletContainerInitializerAnnotationHandlers(WebAppContext context, List<ServletContainerInitializer> scis)
         throws Exception
     {
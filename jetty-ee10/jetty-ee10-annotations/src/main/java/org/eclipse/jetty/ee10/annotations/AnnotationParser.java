@@ -18,16 +18,25 @@ import java.io.InputStream;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 import org.eclipse.jetty.util.ExceptionUtil;
 import org.eclipse.jetty.util.FileID;
 import org.eclipse.jetty.util.StringUtil;
+import org.eclipse.jetty.util.URIUtil;
 import org.eclipse.jetty.util.resource.Resource;
 import org.eclipse.jetty.util.resource.ResourceFactory;
 import org.objectweb.asm.AnnotationVisitor;
@@ -56,17 +65,27 @@ import org.slf4j.LoggerFactory;
  * For the servlet spec, we are only interested in annotations on classes, methods and fields,
  * so the callbacks for handling finding a class, a method a field are themselves
  * not fully implemented.
+ * <p>
+ * When parsing is performed within a {@link java.util.concurrent.ForkJoinPool},
+ * the classes of large jars and directories are parsed in parallel by splitting
+ * them into subtasks, so that idle threads can steal work from the largest jars.
+ * <p>
+ * If a {@link #setScanIndex(AnnotationScanIndex) scan index} is set, the results
+ * of parsing jars are recorded in it, and jars that have been parsed before are
+ * not parsed again, but their recorded results are replayed to the handlers.
  */
 public class AnnotationParser
 {
     private static final Logger LOG = LoggerFactory.getLogger(AnnotationParser.class);
     private static final int ASM_VERSION = asmVersion();
+    private static final int PARALLEL_THRESHOLD = 64;
 
     /**
      * Map of classnames scanned and the first location from which scan occurred
      */
     protected Map<String, URI> _parsedClassNames = new ConcurrentHashMap<>();
     private final int _asmVersion;
+    private AnnotationScanIndex _scanIndex;
 
     /**
      * Determine the runtime version of asm.
@@ -535,6 +554,22 @@ public class AnnotationParser
         _asmVersion = asmVersion;
     }
 
+    /**
+     * @return the index of the results of parsing jars, or null if there is no index
+     */
+    public AnnotationScanIndex getScanIndex()
+    {
+        return _scanIndex;
+    }
+
+    /**
+     * @param scanIndex the index of the results of parsing jars, or null to always parse jars
+     */
+    public void setScanIndex(AnnotationScanIndex scanIndex)
+    {
+        _scanIndex = scanIndex;
+    }
+
     /**
      * Parse a resource
      *
@@ -585,8 +620,7 @@ public class AnnotationParser
 
         assert dirResource.isDirectory();
 
-        ExceptionUtil.MultiException multiException = new ExceptionUtil.MultiException();
-
+        List<Path> classFiles = new ArrayList<>();
         for (Resource candidate : dirResource.getAllResources())
         {
             // Skip directories
@@ -604,16 +638,18 @@ public class AnnotationParser
                 !FileID.isClassFile(relative))
                 continue;
 
-            try
-            {
-                parseClass(handlers, dirResource, candidate.getPath());
-            }
-            catch (Exception ex)
-            {
-                multiException.add(new RuntimeException("Error scanning entry " + ex, ex));
-            }
+            classFiles.add(candidate.getPath());
         }
 
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        ParseClassesTask task = new ParseClassesTask(handlers, dirResource, classFiles, 0, classFiles.size(), failures);
+        if (ForkJoinTask.inForkJoinPool() && classFiles.size() > PARALLEL_THRESHOLD)
+            task.invoke();
+        else
+            task.compute();
+
+        ExceptionUtil.MultiException multiException = new ExceptionUtil.MultiException();
+        failures.forEach(multiException::add);
         multiException.ifExceptionThrow();
     }
 
@@ -635,10 +671,67 @@ public class AnnotationParser
         if (LOG.isDebugEnabled())
             LOG.debug("Scanning jar {}", jarResource);
 
+        AnnotationScanIndex scanIndex = _scanIndex;
+        String key = null;
+        if (scanIndex != null && jarResource.getPath() != null)
+        {
+            try
+            {
+                key = scanIndex.keyOf(jarResource.getPath());
+            }
+            catch (IOException x)
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Unable to compute scan index key of {}", jarResource, x);
+            }
+        }
+
         try (ResourceFactory.Closeable resourceFactory = ResourceFactory.closeable())
         {
             Resource insideJarResource = resourceFactory.newJarFileResource(jarResource.getURI());
-            parseDir(handlers, insideJarResource);
+
+            if (key == null)
+            {
+                parseDir(handlers, insideJarResource);
+                return;
+            }
+
+            List<AnnotationScanIndex.ClassRecord> records = scanIndex.load(key);
+            if (records != null)
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Replaying scan index {} for jar {}", key, jarResource);
+                AnnotationScanIndex.replay(handlers, insideJarResource, records);
+                String root = insideJarResource.getURI().toASCIIString();
+                for (AnnotationScanIndex.ClassRecord record : records)
+                {
+                    String className = record.getClassName();
+                    String path = record.getPath();
+                    if (path == null)
+                        path = URIUtil.encodePath(className.replace('.', '/') + ".class");
+                    URI location = URI.create(URIUtil.addPaths(root, path));
+                    URI existing = _parsedClassNames.putIfAbsent(className, location);
+                    if (existing != null)
+                        LOG.warn("{} scanned from multiple locations: {}, {}", className, existing, location);
+                }
+                return;
+            }
+
+            AnnotationScanIndex.Recorder recorder = scanIndex.newRecorder();
+            Set<Handler> recordingHandlers = new HashSet<>(handlers);
+            recordingHandlers.add(recorder);
+            parseDir(recordingHandlers, insideJarResource);
+
+            // Remember where the classes were found, as multi-release jars may select them from versioned directories.
+            String root = insideJarResource.getURI().toASCIIString();
+            Collection<AnnotationScanIndex.ClassRecord> parsed = recorder.getClassRecords();
+            for (AnnotationScanIndex.ClassRecord record : parsed)
+            {
+                URI location = _parsedClassNames.get(record.getClassName());
+                if (location != null && location.toASCIIString().startsWith(root))
+                    record.setPath(location.toASCIIString().substring(root.length()));
+            }
+            scanIndex.store(key, parsed);
         }
     }
 
@@ -673,6 +766,54 @@ public class AnnotationParser
         }
     }
     
+    /**
+     * <p>Parses a range of class files, splitting the range into subtasks
+     * when it is large and executed within a {@link java.util.concurrent.ForkJoinPool}.</p>
+     */
+    private class ParseClassesTask extends RecursiveAction
+    {
+        private final Set<? extends Handler> _handlers;
+        private final Resource _containingResource;
+        private final List<Path> _classFiles;
+        private final int _from;
+        private final int _to;
+        private final Queue<Throwable> _failures;
+
+        private ParseClassesTask(Set<? extends Handler> handlers, Resource containingResource, List<Path> classFiles, int from, int to, Queue<Throwable> failures)
+        {
+            _handlers = handlers;
+            _containingResource = containingResource;
+            _classFiles = classFiles;
+            _from = from;
+            _to = to;
+            _failures = failures;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (_to - _from > PARALLEL_THRESHOLD && inForkJoinPool())
+            {
+                int middle = (_from + _to) >>> 1;
+                invokeAll(new ParseClassesTask(_handlers, _containingResource, _classFiles, _from, middle, _failures),
+                    new ParseClassesTask(_handlers, _containingResource, _classFiles, middle, _to, _failures));
+                return;
+            }
+
+            for (int i = _from; i < _to; ++i)
+            {
+                try
+                {
+                    parseClass(_handlers, _containingResource, _classFiles.get(i));
+                }
+                catch (Exception ex)
+                {
+                    _failures.add(new RuntimeException("Error scanning entry " + ex, ex));
+                }
+            }
+        }
+    }
+
     /**
      * Useful mostly for testing to expose the list of parsed classes.
      * @return the map of classnames to their URIs
@@ -0,0 +1,536 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.ee10.annotations;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jetty.util.resource.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A persistent index of the results of scanning jars for annotations.</p>
+ * <p>The index records, for each jar, the classes found by the {@link AnnotationParser}
+ * and their annotations, keyed by a hash of the jar content, so that scanning a jar
+ * that has not changed since a previous deployment only replays the recorded
+ * results to the {@link AnnotationParser.Handler}s, without parsing the classes again.</p>
+ * <p>Each jar is stored in its own file in the index directory, which may be shared
+ * by many web applications and may be deleted at any time to clear the index.</p>
+ *
+ * @see AnnotationConfiguration#SCAN_INDEX_DIR
+ */
+public class AnnotationScanIndex
+{
+    private static final Logger LOG = LoggerFactory.getLogger(AnnotationScanIndex.class);
+    private static final int MAGIC = 0x4A415349;
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path _directory;
+
+    /**
+     * @param directory the directory where the index files are stored, created if it does not exist
+     */
+    public AnnotationScanIndex(Path directory)
+    {
+        _directory = directory;
+    }
+
+    /**
+     * @return the directory where the index files are stored
+     */
+    public Path getDirectory()
+    {
+        return _directory;
+    }
+
+    /**
+     * <p>Computes the key of a jar, as a hash of its content and of the
+     * runtime version, that selects the classes of multi-release jars.</p>
+     *
+     * @param jar the jar file
+     * @return the key of the jar
+     * @throws IOException if the jar cannot be read
+     */
+    public String keyOf(Path jar) throws IOException
+    {
+        try (InputStream input = Files.newInputStream(jar))
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = input.read(buffer)) >= 0)
+            {
+                digest.update(buffer, 0, read);
+            }
+            digest.update((byte)Runtime.version().feature());
+            return HexFormat.of().formatHex(digest.digest());
+        }
+        catch (NoSuchAlgorithmException x)
+        {
+            throw new IOException(x);
+        }
+    }
+
+    /**
+     * <p>Loads the classes recorded for the given key.</p>
+     *
+     * @param key the key of the jar
+     * @return the recorded classes, or null if there is no valid index for the key
+     */
+    public List<ClassRecord> load(String key)
+    {
+        Path file = _directory.resolve(key + ".idx");
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file))))
+        {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION)
+                return null;
+            int count = input.readInt();
+            List<ClassRecord> records = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i)
+            {
+                records.add(ClassRecord.read(input));
+            }
+            return records;
+        }
+        catch (NoSuchFileException x)
+        {
+            return null;
+        }
+        catch (Throwable x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Ignoring invalid scan index {}", file, x);
+            return null;
+        }
+    }
+
+    /**
+     * <p>Stores the classes recorded for the given key.</p>
+     * <p>The index file is written to a temporary file and then atomically
+     * moved in place, so that concurrent deployments never read a partial index.</p>
+     *
+     * @param key the key of the jar
+     * @param records the recorded classes
+     */
+    public void store(String key, Collection<ClassRecord> records)
+    {
+        Path file = _directory.resolve(key + ".idx");
+        Path temp = null;
+        try
+        {
+            Files.createDirectories(_directory);
+            temp = Files.createTempFile(_directory, key, ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp))))
+            {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeInt(records.size());
+                for (ClassRecord record : records)
+                {
+                    record.write(output);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (Throwable x)
+        {
+            LOG.warn("Unable to store scan index {}", file, x);
+            try
+            {
+                if (temp != null)
+                    Files.deleteIfExists(temp);
+            }
+            catch (IOException e)
+            {
+                LOG.trace("IGNORED", e);
+            }
+        }
+    }
+
+    /**
+     * @return a new {@link AnnotationParser.Handler} that records the classes it is called back for
+     */
+    public Recorder newRecorder()
+    {
+        return new Recorder();
+    }
+
+    /**
+     * <p>Calls back the given handlers with the recorded classes, as if they were parsed.</p>
+     *
+     * @param handlers the handlers to call back
+     * @param containingResource the resource the classes were parsed from
+     * @param records the recorded classes
+     */
+    public static void replay(Set<? extends AnnotationParser.Handler> handlers, Resource containingResource, List<ClassRecord> records)
+    {
+        for (ClassRecord record : records)
+        {
+            record.replay(handlers, containingResource);
+        }
+    }
+
+    /**
+     * <p>The recorded result of parsing a class: the class header,
+     * and its annotations and those of its fields and methods.</p>
+     */
+    public static class ClassRecord
+    {
+        private final String _className;
+        private final int _version;
+        private final int _access;
+        private final String _signature;
+        private final String _superName;
+        private final String[] _interfaces;
+        private final List<String> _annotations = new ArrayList<>();
+        private final List<MemberRecord> _fields = new ArrayList<>();
+        private final List<MemberRecord> _methods = new ArrayList<>();
+        private String _path;
+
+        private ClassRecord(String className, int version, int access, String signature, String superName, String[] interfaces)
+        {
+            _className = className;
+            _version = version;
+            _access = access;
+            _signature = signature;
+            _superName = superName;
+            _interfaces = interfaces;
+        }
+
+        public String getClassName()
+        {
+            return _className;
+        }
+
+        /**
+         * @return the path of the class file within the jar, or null if unknown
+         */
+        public String getPath()
+        {
+            return _path;
+        }
+
+        void setPath(String path)
+        {
+            _path = path;
+        }
+
+        private void replay(Set<? extends AnnotationParser.Handler> handlers, Resource containingResource)
+        {
+            AnnotationParser.ClassInfo classInfo = new AnnotationParser.ClassInfo(containingResource, _className, _version, _access, _signature, _superName, _interfaces);
+            for (AnnotationParser.Handler handler : handlers)
+            {
+                handler.handle(classInfo);
+            }
+            for (String annotation : _annotations)
+            {
+                for (AnnotationParser.Handler handler : handlers)
+                {
+                    handler.handle(classInfo, annotation);
+                }
+            }
+            for (MemberRecord field : _fields)
+            {
+                AnnotationParser.FieldInfo fieldInfo = new AnnotationParser.FieldInfo(classInfo, field._name, field._access, field._descriptor, field._signature, field._value);
+                for (String annotation : field._annotations)
+                {
+                    for (AnnotationParser.Handler handler : handlers)
+                    {
+                        handler.handle(fieldInfo, annotation);
+                    }
+                }
+            }
+            for (MemberRecord method : _methods)
+            {
+                AnnotationParser.MethodInfo methodInfo = new AnnotationParser.MethodInfo(classInfo, method._name, method._access, method._descriptor, method._signature, method._exceptions);
+                for (String annotation : method._annotations)
+                {
+                    for (AnnotationParser.Handler handler : handlers)
+                    {
+                        handler.handle(methodInfo, annotation);
+                    }
+                }
+            }
+        }
+
+        private void write(DataOutputStream output) throws IOException
+        {
+            writeString(output, _className);
+            writeString(output, _path);
+            output.writeInt(_version);
+            output.writeInt(_access);
+            writeString(output, _signature);
+            writeString(output, _superName);
+            writeStrings(output, _interfaces);
+            writeStrings(output, _annotations.toArray(String[]::new));
+            output.writeInt(_fields.size());
+            for (MemberRecord field : _fields)
+            {
+                field.write(output);
+            }
+            output.writeInt(_methods.size());
+            for (MemberRecord method : _methods)
+            {
+                method.write(output);
+            }
+        }
+
+        private static ClassRecord read(DataInputStream input) throws IOException
+        {
+            String className = readString(input);
+            String path = readString(input);
+            ClassRecord record = new ClassRecord(className, input.readInt(), input.readInt(), readString(input), readString(input), readStrings(input));
+            record._path = path;
+            record._annotations.addAll(List.of(readStrings(input)));
+            int fields = input.readInt();
+            for (int i = 0; i < fields; ++i)
+            {
+                record._fields.add(MemberRecord.read(input));
+            }
+            int methods = input.readInt();
+            for (int i = 0; i < methods; ++i)
+            {
+                record._methods.add(MemberRecord.read(input));
+            }
+            return record;
+        }
+    }
+
+    /**
+     * <p>The recorded annotations of a field or of a method.</p>
+     */
+    private static class MemberRecord
+    {
+        private final String _name;
+        private final int _access;
+        private final String _descriptor;
+        private final String _signature;
+        private final String[] _exceptions;
+        private final Object _value;
+        private final List<String> _annotations = new ArrayList<>();
+
+        private MemberRecord(String name, int access, String descriptor, String signature, String[] exceptions, Object value)
+        {
+            _name = name;
+            _access = access;
+            _descriptor = descriptor;
+            _signature = signature;
+            _exceptions = exceptions;
+            _value = value;
+        }
+
+        private void write(DataOutputStream output) throws IOException
+        {
+            writeString(output, _name);
+            output.writeInt(_access);
+            writeString(output, _descriptor);
+            writeString(output, _signature);
+            writeStrings(output, _exceptions);
+            writeValue(output, _value);
+            writeStrings(output, _annotations.toArray(String[]::new));
+        }
+
+        private static MemberRecord read(DataInputStream input) throws IOException
+        {
+            MemberRecord record = new MemberRecord(readString(input), input.readInt(), readString(input), readString(input), readStrings(input), readValue(input));
+            record._annotations.addAll(List.of(readStrings(input)));
+            return record;
+        }
+    }
+
+    /**
+     * <p>A {@link AnnotationParser.Handler} that records the classes
+     * and annotations it is called back for, possibly concurrently.</p>
+     */
+    public static class Recorder extends AnnotationParser.AbstractHandler
+    {
+        private final Map<AnnotationParser.ClassInfo, ClassRecord> _classes = new ConcurrentHashMap<>();
+        private final Map<AnnotationParser.FieldInfo, MemberRecord> _fields = new ConcurrentHashMap<>();
+        private final Map<AnnotationParser.MethodInfo, MemberRecord> _methods = new ConcurrentHashMap<>();
+
+        private Recorder()
+        {
+        }
+
+        @Override
+        public void handle(AnnotationParser.ClassInfo classInfo)
+        {
+            _classes.put(classInfo, new ClassRecord(classInfo.getClassName(), classInfo.getVersion(), classInfo.getAccess(),
+                classInfo.getSignature(), classInfo.getSuperName(), classInfo.getInterfaces()));
+        }
+
+        @Override
+        public void handle(AnnotationParser.ClassInfo info, String annotationName)
+        {
+            // A class is only visited by one thread.
+            _classes.get(info)._annotations.add(annotationName);
+        }
+
+        @Override
+        public void handle(AnnotationParser.FieldInfo info, String annotationName)
+        {
+            _fields.computeIfAbsent(info, i ->
+            {
+                MemberRecord field = new MemberRecord(i.getFieldName(), i.getAccess(), i.getFieldType(), i.getSignature(), null, i.getValue());
+                _classes.get(i.getClassInfo())._fields.add(field);
+                return field;
+            })._annotations.add(annotationName);
+        }
+
+        @Override
+        public void handle(AnnotationParser.MethodInfo info, String annotationName)
+        {
+            _methods.computeIfAbsent(info, i ->
+            {
+                MemberRecord method = new MemberRecord(i.getMethodName(), i.getAccess(), i.getDesc(), i.getSignature(), i.getExceptions(), null);
+                _classes.get(i.getClassInfo())._methods.add(method);
+                return method;
+            })._annotations.add(annotationName);
+        }
+
+        /**
+         * @return the recorded classes
+         */
+        public Collection<ClassRecord> getClassRecords()
+        {
+            return _classes.values();
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException
+    {
+        if (value == null)
+        {
+            output.writeInt(-1);
+        }
+        else
+        {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException
+    {
+        int length = input.readInt();
+        if (length < 0)
+            return null;
+        return new String(input.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream output, String[] values) throws IOException
+    {
+        if (values == null)
+        {
+            output.writeInt(-1);
+            return;
+        }
+        output.writeInt(values.length);
+        for (String value : values)
+        {
+            writeString(output, value);
+        }
+    }
+
+    private static String[] readStrings(DataInputStream input) throws IOException
+    {
+        int length = input.readInt();
+        if (length < 0)
+            return null;
+        String[] values = new String[length];
+        for (int i = 0; i < length; ++i)
+        {
+            values[i] = readString(input);
+        }
+        return values;
+    }
+
+    private static void writeValue(DataOutputStream output, Object value) throws IOException
+    {
+        // Field constant values are either null, a boxed primitive or a String.
+        if (value == null)
+        {
+            output.writeByte(0);
+        }
+        else if (value instanceof Integer i)
+        {
+            output.writeByte(1);
+            output.writeInt(i);
+        }
+        else if (value instanceof Long l)
+        {
+            output.writeByte(2);
+            output.writeLong(l);
+        }
+        else if (value instanceof Float f)
+        {
+            output.writeByte(3);
+            output.writeFloat(f);
+        }
+        else if (value instanceof Double d)
+        {
+            output.writeByte(4);
+            output.writeDouble(d);
+        }
+        else if (value instanceof String s)
+        {
+            output.writeByte(5);
+            writeString(output, s);
+        }
+        else
+        {
+            throw new IOException("Unsupported field value " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream input) throws IOException
+    {
+        return switch (input.readByte())
+        {
+            case 0 -> null;
+            case 1 -> input.readInt();
+            case 2 -> input.readLong();
+            case 3 -> input.readFloat();
+            case 4 -> input.readDouble();
+            case 5 -> readString(input);
+            default -> throw new IOException("Invalid field value");
+        };
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x{%s}", getClass().getSimpleName(), hashCode(), _directory);
+    }
+}
@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
 
 import org.eclipse.jetty.toolchain.test.FS;
 import org.eclipse.jetty.toolchain.test.MavenTestingUtils;
@@ -50,6 +51,7 @@ import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(WorkDirExtension.class)
 public class TestAnnotationParser
@@ -319,6 +321,80 @@ public class TestAnnotationParser
         }
     }
 
+    @Test
+    public void testScanIndex(WorkDir workDir) throws Exception
+    {
+        Path indexDir = workDir.getEmptyPathDir();
+        Path jar = MavenTestingUtils.getTestResourcePathFile("jdk9/log4j-api-2.9.0.jar");
+        try (ResourceFactory.Closeable resourceFactory = ResourceFactory.closeable())
+        {
+            Resource jarResource = resourceFactory.newResource(jar);
+
+            AnnotationParser parser = new AnnotationParser();
+            RecordingHandler expected = new RecordingHandler();
+            parser.parse(Collections.singleton(expected), jarResource);
+
+            // Parse in parallel, and store the index.
+            AnnotationParser indexingParser = new AnnotationParser();
+            indexingParser.setScanIndex(new AnnotationScanIndex(indexDir));
+            RecordingHandler indexed = new RecordingHandler();
+            ForkJoinPool pool = new ForkJoinPool(4);
+            try
+            {
+                pool.submit(() ->
+                {
+                    indexingParser.parse(Collections.singleton(indexed), jarResource);
+                    return null;
+                }).get();
+            }
+            finally
+            {
+                pool.shutdownNow();
+            }
+            assertEquals(expected.events, indexed.events);
+            assertEquals(parser.getParsedClassNames(), indexingParser.getParsedClassNames());
+            String key = indexingParser.getScanIndex().keyOf(jar);
+            assertTrue(Files.exists(indexDir.resolve(key + ".idx")));
+
+            // Replay the index.
+            AnnotationParser replayingParser = new AnnotationParser();
+            replayingParser.setScanIndex(new AnnotationScanIndex(indexDir));
+            RecordingHandler replayed = new RecordingHandler();
+            replayingParser.parse(Collections.singleton(replayed), jarResource);
+            assertEquals(expected.events, replayed.events);
+            assertEquals(parser.getParsedClassNames(), replayingParser.getParsedClassNames());
+        }
+    }
+
+    private static class RecordingHandler extends AnnotationParser.AbstractHandler
+    {
+        private final Set<String> events = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void handle(AnnotationParser.ClassInfo info)
+        {
+            events.add("class " + info.getClassName() + " extends " + info.getSuperName() + " implements " + Arrays.toString(info.getInterfaces()));
+        }
+
+        @Override
+        public void handle(AnnotationParser.ClassInfo info, String annotation)
+        {
+            events.add("@" + annotation + " class " + info.getClassName());
+        }
+
+        @Override
+        public void handle(AnnotationParser.FieldInfo info, String annotation)
+        {
+            events.add("@" + annotation + " field " + info.getClassInfo().getClassName() + "." + info.getFieldName());
+        }
+
+        @Override
+        public void handle(AnnotationParser.MethodInfo info, String annotation)
+        {
+            events.add("@" + annotation + " method " + info.getClassInfo().getClassName() + "." + info.getMethodName() + info.getDesc());
+        }
+    }
+
     private void copyClass(Class<?> clazz, Path outputDir) throws IOException, URISyntaxException
     {
         String classRef = TypeUtil.toClassReference(clazz);
@@ -16,16 +16,20 @@ package org.eclipse.jetty.ee10.servlet;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.EventListener;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -63,6 +67,7 @@ import org.eclipse.jetty.util.ExceptionUtil;
 import org.eclipse.jetty.util.MultiMap;
 import org.eclipse.jetty.util.annotation.ManagedAttribute;
 import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
 import org.eclipse.jetty.util.component.DumpableCollection;
 import org.eclipse.jetty.util.component.LifeCycle;
 import org.eclipse.jetty.util.thread.AutoLock;
@@ -115,8 +120,18 @@ public class ServletHandler extends Handler.Wrapper
     private final List<ListenerHolder> _listeners = new ArrayList<>();
     private boolean _initialized = false;
 
+    /**
+     * @deprecated no longer used to cache filter chains, will be removed in a future release.
+     */
+    @Deprecated(since = "12.0.25", forRemoval = true)
     @SuppressWarnings("unchecked")
     protected final ConcurrentMap<String, FilterChain>[] _chainCache = new ConcurrentMap[FilterMapping.ALL];
+    @SuppressWarnings("unchecked")
+    private final ChainCache<String>[] _pathChainCache = new ChainCache[FilterMapping.ALL];
+    private ChainCache<ChainKey> _mappedChainCache;
+    private final LongAdder _chainCacheHits = new LongAdder();
+    private final LongAdder _chainCacheMisses = new LongAdder();
+    private final LongAdder _chainsBuilt = new LongAdder();
     private boolean _decodeAmbiguousURIs = false;
 
     /**
@@ -213,11 +228,12 @@ public class ServletHandler extends Handler.Wrapper
 
             if (isFilterChainsCached())
             {
-                _chainCache[FilterMapping.REQUEST] = new ConcurrentHashMap<>();
-                _chainCache[FilterMapping.FORWARD] = new ConcurrentHashMap<>();
-                _chainCache[FilterMapping.INCLUDE] = new ConcurrentHashMap<>();
-                _chainCache[FilterMapping.ERROR] = new ConcurrentHashMap<>();
-                _chainCache[FilterMapping.ASYNC] = new ConcurrentHashMap<>();
+                _pathChainCache[FilterMapping.REQUEST] = new ChainCache<>(_maxFilterChainsCacheSize);
+                _pathChainCache[FilterMapping.FORWARD] = new ChainCache<>(_maxFilterChainsCacheSize);
+                _pathChainCache[FilterMapping.INCLUDE] = new ChainCache<>(_maxFilterChainsCacheSize);
+                _pathChainCache[FilterMapping.ERROR] = new ChainCache<>(_maxFilterChainsCacheSize);
+                _pathChainCache[FilterMapping.ASYNC] = new ChainCache<>(_maxFilterChainsCacheSize);
+                _mappedChainCache = new ChainCache<>(_maxFilterChainsCacheSize);
             }
 
             if (_servletContextHandler == null)
@@ -515,15 +531,61 @@ public class ServletHandler extends Handler.Wrapper
     {
         DispatcherType dispatcherType = request.getDispatcherType();
         Objects.requireNonNull(servletHolder);
-        String key = pathInContext == null ? servletHolder.getName() : pathInContext;
         int dispatch = FilterMapping.dispatch(dispatcherType);
 
-        if (_filterChainsCached)
+        if (!_filterChainsCached)
+            return newFilterChain(servletHolder, dispatch, getMatchedFilterPathMappings(pathInContext, dispatch));
+
+        // Fast path: the chain was already resolved for this exact path.
+        String key = pathInContext == null ? servletHolder.getName() : pathInContext;
+        ChainCache<String> cache = _pathChainCache[dispatch];
+        FilterChain chain = cache.get(key);
+        if (chain != null)
+        {
+            _chainCacheHits.increment();
+            return chain;
+        }
+        _chainCacheMisses.increment();
+
+        // The chain only depends on the servlet, the dispatch type and on
+        // which filter path mappings match, so distinct paths that resolve
+        // to the same outcome share the same chain, which is built only once.
+        BitSet matched = getMatchedFilterPathMappings(pathInContext, dispatch);
+        ChainKey chainKey = new ChainKey(servletHolder, dispatch, matched);
+        chain = _mappedChainCache.get(chainKey);
+        if (chain == null)
+        {
+            chain = newFilterChain(servletHolder, dispatch, matched);
+            if (chain == null)
+                chain = new ChainEnd(servletHolder);
+            FilterChain existing = _mappedChainCache.putIfAbsent(chainKey, chain);
+            if (existing != null)
+                chain = existing;
+            else if (LOG.isDebugEnabled())
+                LOG.debug("{} cached filter chain for {}: {}", this, dispatcherType, chain);
+        }
+        cache.put(key, chain);
+        return chain;
+    }
+
+    private BitSet getMatchedFilterPathMappings(String pathInContext, int dispatch)
+    {
+        BitSet matched = new BitSet();
+        List<FilterMapping> filterPathMappings = _filterPathMappings;
+        if (pathInContext != null && filterPathMappings != null)
         {
-            FilterChain chain = _chainCache[dispatch].get(key);
-            if (chain != null)
-                return chain;
+            for (int i = 0; i < filterPathMappings.size(); ++i)
+            {
+                if (filterPathMappings.get(i).appliesTo(pathInContext, dispatch))
+                    matched.set(i);
+            }
         }
+        return matched;
+    }
+
+    private FilterChain newFilterChain(ServletHolder servletHolder, int dispatch, BitSet matchedFilterPathMappings)
+    {
+        _chainsBuilt.increment();
 
         // Build the filter chain from the inside out.
         // ie first wrap the servlet with the last filter to be applied.
@@ -547,30 +609,15 @@ public class ServletHandler extends Handler.Wrapper
             }
         }
 
-        if (pathInContext != null && _filterPathMappings != null)
+        List<FilterMapping> filterPathMappings = _filterPathMappings;
+        if (filterPathMappings != null)
         {
-            for (FilterMapping mapping : _filterPathMappings)
+            for (int i = matchedFilterPathMappings.nextSetBit(0); i >= 0; i = matchedFilterPathMappings.nextSetBit(i + 1))
             {
-                if (mapping.appliesTo(pathInContext, dispatch))
-                    chain = newFilterChain(mapping.getFilterHolder(), chain == null ? new ChainEnd(servletHolder) : chain);
+                chain = newFilterChain(filterPathMappings.get(i).getFilterHolder(), chain == null ? new ChainEnd(servletHolder) : chain);
             }
         }
 
-        if (_filterChainsCached)
-        {
-            final Map<String, FilterChain> cache = _chainCache[dispatch];
-            // Do we have too many cached chains?
-            if (_maxFilterChainsCacheSize > 0 && cache.size() >= _maxFilterChainsCacheSize)
-            {
-                // flush the cache
-                LOG.debug("{} flushed filter chain cache for {}", this, dispatcherType);
-                cache.clear();
-            }
-            chain = chain == null ? new ChainEnd(servletHolder) : chain;
-            // flush the cache
-            LOG.debug("{} cached filter chain for {}: {}", this, dispatcherType, chain);
-            cache.put(key, chain);
-        }
         return chain;
     }
 
@@ -587,14 +634,16 @@ public class ServletHandler extends Handler.Wrapper
 
     protected void invalidateChainsCache()
     {
-        if (_chainCache[FilterMapping.REQUEST] != null)
+        if (_pathChainCache[FilterMapping.REQUEST] != null)
         {
-            _chainCache[FilterMapping.REQUEST].clear();
-            _chainCache[FilterMapping.FORWARD].clear();
-            _chainCache[FilterMapping.INCLUDE].clear();
-            _chainCache[FilterMapping.ERROR].clear();
-            _chainCache[FilterMapping.ASYNC].clear();
+            _pathChainCache[FilterMapping.REQUEST].clear();
+            _pathChainCache[FilterMapping.FORWARD].clear();
+            _pathChainCache[FilterMapping.INCLUDE].clear();
+            _pathChainCache[FilterMapping.ERROR].clear();
+            _pathChainCache[FilterMapping.ASYNC].clear();
         }
+        if (_mappedChainCache != null)
+            _mappedChainCache.clear();
     }
 
     /**
@@ -1340,11 +1389,7 @@ public class ServletHandler extends Handler.Wrapper
             _servletPathMap = pm;
 
             // flush filter chain cache
-            for (int i = _chainCache.length; i-- > 0; )
-            {
-                if (_chainCache[i] != null)
-                    _chainCache[i].clear();
-            }
+            invalidateChainsCache();
 
             if (LOG.isDebugEnabled())
             {
@@ -1445,6 +1490,7 @@ public class ServletHandler extends Handler.Wrapper
     /**
      * @return The maximum entries in a filter chain cache.
      */
+    @ManagedAttribute("The maximum number of paths in a filter chain cache")
     public int getMaxFilterChainsCacheSize()
     {
         return _maxFilterChainsCacheSize;
@@ -1453,7 +1499,10 @@ public class ServletHandler extends Handler.Wrapper
     /**
      * Set the maximum filter chain cache size.
      * Filter chains are cached if {@link #isFilterChainsCached()} is true. If the max cache size
-     * is greater than zero, then the cache is flushed whenever it grows to be this size.
+     * is greater than zero, then the least recently used paths are evicted from the cache
+     * when it grows to be this size.
+     * Paths that resolve to the same servlet and filter mappings share the same filter chain,
+     * so evicted paths do not cause filter chains to be rebuilt.
      *
      * @param maxFilterChainsCacheSize the maximum number of entries in a filter chain cache.
      */
@@ -1462,6 +1511,46 @@ public class ServletHandler extends Handler.Wrapper
         _maxFilterChainsCacheSize = maxFilterChainsCacheSize;
     }
 
+    @ManagedAttribute("The number of filter chains found in the path cache")
+    public long getFilterChainsCacheHits()
+    {
+        return _chainCacheHits.sum();
+    }
+
+    @ManagedAttribute("The number of filter chains not found in the path cache")
+    public long getFilterChainsCacheMisses()
+    {
+        return _chainCacheMisses.sum();
+    }
+
+    int getFilterChainsCacheSize(int dispatch)
+    {
+        ChainCache<String> cache = _pathChainCache[dispatch];
+        return cache == null ? 0 : cache.size();
+    }
+
+    @ManagedAttribute("The ratio of filter chains found in the path cache")
+    public double getFilterChainsCacheHitRatio()
+    {
+        long hits = getFilterChainsCacheHits();
+        long total = hits + getFilterChainsCacheMisses();
+        return total == 0 ? 0.0 : (double)hits / total;
+    }
+
+    @ManagedAttribute("The number of filter chains built")
+    public long getFilterChainsBuilt()
+    {
+        return _chainsBuilt.sum();
+    }
+
+    @ManagedOperation(value = "Resets the filter chain cache statistics", impact = "ACTION")
+    public void resetFilterChainsCacheStatistics()
+    {
+        _chainCacheHits.reset();
+        _chainCacheMisses.reset();
+        _chainsBuilt.reset();
+    }
+
     void destroyServlet(Servlet servlet)
     {
         if (_servletContextHandler != null)
@@ -1601,6 +1690,113 @@ public class ServletHandler extends Handler.Wrapper
         }
     }
 
+    /**
+     * <p>The key of the filter chains that only depend on the servlet,
+     * on the dispatch type and on the matching filter path mappings.</p>
+     */
+    private record ChainKey(ServletHolder servletHolder, int dispatch, BitSet filterPathMappings)
+    {
+    }
+
+    /**
+     * <p>A bounded cache of filter chains, that evicts keys
+     * that were not recently used, approximating a LRU cache.</p>
+     * <p>Lookups do not take any lock: a hit only sets the recency bit of the entry.
+     * When the cache is full, the eviction gives a second chance to the entries
+     * that were used since the previous eviction, and removes the others.</p>
+     *
+     * @param <K> the type of the cache keys
+     */
+    private static class ChainCache<K>
+    {
+        private final ConcurrentMap<K, Entry> _entries = new ConcurrentHashMap<>();
+        private final AtomicBoolean _evicting = new AtomicBoolean();
+        private final int _maxSize;
+
+        private ChainCache(int maxSize)
+        {
+            _maxSize = maxSize > 0 ? maxSize : Integer.MAX_VALUE;
+        }
+
+        private FilterChain get(K key)
+        {
+            Entry entry = _entries.get(key);
+            if (entry == null)
+                return null;
+            // Avoid writing the shared field if not necessary.
+            if (!entry._recent)
+                entry._recent = true;
+            return entry._chain;
+        }
+
+        private void put(K key, FilterChain chain)
+        {
+            // Evict before adding, so that the new entry is not evicted immediately.
+            if (_entries.size() >= _maxSize)
+                evict();
+            _entries.put(key, new Entry(chain));
+        }
+
+        /**
+         * @return the chain already cached for the key, or null if the given chain was cached
+         */
+        private FilterChain putIfAbsent(K key, FilterChain chain)
+        {
+            if (_entries.size() >= _maxSize)
+                evict();
+            Entry existing = _entries.putIfAbsent(key, new Entry(chain));
+            return existing == null ? null : existing._chain;
+        }
+
+        private void evict()
+        {
+            // Only one thread evicts, the others may exceed the max size temporarily.
+            if (!_evicting.compareAndSet(false, true))
+                return;
+            try
+            {
+                // Evict a few entries at once, so that not every put() evicts.
+                int target = _maxSize - Math.max(1, _maxSize / 8);
+                for (int pass = 0; pass < 2 && _entries.size() > target; ++pass)
+                {
+                    for (Iterator<Entry> iterator = _entries.values().iterator(); iterator.hasNext() && _entries.size() > target; )
+                    {
+                        Entry entry = iterator.next();
+                        if (entry._recent)
+                            entry._recent = false;
+                        else
+                            iterator.remove();
+                    }
+                }
+            }
+            finally
+            {
+                _evicting.set(false);
+            }
+        }
+
+        private int size()
+        {
+            return _entries.size();
+        }
+
+        private void clear()
+        {
+            _entries.clear();
+        }
+
+        private static class Entry
+        {
+            private final FilterChain _chain;
+            private volatile boolean _recent;
+
+            private Entry(FilterChain chain)
+            {
+                _chain = chain;
+            }
+        }
+    }
+
     static class ChainEnd implements FilterChain
     {
         private final ServletHolder _servletHolder;
@@ -851,6 +851,113 @@ public class ServletHandlerTest
         assertThat(connector.getResponse("GET /other.bob HTTP/1.0\r\n\r\n"), containsString("path-/*-path-*.bob-default"));
     }
 
+    @Test
+    public void testFilterChainsCachedByMappingOutcome() throws Exception
+    {
+        Server server = new Server();
+        ServletContextHandler context = new ServletContextHandler("/");
+        server.setHandler(context);
+        ServletHandler handler = context.getServletHandler();
+        handler.setMaxFilterChainsCacheSize(16);
+
+        ServletHolder foo = new ServletHolder(new HttpServlet()
+        {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException
+            {
+                resp.getOutputStream().println("FOO");
+            }
+        });
+        foo.setName("foo");
+        handler.addServletWithMapping(foo, "/foo/*");
+
+        for (final String mapping : new String[]{"/*", "*.bob"})
+        {
+            handler.addFilterWithMapping(new FilterHolder((TestFilter)(request, response, chain) ->
+            {
+                response.getOutputStream().print("path-" + mapping + "-");
+                chain.doFilter(request, response);
+            }), mapping, EnumSet.of(DispatcherType.REQUEST));
+        }
+
+        LocalConnector connector = new LocalConnector(server);
+        server.addConnector(connector);
+
+        server.start();
+
+        // Many distinct paths resolve to only two filter chains.
+        for (int i = 0; i < 64; ++i)
+        {
+            assertThat(connector.getResponse("GET /foo/" + i + " HTTP/1.0\r\n\r\n"), containsString("path-/*-FOO"));
+            assertThat(connector.getResponse("GET /foo/" + i + ".bob HTTP/1.0\r\n\r\n"), containsString("path-/*-path-*.bob-FOO"));
+        }
+        assertEquals(2, handler.getFilterChainsBuilt());
+        assertEquals(128, handler.getFilterChainsCacheMisses());
+
+        // The most recently used paths are still in the bounded path cache.
+        assertThat(connector.getResponse("GET /foo/63.bob HTTP/1.0\r\n\r\n"), containsString("path-/*-path-*.bob-FOO"));
+        assertEquals(1, handler.getFilterChainsCacheHits());
+        assertTrue(handler.getFilterChainsCacheSize(FilterMapping.REQUEST) <= 16);
+
+        handler.resetFilterChainsCacheStatistics();
+        assertEquals(0, handler.getFilterChainsBuilt());
+        assertEquals(0.0, handler.getFilterChainsCacheHitRatio());
+    }
+
+    @Test
+    public void testRecentlyUsedFilterChainsSurviveEviction() throws Exception
+    {
+        Server server = new Server();
+        ServletContextHandler context = new ServletContextHandler("/");
+        server.setHandler(context);
+        ServletHandler handler = context.getServletHandler();
+        handler.setMaxFilterChainsCacheSize(4);
+
+        for (int i = 0; i < 5; ++i)
+        {
+            String name = "s" + i;
+            ServletHolder holder = new ServletHolder(new HttpServlet()
+            {
+                @Override
+                protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException
+                {
+                    resp.getOutputStream().println(name);
+                }
+            });
+            holder.setName(name);
+            handler.addServletWithMapping(holder, "/" + name + "/*");
+        }
+        handler.addFilterWithMapping(new FilterHolder((TestFilter)(request, response, chain) ->
+        {
+            response.getOutputStream().print("filter-");
+            chain.doFilter(request, response);
+        }), "/*", EnumSet.of(DispatcherType.REQUEST));
+
+        LocalConnector connector = new LocalConnector(server);
+        server.addConnector(connector);
+
+        server.start();
+
+        // Fill the cache with one filter chain per servlet.
+        for (int i = 0; i < 4; ++i)
+        {
+            assertThat(connector.getResponse("GET /s" + i + "/a HTTP/1.0\r\n\r\n"), containsString("filter-s" + i));
+        }
+        assertEquals(4, handler.getFilterChainsBuilt());
+
+        // Use the chain of s0 again, from a path that is not cached.
+        assertThat(connector.getResponse("GET /s0/b HTTP/1.0\r\n\r\n"), containsString("filter-s0"));
+        assertEquals(4, handler.getFilterChainsBuilt());
+
+        // A new chain evicts one of the chains not recently used.
+        assertThat(connector.getResponse("GET /s4/a HTTP/1.0\r\n\r\n"), containsString("filter-s4"));
+        assertEquals(5, handler.getFilterChainsBuilt());
+
+        // The chain of s0 was not evicted, so it is not built again.
+        assertThat(connector.getResponse("GET /s0/c HTTP/1.0\r\n\r\n"), containsString("filter-s0"));
+        assertEquals(5, handler.getFilterChainsBuilt());
+    }
+
     @Test
     public void testFilterMappingsResetAfterStart() throws Exception
     {
@@ -0,0 +1,171 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+
+package org.eclipse.jetty.ee10.session.jdbc;
+
+import java.util.Map;
+
+import org.eclipse.jetty.session.AbstractSessionDataStoreTest;
+import org.eclipse.jetty.session.JdbcTestHelper;
+import org.eclipse.jetty.session.ManagedSession;
+import org.eclipse.jetty.session.SessionData;
+import org.eclipse.jetty.session.SessionDataStore;
+import org.eclipse.jetty.session.SessionDataStoreFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JDBCSessionDataStoreAttributeRowsTest
+ * <p>
+ * Runs the standard data store tests with session attributes stored one per row.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class JDBCSessionDataStoreAttributeRowsTest extends AbstractSessionDataStoreTest
+{
+    private String sessionTableName;
+
+    public JDBCSessionDataStoreAttributeRowsTest() throws Exception
+    {
+        super();
+    }
+
+    @BeforeEach
+    public void setupSessionTableName() throws Exception
+    {
+        this.sessionTableName = getClass().getSimpleName() + "_" + System.nanoTime();
+        JdbcTestHelper.prepareTables(sessionTableName);
+        JdbcTestHelper.prepareAttributeTable(sessionTableName);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception
+    {
+        JdbcTestHelper.shutdown(sessionTableName);
+        JdbcTestHelper.shutdownAttributeTable(sessionTableName);
+    }
+
+    @Override
+    public SessionDataStoreFactory createSessionDataStoreFactory()
+    {
+        return JdbcTestHelper.newSessionDataStoreFactory(JdbcTestHelper.buildDatabaseAdaptor(), sessionTableName, false, true);
+    }
+
+    @Override
+    public void persistSession(SessionData data) throws Exception
+    {
+        JdbcTestHelper.insertSessionAttributeRows(data, sessionTableName);
+    }
+
+    @Override
+    public void persistUnreadableSession(SessionData data) throws Exception
+    {
+        JdbcTestHelper.insertUnreadableSession(data.getId(), data.getContextPath(), data.getVhost(), data.getLastNode(),
+            data.getCreated(), data.getAccessed(), data.getLastAccessed(),
+            data.getMaxInactiveMs(), data.getExpiry(), data.getCookieSet(),
+            data.getLastSaved(), sessionTableName);
+        JdbcTestHelper.insertAttributeRow(data, "bad", "not a serialized object".getBytes(), sessionTableName);
+    }
+
+    @Override
+    public boolean checkSessionExists(SessionData data) throws Exception
+    {
+        return JdbcTestHelper.existsInSessionTable(data.getId(), false, sessionTableName);
+    }
+
+    @Override
+    public boolean checkSessionPersisted(SessionData data) throws Exception
+    {
+        ClassLoader old = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(_contextClassLoader);
+        try
+        {
+            return JdbcTestHelper.checkSessionAttributeRowsPersisted(data, sessionTableName);
+        }
+        finally
+        {
+            Thread.currentThread().setContextClassLoader(old);
+        }
+    }
+
+    @Test
+    public void testStoreOnlyChangedAttributes() throws Exception
+    {
+        setUp();
+        _server.start();
+
+        SessionDataStore store = _sessionManager.getSessionCache().getSessionDataStore();
+
+        long now = System.currentTimeMillis();
+        SessionData data = store.newSessionData("rows1", 100, now, now - 1, -1); //never expires
+        data.setLastNode(_sessionIdManager.getWorkerName());
+        data.setAttribute("a", "one");
+        data.setAttribute("b", "two");
+        data.setAttribute("c", "three");
+        store.store("rows1", data);
+        assertTrue(checkSessionPersisted(data));
+
+        //only the changed and removed attributes are dirty on the next save
+        SessionData loaded = store.load("rows1");
+        assertNotNull(loaded);
+        loaded.setAttribute("b", "deux");
+        loaded.setAttribute("c", null);
+        assertFalse(loaded.isAllAttributesDirty());
+        assertEquals(2, loaded.getDirtyAttributes().size());
+        store.store("rows1", loaded);
+
+        Map<String, Object> rows = JdbcTestHelper.getAttributeRows("rows1", sessionTableName);
+        assertEquals(Map.of("a", "one", "b", "deux"), rows);
+
+        //deleting the session removes its attribute rows
+        assertTrue(store.delete("rows1"));
+        assertTrue(JdbcTestHelper.getAttributeRows("rows1", sessionTableName).isEmpty());
+    }
+
+    @Test
+    public void testMaxInactiveIntervalDoesNotRewriteAttributes() throws Exception
+    {
+        setUp();
+        _server.start();
+
+        SessionDataStore store = _sessionManager.getSessionCache().getSessionDataStore();
+
+        long now = System.currentTimeMillis();
+        SessionData data = store.newSessionData("rows2", 100, now, now - 1, -1); //never expires
+        data.setLastNode(_sessionIdManager.getWorkerName());
+        data.setAttribute("a", "one");
+        data.setAttribute("b", "two");
+        store.store("rows2", data);
+        assertTrue(checkSessionPersisted(data));
+
+        SessionData loaded = store.load("rows2");
+        assertNotNull(loaded);
+        ManagedSession session = new ManagedSession(_sessionManager, loaded);
+
+        //delete a row behind the back of the store, so that rewriting the rows would restore it
+        JdbcTestHelper.deleteAttributeRow("rows2", "a", sessionTableName);
+
+        //only the session row is written when the max inactive interval changes
+        session.setMaxInactiveInterval(200);
+        store.store("rows2", loaded);
+        assertEquals(Map.of("b", "two"), JdbcTestHelper.getAttributeRows("rows2", sessionTableName));
+        assertEquals(200_000L, store.load("rows2").getMaxInactiveMs());
+    }
+}
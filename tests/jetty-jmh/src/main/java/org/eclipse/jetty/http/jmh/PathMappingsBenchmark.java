@@ -0,0 +1,90 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+
+package org.eclipse.jetty.http.jmh;
+
+import org.eclipse.jetty.http.pathmap.MatchedResource;
+import org.eclipse.jetty.http.pathmap.PathMappings;
+import org.eclipse.jetty.http.pathmap.RegexPathSpec;
+import org.eclipse.jetty.http.pathmap.UriTemplatePathSpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * <p>Measures the iterative matching of {@link PathMappings} with a large number
+ * of {@link RegexPathSpec}s or {@link UriTemplatePathSpec}s, where most path specs
+ * are discarded by their literal prefix.</p>
+ */
+@State(Scope.Benchmark)
+public class PathMappingsBenchmark
+{
+    @Param({"100", "1000"})
+    public int mappings;
+
+    @Param({"regex", "uri-template"})
+    public String type;
+
+    private PathMappings<String> pathMappings;
+    private String lastMappingPath;
+    private String noMappingPath;
+
+    @Setup
+    public void setUp()
+    {
+        pathMappings = new PathMappings<>();
+        for (int i = 0; i < mappings; i++)
+        {
+            if ("regex".equals(type))
+                pathMappings.put(new RegexPathSpec("^/legacy/" + i + "/(.*)$"), "resource" + i);
+            else
+                pathMappings.put(new UriTemplatePathSpec("/legacy/" + i + "/{name}"), "resource" + i);
+        }
+        lastMappingPath = "/legacy/" + (mappings - 1) + "/index.html";
+        noMappingPath = "/current/index.html";
+    }
+
+    @Benchmark
+    public MatchedResource<String> testLastMappingMatches()
+    {
+        return pathMappings.getMatched(lastMappingPath);
+    }
+
+    @Benchmark
+    public MatchedResource<String> testNoMappingMatches()
+    {
+        return pathMappings.getMatched(noMappingPath);
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+            .include(PathMappingsBenchmark.class.getSimpleName())
+            .warmupIterations(5)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(5)
+            .measurementTime(TimeValue.seconds(1))
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
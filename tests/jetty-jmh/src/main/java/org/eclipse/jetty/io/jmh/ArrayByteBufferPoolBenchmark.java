@@ -64,6 +64,8 @@ public class ArrayByteBufferPoolBenchmark
     long maxMemory;
     @Param({"true"})
     boolean statisticsEnabled;
+    @Param({"0", "8"})
+    int magazineSize;
 
     ArrayByteBufferPool pool;
 
@@ -72,6 +74,7 @@ public class ArrayByteBufferPoolBenchmark
     {
         pool = new ArrayByteBufferPool(minCapacity, factor, maxCapacity, maxBucketSize, maxMemory, maxMemory);
         pool.setStatisticsEnabled(statisticsEnabled);
+        pool.setMagazineSize(magazineSize);
     }
 
     @TearDown
@@ -19,6 +19,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import org.eclipse.jetty.util.Utf8StringBuilder;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -80,11 +81,15 @@ public class Utf8Benchmark
     String locale;
 
     String utf8Content;
+    byte[] utf8Bytes;
+    ByteBuffer utf8DirectBuffer;
 
     @Setup
     public void setUp()
     {
         utf8Content = STRINGS_MAP.get(locale);
+        utf8Bytes = utf8Content.getBytes(StandardCharsets.UTF_8);
+        utf8DirectBuffer = ByteBuffer.allocateDirect(utf8Bytes.length).put(utf8Bytes).flip();
     }
 
     @Benchmark
@@ -101,6 +106,31 @@ public class Utf8Benchmark
         return ByteBuffer.wrap(utf8Content.getBytes(StandardCharsets.UTF_8));
     }
 
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public Object testDecodeString()
+    {
+        return new String(utf8Bytes, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public Object testDecodeUtf8StringBuilder()
+    {
+        Utf8StringBuilder builder = new Utf8StringBuilder(utf8Bytes.length);
+        builder.append(utf8Bytes);
+        return builder.toCompleteString();
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public Object testDecodeUtf8StringBuilderDirect()
+    {
+        Utf8StringBuilder builder = new Utf8StringBuilder(utf8Bytes.length);
+        builder.append(utf8DirectBuffer.slice());
+        return builder.toCompleteString();
+    }
+
     public static void main(String[] args) throws RunnerException
     {
         Options opt = new OptionsBuilder()
@@ -16,16 +16,29 @@ package org.eclipse.jetty.requestlog.jmh;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
+import org.eclipse.jetty.server.CustomRequestLog;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.RequestLog;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.TypeUtil;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.profile.GCProfiler;
@@ -191,6 +204,104 @@ public class RequestLogBenchmark
         return logMethodHandle(Long.toString(ThreadLocalRandom.current().nextLong()));
     }
 
+    /**
+     * <p>Logs a real request with {@link CustomRequestLog}, either converting the
+     * formatted entry to a {@code String} as {@link RequestLog.Writer#write(String)}
+     * does, or passing the reused {@code StringBuilder} to
+     * {@link RequestLog.Writer#write(CharSequence)}, to measure the
+     * per-request allocation with the {@link GCProfiler}.</p>
+     */
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public long testCustomRequestLog(CustomRequestLogState state)
+    {
+        state.requestLog.log(state.request, state.response);
+        return state.writer.length;
+    }
+
+    @State(Scope.Thread)
+    public static class CustomRequestLogState
+    {
+        @Param({CustomRequestLog.EXTENDED_NCSA_FORMAT, "%{client}a %{yyyy-MM-dd'T'HH:mm:ss.SSS|UTC}t \"%r\" %s %O %{ms}T \"%{Host}i\" \"%{Content-Type}o\""})
+        public String format;
+
+        @Param({"STRING", "CHAR_SEQUENCE"})
+        public String writerType;
+
+        private Server server;
+        private Callback callback;
+        private CustomRequestLog requestLog;
+        private LengthWriter writer;
+        private Request request;
+        private Response response;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception
+        {
+            // Capture a real request, not completing it until the end of the trial.
+            CountDownLatch latch = new CountDownLatch(1);
+            server = new Server();
+            LocalConnector connector = new LocalConnector(server);
+            server.addConnector(connector);
+            server.setHandler(new Handler.Abstract()
+            {
+                @Override
+                public boolean handle(Request request, Response response, Callback callback)
+                {
+                    CustomRequestLogState.this.request = request;
+                    CustomRequestLogState.this.response = response;
+                    CustomRequestLogState.this.callback = callback;
+                    response.setStatus(200);
+                    response.getHeaders().put("Content-Type", "text/html;charset=utf-8");
+                    latch.countDown();
+                    return true;
+                }
+            });
+            server.start();
+            connector.executeRequest("""
+                GET /path/to/resource?query=value HTTP/1.1\r
+                Host: localhost\r
+                Referer: http://localhost/index.html\r
+                User-Agent: Mozilla/5.0 (X11; Linux x86_64; rv:120.0) Gecko/20100101 Firefox/120.0\r
+                \r
+                """);
+            if (!latch.await(5, TimeUnit.SECONDS))
+                throw new IllegalStateException();
+
+            writer = "STRING".equals(writerType) ? new LengthWriter() : new CharSequenceLengthWriter();
+            requestLog = new CustomRequestLog(writer, format);
+            requestLog.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception
+        {
+            requestLog.stop();
+            callback.succeeded();
+            server.stop();
+        }
+    }
+
+    private static class LengthWriter implements RequestLog.Writer
+    {
+        protected long length;
+
+        @Override
+        public void write(String requestEntry)
+        {
+            length += requestEntry.length();
+        }
+    }
+
+    private static class CharSequenceLengthWriter extends LengthWriter
+    {
+        @Override
+        public void write(CharSequence requestEntry)
+        {
+            length += requestEntry.length();
+        }
+    }
+
     public static void main(String[] args) throws RunnerException
     {
         Options opt = new OptionsBuilder()
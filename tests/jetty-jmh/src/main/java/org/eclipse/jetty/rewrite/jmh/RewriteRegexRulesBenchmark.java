@@ -0,0 +1,116 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+
+package org.eclipse.jetty.rewrite.jmh;
+
+import org.eclipse.jetty.rewrite.handler.RewriteHandler;
+import org.eclipse.jetty.rewrite.handler.RewriteRegexRule;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.Callback;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * <p>Compares the evaluation of a large set of {@link RewriteRegexRule}s
+ * one after the other with the evaluation of the rules indexed by their
+ * literal prefix.</p>
+ */
+@State(Scope.Benchmark)
+public class RewriteRegexRulesBenchmark
+{
+    @Param({"100", "1000"})
+    public int rules;
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private Server server;
+    private LocalConnector connector;
+    private String lastRuleRequest;
+    private String noRuleRequest;
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        server = new Server();
+        connector = new LocalConnector(server);
+        server.addConnector(connector);
+
+        RewriteHandler rewriteHandler = new RewriteHandler();
+        rewriteHandler.getRuleContainer().setRegexRulesIndexed(indexed);
+        for (int i = 0; i < rules; i++)
+        {
+            rewriteHandler.addRule(new RewriteRegexRule("/legacy/" + i + "/(.*)", "/modern/" + i + "/$1"));
+        }
+        rewriteHandler.setHandler(new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback)
+            {
+                callback.succeeded();
+                return true;
+            }
+        });
+        server.setHandler(rewriteHandler);
+        server.start();
+
+        lastRuleRequest = "GET /legacy/" + (rules - 1) + "/index.html HTTP/1.0\r\n\r\n";
+        noRuleRequest = "GET /current/index.html HTTP/1.0\r\n\r\n";
+    }
+
+    @TearDown
+    public void tearDown() throws Exception
+    {
+        server.stop();
+    }
+
+    @Benchmark
+    public String testLastRuleMatches() throws Exception
+    {
+        return connector.getResponse(lastRuleRequest);
+    }
+
+    @Benchmark
+    public String testNoRuleMatches() throws Exception
+    {
+        return connector.getResponse(noRuleRequest);
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+            .include(RewriteRegexRulesBenchmark.class.getSimpleName())
+            .warmupIterations(5)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(5)
+            .measurementTime(TimeValue.seconds(1))
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
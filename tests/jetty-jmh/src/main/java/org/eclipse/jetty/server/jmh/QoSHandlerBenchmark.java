@@ -0,0 +1,268 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.jmh;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.ConditionalHandler;
+import org.eclipse.jetty.server.handler.QoSHandler;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * <p>Compares the lock-free admission of {@link QoSHandler} with the
+ * previous implementation based on a read-write lock, with many more
+ * concurrent requests than the max number of concurrent requests,
+ * so that most requests are suspended and resumed.</p>
+ */
+@State(Scope.Benchmark)
+public class QoSHandlerBenchmark
+{
+    public static void main(String[] args) throws Exception
+    {
+        Options opt = new OptionsBuilder()
+            .include(QoSHandlerBenchmark.class.getSimpleName())
+            .warmupIterations(5)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(5)
+            .measurementTime(TimeValue.seconds(1))
+            .forks(1)
+            .threads(32)
+            .build();
+        new Runner(opt).run();
+    }
+
+    @Param({"LOCK_FREE", "READ_WRITE_LOCK"})
+    public String implementation;
+
+    @Param({"1", "4"})
+    public int maxRequests;
+
+    Server server;
+    LocalConnector connector;
+
+    @Setup
+    public void prepare() throws Exception
+    {
+        QueuedThreadPool threadPool = new QueuedThreadPool(256);
+        server = new Server(threadPool);
+        connector = new LocalConnector(server);
+        server.addConnector(connector);
+
+        Handler handler = new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback)
+            {
+                callback.succeeded();
+                return true;
+            }
+        };
+        if ("LOCK_FREE".equals(implementation))
+        {
+            QoSHandler qosHandler = new QoSHandler(handler)
+            {
+                @Override
+                protected int getPriority(Request request)
+                {
+                    return ThreadLocalRandom.current().nextInt(4);
+                }
+            };
+            qosHandler.setMaxRequestCount(maxRequests);
+            qosHandler.setMaxSuspendedRequestCount(-1);
+            server.setHandler(qosHandler);
+        }
+        else
+        {
+            server.setHandler(new ReadWriteLockQoSHandler(handler, maxRequests));
+        }
+        server.start();
+    }
+
+    @TearDown
+    public void dispose() throws Exception
+    {
+        server.stop();
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public int request() throws Exception
+    {
+        String response = connector.getResponse("""
+            GET / HTTP/1.1\r
+            Host: localhost\r
+            Connection: close\r
+            \r
+            """);
+        if (response == null || !response.startsWith("HTTP/1.1 " + HttpStatus.OK_200))
+            throw new IllegalStateException(response);
+        return response.length();
+    }
+
+    /**
+     * <p>The admission logic of the previous {@link QoSHandler} implementation,
+     * without support for suspend timeouts, used as a baseline.</p>
+     */
+    private static class ReadWriteLockQoSHandler extends ConditionalHandler.Abstract
+    {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final AtomicInteger state = new AtomicInteger();
+        private final Map<Integer, Queue<Entry>> queues = new ConcurrentHashMap<>();
+        private final Set<Integer> priorities = new ConcurrentSkipListSet<>(Comparator.reverseOrder());
+
+        private ReadWriteLockQoSHandler(Handler handler, int maxRequests)
+        {
+            super(false, handler);
+            state.set(maxRequests);
+        }
+
+        @Override
+        protected boolean onConditionsMet(Request request, Response response, Callback callback) throws Exception
+        {
+            lock.readLock().lock();
+            try
+            {
+                int permits = state.decrementAndGet();
+                if (permits < 0)
+                {
+                    int priority = ThreadLocalRandom.current().nextInt(4);
+                    Entry entry = new Entry(request, response, callback);
+                    queues.compute(priority, (k, v) ->
+                    {
+                        if (v == null)
+                        {
+                            priorities.add(priority);
+                            v = new ConcurrentLinkedQueue<>();
+                        }
+                        v.offer(entry);
+                        return v;
+                    });
+                    return true;
+                }
+            }
+            finally
+            {
+                lock.readLock().unlock();
+            }
+            return handleWithPermit(request, response, callback);
+        }
+
+        @Override
+        protected boolean onConditionsNotMet(Request request, Response response, Callback callback) throws Exception
+        {
+            return nextHandler(request, response, callback);
+        }
+
+        private boolean handleWithPermit(Request request, Response response, Callback callback) throws Exception
+        {
+            Request.addCompletionListener(request, this::resume);
+            return nextHandler(request, response, callback);
+        }
+
+        private void resume(Throwable x)
+        {
+            lock.readLock().lock();
+            try
+            {
+                int permits = state.incrementAndGet();
+                if (permits > 0)
+                    return;
+                while (true)
+                {
+                    if (resumeSuspended())
+                        return;
+                    Thread.onSpinWait();
+                }
+            }
+            finally
+            {
+                lock.readLock().unlock();
+            }
+        }
+
+        private boolean resumeSuspended()
+        {
+            for (Integer priority : priorities)
+            {
+                Queue<Entry> queue = queues.get(priority);
+                if (queue == null)
+                    return false;
+                Entry entry = queue.poll();
+                if (entry != null)
+                {
+                    entry.request.getComponents().getExecutor().execute(entry);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private class Entry implements Runnable
+        {
+            private final Request request;
+            private final Response response;
+            private final Callback callback;
+
+            private Entry(Request request, Response response, Callback callback)
+            {
+                this.request = request;
+                this.response = response;
+                this.callback = callback;
+            }
+
+            @Override
+            public void run()
+            {
+                try
+                {
+                    if (!handleWithPermit(request, response, callback))
+                        Response.writeError(request, response, callback, HttpStatus.NOT_FOUND_404);
+                }
+                catch (Throwable x)
+                {
+                    Response.writeError(request, response, callback, x);
+                }
+            }
+        }
+    }
+}
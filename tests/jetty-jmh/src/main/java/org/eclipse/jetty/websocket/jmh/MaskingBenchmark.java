@@ -0,0 +1,99 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.websocket.jmh;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.websocket.core.Frame;
+import org.eclipse.jetty.websocket.core.OpCode;
+import org.eclipse.jetty.websocket.core.internal.Generator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@State(Scope.Benchmark)
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class MaskingBenchmark
+{
+    private static final byte[] MASK = {0x11, 0x22, 0x33, 0x44};
+
+    @Param({"7", "125", "4096", "65536"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean direct;
+
+    private final Generator generator = new Generator();
+    private ByteBuffer payload;
+    private ByteBuffer output;
+
+    @Setup
+    public void setUp()
+    {
+        byte[] bytes = new byte[size];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        payload = direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+        payload.put(bytes).flip();
+        output = direct ? ByteBuffer.allocateDirect(size + Generator.MAX_HEADER_LENGTH) : ByteBuffer.allocate(size + Generator.MAX_HEADER_LENGTH);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public Object testGenerateMasked()
+    {
+        BufferUtil.clear(output);
+        Frame frame = new Frame(OpCode.BINARY, payload.slice()).setMask(MASK);
+        generator.generateWholeFrame(frame, output);
+        return output;
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public Object testDemask()
+    {
+        // Demasking zeroes the mask, so each frame needs its own copy.
+        Frame frame = new Frame((byte)0x82, MASK.clone(), payload.slice());
+        frame.demask();
+        return frame;
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+            .include(MaskingBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+
+        new Runner(opt).run();
+    }
+}